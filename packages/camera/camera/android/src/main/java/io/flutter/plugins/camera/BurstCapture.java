@@ -0,0 +1,255 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import io.flutter.plugins.camera.types.PictureMirrorMode;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Collects the JPEG images of a burst of still captures and saves them on a worker pool.
+ *
+ * <p>Images are acquired from the picture {@link ImageReader} on the camera background thread and
+ * handed to {@link ImageSaver}s running on {@code saveExecutor}, so the capture rate is limited by
+ * the sensor rather than by disk I/O. At most {@code maxImages} images are held at once, which is
+ * the capacity of the reader; once a saver releases its image the reader is drained again.
+ *
+ * <p>Every shot is reported with its sensor timestamp, the time from the start of the burst until
+ * its image was available and the time it took to save.
+ */
+class BurstCapture {
+  private static final String TAG = "BurstCapture";
+
+  /** Receives the outcome of a burst. Called once, on one of the saving threads. */
+  interface Callback {
+    /**
+     * Called when every shot of the burst has been saved or has failed to capture.
+     *
+     * @param shots the saved shots, in capture order.
+     */
+    void onComplete(@NonNull List<Map<String, Object>> shots);
+
+    /**
+     * Called when the burst failed.
+     *
+     * @param errorCode the error code.
+     * @param errorMessage the human readable error message.
+     */
+    void onError(String errorCode, String errorMessage);
+  }
+
+  private final int shotCount;
+  private final int maxImages;
+  private final PictureMirrorMode mirrorMode;
+  private final boolean syncToDisk;
+  private final File outputDir;
+  private final Executor saveExecutor;
+  private final Handler backgroundHandler;
+  private final Callback callback;
+  private final List<Map<String, Object>> shots;
+
+  private long startNanos;
+  private int acquiredImages;
+  private int receivedShots;
+  private int savedShots;
+  private int failedShots;
+  private boolean finished;
+
+  /**
+   * Creates a new burst.
+   *
+   * @param shotCount number of pictures taken by the burst.
+   * @param maxImages maximum number of images the picture reader can hold at once.
+   * @param mirrorMode how the pictures are mirrored.
+   * @param syncToDisk whether every picture is flushed to the storage device.
+   * @param outputDir directory the pictures are saved to.
+   * @param saveExecutor executor the images are saved on.
+   * @param backgroundHandler handler of the camera background thread, used to drain the reader.
+   * @param callback receives the outcome of the burst.
+   */
+  BurstCapture(
+      int shotCount,
+      int maxImages,
+      @NonNull PictureMirrorMode mirrorMode,
+      boolean syncToDisk,
+      @NonNull File outputDir,
+      @NonNull Executor saveExecutor,
+      @NonNull Handler backgroundHandler,
+      @NonNull Callback callback) {
+    this.shotCount = shotCount;
+    this.maxImages = maxImages;
+    this.mirrorMode = mirrorMode;
+    this.syncToDisk = syncToDisk;
+    this.outputDir = outputDir;
+    this.saveExecutor = saveExecutor;
+    this.backgroundHandler = backgroundHandler;
+    this.callback = callback;
+    this.shots = new ArrayList<>(shotCount);
+    for (int i = 0; i < shotCount; i++) {
+      shots.add(null);
+    }
+  }
+
+  /** Returns the number of pictures taken by the burst. */
+  int getShotCount() {
+    return shotCount;
+  }
+
+  /** Marks the moment the burst requests are submitted, the reference for capture latencies. */
+  synchronized void start() {
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Acquires the available images from {@code reader} and schedules them to be saved.
+   *
+   * <p>Must be called on the camera background thread.
+   *
+   * @param reader the picture image reader.
+   */
+  void drain(@NonNull ImageReader reader) {
+    while (true) {
+      final int index;
+      synchronized (this) {
+        if (acquiredImages >= maxImages || receivedShots + failedShots >= shotCount) {
+          return;
+        }
+        final Image image = reader.acquireNextImage();
+        if (image == null) {
+          return;
+        }
+        acquiredImages++;
+        index = receivedShots++;
+        final long captureLatencyNanos = System.nanoTime() - startNanos;
+        try {
+          saveExecutor.execute(() -> save(reader, index, image, captureLatencyNanos));
+        } catch (RejectedExecutionException e) {
+          // The camera is being closed.
+          image.close();
+          acquiredImages--;
+          onError("cameraAccess", "Burst capture was interrupted.");
+          return;
+        }
+      }
+    }
+  }
+
+  /** Called when the camera reports that one of the burst requests failed. */
+  synchronized void onCaptureFailed() {
+    failedShots++;
+    completeIfDone();
+  }
+
+  /**
+   * Called when the camera aborted the burst, for instance because the session was closed. The
+   * shots whose image was not acquired yet count as failed, the acquired ones are still saved.
+   */
+  synchronized void onCaptureSequenceAborted() {
+    failedShots = shotCount - receivedShots;
+    completeIfDone();
+  }
+
+  private void save(ImageReader reader, int index, Image image, long captureLatencyNanos) {
+    final long saveStartNanos = System.nanoTime();
+    final long timestamp;
+    final File file;
+    try {
+      timestamp = image.getTimestamp();
+      file = File.createTempFile("CAP", ".jpg", outputDir);
+    } catch (IOException | SecurityException | IllegalStateException e) {
+      image.close();
+      onImageReleased(reader);
+      onError("cannotCreateFile", e.getMessage());
+      return;
+    }
+
+    try {
+      new ImageSaver(
+              mirrorMode,
+              syncToDisk,
+              image,
+              file,
+              new ImageSaver.Callback() {
+                @Override
+                public void onComplete(String absolutePath) {
+                  onShotSaved(
+                      index,
+                      absolutePath,
+                      timestamp,
+                      captureLatencyNanos,
+                      System.nanoTime() - saveStartNanos);
+                }
+
+                @Override
+                public void onError(String errorCode, String errorMessage) {
+                  BurstCapture.this.onError(errorCode, errorMessage);
+                }
+              })
+          .run();
+    } catch (IllegalStateException e) {
+      // The image reader was closed together with the camera while the image was queued.
+      Log.w(TAG, "Burst image could not be read: " + e.getMessage());
+      image.close();
+      onError("cameraAccess", "Burst capture was interrupted.");
+    }
+    onImageReleased(reader);
+  }
+
+  private void onImageReleased(ImageReader reader) {
+    synchronized (this) {
+      acquiredImages--;
+    }
+    backgroundHandler.post(() -> drain(reader));
+  }
+
+  private synchronized void onShotSaved(
+      int index, String path, long timestamp, long captureLatencyNanos, long saveDurationNanos) {
+    Map<String, Object> shot = new HashMap<>();
+    shot.put("path", path);
+    shot.put("sensorTimestamp", timestamp);
+    shot.put("captureLatencyMicros", captureLatencyNanos / 1000);
+    shot.put("saveDurationMicros", saveDurationNanos / 1000);
+    shots.set(index, shot);
+    savedShots++;
+    completeIfDone();
+  }
+
+  private synchronized void onError(String errorCode, String errorMessage) {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    callback.onError(errorCode, errorMessage);
+  }
+
+  private void completeIfDone() {
+    if (finished || savedShots + failedShots < shotCount) {
+      return;
+    }
+    finished = true;
+    if (savedShots == 0) {
+      callback.onError("captureFailed", "None of the burst pictures could be captured.");
+      return;
+    }
+    List<Map<String, Object>> result = new ArrayList<>(savedShots);
+    for (Map<String, Object> shot : shots) {
+      if (shot != null) {
+        result.add(shot);
+      }
+    }
+    callback.onComplete(result);
+  }
+}
@@ -12,9 +12,11 @@ import android.graphics.ImageFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CameraConstrainedHighSpeedCaptureSession;
 import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
+import android.hardware.camera2.CaptureFailure;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.TotalCaptureResult;
 import android.hardware.camera2.params.OutputConfiguration;
@@ -23,6 +25,7 @@ import android.media.CamcorderProfile;
 import android.media.EncoderProfiles;
 import android.media.Image;
 import android.media.ImageReader;
+import android.media.MediaCodec;
 import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.Build.VERSION;
@@ -31,6 +34,7 @@ import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
 import android.util.Log;
+import android.util.Range;
 import android.util.Size;
 import android.view.Display;
 import android.view.Surface;
@@ -43,7 +47,6 @@ import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.Result;
-import io.flutter.plugins.camera.features.CameraFeature;
 import io.flutter.plugins.camera.features.CameraFeatureFactory;
 import io.flutter.plugins.camera.features.CameraFeatures;
 import io.flutter.plugins.camera.features.Point;
@@ -62,21 +65,39 @@ import io.flutter.plugins.camera.features.sensororientation.DeviceOrientationMan
 import io.flutter.plugins.camera.features.sensororientation.OrientationManager;
 import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import io.flutter.plugins.camera.imagestream.ImageStreamBufferChannel;
+import io.flutter.plugins.camera.imagestream.ImageStreamBufferPool;
+import io.flutter.plugins.camera.imagestream.ImageStreamFlowControl;
+import io.flutter.plugins.camera.imagestream.ImageStreamFrameEncoder;
+import io.flutter.plugins.camera.imagestream.ImageStreamFrameTransform;
+import io.flutter.plugins.camera.imagestream.ImageStreamMapEncoder;
+import io.flutter.plugins.camera.imagestream.ImageStreamSettings;
+import io.flutter.plugins.camera.imagestream.PooledImageStreamSender;
+import io.flutter.plugins.camera.media.MediaCodecRecorder;
+import io.flutter.plugins.camera.media.MediaCodecRecorderBuilder;
+import io.flutter.plugins.camera.media.HighSpeedVideoConfiguration;
 import io.flutter.plugins.camera.media.MediaRecorderBuilder;
+import io.flutter.plugins.camera.media.MediaRecorderSegmenter;
+import io.flutter.plugins.camera.media.RollingRecording;
+import io.flutter.plugins.camera.media.VideoRecordingSettings;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
+import io.flutter.plugins.camera.types.PictureMirrorMode;
 import io.flutter.view.TextureRegistry.SurfaceTextureEntry;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @FunctionalInterface
 interface ErrorCallback {
@@ -88,6 +109,23 @@ class Camera
         ImageReader.OnImageAvailableListener {
     private static final String TAG = "Camera";
 
+  /** Number of JPEG images the picture reader can hold while a burst is being saved. */
+    private static final int PICTURE_IMAGE_READER_MAX_IMAGES = 4;
+  /** Raw buffers kept by the raw reader, so a raw picture can be taken while the last one is saved. */
+    private static final int RAW_IMAGE_READER_MAX_IMAGES = 2;
+  /**
+   * Frames kept by the image stream reader. With a single buffer the camera stalls until the frame
+   * is released and {@code acquireLatestImage} can never skip a stale frame, a second buffer lets
+   * the newest frame replace the one a lagging stream did not read yet.
+   */
+    private static final int IMAGE_STREAM_READER_MAX_IMAGES = 2;
+  /** Upper bound of the number of pictures in a single burst. */
+    private static final int MAX_BURST_COUNT = 30;
+  /** Number of threads saving the pictures of a burst. */
+    private static final int MAX_IMAGE_SAVER_THREADS = 2;
+  /** Length of the window capture metrics are aggregated over. */
+    private static final long CAPTURE_METRICS_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private static final HashMap<String, Integer> supportedImageFormats;
 
     // Current supported outputs.
@@ -113,21 +151,43 @@ class Camera
   /** A {@link CameraCaptureSession.CaptureCallback} that handles events related to JPEG capture. */
     private final CameraCaptureCallback cameraCaptureCallback;
   /** A {@link Handler} for running tasks in the background. */
-    private Handler backgroundHandler;
+    private volatile Handler backgroundHandler;
 
-  /** An additional thread for running tasks that shouldn't block the UI. */
-    private HandlerThread backgroundHandlerThread;
+  /** Provides the thread of {@link #backgroundHandler}, shared with the other open cameras. */
+    private final CameraThreadPool threadPool;
+  /** A {@link Handler} for the main thread, reused for every image stream frame. */
+    private final Handler mainHandler;
 
     private CameraDevice cameraDevice;
     private CameraCaptureSession captureSession;
     private ImageReader pictureImageReader;
     private ImageReader imageStreamReader;
+  /** Sends image stream frames through pooled buffers when the binary transport is used. */
+    private PooledImageStreamSender pooledImageStreamSender;
+  /** Crops and downsamples image stream frames, {@code null} when frames are sent unchanged. */
+    private ImageStreamFrameTransform imageStreamFrameTransform;
+  /** Limits and counts the image stream frames that have not been acknowledged by dart. */
+    private final ImageStreamFlowControl imageStreamFlowControl = new ImageStreamFlowControl();
   /** {@link CaptureRequest.Builder} for the camera preview */
     private CaptureRequest.Builder previewRequestBuilder;
 
     private MediaRecorder mediaRecorder;
+  /** Records the current video when the codec backend is used, {@code null} otherwise. */
+    @Nullable private MediaCodecRecorder mediaCodecRecorder;
+  /** Options of the following recordings, set by {@link #prepareForVideoRecording}. */
+    @NonNull private VideoRecordingSettings videoRecordingSettings = VideoRecordingSettings.defaults();
+  /** Segments of the current rolling recording, {@code null} when recording a single file. */
+    @Nullable private RollingRecording rollingRecording;
+  /** Splits the current rolling recording of the MediaRecorder backend. */
+    @Nullable private MediaRecorderSegmenter mediaRecorderSegmenter;
+  /** Size and frame rate of the current high speed recording, {@code null} otherwise. */
+    @Nullable private HighSpeedVideoConfiguration highSpeedVideoConfiguration;
+  /** Fixed fps range of the repeating bursts, {@code null} unless the session is high speed. */
+    @Nullable private Range<Integer> highSpeedFpsRange;
   /** True when recording video. */
     private boolean recordingVideo;
+  /** True while frames are streamed to dart. */
+    private boolean streamingImages;
   /** True when the preview is paused. */
     private boolean pausedPreview;
 
@@ -140,6 +200,54 @@ class Camera
 
     private MethodChannel.Result flutterResult;
 
+  /** The burst that is currently being captured, {@code null} for single pictures. */
+    private BurstCapture burstCapture;
+  /** The raw picture that is currently being captured, {@code null} for JPEG pictures. */
+    @Nullable private RawCapture rawCapture;
+  /** Reader of raw pictures, created by the first {@link #takeRawPicture} and kept until closed. */
+    @Nullable private ImageReader rawImageReader;
+  /** Saves the pictures of a burst, created with the first burst. */
+    private ThreadPoolExecutor imageSaverExecutor;
+  /** How pictures of a front facing camera are mirrored. */
+    private PictureMirrorMode frontPictureMirrorMode = PictureMirrorMode.exif;
+  /** Whether saved pictures are flushed to the storage device before they are reported. */
+    private boolean syncPicturesToDisk;
+
+  /** Surface of the Flutter texture, shared by every capture session. */
+    private Surface flutterSurface;
+  /** Outputs of the current capture session besides the Flutter surface. */
+    private final List<Surface> sessionSurfaces = new ArrayList<>();
+  /** Persistent encoder input surface reused by every recording, on API 23 and above. */
+    private Surface recorderSurface;
+  /** False once a session declaring every output failed to configure on this device. */
+    private boolean declareAllSessionOutputs = true;
+  /** Aggregates capture metrics for dart, {@code null} unless they were enabled. */
+    @Nullable private volatile CaptureMetricsAggregator captureMetricsAggregator;
+
+  /** Coalesces control changes from dart into at most one repeating request per frame. */
+    private final RepeatingRequestScheduler repeatingRequestScheduler;
+  /** Focus mode to trigger with the next scheduled repeating request, or {@code null}. */
+    @Nullable private FocusMode pendingAutoFocusTrigger;
+
+  /** Records the startup latency of this camera. */
+    private final CameraStartupMetrics startupMetrics = new CameraStartupMetrics();
+  /** True when the device was opened by {@link #prewarm()} and dart did not initialize it yet. */
+    private boolean prewarming;
+  /** True once dart asked to initialize the camera. Only used on the background thread. */
+    private boolean initializeRequested;
+  /** True when the prewarmed device failed to open. Only used on the background thread. */
+    private boolean prewarmFailed;
+  /** The device that failed to prewarm, until it is closed. Only used on the background thread. */
+    @Nullable private CameraDevice failedPrewarmDevice;
+  /** True once the preview of the opened device is running. Only used on the background thread. */
+    private boolean previewStarted;
+  /** True while {@link #close(Runnable)} waits for the device. Only used on the background thread. */
+    private boolean closing;
+  /** True from the call to {@code openCamera} until the device opened or failed to open. */
+    private volatile boolean openingDevice;
+  /** Called on the main thread once the camera is closed. Only used on the background thread. */
+    private final List<Runnable> closeCallbacks = new ArrayList<>();
+
     public Camera(
             final Activity activity,
             final SurfaceTextureEntry flutterTexture,
@@ -148,6 +256,30 @@ class Camera
             final CameraProperties cameraProperties,
             final ResolutionPreset resolutionPreset,
             final boolean enableAudio) {
+        this(
+                activity,
+                flutterTexture,
+                cameraFeatureFactory,
+                dartMessenger,
+                cameraProperties,
+                resolutionPreset,
+                enableAudio,
+                new CameraThreadPool(1));
+    }
+
+    /**
+     * Creates a camera whose background thread comes from {@code threadPool}, so cameras open at
+     * the same time do not each start a thread of their own.
+     */
+    public Camera(
+            final Activity activity,
+            final SurfaceTextureEntry flutterTexture,
+            final CameraFeatureFactory cameraFeatureFactory,
+            final DartMessenger dartMessenger,
+            final CameraProperties cameraProperties,
+            final ResolutionPreset resolutionPreset,
+            final boolean enableAudio,
+            final CameraThreadPool threadPool) {
 
         if (activity == null) {
             throw new IllegalStateException("No activity available!");
@@ -159,6 +291,7 @@ class Camera
         this.applicationContext = activity.getApplicationContext();
         this.cameraProperties = cameraProperties;
         this.cameraFeatureFactory = cameraFeatureFactory;
+        this.threadPool = threadPool;
         this.cameraFeatures =
                 CameraFeatures.init(
                         cameraFeatureFactory, cameraProperties, activity, dartMessenger, resolutionPreset);
@@ -168,6 +301,10 @@ class Camera
         captureProps = new CameraCaptureProperties();
         cameraCaptureCallback = CameraCaptureCallback.create(this, captureTimeouts, captureProps);
 
+        mainHandler = HandlerFactory.create(Looper.getMainLooper());
+        repeatingRequestScheduler =
+                new RepeatingRequestScheduler(mainHandler, this::submitPreviewRequest);
+        cameraCaptureCallback.setFrameListener(repeatingRequestScheduler::onFrameCompleted);
         startBackgroundThread();
     }
 
@@ -182,15 +319,13 @@ class Camera
     }
 
     /**
-     * Updates the builder settings with all of the available features.
+     * Updates the builder settings with the available features. Updating the same builder again
+     * only applies the features marked as changed since.
      *
      * @param requestBuilder request builder to update.
      */
     private void updateBuilderSettings(CaptureRequest.Builder requestBuilder) {
-        for (CameraFeature feature : cameraFeatures.getAllFeatures()) {
-            Log.d(TAG, "Updating builder with feature: " + feature.getDebugName());
-            feature.updateBuilder(requestBuilder);
-        }
+        cameraFeatures.updateBuilder(requestBuilder);
     }
 
     private void prepareMediaRecorder(String outputFilePath) throws IOException {
@@ -198,11 +333,23 @@ class Camera
 
         if (mediaRecorder != null) {
             mediaRecorder.release();
+            mediaRecorder = null;
         }
+        mediaRecorderSegmenter = null;
+        releaseMediaCodecRecorder();
 
         final PlatformChannel.DeviceOrientation lockedOrientation =
                 ((SensorOrientationFeature) cameraFeatures.getSensorOrientation())
                         .getLockedCaptureOrientation();
+        final int mediaOrientation =
+                lockedOrientation == null
+                        ? getDeviceOrientationManager().getVideoOrientation()
+                        : getDeviceOrientationManager().getVideoOrientation(lockedOrientation);
+
+        if (videoRecordingSettings.getBackend() == VideoRecordingSettings.Backend.MEDIA_CODEC) {
+            prepareMediaCodecRecorder(outputFilePath, mediaOrientation);
+            return;
+        }
 
     MediaRecorderBuilder mediaRecorderBuilder;
 
@@ -212,21 +359,130 @@ class Camera
       mediaRecorderBuilder = new MediaRecorderBuilder(getRecordingProfileLegacy(), outputFilePath);
     }
 
+    if (highSpeedVideoConfiguration != null) {
+      // The constrained session is created for this recording only, so the recorder surface has
+      // the high speed size instead of the persistent surface sized for regular recordings.
+      final Size size = highSpeedVideoConfiguration.getSize();
+      mediaRecorderBuilder.setHighSpeedVideo(
+          size.getWidth(), size.getHeight(), highSpeedVideoConfiguration.getFrameRate());
+    } else if (VERSION.SDK_INT >= VERSION_CODES.M) {
+      // Recording through a persistent surface keeps it declared in the capture session, so the
+      // next recording only has to switch the repeating request.
+      if (recorderSurface == null) {
+        recorderSurface = MediaCodec.createPersistentInputSurface();
+      }
+      mediaRecorderBuilder.setInputSurface(recorderSurface);
+    }
+
         mediaRecorder =
         mediaRecorderBuilder
                         .setEnableAudio(enableAudio)
-                        .setMediaOrientation(
-                                lockedOrientation == null
-                                        ? getDeviceOrientationManager().getVideoOrientation()
-                                        : getDeviceOrientationManager().getVideoOrientation(lockedOrientation))
+                        .setMediaOrientation(mediaOrientation)
+                        .setVideoBitRate(videoRecordingSettings.getVideoBitRate())
+                        .setSegmentDurationMs(
+                                rollingRecording != null ? videoRecordingSettings.getSegmentDurationMs() : 0)
                         .build();
+        if (rollingRecording != null && VERSION.SDK_INT >= VERSION_CODES.O) {
+            mediaRecorderSegmenter =
+                    new MediaRecorderSegmenter(mediaRecorder, new File(outputFilePath), rollingRecording);
+        }
+    }
+
+    /**
+     * Prepares a {@link MediaCodecRecorder}, which encodes from a surface of the capture session so
+     * that recording and image streaming run in the same session.
+     */
+    private void prepareMediaCodecRecorder(String outputFilePath, int mediaOrientation)
+            throws IOException {
+        MediaCodecRecorderBuilder builder;
+        if (Build.VERSION.SDK_INT >= 31) {
+            builder = new MediaCodecRecorderBuilder(getRecordingProfile(), outputFilePath);
+        } else {
+            builder = new MediaCodecRecorderBuilder(getRecordingProfileLegacy(), outputFilePath);
+        }
+
+        if (VERSION.SDK_INT >= VERSION_CODES.M) {
+            if (recorderSurface == null) {
+                recorderSurface = MediaCodec.createPersistentInputSurface();
+            }
+            builder.setInputSurface(recorderSurface);
+        }
+
+        final Integer timestampSource = cameraProperties.getSensorInfoTimestampSource();
+        final RollingRecording segments = rollingRecording;
+        mediaCodecRecorder =
+                builder
+                        .setEnableAudio(enableAudio)
+                        .setMediaOrientation(mediaOrientation)
+                        .setVideoBitRate(videoRecordingSettings.getVideoBitRate())
+                        .setKeyFrameIntervalMs(videoRecordingSettings.getKeyFrameIntervalMs())
+                        .setRealtimeTimestamps(
+                                timestampSource != null
+                                        && timestampSource == CameraMetadata.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME)
+                        .setListener(
+                                new MediaCodecRecorder.Listener() {
+                                    @Override
+                                    public void onSegmentFinished(@NonNull File file, long durationUs) {
+                                        if (segments != null) {
+                                            segments.onSegmentFinished(file, durationUs);
+                                        }
+                                    }
+
+                                    @Override
+                                    public void onError(@NonNull String message) {
+                                        dartMessenger.sendCameraErrorEvent(message);
+                                    }
+                                })
+                        .build();
+        if (segments != null) {
+            mediaCodecRecorder.setSegmentDuration(
+                    videoRecordingSettings.getSegmentDurationMs() * 1000L, segments);
+        }
+    }
+
+    /**
+     * Returns the surfaces the camera renders to while recording with the codec backend, the image
+     * stream keeps running in the same request.
+     */
+    private Surface[] getMediaCodecRecordingSurfaces() {
+        if (streamingImages) {
+            return new Surface[] {mediaCodecRecorder.getSurface(), imageStreamReader.getSurface()};
+        }
+        return new Surface[] {mediaCodecRecorder.getSurface()};
+    }
+
+    /**
+     * Opens the camera device and starts the preview before dart asks to initialize the camera, so
+     * that the camera startup overlaps with the round trip of the initialize call.
+     *
+     * <p>The initialized event is held back until {@link #open(String)} is called. Errors are not
+     * reported either; when the speculative open fails, {@link #open(String)} opens the camera again
+     * and reports its outcome as usual.
+     */
+    public void prewarm() {
+        if (!cameraFeatures.getResolution().checkIsSupported()) {
+            // Reported by open().
+            return;
+        }
+        try {
+            openCameraDevice(null);
+        } catch (CameraAccessException | SecurityException e) {
+            Log.w(TAG, "Camera could not be prewarmed: " + e.getMessage());
+            return;
+        }
+        prewarming = true;
+        startupMetrics.onPrewarm();
     }
 
-    @SuppressLint("MissingPermission")
     public void open(String imageFormatGroup) throws CameraAccessException {
-        final ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
+        startupMetrics.onInitializeRequested();
+        if (prewarming) {
+            prewarming = false;
+            backgroundHandler.post(() -> completePrewarm(imageFormatGroup));
+            return;
+        }
 
-        if (!resolutionFeature.checkIsSupported()) {
+        if (!cameraFeatures.getResolution().checkIsSupported()) {
             // Tell the user that the camera they are trying to open is not supported,
             // as its {@link android.media.CamcorderProfile} cannot be fetched due to the name
             // not being a valid parsable integer.
@@ -237,45 +493,172 @@ class Camera
             return;
         }
 
+        initializeRequested = true;
+        openCameraDevice(imageFormatGroup);
+    }
+
+    /**
+     * Returns how long the camera took to show its first preview frame.
+     *
+     * @return the serialized {@link CameraStartupMetrics}.
+     */
+    public Map<String, Object> getStartupMetrics() {
+        return startupMetrics.toMap();
+    }
+
+    /**
+     * Finishes the initialization of a prewarmed camera. Runs on the camera background thread,
+     * like the device callbacks.
+     */
+    private void completePrewarm(String imageFormatGroup) {
+        if (pictureImageReader == null) {
+            // The camera was closed in the meantime.
+            return;
+        }
+        initializeRequested = true;
+        if (prewarmFailed) {
+            prewarmFailed = false;
+            try {
+                openCameraDevice(imageFormatGroup);
+            } catch (CameraAccessException | SecurityException e) {
+                dartMessenger.sendCameraErrorEvent(e.getMessage());
+            }
+            return;
+        }
+
+        int imageFormat = getImageStreamFormat(imageFormatGroup);
+        if (imageStreamReader.getImageFormat() != imageFormat) {
+            // The preview session may declare the surface of the image stream reader as an output,
+            // see getSessionOutputs, so it is configured again once the reader is replaced.
+            closeCaptureSession();
+            int width = imageStreamReader.getWidth();
+            int height = imageStreamReader.getHeight();
+            imageStreamReader.close();
+            imageStreamReader =
+                    ImageReader.newInstance(width, height, imageFormat, IMAGE_STREAM_READER_MAX_IMAGES);
+            if (previewStarted) {
+                try {
+                    startPreview();
+                } catch (CameraAccessException | IllegalStateException e) {
+                    dartMessenger.sendCameraErrorEvent(e.getMessage());
+                    return;
+                }
+            }
+        }
+        if (previewStarted) {
+            sendCameraInitializedEvent();
+        }
+    }
+
+    private int getImageStreamFormat(@Nullable String imageFormatGroup) {
+        // Use the provided image format or fall back to YUV420.
+        Integer imageFormat = supportedImageFormats.get(imageFormatGroup);
+        if (imageFormat == null) {
+            if (imageFormatGroup != null) {
+                Log.w(TAG, "The selected imageFormatGroup is not supported by Android. Defaulting to yuv420");
+            }
+            imageFormat = ImageFormat.YUV_420_888;
+        }
+        return imageFormat;
+    }
+
+    private void sendCameraInitializedEvent() {
+        final ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
+        dartMessenger.sendCameraInitializedEvent(
+                resolutionFeature.getPreviewSize().getWidth(),
+                resolutionFeature.getPreviewSize().getHeight(),
+                cameraFeatures.getExposureLock().getValue(),
+                cameraFeatures.getAutoFocus().getValue(),
+                cameraFeatures.getExposurePoint().checkIsSupported(),
+                cameraFeatures.getFocusPoint().checkIsSupported());
+    }
+
+    /**
+     * Handles a failure of the camera device before or while it is opened.
+     *
+     * @param device the device that failed.
+     * @return {@code true} when the failure happened while prewarming, in which case the device is
+     *     closed quietly and opened again once dart initializes the camera.
+     */
+    private boolean handlePrewarmFailure(@NonNull CameraDevice device) {
+        if (initializeRequested) {
+            return false;
+        }
+        prewarmFailed = true;
+        previewStarted = false;
+        closeCaptureSession();
+        // Remembered so that its onClosed callback does not report the camera as closed to dart.
+        failedPrewarmDevice = device;
+        device.close();
+        if (cameraDevice == device) {
+            cameraDevice = null;
+        }
+        return true;
+    }
+
+    @SuppressLint("MissingPermission")
+    private void openCameraDevice(@Nullable String imageFormatGroup) throws CameraAccessException {
+        final ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
+
+        // Release the readers of a failed prewarm.
+        if (pictureImageReader != null) {
+            pictureImageReader.close();
+        }
+        if (imageStreamReader != null) {
+            imageStreamReader.close();
+        }
+
         // Always capture using JPEG format.
         pictureImageReader =
                 ImageReader.newInstance(
                         resolutionFeature.getCaptureSize().getWidth(),
                         resolutionFeature.getCaptureSize().getHeight(),
                         ImageFormat.JPEG,
-                        1);
+                        PICTURE_IMAGE_READER_MAX_IMAGES);
 
-        // For image streaming, use the provided image format or fall back to YUV420.
-        Integer imageFormat = supportedImageFormats.get(imageFormatGroup);
-        if (imageFormat == null) {
-            Log.w(TAG, "The selected imageFormatGroup is not supported by Android. Defaulting to yuv420");
-            imageFormat = ImageFormat.YUV_420_888;
-        }
         imageStreamReader =
                 ImageReader.newInstance(
                         resolutionFeature.getPreviewSize().getWidth(),
                         resolutionFeature.getPreviewSize().getHeight(),
-                        imageFormat,
-                        1);
+                        getImageStreamFormat(imageFormatGroup),
+                        IMAGE_STREAM_READER_MAX_IMAGES);
+
+        cameraCaptureCallback.setFirstFrameListener(startupMetrics::onFirstFrame);
 
         // Open the camera.
         CameraManager cameraManager = CameraUtils.getCameraManager(activity);
+        openingDevice = true;
+        try {
+            openCamera(cameraManager);
+        } catch (CameraAccessException | RuntimeException e) {
+            openingDevice = false;
+            throw e;
+        }
+    }
+
+  /** Opens the camera device with the callbacks of {@link #openCameraDevice}. */
+    @SuppressLint("MissingPermission")
+    private void openCamera(CameraManager cameraManager) throws CameraAccessException {
         cameraManager.openCamera(
                 cameraProperties.getCameraName(),
                 new CameraDevice.StateCallback() {
                     @Override
                     public void onOpened(@NonNull CameraDevice device) {
+                        if (closeIfClosedWhileOpening(device)) {
+                            return;
+                        }
                         cameraDevice = device;
+                        startupMetrics.onDeviceOpened();
                         try {
                             startPreview();
-                            dartMessenger.sendCameraInitializedEvent(
-                                    resolutionFeature.getPreviewSize().getWidth(),
-                                    resolutionFeature.getPreviewSize().getHeight(),
-                                    cameraFeatures.getExposureLock().getValue(),
-                                    cameraFeatures.getAutoFocus().getValue(),
-                                    cameraFeatures.getExposurePoint().checkIsSupported(),
-                                    cameraFeatures.getFocusPoint().checkIsSupported());
+                            previewStarted = true;
+                            if (initializeRequested) {
+                                sendCameraInitializedEvent();
+                            }
                         } catch (CameraAccessException e) {
+                            if (handlePrewarmFailure(device)) {
+                                return;
+                            }
                             dartMessenger.sendCameraErrorEvent(e.getMessage());
                             close();
                         }
@@ -284,17 +667,33 @@ class Camera
                     @Override
                     public void onClosed(@NonNull CameraDevice camera) {
                         Log.i(TAG, "open | onClosed");
+                        if (camera == failedPrewarmDevice) {
+                            // Closed quietly, dart never saw this device.
+                            failedPrewarmDevice = null;
+                            return;
+                        }
+                        if (cameraDevice != null && cameraDevice != camera) {
+                            // A previous device, which has already been replaced.
+                            return;
+                        }
 
             // Prevents calls to methods that would otherwise result in IllegalStateException exceptions.
             cameraDevice = null;
             closeCaptureSession();
                         dartMessenger.sendCameraClosingEvent();
+                        if (closing) {
+                            finishClose();
+                        }
                     }
 
                     @Override
                     public void onDisconnected(@NonNull CameraDevice cameraDevice) {
                         Log.i(TAG, "open | onDisconnected");
 
+                        if (closeIfClosedWhileOpening(cameraDevice)
+                                || handlePrewarmFailure(cameraDevice)) {
+                            return;
+                        }
                         close();
                         dartMessenger.sendCameraErrorEvent("The camera was disconnected.");
                     }
@@ -303,6 +702,10 @@ class Camera
                     public void onError(@NonNull CameraDevice cameraDevice, int errorCode) {
                         Log.i(TAG, "open | onError");
 
+                        if (closeIfClosedWhileOpening(cameraDevice)
+                                || handlePrewarmFailure(cameraDevice)) {
+                            return;
+                        }
                         close();
                         String errorDescription;
                         switch (errorCode) {
@@ -335,37 +738,39 @@ class Camera
         createCaptureSession(templateType, null, surfaces);
     }
 
+    /**
+     * Switches the camera to a new mode.
+     *
+     * <p>For preview requests {@code surfaces} are only declared as outputs of the session, for any
+     * other template they are also targets of the repeating request. When the current session
+     * already declares every surface, only the repeating request is replaced, which takes effect
+     * on the next frame. Otherwise a new session is configured that declares every output the
+     * camera can switch between, see {@link #getSessionOutputs}.
+     */
     private void createCaptureSession(
             int templateType, Runnable onSuccessCallback, Surface... surfaces)
             throws CameraAccessException {
+        final List<Surface> requestedSurfaces = Arrays.asList(surfaces);
+        if (captureSession != null
+                && highSpeedFpsRange == null
+                && sessionSurfaces.containsAll(requestedSurfaces)) {
+            Log.i(TAG, "Switching the repeating request of the capture session");
+            previewRequestBuilder = createRequestBuilder(templateType, requestedSurfaces);
+            updateBuilderSettings(previewRequestBuilder);
+            refreshPreviewCaptureSession(
+                    onSuccessCallback, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+            return;
+        }
+
         // Close any existing capture session.
         closeCaptureSession();
 
         // Create a new capture builder.
-        previewRequestBuilder = cameraDevice.createCaptureRequest(templateType);
+        previewRequestBuilder = createRequestBuilder(templateType, requestedSurfaces);
 
-        // Build Flutter surface to render to.
-        ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
-        SurfaceTexture surfaceTexture = flutterTexture.surfaceTexture();
-        surfaceTexture.setDefaultBufferSize(
-                resolutionFeature.getPreviewSize().getWidth(),
-                resolutionFeature.getPreviewSize().getHeight());
-        Surface flutterSurface = new Surface(surfaceTexture);
-        previewRequestBuilder.addTarget(flutterSurface);
-
-        List<Surface> remainingSurfaces = Arrays.asList(surfaces);
-        if (templateType != CameraDevice.TEMPLATE_PREVIEW) {
-            // If it is not preview mode, add all surfaces as targets.
-            for (Surface surface : remainingSurfaces) {
-                previewRequestBuilder.addTarget(surface);
-            }
-        }
-
-        // Update camera regions.
-        Size cameraBoundaries =
-                CameraRegionUtils.getCameraBoundaries(cameraProperties, previewRequestBuilder);
-        cameraFeatures.getExposurePoint().setCameraBoundaries(cameraBoundaries);
-        cameraFeatures.getFocusPoint().setCameraBoundaries(cameraBoundaries);
+        final boolean declaresAllOutputs = declareAllSessionOutputs;
+        final List<Surface> outputs =
+                declaresAllOutputs ? getSessionOutputs(requestedSurfaces) : requestedSurfaces;
 
         // Prepare the callback.
         CameraCaptureSession.StateCallback callback =
@@ -381,6 +786,10 @@ class Camera
                             return;
                         }
                         captureSession = session;
+                        sessionSurfaces.clear();
+                        sessionSurfaces.addAll(outputs);
+                        repeatingRequestScheduler.reset();
+                        startupMetrics.onSessionConfigured();
 
                         Log.i(TAG, "Updating builder settings");
                         updateBuilderSettings(previewRequestBuilder);
@@ -392,6 +801,20 @@ class Camera
                     @Override
                     public void onConfigureFailed(@NonNull CameraCaptureSession cameraCaptureSession) {
             Log.i(TAG, "CameraCaptureSession onConfigureFailed");
+                        if (declaresAllOutputs
+                                && outputs.size() > requestedSurfaces.size()
+                                && cameraDevice != null) {
+                            // The device does not support this combination of streams, only declare the
+                            // surfaces the mode needs from now on.
+                            Log.w(TAG, "Capture session with all outputs is not supported, retrying");
+                            declareAllSessionOutputs = false;
+                            try {
+                                createCaptureSession(templateType, onSuccessCallback, surfaces);
+                                return;
+                            } catch (CameraAccessException | IllegalStateException e) {
+                                Log.w(TAG, "Capture session could not be recreated: " + e.getMessage());
+                            }
+                        }
                         dartMessenger.sendCameraErrorEvent("Failed to configure camera session.");
                     }
 
@@ -406,20 +829,90 @@ class Camera
         if (VERSION.SDK_INT >= VERSION_CODES.P) {
             // Collect all surfaces to render to.
             List<OutputConfiguration> configs = new ArrayList<>();
-            configs.add(new OutputConfiguration(flutterSurface));
-            for (Surface surface : remainingSurfaces) {
+            configs.add(new OutputConfiguration(getFlutterSurface()));
+            for (Surface surface : outputs) {
                 configs.add(new OutputConfiguration(surface));
             }
             createCaptureSessionWithSessionConfig(configs, callback);
         } else {
             // Collect all surfaces to render to.
             List<Surface> surfaceList = new ArrayList<>();
-            surfaceList.add(flutterSurface);
-            surfaceList.addAll(remainingSurfaces);
+            surfaceList.add(getFlutterSurface());
+            surfaceList.addAll(outputs);
             createCaptureSession(surfaceList, callback);
         }
     }
 
+    /**
+     * Creates a request builder rendering to the Flutter surface and, unless {@code templateType} is
+     * {@link CameraDevice#TEMPLATE_PREVIEW}, to {@code surfaces}.
+     */
+    private CaptureRequest.Builder createRequestBuilder(int templateType, List<Surface> surfaces)
+            throws CameraAccessException {
+        CaptureRequest.Builder requestBuilder = cameraDevice.createCaptureRequest(templateType);
+        requestBuilder.addTarget(getFlutterSurface());
+        if (templateType != CameraDevice.TEMPLATE_PREVIEW) {
+            // If it is not preview mode, add all surfaces as targets.
+            for (Surface surface : surfaces) {
+                requestBuilder.addTarget(surface);
+            }
+        }
+
+        // Update camera regions.
+        Size cameraBoundaries =
+                CameraRegionUtils.getCameraBoundaries(cameraProperties, requestBuilder);
+        cameraFeatures.getExposurePoint().setCameraBoundaries(cameraBoundaries);
+        cameraFeatures.getFocusPoint().setCameraBoundaries(cameraBoundaries);
+        return requestBuilder;
+    }
+
+    /**
+     * Returns the surface of the Flutter texture, sized to the preview size. The surface is created
+     * once and shared by all sessions.
+     */
+    private Surface getFlutterSurface() {
+        ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
+        SurfaceTexture surfaceTexture = flutterTexture.surfaceTexture();
+        surfaceTexture.setDefaultBufferSize(
+                resolutionFeature.getPreviewSize().getWidth(),
+                resolutionFeature.getPreviewSize().getHeight());
+        if (flutterSurface == null) {
+            flutterSurface = new Surface(surfaceTexture);
+        }
+        return flutterSurface;
+    }
+
+    /**
+     * Returns every output a session declares besides the Flutter surface, so that switching
+     * between preview, image streaming and recording does not require a new session.
+     *
+     * <p>The image stream reader is only declared for YUV frames, as a second JPEG stream is not
+     * part of the guaranteed stream combinations. The recorder surface is only known once a
+     * recording was prepared, see {@link #prepareMediaRecorder}.
+     *
+     * @param requestedSurfaces surfaces the current mode renders to, always part of the outputs.
+     */
+    private List<Surface> getSessionOutputs(List<Surface> requestedSurfaces) {
+        List<Surface> outputs = new ArrayList<>(requestedSurfaces);
+        addSessionOutput(outputs, pictureImageReader.getSurface());
+        if (imageStreamReader.getImageFormat() == ImageFormat.YUV_420_888) {
+            addSessionOutput(outputs, imageStreamReader.getSurface());
+        }
+        if (recorderSurface != null) {
+            addSessionOutput(outputs, recorderSurface);
+        }
+        if (rawImageReader != null) {
+            addSessionOutput(outputs, rawImageReader.getSurface());
+        }
+        return outputs;
+    }
+
+    private static void addSessionOutput(List<Surface> outputs, Surface surface) {
+        if (!outputs.contains(surface)) {
+            outputs.add(surface);
+        }
+    }
+
     @TargetApi(VERSION_CODES.P)
     private void createCaptureSessionWithSessionConfig(
             List<OutputConfiguration> outputConfigs, CameraCaptureSession.StateCallback callback)
@@ -440,6 +933,83 @@ class Camera
         cameraDevice.createCaptureSession(surfaces, callback, backgroundHandler);
     }
 
+    /**
+     * Configures a constrained high speed session for the current recording.
+     *
+     * <p>The session only declares the Flutter surface and the recorder surface, both with the high
+     * speed video size. Its repeating requests are bursts created by {@link
+     * CameraConstrainedHighSpeedCaptureSession#createHighSpeedRequestList}, see {@link
+     * #refreshPreviewCaptureSession}.
+     */
+    @TargetApi(VERSION_CODES.M)
+    @VisibleForTesting
+    void createHighSpeedCaptureSession(
+            @NonNull HighSpeedVideoConfiguration configuration, Runnable onSuccessCallback)
+            throws CameraAccessException {
+        closeCaptureSession();
+
+        final Surface previewSurface = getFlutterSurface();
+        final Surface recordingSurface = mediaRecorder.getSurface();
+        previewRequestBuilder =
+                createRequestBuilder(
+                        CameraDevice.TEMPLATE_RECORD, Collections.singletonList(recordingSurface));
+        // getFlutterSurface, also called by createRequestBuilder, sizes the surface to the preview
+        // size. The high speed session needs the video size, until the next regular session sizes
+        // the surface back.
+        final Size size = configuration.getSize();
+        flutterTexture.surfaceTexture().setDefaultBufferSize(size.getWidth(), size.getHeight());
+
+        cameraDevice.createConstrainedHighSpeedCaptureSession(
+                Arrays.asList(previewSurface, recordingSurface),
+                new CameraCaptureSession.StateCallback() {
+                    boolean captureSessionClosed = false;
+
+                    @Override
+                    public void onConfigured(@NonNull CameraCaptureSession session) {
+                        Log.i(TAG, "CameraConstrainedHighSpeedCaptureSession onConfigured");
+                        if (cameraDevice == null || captureSessionClosed) {
+                            dartMessenger.sendCameraErrorEvent("The camera was closed during configuration.");
+                            return;
+                        }
+                        captureSession = session;
+                        highSpeedFpsRange = configuration.getFpsRange();
+                        repeatingRequestScheduler.reset();
+                        updateBuilderSettings(previewRequestBuilder);
+
+                        refreshPreviewCaptureSession(
+                                onSuccessCallback, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+                    }
+
+                    @Override
+                    public void onConfigureFailed(@NonNull CameraCaptureSession session) {
+                        Log.i(TAG, "CameraConstrainedHighSpeedCaptureSession onConfigureFailed");
+                        dartMessenger.sendCameraErrorEvent("Failed to configure high speed camera session.");
+                    }
+
+                    @Override
+                    public void onClosed(@NonNull CameraCaptureSession session) {
+                        captureSessionClosed = true;
+                    }
+                },
+                backgroundHandler);
+    }
+
+    /**
+     * Sends the preview request as a repeating burst of the constrained high speed session, which
+     * rejects single requests.
+     */
+    @TargetApi(VERSION_CODES.M)
+    private void setRepeatingHighSpeedBurst() throws CameraAccessException {
+        // High speed requests need the fixed range of the session, instead of the FpsRangeFeature.
+        previewRequestBuilder.set(CaptureRequest.CONTROL_AE_TARGET_FPS_RANGE, highSpeedFpsRange);
+        final CameraConstrainedHighSpeedCaptureSession session =
+                (CameraConstrainedHighSpeedCaptureSession) captureSession;
+        session.setRepeatingBurst(
+                session.createHighSpeedRequestList(previewRequestBuilder.build()),
+                cameraCaptureCallback,
+                backgroundHandler);
+    }
+
     // Send a repeating request to refresh  capture session.
     private void refreshPreviewCaptureSession(
             @Nullable Runnable onSuccessCallback, @NonNull ErrorCallback onErrorCallback) {
@@ -455,8 +1025,12 @@ class Camera
 
         try {
             if (!pausedPreview) {
-                captureSession.setRepeatingRequest(
-                        previewRequestBuilder.build(), cameraCaptureCallback, backgroundHandler);
+                if (highSpeedFpsRange != null) {
+                    setRepeatingHighSpeedBurst();
+                } else {
+                    captureSession.setRepeatingRequest(
+                            previewRequestBuilder.build(), cameraCaptureCallback, backgroundHandler);
+                }
             }
 
             if (onSuccessCallback != null) {
@@ -476,6 +1050,11 @@ class Camera
             result.error("captureAlreadyActive", "Picture is currently already being captured", null);
             return;
         }
+        if (highSpeedFpsRange != null) {
+            result.error(
+                    "captureUnavailable", "Pictures can not be taken during a high speed recording.", null);
+            return;
+        }
 
         flutterResult = result;
 
@@ -492,6 +1071,259 @@ class Camera
         // Listen for picture being taken.
         pictureImageReader.setOnImageAvailableListener(this, backgroundHandler);
 
+        runStillCaptureSequence();
+    }
+
+    /**
+     * Takes {@code count} pictures in a single burst of capture requests.
+     *
+     * <p>Focus and exposure are settled once before the burst. The pictures are saved in parallel
+     * while the burst is still running, and the result lists the saved files together with the
+     * timing of every shot.
+     *
+     * @param result receives the list of shots.
+     * @param count number of pictures to take.
+     */
+    public void takePictureBurst(@NonNull final Result result, int count) {
+        if (cameraCaptureCallback.getCameraState() != CameraState.STATE_PREVIEW) {
+            result.error("captureAlreadyActive", "Picture is currently already being captured", null);
+            return;
+        }
+        if (highSpeedFpsRange != null) {
+            result.error(
+                    "captureUnavailable", "Pictures can not be taken during a high speed recording.", null);
+            return;
+        }
+        if (count < 1 || count > MAX_BURST_COUNT) {
+            result.error(
+                    "invalidBurstCount",
+                    "The burst count must be between 1 and " + MAX_BURST_COUNT + ".",
+                    null);
+            return;
+        }
+
+        flutterResult = result;
+        captureTimeouts.reset();
+
+        final BurstCapture burst =
+                new BurstCapture(
+                        count,
+                        PICTURE_IMAGE_READER_MAX_IMAGES,
+                        getPictureMirrorMode(),
+                        syncPicturesToDisk,
+                        applicationContext.getCacheDir(),
+                        getImageSaverExecutor(),
+                        backgroundHandler,
+                        new BurstCapture.Callback() {
+                            @Override
+                            public void onComplete(@NonNull List<Map<String, Object>> shots) {
+                                dartMessenger.finish(result, shots);
+                                finishBurst();
+                            }
+
+                            @Override
+                            public void onError(String errorCode, String errorMessage) {
+                                dartMessenger.error(result, errorCode, errorMessage, null);
+                                finishBurst();
+                            }
+                        });
+        burstCapture = burst;
+        pictureImageReader.setOnImageAvailableListener(burst::drain, backgroundHandler);
+
+        runStillCaptureSequence();
+    }
+
+    /**
+     * Takes a picture of the unprocessed sensor data and saves it as a DNG.
+     *
+     * <p>The raw reader is added to the capture session before the first raw picture. The picture
+     * is written on the image saver executor, so the preview keeps running while it is saved.
+     *
+     * @param result receives the path of the DNG.
+     */
+    public void takeRawPicture(@NonNull final Result result) {
+        if (cameraCaptureCallback.getCameraState() != CameraState.STATE_PREVIEW) {
+            result.error("captureAlreadyActive", "Picture is currently already being captured", null);
+            return;
+        }
+        if (recordingVideo || streamingImages || highSpeedFpsRange != null) {
+            result.error(
+                    "captureUnavailable",
+                    "Raw pictures can not be taken while recording or streaming images.",
+                    null);
+            return;
+        }
+        final Size rawSize = getLargestSize(cameraProperties.getRawSensorSizes());
+        if (rawSize == null) {
+            result.error("rawCaptureUnsupported", "The camera can not capture raw pictures.", null);
+            return;
+        }
+        final File file;
+        try {
+            file = File.createTempFile("CAP", ".dng", applicationContext.getCacheDir());
+        } catch (IOException | SecurityException e) {
+            dartMessenger.error(result, "cannotCreateFile", e.getMessage(), null);
+            return;
+        }
+
+        flutterResult = result;
+        captureTimeouts.reset();
+        if (rawImageReader == null) {
+            rawImageReader =
+                    ImageReader.newInstance(
+                            rawSize.getWidth(),
+                            rawSize.getHeight(),
+                            ImageFormat.RAW_SENSOR,
+                            RAW_IMAGE_READER_MAX_IMAGES);
+        }
+        final PlatformChannel.DeviceOrientation lockedOrientation =
+                ((SensorOrientationFeature) cameraFeatures.getSensorOrientation())
+                        .getLockedCaptureOrientation();
+        final RawCapture capture =
+                new RawCapture(
+                        cameraProperties.getCameraCharacteristics(),
+                        lockedOrientation == null
+                                ? getDeviceOrientationManager().getPhotoOrientation()
+                                : getDeviceOrientationManager().getPhotoOrientation(lockedOrientation),
+                        syncPicturesToDisk,
+                        file,
+                        getImageSaverExecutor(),
+                        new ImageSaver.Callback() {
+                            @Override
+                            public void onComplete(String absolutePath) {
+                                dartMessenger.finish(result, absolutePath);
+                            }
+
+                            @Override
+                            public void onError(String errorCode, String errorMessage) {
+                                dartMessenger.error(result, errorCode, errorMessage, null);
+                            }
+                        });
+        rawCapture = capture;
+        rawImageReader.setOnImageAvailableListener(capture::onImageAvailable, backgroundHandler);
+
+        final Surface rawSurface = rawImageReader.getSurface();
+        if (sessionSurfaces.contains(rawSurface)) {
+            runStillCaptureSequence();
+            return;
+        }
+        try {
+            createCaptureSession(
+                    CameraDevice.TEMPLATE_PREVIEW, this::runStillCaptureSequence, rawSurface);
+        } catch (CameraAccessException | IllegalStateException e) {
+            rawCapture = null;
+            dartMessenger.error(result, "cameraAccess", e.getMessage(), null);
+        }
+    }
+
+    @Nullable
+    private static Size getLargestSize(@NonNull Size[] sizes) {
+        Size largest = null;
+        for (Size size : sizes) {
+            if (largest == null
+                    || (long) size.getWidth() * size.getHeight()
+                            > (long) largest.getWidth() * largest.getHeight()) {
+                largest = size;
+            }
+        }
+        return largest;
+    }
+
+    private void captureRaw(@NonNull final RawCapture raw, @NonNull CaptureRequest request)
+            throws CameraAccessException {
+        CameraCaptureSession.CaptureCallback rawCallback =
+                new CameraCaptureSession.CaptureCallback() {
+                    @Override
+                    public void onCaptureCompleted(
+                            @NonNull CameraCaptureSession session,
+                            @NonNull CaptureRequest request,
+                            @NonNull TotalCaptureResult result) {
+                        raw.onCaptureCompleted(result);
+                        finishRawCapture();
+                    }
+
+                    @Override
+                    public void onCaptureFailed(
+                            @NonNull CameraCaptureSession session,
+                            @NonNull CaptureRequest request,
+                            @NonNull CaptureFailure failure) {
+                        raw.onCaptureFailed();
+                        finishRawCapture();
+                    }
+                };
+        captureSession.capture(request, rawCallback, backgroundHandler);
+    }
+
+    /**
+     * Resumes the preview once the raw picture was captured. The raw reader keeps a second buffer,
+     * so the next picture can be taken while this one is saved.
+     */
+    private void finishRawCapture() {
+        rawCapture = null;
+        cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
+        unlockAutoFocus();
+    }
+
+    /**
+     * Sets how pictures taken with a front facing camera are mirrored.
+     *
+     * @param mode the new mirror mode.
+     */
+    public void setPictureMirrorMode(@NonNull PictureMirrorMode mode) {
+        frontPictureMirrorMode = mode;
+    }
+
+    /**
+     * Sets whether saved pictures are flushed to the storage device (fsync) before they are
+     * reported, trading save latency for durability when the app or device crashes right after.
+     *
+     * @param enabled whether pictures are synced.
+     */
+    public void setSyncPicturesToDisk(boolean enabled) {
+        syncPicturesToDisk = enabled;
+    }
+
+    private PictureMirrorMode getPictureMirrorMode() {
+        return cameraProperties.getLensFacing() == CameraMetadata.LENS_FACING_FRONT
+                ? frontPictureMirrorMode
+                : PictureMirrorMode.none;
+    }
+
+    private void finishBurst() {
+        final Handler handler = backgroundHandler;
+        if (handler == null) {
+            return;
+        }
+        handler.post(
+                () -> {
+                    burstCapture = null;
+                    if (pictureImageReader != null) {
+                        // Images arriving after the burst are not part of it.
+                        pictureImageReader.setOnImageAvailableListener(null, handler);
+                    }
+                    cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
+                });
+    }
+
+    private ThreadPoolExecutor getImageSaverExecutor() {
+        if (imageSaverExecutor == null) {
+            final int threads =
+                    Math.min(MAX_IMAGE_SAVER_THREADS, Runtime.getRuntime().availableProcessors());
+            // Every queued task holds an image of the picture reader, so the reader bounds the queue.
+            imageSaverExecutor =
+                    new ThreadPoolExecutor(
+                            threads,
+                            threads,
+                            10,
+                            TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(PICTURE_IMAGE_READER_MAX_IMAGES));
+            imageSaverExecutor.allowCoreThreadTimeOut(true);
+        }
+        return imageSaverExecutor;
+    }
+
+    /** Runs auto focus and the precapture sequence, then takes the still picture(s). */
+    private void runStillCaptureSequence() {
         final AutoFocusFeature autoFocusFeature = cameraFeatures.getAutoFocus();
         final boolean isAutoFocusSupported = autoFocusFeature.checkIsSupported();
         if (isAutoFocusSupported && autoFocusFeature.getValue() == FocusMode.auto) {
@@ -555,14 +1387,16 @@ class Camera
             dartMessenger.error(flutterResult, "cameraAccess", e.getMessage(), null);
             return;
         }
-        stillBuilder.addTarget(pictureImageReader.getSurface());
+        final RawCapture raw = rawCapture;
+        stillBuilder.addTarget(
+                raw != null ? rawImageReader.getSurface() : pictureImageReader.getSurface());
         // Zoom.
         stillBuilder.set(
                 CaptureRequest.SCALER_CROP_REGION,
                 previewRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION));
 
         // Have all features update the builder.
-        updateBuilderSettings(stillBuilder);
+        cameraFeatures.updateBuilderWithAllFeatures(stillBuilder);
 
         // Orientation.
         final PlatformChannel.DeviceOrientation lockedOrientation =
@@ -584,22 +1418,73 @@ class Camera
                     }
                 };
 
-        try {
-            /// fix 华为手机android7/8/8.1 拍照问题
-      if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.O_MR1) {
-                captureSession.stopRepeating();
-            } else {
-                captureSession.stopRepeating();
-                captureSession.abortCaptures();
-            }
-            /// fix end
-            //      captureSession.stopRepeating();
-            //      captureSession.abortCaptures();
-            Log.i(TAG, "sending capture request");
-            captureSession.capture(stillBuilder.build(), captureCallback, backgroundHandler);
-        } catch (CameraAccessException e) {
-            dartMessenger.error(flutterResult, "cameraAccess", e.getMessage(), null);
-        }
+        try {
+            /// fix 华为手机android7/8/8.1 拍照问题
+      if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.O_MR1) {
+                captureSession.stopRepeating();
+            } else {
+                captureSession.stopRepeating();
+                captureSession.abortCaptures();
+            }
+            /// fix end
+            //      captureSession.stopRepeating();
+            //      captureSession.abortCaptures();
+            if (raw != null) {
+                captureRaw(raw, stillBuilder.build());
+                return;
+            }
+            final BurstCapture burst = burstCapture;
+            if (burst != null) {
+                captureBurst(burst, stillBuilder.build());
+                return;
+            }
+            Log.i(TAG, "sending capture request");
+            captureSession.capture(stillBuilder.build(), captureCallback, backgroundHandler);
+        } catch (CameraAccessException e) {
+            dartMessenger.error(flutterResult, "cameraAccess", e.getMessage(), null);
+        }
+    }
+
+    private void captureBurst(@NonNull final BurstCapture burst, @NonNull CaptureRequest request)
+            throws CameraAccessException {
+        CameraCaptureSession.CaptureCallback burstCallback =
+                new CameraCaptureSession.CaptureCallback() {
+                    @Override
+                    public void onCaptureFailed(
+                            @NonNull CameraCaptureSession session,
+                            @NonNull CaptureRequest request,
+                            @NonNull CaptureFailure failure) {
+                        burst.onCaptureFailed();
+                    }
+
+                    @Override
+                    public void onCaptureSequenceCompleted(
+                            @NonNull CameraCaptureSession session, int sequenceId, long frameNumber) {
+                        unlockAutoFocus();
+                    }
+
+                    @Override
+                    public void onCaptureSequenceAborted(
+                            @NonNull CameraCaptureSession session, int sequenceId) {
+                        try {
+                            // Keeps the shots that were captured before the abort.
+                            if (pictureImageReader != null) {
+                                burst.drain(pictureImageReader);
+                            }
+                        } catch (IllegalStateException e) {
+                            Log.w(TAG, "Burst images could not be read: " + e.getMessage());
+                        }
+                        burst.onCaptureSequenceAborted();
+                        unlockAutoFocus();
+                    }
+                };
+
+        Log.i(TAG, "sending burst of " + burst.getShotCount() + " capture requests");
+        burst.start();
+        captureSession.captureBurst(
+                new ArrayList<>(Collections.nCopies(burst.getShotCount(), request)),
+                burstCallback,
+                backgroundHandler);
     }
 
     @SuppressWarnings("deprecation")
@@ -607,32 +1492,22 @@ class Camera
         return activity.getWindowManager().getDefaultDisplay();
     }
 
-  /** Starts a background thread and its {@link Handler}. */
+  /** Acquires a background thread from the thread pool and its {@link Handler}. */
     public void startBackgroundThread() {
-        if (backgroundHandlerThread != null) {
+        if (backgroundHandler != null) {
             return;
         }
 
-        backgroundHandlerThread = HandlerThreadFactory.create("CameraBackground");
-        try {
-            backgroundHandlerThread.start();
-        } catch (IllegalThreadStateException e) {
-            // Ignore exception in case the thread has already started.
-        }
-        backgroundHandler = HandlerFactory.create(backgroundHandlerThread.getLooper());
+        backgroundHandler = threadPool.acquire();
     }
 
-  /** Stops the background thread and its {@link Handler}. */
+  /**
+   * Releases the background thread, which is stopped unless another camera still uses it.
+   */
     public void stopBackgroundThread() {
-        if (backgroundHandlerThread != null) {
-            backgroundHandlerThread.quitSafely();
-            try {
-                backgroundHandlerThread.join();
-            } catch (InterruptedException e) {
-                dartMessenger.error(flutterResult, "cameraAccess", e.getMessage(), null);
-            }
+        if (backgroundHandler != null) {
+            threadPool.release(backgroundHandler);
         }
-        backgroundHandlerThread = null;
         backgroundHandler = null;
     }
 
@@ -650,6 +1525,10 @@ class Camera
             Log.i(TAG, "[unlockAutoFocus] captureSession null, returning");
             return;
         }
+        if (highSpeedFpsRange != null) {
+            // A constrained high speed session does not accept single trigger requests.
+            return;
+        }
 
         // Trigger AF to start.
         previewRequestBuilder.set(
@@ -669,6 +1548,14 @@ class Camera
             Log.i(TAG, "[unlockAutoFocus] captureSession null, returning");
             return;
         }
+        if (highSpeedFpsRange != null) {
+            // A constrained high speed session does not accept single trigger requests.
+            refreshPreviewCaptureSession(
+                    null,
+                    (errorCode, errorMessage) ->
+                            dartMessenger.error(flutterResult, errorCode, errorMessage, null));
+            return;
+        }
         try {
             // Cancel existing AF state.
             previewRequestBuilder.set(
@@ -691,7 +1578,111 @@ class Camera
                         dartMessenger.error(flutterResult, errorCode, errorMessage, null));
     }
 
+    /**
+     * Makes the next repeating request submitted by {@link #repeatingRequestScheduler} lock or
+     * unlock the focus for {@code mode}. Requests made until then share a single trigger, so a
+     * burst of focus changes does not queue a trigger per change.
+     */
+    private void requestAutoFocusTrigger(@Nullable FocusMode mode) {
+        if (pausedPreview) {
+            return;
+        }
+        pendingAutoFocusTrigger = mode;
+    }
+
+    /** Submits the preview request for {@link #repeatingRequestScheduler}. */
+    private void submitPreviewRequest(
+            @NonNull Runnable onSuccessCallback, @NonNull ErrorCallback onErrorCallback) {
+        final FocusMode focusMode = pendingAutoFocusTrigger;
+        pendingAutoFocusTrigger = null;
+        if (focusMode != null) {
+            triggerAutoFocus(focusMode);
+        }
+        refreshPreviewCaptureSession(onSuccessCallback, onErrorCallback);
+    }
+
+    /**
+     * Sends a single trigger request ahead of the repeating request: starting a focus scan that
+     * locks the focus in locked mode, or cancelling the previous lock in auto mode.
+     */
+    private void triggerAutoFocus(@NonNull FocusMode mode) {
+        if (captureSession == null || pausedPreview) {
+            Log.i(TAG, "[triggerAutoFocus] captureSession null or preview paused, returning");
+            return;
+        }
+        if (highSpeedFpsRange != null) {
+            // A constrained high speed session does not accept single trigger requests, the mode
+            // only applies to the repeating burst.
+            return;
+        }
+
+        previewRequestBuilder.set(
+                CaptureRequest.CONTROL_AF_TRIGGER,
+                mode == FocusMode.locked
+                        ? CameraMetadata.CONTROL_AF_TRIGGER_START
+                        : CameraMetadata.CONTROL_AF_TRIGGER_CANCEL);
+        try {
+            captureSession.capture(previewRequestBuilder.build(), null, backgroundHandler);
+        } catch (CameraAccessException e) {
+            dartMessenger.sendCameraErrorEvent(e.getMessage());
+        } finally {
+            // Set AF state to idle again for the repeating request.
+            previewRequestBuilder.set(
+                    CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_IDLE);
+        }
+    }
+
+    /**
+     * Sets the options of the following recordings.
+     *
+     * @param settings options supplied by dart.
+     */
+    public void prepareForVideoRecording(@NonNull VideoRecordingSettings settings) {
+        videoRecordingSettings = settings;
+    }
+
     public void startVideoRecording(@NonNull Result result) {
+        final boolean rolling = videoRecordingSettings.getSegmentDurationMs() > 0;
+        if (rolling
+                && videoRecordingSettings.getBackend() == VideoRecordingSettings.Backend.MEDIA_RECORDER
+                && VERSION.SDK_INT < VERSION_CODES.O) {
+            result.error(
+                    "videoRecordingFailed",
+                    "Rolling recordings require Android API +26 or the mediaCodec backend.",
+                    null);
+            return;
+        }
+        final int highSpeedFrameRate = videoRecordingSettings.getHighSpeedFrameRate();
+        HighSpeedVideoConfiguration highSpeedConfiguration = null;
+        if (highSpeedFrameRate > 0) {
+            if (videoRecordingSettings.getBackend() != VideoRecordingSettings.Backend.MEDIA_RECORDER
+                    || VERSION.SDK_INT < VERSION_CODES.M) {
+                result.error(
+                        "videoRecordingFailed",
+                        "High speed recordings require Android API +23 and the mediaRecorder backend.",
+                        null);
+                return;
+            }
+            if (streamingImages) {
+                result.error(
+                        "videoRecordingFailed",
+                        "High speed recordings can not be started while streaming images.",
+                        null);
+                return;
+            }
+            highSpeedConfiguration =
+                    HighSpeedVideoConfiguration.select(
+                            cameraProperties,
+                            highSpeedFrameRate,
+                            cameraFeatures.getResolution().getCaptureSize());
+            if (highSpeedConfiguration == null) {
+                result.error(
+                        "videoRecordingFailed",
+                        "The camera does not support high speed recordings at " + highSpeedFrameRate + " fps.",
+                        null);
+                return;
+            }
+        }
         final File outputDir = applicationContext.getCacheDir();
         try {
             captureFile = File.createTempFile("REC", ".mp4", outputDir);
@@ -699,11 +1690,15 @@ class Camera
             result.error("cannotCreateFile", e.getMessage(), null);
             return;
         }
+        rollingRecording = rolling ? createRollingRecording(outputDir) : null;
+        highSpeedVideoConfiguration = highSpeedConfiguration;
         try {
             prepareMediaRecorder(captureFile.getAbsolutePath());
         } catch (IOException e) {
             recordingVideo = false;
             captureFile = null;
+            rollingRecording = null;
+            highSpeedVideoConfiguration = null;
             result.error("videoRecordingFailed", e.getMessage(), null);
             return;
         }
@@ -712,16 +1707,55 @@ class Camera
                 cameraFeatureFactory.createAutoFocusFeature(cameraProperties, true));
         recordingVideo = true;
         try {
-            createCaptureSession(
-                    CameraDevice.TEMPLATE_RECORD, () -> mediaRecorder.start(), mediaRecorder.getSurface());
+            if (mediaCodecRecorder != null) {
+                // The encoder is started first, so it receives the first frame of the request.
+                mediaCodecRecorder.start();
+                createCaptureSession(CameraDevice.TEMPLATE_RECORD, getMediaCodecRecordingSurfaces());
+            } else if (highSpeedVideoConfiguration != null) {
+                createHighSpeedCaptureSession(highSpeedVideoConfiguration, this::startMediaRecorder);
+            } else {
+                createCaptureSession(
+                        CameraDevice.TEMPLATE_RECORD,
+                        this::startMediaRecorder,
+                        recorderSurface != null ? recorderSurface : mediaRecorder.getSurface());
+            }
             result.success(null);
-        } catch (CameraAccessException e) {
+        } catch (CameraAccessException | IllegalStateException e) {
             recordingVideo = false;
             captureFile = null;
+            rollingRecording = null;
+            mediaRecorderSegmenter = null;
+            highSpeedVideoConfiguration = null;
+            releaseMediaCodecRecorder();
             result.error("videoRecordingFailed", e.getMessage(), null);
         }
     }
 
+    private RollingRecording createRollingRecording(File outputDir) {
+        return new RollingRecording(
+                outputDir,
+                videoRecordingSettings.getMaxSegmentCount(),
+                new RollingRecording.Listener() {
+                    @Override
+                    public void onSegmentFinished(
+                            @NonNull String path, int index, long durationUs, @NonNull List<String> deletedPaths) {
+                        dartMessenger.sendVideoSegmentEvent(path, index, durationUs, deletedPaths);
+                    }
+
+                    @Override
+                    public void onError(@NonNull String message) {
+                        dartMessenger.sendCameraErrorEvent(message);
+                    }
+                });
+    }
+
+    private void startMediaRecorder() {
+        mediaRecorder.start();
+        if (mediaRecorderSegmenter != null) {
+            mediaRecorderSegmenter.start();
+        }
+    }
+
     public void stopVideoRecording(@NonNull final Result result) {
         if (!recordingVideo) {
             result.success(null);
@@ -731,12 +1765,23 @@ class Camera
         cameraFeatures.setAutoFocus(
                 cameraFeatureFactory.createAutoFocusFeature(cameraProperties, false));
         recordingVideo = false;
+        if (mediaCodecRecorder != null) {
+            stopMediaCodecRecording(result);
+            return;
+        }
         try {
             captureSession.abortCaptures();
             mediaRecorder.stop();
         } catch (CameraAccessException | IllegalStateException e) {
             // Ignore exceptions and try to continue (changes are camera session already aborted capture).
         }
+        File recordedFile = captureFile;
+        if (mediaRecorderSegmenter != null) {
+            recordedFile = mediaRecorderSegmenter.finish();
+            mediaRecorderSegmenter = null;
+        }
+        rollingRecording = null;
+        highSpeedVideoConfiguration = null;
         mediaRecorder.reset();
         try {
             startPreview();
@@ -744,8 +1789,44 @@ class Camera
             result.error("videoRecordingFailed", e.getMessage(), null);
             return;
         }
-        result.success(captureFile.getAbsolutePath());
+        result.success(recordedFile.getAbsolutePath());
+        captureFile = null;
+    }
+
+    /**
+     * Stops a recording of the codec backend. The camera stops rendering to the encoder before it is
+     * stopped, without aborting the captures, so a running image stream is not interrupted.
+     */
+    private void stopMediaCodecRecording(@NonNull final Result result) {
+        try {
+            if (streamingImages) {
+                createCaptureSession(CameraDevice.TEMPLATE_RECORD, imageStreamReader.getSurface());
+            } else {
+                startPreview();
+            }
+        } catch (CameraAccessException | IllegalStateException e) {
+            releaseMediaCodecRecorder();
+            captureFile = null;
+            rollingRecording = null;
+            result.error("videoRecordingFailed", e.getMessage(), null);
+            return;
+        }
+        final File recordedFile = mediaCodecRecorder.stop();
+        releaseMediaCodecRecorder();
         captureFile = null;
+        rollingRecording = null;
+        if (recordedFile == null) {
+            result.error("videoRecordingFailed", "No video frame was recorded.", null);
+            return;
+        }
+        result.success(recordedFile.getAbsolutePath());
+    }
+
+    private void releaseMediaCodecRecorder() {
+        if (mediaCodecRecorder != null) {
+            mediaCodecRecorder.release();
+            mediaCodecRecorder = null;
+        }
     }
 
     public void pauseVideoRecording(@NonNull final Result result) {
@@ -755,7 +1836,9 @@ class Camera
         }
 
         try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            if (mediaCodecRecorder != null) {
+                mediaCodecRecorder.pause();
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
                 mediaRecorder.pause();
             } else {
                 result.error("videoRecordingFailed", "pauseVideoRecording requires Android API +24.", null);
@@ -776,7 +1859,9 @@ class Camera
         }
 
         try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            if (mediaCodecRecorder != null) {
+                mediaCodecRecorder.resume();
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
                 mediaRecorder.resume();
             } else {
                 result.error(
@@ -801,9 +1886,10 @@ class Camera
         // Save the new flash mode setting.
         final FlashFeature flashFeature = cameraFeatures.getFlash();
         flashFeature.setValue(newMode);
-        flashFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markChanged(flashFeature);
+        updateBuilderSettings(previewRequestBuilder);
 
-        refreshPreviewCaptureSession(
+        repeatingRequestScheduler.schedule(
                 () -> result.success(null),
                 (code, message) -> result.error("setFlashModeFailed", "Could not set flash mode.", null));
     }
@@ -817,9 +1903,10 @@ class Camera
     public void setExposureMode(@NonNull final Result result, @NonNull ExposureMode newMode) {
         final ExposureLockFeature exposureLockFeature = cameraFeatures.getExposureLock();
         exposureLockFeature.setValue(newMode);
-        exposureLockFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markChanged(exposureLockFeature);
+        updateBuilderSettings(previewRequestBuilder);
 
-        refreshPreviewCaptureSession(
+        repeatingRequestScheduler.schedule(
                 () -> result.success(null),
                 (code, message) ->
                         result.error("setExposureModeFailed", "Could not set exposure mode.", null));
@@ -834,9 +1921,10 @@ class Camera
     public void setExposurePoint(@NonNull final Result result, @Nullable Point point) {
         final ExposurePointFeature exposurePointFeature = cameraFeatures.getExposurePoint();
         exposurePointFeature.setValue(point);
-        exposurePointFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markChanged(exposurePointFeature);
+        updateBuilderSettings(previewRequestBuilder);
 
-        refreshPreviewCaptureSession(
+        repeatingRequestScheduler.schedule(
                 () -> result.success(null),
                 (code, message) ->
                         result.error("setExposurePointFailed", "Could not set exposure point.", null));
@@ -863,50 +1951,22 @@ class Camera
      * @param result  Flutter result.
      * @param newMode New mode.
      */
-    public void setFocusMode(final Result result, @NonNull FocusMode newMode) {
+    public void setFocusMode(@NonNull final Result result, @NonNull FocusMode newMode) {
         final AutoFocusFeature autoFocusFeature = cameraFeatures.getAutoFocus();
         autoFocusFeature.setValue(newMode);
-        autoFocusFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markChanged(autoFocusFeature);
+        updateBuilderSettings(previewRequestBuilder);
 
         /*
          * For focus mode an extra step of actually locking/unlocking the
          * focus has to be done, in order to ensure it goes into the correct state.
          */
-        if (!pausedPreview) {
-            switch (newMode) {
-                case locked:
-                    // Perform a single focus trigger.
-                    if (captureSession == null) {
-                        Log.i(TAG, "[unlockAutoFocus] captureSession null, returning");
-                        return;
-                    }
-                    lockAutoFocus();
-
-                    // Set AF state to idle again.
-                    previewRequestBuilder.set(
-                            CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_IDLE);
-
-                    try {
-                        captureSession.setRepeatingRequest(
-                                previewRequestBuilder.build(), null, backgroundHandler);
-                    } catch (CameraAccessException e) {
-                        if (result != null) {
-                            result.error(
-                                    "setFocusModeFailed", "Error setting focus mode: " + e.getMessage(), null);
-                        }
-                        return;
-                    }
-                    break;
-                case auto:
-                    // Cancel current AF trigger and set AF to idle again.
-                    unlockAutoFocus();
-                    break;
-            }
-        }
+        requestAutoFocusTrigger(newMode);
 
-        if (result != null) {
-            result.success(null);
-        }
+        repeatingRequestScheduler.schedule(
+                () -> result.success(null),
+                (code, message) ->
+                        result.error("setFocusModeFailed", "Error setting focus mode: " + message, null));
     }
 
     /**
@@ -918,13 +1978,15 @@ class Camera
     public void setFocusPoint(@NonNull final Result result, @Nullable Point point) {
         final FocusPointFeature focusPointFeature = cameraFeatures.getFocusPoint();
         focusPointFeature.setValue(point);
-        focusPointFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markChanged(focusPointFeature);
+        updateBuilderSettings(previewRequestBuilder);
 
-        refreshPreviewCaptureSession(
+        // Focus again on the new point.
+        requestAutoFocusTrigger(cameraFeatures.getAutoFocus().getValue());
+
+        repeatingRequestScheduler.schedule(
                 () -> result.success(null),
                 (code, message) -> result.error("setFocusPointFailed", "Could not set focus point.", null));
-
-        this.setFocusMode(null, cameraFeatures.getAutoFocus().getValue());
     }
 
     /**
@@ -937,9 +1999,10 @@ class Camera
     public void setExposureOffset(@NonNull final Result result, double offset) {
         final ExposureOffsetFeature exposureOffsetFeature = cameraFeatures.getExposureOffset();
         exposureOffsetFeature.setValue(offset);
-        exposureOffsetFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markChanged(exposureOffsetFeature);
+        updateBuilderSettings(previewRequestBuilder);
 
-        refreshPreviewCaptureSession(
+        repeatingRequestScheduler.schedule(
                 () -> result.success(exposureOffsetFeature.getValue()),
                 (code, message) ->
                         result.error("setExposureOffsetFailed", "Could not set exposure offset.", null));
@@ -992,13 +2055,85 @@ class Camera
         }
 
         zoomLevel.setValue(zoom);
-        zoomLevel.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markChanged(zoomLevel);
+        updateBuilderSettings(previewRequestBuilder);
 
-        refreshPreviewCaptureSession(
+        repeatingRequestScheduler.schedule(
                 () -> result.success(null),
                 (code, message) -> result.error("setZoomLevelFailed", "Could not set zoom level.", null));
     }
 
+    /**
+     * Applies several control changes from dart with a single repeating request, so they take
+     * effect on the same frame.
+     *
+     * @param result   Flutter result.
+     * @param controls the changes, {@code null} values are left untouched.
+     */
+    public void setCameraControls(@NonNull final Result result, @NonNull CameraControls controls) {
+        final ZoomLevelFeature zoomLevel = cameraFeatures.getZoomLevel();
+        if (controls.zoomLevel != null
+                && (controls.zoomLevel > zoomLevel.getMaximumZoomLevel()
+                || controls.zoomLevel < zoomLevel.getMinimumZoomLevel())) {
+            String errorMessage =
+                    String.format(
+                            Locale.ENGLISH,
+                            "Zoom level out of bounds (zoom level should be between %f and %f).",
+                            zoomLevel.getMinimumZoomLevel(),
+                            zoomLevel.getMaximumZoomLevel());
+            result.error("ZOOM_ERROR", errorMessage, null);
+            return;
+        }
+
+        if (controls.zoomLevel != null) {
+            zoomLevel.setValue(controls.zoomLevel);
+            cameraFeatures.markChanged(zoomLevel);
+        }
+        if (controls.exposureOffset != null) {
+            final ExposureOffsetFeature exposureOffsetFeature = cameraFeatures.getExposureOffset();
+            exposureOffsetFeature.setValue(controls.exposureOffset);
+            cameraFeatures.markChanged(exposureOffsetFeature);
+        }
+        if (controls.exposureMode != null) {
+            final ExposureLockFeature exposureLockFeature = cameraFeatures.getExposureLock();
+            exposureLockFeature.setValue(controls.exposureMode);
+            cameraFeatures.markChanged(exposureLockFeature);
+        }
+        if (controls.exposurePoint != null) {
+            final ExposurePointFeature exposurePointFeature = cameraFeatures.getExposurePoint();
+            exposurePointFeature.setValue(controls.exposurePoint);
+            cameraFeatures.markChanged(exposurePointFeature);
+        }
+        if (controls.focusPoint != null) {
+            final FocusPointFeature focusPointFeature = cameraFeatures.getFocusPoint();
+            focusPointFeature.setValue(controls.focusPoint);
+            cameraFeatures.markChanged(focusPointFeature);
+        }
+        if (controls.focusMode != null) {
+            final AutoFocusFeature autoFocusFeature = cameraFeatures.getAutoFocus();
+            autoFocusFeature.setValue(controls.focusMode);
+            cameraFeatures.markChanged(autoFocusFeature);
+        }
+        if (controls.flashMode != null) {
+            final FlashFeature flashFeature = cameraFeatures.getFlash();
+            flashFeature.setValue(controls.flashMode);
+            cameraFeatures.markChanged(flashFeature);
+        }
+
+        updateBuilderSettings(previewRequestBuilder);
+
+        if (controls.focusMode != null) {
+            requestAutoFocusTrigger(controls.focusMode);
+        } else if (controls.focusPoint != null) {
+            requestAutoFocusTrigger(cameraFeatures.getAutoFocus().getValue());
+        }
+
+        repeatingRequestScheduler.schedule(
+                () -> result.success(null),
+                (code, message) ->
+                        result.error("setCameraControlsFailed", "Could not set camera controls.", null));
+    }
+
     /**
      * Lock capture orientation from dart.
      *
@@ -1035,8 +2170,40 @@ class Camera
 
     public void startPreviewWithImageStream(EventChannel imageStreamChannel)
             throws CameraAccessException {
-        createCaptureSession(CameraDevice.TEMPLATE_RECORD, imageStreamReader.getSurface());
+        startPreviewWithImageStream(imageStreamChannel, null, ImageStreamSettings.defaults());
+    }
+
+    /**
+     * Starts the preview together with an image stream.
+     *
+     * @param imageStreamChannel event channel used by the default, codec based transport.
+     * @param imageStreamBufferChannel binary channel used when {@link
+     *     ImageStreamSettings#useBinaryTransport()} is set.
+     * @param settings options supplied by dart.
+     */
+    public void startPreviewWithImageStream(
+            EventChannel imageStreamChannel,
+            @Nullable ImageStreamBufferChannel imageStreamBufferChannel,
+            @NonNull ImageStreamSettings settings)
+            throws CameraAccessException {
+        if (recordingVideo && mediaCodecRecorder != null) {
+            // Keep recording in the same request.
+            createCaptureSession(
+                    CameraDevice.TEMPLATE_RECORD,
+                    imageStreamReader.getSurface(),
+                    mediaCodecRecorder.getSurface());
+        } else {
+            createCaptureSession(CameraDevice.TEMPLATE_RECORD, imageStreamReader.getSurface());
+        }
+        streamingImages = true;
         Log.i(TAG, "startPreviewWithImageStream");
+        imageStreamFlowControl.reset(settings.getMaxFramesInFlight());
+        imageStreamFrameTransform = createImageStreamFrameTransform(settings);
+
+        if (settings.useBinaryTransport() && imageStreamBufferChannel != null) {
+            setPooledImageStreamImageAvailableListener(imageStreamBufferChannel, settings);
+            return;
+        }
 
         imageStreamChannel.setStreamHandler(
                 new EventChannel.StreamHandler() {
@@ -1052,6 +2219,33 @@ class Camera
                 });
     }
 
+    /**
+     * Stops the image stream. A recording of the codec backend continues, otherwise the camera
+     * returns to the preview.
+     */
+    public void stopImageStream() throws CameraAccessException {
+        streamingImages = false;
+        if (recordingVideo && mediaCodecRecorder != null) {
+            createCaptureSession(CameraDevice.TEMPLATE_RECORD, getMediaCodecRecordingSurfaces());
+        } else {
+            startPreview();
+        }
+    }
+
+    @Nullable
+    private ImageStreamFrameTransform createImageStreamFrameTransform(
+            @NonNull ImageStreamSettings settings) {
+        if (!ImageStreamFrameTransform.isRequired(settings)) {
+            return null;
+        }
+        if (imageStreamReader.getImageFormat() != ImageFormat.YUV_420_888) {
+            Log.w(TAG, "Image stream cropping and scaling are only supported for YUV_420_888 frames.");
+            return null;
+        }
+        return new ImageStreamFrameTransform(
+                settings, imageStreamReader.getWidth(), imageStreamReader.getHeight());
+    }
+
     /**
      * This a callback object for the {@link ImageReader}. "onImageAvailable" will be called when a
      * still image is ready to be saved.
@@ -1061,8 +2255,9 @@ class Camera
         Log.i(TAG, "onImageAvailable");
         backgroundHandler.post(
                 new ImageSaver(
-                        cameraProperties.getLensFacing() == CameraMetadata.LENS_FACING_FRONT,
-                        // Use acquireNextImage since image reader is only for one image.
+                        getPictureMirrorMode(),
+                        syncPicturesToDisk,
+                        // Use acquireNextImage since only one picture was requested.
                         reader.acquireNextImage(),
                         captureFile,
                         new ImageSaver.Callback() {
@@ -1080,45 +2275,129 @@ class Camera
     }
 
     private void setImageStreamImageAvailableListener(final EventChannel.EventSink imageStreamSink) {
+        final ImageStreamFrameTransform transform = imageStreamFrameTransform;
         imageStreamReader.setOnImageAvailableListener(
                 reader -> {
-                    Image img = reader.acquireNextImage();
-                    // Use acquireNextImage since image reader is only for one image.
+                    Image img = acquireImageStreamImage(reader);
                     if (img == null) return;
 
-                    List<Map<String, Object>> planes = new ArrayList<>();
-                    for (Image.Plane plane : img.getPlanes()) {
-                        ByteBuffer buffer = plane.getBuffer();
+                    if (!imageStreamFlowControl.tryAcquire()) {
+                        // Dart is still busy with previous frames, drop this one.
+                        img.close();
+                        return;
+                    }
+
+                    final Map<String, Object> imageBuffer =
+                            ImageStreamMapEncoder.encode(img, transform, captureProps);
+                    mainHandler.post(() -> imageStreamSink.success(imageBuffer));
+                    imageStreamFlowControl.onSent();
+                    onImageStreamFrameDelivered(img);
+                    img.close();
+                },
+                backgroundHandler);
+    }
 
-                        byte[] bytes = new byte[buffer.remaining()];
-                        buffer.get(bytes, 0, bytes.length);
+    private void setPooledImageStreamImageAvailableListener(
+            @NonNull ImageStreamBufferChannel imageStreamBufferChannel,
+            @NonNull ImageStreamSettings settings) {
+        final ImageStreamFrameTransform transform = imageStreamFrameTransform;
+        final int frameSize =
+                transform == null
+                        ? ImageStreamFrameEncoder.estimateFrameSize(
+                                imageStreamReader.getWidth(),
+                                imageStreamReader.getHeight(),
+                                imageStreamReader.getImageFormat())
+                        : ImageStreamFrameEncoder.headerSize(transform.getPlaneCount())
+                                + transform.getOutputSize();
+        final ImageStreamBufferPool pool =
+                new ImageStreamBufferPool(settings.getBufferCount(), frameSize);
+        pooledImageStreamSender =
+                new PooledImageStreamSender(
+                        imageStreamBufferChannel,
+                        mainHandler,
+                        pool,
+                        imageStreamFlowControl.isBounded()
+                                ? reply -> imageStreamFlowControl.onAcknowledged()
+                                : null);
 
-                        Map<String, Object> planeBuffer = new HashMap<>();
-                        planeBuffer.put("bytesPerRow", plane.getRowStride());
-                        planeBuffer.put("bytesPerPixel", plane.getPixelStride());
-                        planeBuffer.put("bytes", bytes);
+        imageStreamReader.setOnImageAvailableListener(
+                reader -> {
+                    Image img = acquireImageStreamImage(reader);
+                    if (img == null) return;
 
-                        planes.add(planeBuffer);
+                    if (!imageStreamFlowControl.tryAcquire()) {
+                        // Dart is still busy with previous frames, drop this one.
+                        img.close();
+                        return;
                     }
 
-                    Map<String, Object> imageBuffer = new HashMap<>();
-                    imageBuffer.put("width", img.getWidth());
-                    imageBuffer.put("height", img.getHeight());
-                    imageBuffer.put("format", img.getFormat());
-                    imageBuffer.put("planes", planes);
-                    imageBuffer.put("lensAperture", this.captureProps.getLastLensAperture());
-                    imageBuffer.put("sensorExposureTime", this.captureProps.getLastSensorExposureTime());
-                    Integer sensorSensitivity = this.captureProps.getLastSensorSensitivity();
-                    imageBuffer.put(
-                            "sensorSensitivity", sensorSensitivity == null ? null : (double) sensorSensitivity);
-
-                    final Handler handler = new Handler(Looper.getMainLooper());
-                    handler.post(() -> imageStreamSink.success(imageBuffer));
+                    if (pooledImageStreamSender.send(img, transform, captureProps)) {
+                        imageStreamFlowControl.onSent();
+                        onImageStreamFrameDelivered(img);
+                    } else {
+                        // All buffers are still waiting to be handed to the engine.
+                        imageStreamFlowControl.onDropped();
+                    }
                     img.close();
                 },
                 backgroundHandler);
     }
 
+    /**
+     * Acquires the next image stream frame. When dart acknowledges frames, stale frames are
+     * skipped so that a lagging consumer always continues with the most recent frame.
+     */
+    @Nullable
+    private Image acquireImageStreamImage(ImageReader reader) {
+        return imageStreamFlowControl.isBounded()
+                ? reader.acquireLatestImage()
+                : reader.acquireNextImage();
+    }
+
+    private void onImageStreamFrameDelivered(Image image) {
+        final CaptureMetricsAggregator aggregator = captureMetricsAggregator;
+        if (aggregator != null) {
+            aggregator.onImageStreamFrameDelivered(image.getTimestamp());
+        }
+    }
+
+    /**
+     * Starts or stops collecting capture metrics. While enabled, a summary of the capture results of
+     * the last second is sent to dart through {@link DartMessenger#sendCaptureMetricsEvent}.
+     *
+     * @param enabled whether metrics are collected.
+     */
+    public void setCaptureMetricsEnabled(boolean enabled) {
+        if (!enabled) {
+            captureMetricsAggregator = null;
+            cameraCaptureCallback.setMetricsAggregator(null);
+            return;
+        }
+        final Integer timestampSource = cameraProperties.getSensorInfoTimestampSource();
+        final CaptureMetricsAggregator aggregator =
+                new CaptureMetricsAggregator(
+                        CAPTURE_METRICS_WINDOW_NANOS,
+                        timestampSource != null
+                                && timestampSource == CameraMetadata.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME,
+                        dartMessenger::sendCaptureMetricsEvent);
+        captureMetricsAggregator = aggregator;
+        cameraCaptureCallback.setMetricsAggregator(aggregator);
+    }
+
+    /** Called when dart has finished processing an image stream frame. */
+    public void receivedImageStreamData() {
+        imageStreamFlowControl.onAcknowledged();
+    }
+
+    /**
+     * Returns the delivered and dropped frame counters of the current image stream.
+     *
+     * @return a map with the counters of the image stream.
+     */
+    public Map<String, Object> getImageStreamStatistics() {
+        return imageStreamFlowControl.toMap();
+    }
+
     private void closeCaptureSession() {
         if (captureSession != null) {
             Log.i(TAG, "closeCaptureSession");
@@ -1126,16 +2405,45 @@ class Camera
             captureSession.close();
             captureSession = null;
         }
+        sessionSurfaces.clear();
+        highSpeedFpsRange = null;
     }
 
+    /** Closes the camera without waiting for it, see {@link #close(Runnable)}. */
     public void close() {
+        close(null);
+    }
+
+    /**
+     * Closes the camera without blocking the caller.
+     *
+     * <p>The session, the device and the readers are closed on the background thread, which is
+     * released once the device reported it is closed. Only then can the same camera be opened
+     * again.
+     *
+     * @param onClosed called on the main thread once the camera is closed.
+     */
+    public void close(@Nullable Runnable onClosed) {
         Log.i(TAG, "close");
-        closeCaptureSession();
+        final Handler handler = backgroundHandler;
+        if (handler == null || !handler.post(() -> closeOnBackgroundThread(onClosed))) {
+            // Already closed.
+            if (onClosed != null) {
+                mainHandler.post(onClosed);
+            }
+        }
+    }
 
-        if (cameraDevice != null) {
-            cameraDevice.close();
-            cameraDevice = null;
+    private void closeOnBackgroundThread(@Nullable Runnable onClosed) {
+        if (onClosed != null) {
+            closeCallbacks.add(onClosed);
+        }
+        if (closing) {
+            return;
         }
+        closing = true;
+        closeCaptureSession();
+
         if (pictureImageReader != null) {
             pictureImageReader.close();
             pictureImageReader = null;
@@ -1144,21 +2452,95 @@ class Camera
             imageStreamReader.close();
             imageStreamReader = null;
         }
+        if (rawImageReader != null) {
+            rawImageReader.close();
+            rawImageReader = null;
+        }
+        pooledImageStreamSender = null;
+        if (imageSaverExecutor != null) {
+            // Queued pictures are still saved, new ones are rejected.
+            imageSaverExecutor.shutdown();
+            imageSaverExecutor = null;
+        }
+        imageStreamFrameTransform = null;
         if (mediaRecorder != null) {
             mediaRecorder.reset();
             mediaRecorder.release();
             mediaRecorder = null;
         }
+        releaseMediaCodecRecorder();
+        if (recorderSurface != null) {
+            recorderSurface.release();
+            recorderSurface = null;
+        }
+        if (flutterSurface != null) {
+            flutterSurface.release();
+            flutterSurface = null;
+        }
+
+        if (cameraDevice != null) {
+            // The device calls onClosed on this thread once it is released, which finishes closing.
+            cameraDevice.close();
+            cameraDevice = null;
+        } else if (!openingDevice) {
+            finishClose();
+        }
+        // Otherwise the device being opened is closed once its open completes, see
+        // closeIfClosedWhileOpening, so the camera id is only released after that.
+    }
+
+    /**
+     * Called on the background thread when the pending open of {@code device} completed. When the
+     * camera was closed in the meantime, closes the device, whose onClosed finishes closing.
+     *
+     * @return whether the device was closed.
+     */
+    private boolean closeIfClosedWhileOpening(@NonNull CameraDevice device) {
+        final boolean wasOpening = openingDevice;
+        openingDevice = false;
+        if (!wasOpening || !closing) {
+            return false;
+        }
+        device.close();
+        return true;
+    }
 
+    private void finishClose() {
+        closing = false;
         stopBackgroundThread();
+        for (Runnable callback : closeCallbacks) {
+            mainHandler.post(callback);
+        }
+        closeCallbacks.clear();
+    }
+
+    /** Returns the id of the camera device, as listed by {@link CameraUtils#getAvailableCameras}. */
+    String getCameraName() {
+        return cameraProperties.getCameraName();
     }
 
+    /** Disposes the camera without waiting for it, see {@link #dispose(Runnable)}. */
     public void dispose() {
+        dispose(null);
+    }
+
+    /**
+     * Closes the camera and releases its texture without blocking the caller.
+     *
+     * @param onDisposed called on the main thread once the camera is closed.
+     */
+    public void dispose(@Nullable Runnable onDisposed) {
         Log.i(TAG, "dispose");
 
-        close();
-        flutterTexture.release();
         getDeviceOrientationManager().stop();
+        close(
+                () -> {
+                    // Released once the camera no longer renders to it.
+                    flutterTexture.release();
+                    if (onDisposed != null) {
+                        onDisposed.run();
+                    }
+                });
     }
 
   /** Factory class that assists in creating a {@link HandlerThread} instance. */
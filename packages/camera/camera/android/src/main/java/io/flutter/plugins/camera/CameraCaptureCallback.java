@@ -6,11 +6,13 @@ package io.flutter.plugins.camera;
 
 import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CameraCaptureSession.CaptureCallback;
+import android.hardware.camera2.CaptureFailure;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
 
@@ -24,6 +26,9 @@ class CameraCaptureCallback extends CaptureCallback {
   private CameraState cameraState;
   private final CaptureTimeoutsWrapper captureTimeouts;
   private final CameraCaptureProperties captureProps;
+  @Nullable private Runnable firstFrameListener;
+  @Nullable private volatile Runnable frameListener;
+  @Nullable private volatile CaptureMetricsAggregator metricsAggregator;
 
   private CameraCaptureCallback(
       @NonNull CameraCaptureStateListener cameraStateListener,
@@ -68,6 +73,33 @@ class CameraCaptureCallback extends CaptureCallback {
     cameraState = state;
   }
 
+  /**
+   * Sets a listener that is called once, for the next completed capture.
+   *
+   * @param listener the listener, called on the thread the capture callbacks are delivered on.
+   */
+  public void setFirstFrameListener(@Nullable Runnable listener) {
+    firstFrameListener = listener;
+  }
+
+  /**
+   * Sets a listener that is called for every completed capture.
+   *
+   * @param listener the listener, called on the thread the capture callbacks are delivered on.
+   */
+  public void setFrameListener(@Nullable Runnable listener) {
+    frameListener = listener;
+  }
+
+  /**
+   * Sets the aggregator every completed and failed capture is reported to.
+   *
+   * @param aggregator the aggregator, {@code null} to stop collecting metrics.
+   */
+  public void setMetricsAggregator(@Nullable CaptureMetricsAggregator aggregator) {
+    metricsAggregator = aggregator;
+  }
+
   private void process(CaptureResult result) {
     Integer aeState = result.get(CaptureResult.CONTROL_AE_STATE);
     Integer afState = result.get(CaptureResult.CONTROL_AF_STATE);
@@ -166,9 +198,40 @@ class CameraCaptureCallback extends CaptureCallback {
       @NonNull CameraCaptureSession session,
       @NonNull CaptureRequest request,
       @NonNull TotalCaptureResult result) {
+    final Runnable listener = firstFrameListener;
+    if (listener != null) {
+      firstFrameListener = null;
+      listener.run();
+    }
+    final Runnable everyFrameListener = frameListener;
+    if (everyFrameListener != null) {
+      everyFrameListener.run();
+    }
+    final CaptureMetricsAggregator aggregator = metricsAggregator;
+    if (aggregator != null) {
+      final Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+      if (timestamp != null) {
+        aggregator.onCaptureCompleted(
+            timestamp,
+            result.get(CaptureResult.SENSOR_FRAME_DURATION),
+            result.get(CaptureResult.CONTROL_AF_STATE),
+            result.get(CaptureResult.CONTROL_AE_STATE));
+      }
+    }
     process(result);
   }
 
+  @Override
+  public void onCaptureFailed(
+      @NonNull CameraCaptureSession session,
+      @NonNull CaptureRequest request,
+      @NonNull CaptureFailure failure) {
+    final CaptureMetricsAggregator aggregator = metricsAggregator;
+    if (aggregator != null) {
+      aggregator.onCaptureFailed();
+    }
+  }
+
   /** An interface that describes the different state changes implementers can be informed about. */
   interface CameraCaptureStateListener {
 
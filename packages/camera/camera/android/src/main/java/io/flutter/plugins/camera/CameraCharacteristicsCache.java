@@ -0,0 +1,163 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.CameraMetadata;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process wide cache of the camera id list and of the {@link CameraCharacteristics} of every
+ * camera.
+ *
+ * <p>Querying characteristics is a binder call that takes tens of milliseconds on some devices,
+ * while the values of a camera never change for as long as it is connected. Entries are therefore
+ * kept for the lifetime of the process and only dropped when a {@link
+ * CameraManager.AvailabilityCallback} reports that the set of connected cameras may have changed.
+ *
+ * <p>The callback also reports every camera that is opened or closed, including the initial state
+ * of each camera right after registration, so only changes to the set of camera ids invalidate
+ * the cache. A camera becoming available that was not part of the last id list is a newly
+ * connected device, whose characteristics are dropped together with the id list. Built-in cameras
+ * cannot be disconnected, so only an external camera becoming unavailable may have been removed.
+ * Its characteristics are dropped right away, as a different device may be connected under the
+ * same id, and so are those of every external camera when the access priorities change.
+ */
+final class CameraCharacteristicsCache {
+  private static final Map<String, CameraCharacteristics> characteristics = new HashMap<>();
+  private static final Set<String> knownCameraIds = new HashSet<>();
+  private static String[] cameraIdList;
+  private static boolean callbackRegistered;
+
+  private static final CameraManager.AvailabilityCallback availabilityCallback =
+      new CameraManager.AvailabilityCallback() {
+        @Override
+        public void onCameraAvailable(@NonNull String cameraId) {
+          synchronized (CameraCharacteristicsCache.class) {
+            if (!knownCameraIds.contains(cameraId)) {
+              characteristics.remove(cameraId);
+              cameraIdList = null;
+            }
+          }
+        }
+
+        @Override
+        public void onCameraUnavailable(@NonNull String cameraId) {
+          synchronized (CameraCharacteristicsCache.class) {
+            if (mayBeDisconnected(cameraId)) {
+              invalidate(cameraId);
+            }
+          }
+        }
+
+        @Override
+        public void onCameraAccessPrioritiesChanged() {
+          synchronized (CameraCharacteristicsCache.class) {
+            for (String cameraId : new ArrayList<>(characteristics.keySet())) {
+              if (mayBeDisconnected(cameraId)) {
+                invalidate(cameraId);
+              }
+            }
+          }
+        }
+      };
+
+  private CameraCharacteristicsCache() {}
+
+  /**
+   * Returns the ids of the connected cameras, see {@link CameraManager#getCameraIdList()}.
+   *
+   * @param cameraManager the manager used when the list is not cached.
+   * @return the camera ids. The returned array must not be modified.
+   * @throws CameraAccessException when the camera service could not be reached.
+   */
+  @NonNull
+  static synchronized String[] getCameraIdList(@NonNull CameraManager cameraManager)
+      throws CameraAccessException {
+    registerCallback(cameraManager);
+    if (cameraIdList == null) {
+      cameraIdList = cameraManager.getCameraIdList();
+      knownCameraIds.clear();
+      knownCameraIds.addAll(Arrays.asList(cameraIdList));
+      // Cameras that are no longer connected may come back as a different device.
+      characteristics.keySet().retainAll(knownCameraIds);
+    }
+    return cameraIdList;
+  }
+
+  /**
+   * Returns the characteristics of a camera, see {@link
+   * CameraManager#getCameraCharacteristics(String)}.
+   *
+   * @param cameraManager the manager used when the characteristics are not cached.
+   * @param cameraId the id of the camera.
+   * @return the characteristics of the camera.
+   * @throws CameraAccessException when the camera service could not be reached.
+   */
+  @NonNull
+  static synchronized CameraCharacteristics get(
+      @NonNull CameraManager cameraManager, @NonNull String cameraId)
+      throws CameraAccessException {
+    registerCallback(cameraManager);
+    CameraCharacteristics cameraCharacteristics = characteristics.get(cameraId);
+    if (cameraCharacteristics == null) {
+      cameraCharacteristics = cameraManager.getCameraCharacteristics(cameraId);
+      characteristics.put(cameraId, cameraCharacteristics);
+    }
+    return cameraCharacteristics;
+  }
+
+  /** Drops every cached value and forgets the registered availability callback. */
+  @VisibleForTesting
+  static synchronized void clear() {
+    characteristics.clear();
+    knownCameraIds.clear();
+    cameraIdList = null;
+    callbackRegistered = false;
+  }
+
+  @VisibleForTesting
+  static CameraManager.AvailabilityCallback getAvailabilityCallback() {
+    return availabilityCallback;
+  }
+
+  private static void invalidate(String cameraId) {
+    characteristics.remove(cameraId);
+    if (knownCameraIds.contains(cameraId)) {
+      cameraIdList = null;
+    }
+  }
+
+  private static boolean mayBeDisconnected(String cameraId) {
+    CameraCharacteristics cameraCharacteristics = characteristics.get(cameraId);
+    if (cameraCharacteristics == null) {
+      return true;
+    }
+    Integer lensFacing = cameraCharacteristics.get(CameraCharacteristics.LENS_FACING);
+    return lensFacing == null || lensFacing == CameraMetadata.LENS_FACING_EXTERNAL;
+  }
+
+  private static void registerCallback(CameraManager cameraManager) {
+    if (callbackRegistered) {
+      return;
+    }
+    // Availability callbacks are dispatched by the process wide camera service connection, so a
+    // single registration covers every CameraManager instance.
+    cameraManager.registerAvailabilityCallback(
+        availabilityCallback, new Handler(Looper.getMainLooper()));
+    callbackRegistered = true;
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugins.camera.features.Point;
+import io.flutter.plugins.camera.features.autofocus.FocusMode;
+import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
+import io.flutter.plugins.camera.features.flash.FlashMode;
+import java.util.List;
+
+/**
+ * Control changes sent by dart in a single {@code setCameraControls} call, which are applied
+ * together with one repeating request.
+ *
+ * <p>Every value is {@code null} when dart did not change it. A point whose coordinates are
+ * {@code null} resets the metering region to the default.
+ */
+final class CameraControls {
+  @Nullable Float zoomLevel;
+  @Nullable Double exposureOffset;
+  @Nullable ExposureMode exposureMode;
+  @Nullable Point exposurePoint;
+  @Nullable FocusMode focusMode;
+  @Nullable Point focusPoint;
+  @Nullable FlashMode flashMode;
+
+  /**
+   * Reads the control changes from the arguments of a {@code setCameraControls} call.
+   *
+   * @param call the method call.
+   * @return the parsed changes.
+   * @throws IllegalArgumentException when a mode is unknown.
+   */
+  @NonNull
+  static CameraControls fromMethodCall(@NonNull MethodCall call) {
+    CameraControls controls = new CameraControls();
+    Double zoomLevel = call.argument("zoomLevel");
+    if (zoomLevel != null) {
+      controls.zoomLevel = zoomLevel.floatValue();
+    }
+    controls.exposureOffset = call.argument("exposureOffset");
+
+    String exposureMode = call.argument("exposureMode");
+    if (exposureMode != null) {
+      controls.exposureMode = ExposureMode.getValueForString(exposureMode);
+      if (controls.exposureMode == null) {
+        throw new IllegalArgumentException("Unknown exposure mode " + exposureMode);
+      }
+    }
+    String focusMode = call.argument("focusMode");
+    if (focusMode != null) {
+      controls.focusMode = FocusMode.getValueForString(focusMode);
+      if (controls.focusMode == null) {
+        throw new IllegalArgumentException("Unknown focus mode " + focusMode);
+      }
+    }
+    String flashMode = call.argument("flashMode");
+    if (flashMode != null) {
+      controls.flashMode = FlashMode.getValueForString(flashMode);
+      if (controls.flashMode == null) {
+        throw new IllegalArgumentException("Unknown flash mode " + flashMode);
+      }
+    }
+
+    controls.exposurePoint = parsePoint(call, "exposurePoint");
+    controls.focusPoint = parsePoint(call, "focusPoint");
+    return controls;
+  }
+
+  @Nullable
+  private static Point parsePoint(MethodCall call, String key) {
+    if (!call.hasArgument(key)) {
+      return null;
+    }
+    List<Double> coordinates = call.argument(key);
+    if (coordinates == null) {
+      return new Point(null, null);
+    }
+    return new Point(coordinates.get(0), coordinates.get(1));
+  }
+}
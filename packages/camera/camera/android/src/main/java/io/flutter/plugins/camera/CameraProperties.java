@@ -4,10 +4,12 @@
 
 package io.flutter.plugins.camera;
 
+import android.graphics.ImageFormat;
 import android.graphics.Rect;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.os.Build.VERSION_CODES;
 import android.util.Range;
 import android.util.Rational;
@@ -191,6 +193,18 @@ public interface CameraProperties {
   @RequiresApi(api = VERSION_CODES.M)
   Rect getSensorInfoPreCorrectionActiveArraySize();
 
+  /**
+   * Returns the time base of the sensor timestamps.
+   *
+   * <p>By default maps to the @see
+   * android.hardware.camera2.CameraCharacteristics#SENSOR_INFO_TIMESTAMP_SOURCE key.
+   *
+   * @return Integer SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME when timestamps share the time base of
+   *     {@link android.os.SystemClock#elapsedRealtimeNanos()}, SENSOR_INFO_TIMESTAMP_SOURCE_UNKNOWN
+   *     otherwise.
+   */
+  Integer getSensorInfoTimestampSource();
+
   /**
    * Returns the clockwise angle through which the output image needs to be rotated to be upright on
    * the device screen in its native orientation.
@@ -235,6 +249,52 @@ public interface CameraProperties {
    * @return int[] List of noise reduction modes that are supported by this camera device.
    */
   int[] getAvailableNoiseReductionModes();
+
+  /**
+   * Returns the video sizes a constrained high speed capture session can record.
+   *
+   * <p>By default maps to @see
+   * android.hardware.camera2.params.StreamConfigurationMap#getHighSpeedVideoSizes() of the
+   * android.hardware.camera2.CameraCharacteristics#SCALER_STREAM_CONFIGURATION_MAP key.
+   *
+   * @return Size[] List of high speed video sizes, empty when the camera device does not support
+   *     high speed video.
+   */
+  @RequiresApi(api = VERSION_CODES.M)
+  Size[] getHighSpeedVideoSizes();
+
+  /**
+   * Returns the frame rate ranges a constrained high speed capture session supports for a video
+   * size.
+   *
+   * <p>By default maps to @see
+   * android.hardware.camera2.params.StreamConfigurationMap#getHighSpeedVideoFpsRangesFor(Size).
+   *
+   * @param size one of the sizes returned by {@link #getHighSpeedVideoSizes()}.
+   * @return android.util.Range<Integer>[] List of frame rate ranges supported for the size.
+   */
+  @RequiresApi(api = VERSION_CODES.M)
+  Range<Integer>[] getHighSpeedVideoFpsRangesFor(Size size);
+
+  /**
+   * Returns the sizes of the {@link android.graphics.ImageFormat#RAW_SENSOR} images the camera can
+   * capture.
+   *
+   * <p>By default maps to @see
+   * android.hardware.camera2.params.StreamConfigurationMap#getOutputSizes(int) of the
+   * android.hardware.camera2.CameraCharacteristics#SCALER_STREAM_CONFIGURATION_MAP key.
+   *
+   * @return Size[] List of raw sizes, empty when the camera device can not capture raw images.
+   */
+  Size[] getRawSensorSizes();
+
+  /**
+   * Returns every characteristic of the camera device, as needed by {@link
+   * android.hardware.camera2.DngCreator}.
+   *
+   * @return CameraCharacteristics The characteristics of the camera device.
+   */
+  CameraCharacteristics getCameraCharacteristics();
 }
 
 /**
@@ -248,7 +308,7 @@ class CameraPropertiesImpl implements CameraProperties {
   public CameraPropertiesImpl(String cameraName, CameraManager cameraManager)
       throws CameraAccessException {
     this.cameraName = cameraName;
-    this.cameraCharacteristics = cameraManager.getCameraCharacteristics(cameraName);
+    this.cameraCharacteristics = CameraCharacteristicsCache.get(cameraManager, cameraName);
   }
 
   @Override
@@ -332,6 +392,11 @@ class CameraPropertiesImpl implements CameraProperties {
         CameraCharacteristics.SENSOR_INFO_PRE_CORRECTION_ACTIVE_ARRAY_SIZE);
   }
 
+  @Override
+  public Integer getSensorInfoTimestampSource() {
+    return cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+  }
+
   @Override
   public int getSensorOrientation() {
     return cameraCharacteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
@@ -347,4 +412,37 @@ class CameraPropertiesImpl implements CameraProperties {
     return cameraCharacteristics.get(
         CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES);
   }
+
+  @RequiresApi(api = VERSION_CODES.M)
+  @Override
+  public Size[] getHighSpeedVideoSizes() {
+    StreamConfigurationMap configurationMap =
+        cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    return configurationMap == null ? new Size[0] : configurationMap.getHighSpeedVideoSizes();
+  }
+
+  @RequiresApi(api = VERSION_CODES.M)
+  @Override
+  @SuppressWarnings("unchecked")
+  public Range<Integer>[] getHighSpeedVideoFpsRangesFor(Size size) {
+    StreamConfigurationMap configurationMap =
+        cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    return configurationMap == null
+        ? new Range[0]
+        : configurationMap.getHighSpeedVideoFpsRangesFor(size);
+  }
+
+  @Override
+  public Size[] getRawSensorSizes() {
+    StreamConfigurationMap configurationMap =
+        cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    Size[] sizes =
+        configurationMap == null ? null : configurationMap.getOutputSizes(ImageFormat.RAW_SENSOR);
+    return sizes == null ? new Size[0] : sizes;
+  }
+
+  @Override
+  public CameraCharacteristics getCameraCharacteristics() {
+    return cameraCharacteristics;
+  }
 }
@@ -0,0 +1,94 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records how long a camera takes from its creation until the first preview frame.
+ *
+ * <p>Every milestone is recorded once, relative to the creation of the camera. Milestones are
+ * reported from the main thread and the camera background thread, so access is synchronized.
+ */
+final class CameraStartupMetrics {
+  private static final long NOT_REACHED = -1;
+
+  private final long createdNanos;
+  private boolean prewarmed;
+  private long initializeNanos = NOT_REACHED;
+  private long deviceOpenedNanos = NOT_REACHED;
+  private long sessionConfiguredNanos = NOT_REACHED;
+  private long firstFrameNanos = NOT_REACHED;
+
+  /** Creates new metrics, starting the clock. */
+  CameraStartupMetrics() {
+    createdNanos = System.nanoTime();
+  }
+
+  /** Called when the camera is opened ahead of the initialize call from dart. */
+  synchronized void onPrewarm() {
+    prewarmed = true;
+  }
+
+  /** Called when dart asks to initialize the camera. */
+  synchronized void onInitializeRequested() {
+    if (initializeNanos == NOT_REACHED) {
+      initializeNanos = System.nanoTime();
+    }
+  }
+
+  /** Called when the camera device has been opened. */
+  synchronized void onDeviceOpened() {
+    if (deviceOpenedNanos == NOT_REACHED) {
+      deviceOpenedNanos = System.nanoTime();
+    }
+  }
+
+  /** Called when the preview capture session has been configured. */
+  synchronized void onSessionConfigured() {
+    if (sessionConfiguredNanos == NOT_REACHED) {
+      sessionConfiguredNanos = System.nanoTime();
+    }
+  }
+
+  /** Called when the first preview frame has been captured. */
+  synchronized void onFirstFrame() {
+    if (firstFrameNanos == NOT_REACHED) {
+      firstFrameNanos = System.nanoTime();
+    }
+  }
+
+  /**
+   * Serializes the metrics for dart.
+   *
+   * <p>Durations are in microseconds since the camera was created and are omitted for milestones
+   * that were not reached yet. {@code firstFrameAfterInitializeMicros} is the latency perceived by
+   * the app, which is zero when the first frame arrived before the camera was initialized.
+   *
+   * @return the serialized metrics.
+   */
+  @NonNull
+  synchronized Map<String, Object> toMap() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("prewarmed", prewarmed);
+    putSinceCreated(metrics, "initializeMicros", initializeNanos);
+    putSinceCreated(metrics, "deviceOpenedMicros", deviceOpenedNanos);
+    putSinceCreated(metrics, "sessionConfiguredMicros", sessionConfiguredNanos);
+    putSinceCreated(metrics, "firstFrameMicros", firstFrameNanos);
+    if (initializeNanos != NOT_REACHED && firstFrameNanos != NOT_REACHED) {
+      metrics.put(
+          "firstFrameAfterInitializeMicros", Math.max(0, firstFrameNanos - initializeNanos) / 1000);
+    }
+    return metrics;
+  }
+
+  private void putSinceCreated(Map<String, Object> metrics, String key, long nanos) {
+    if (nanos != NOT_REACHED) {
+      metrics.put(key, (nanos - createdNanos) / 1000);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded set of background threads shared by the open cameras.
+ *
+ * <p>Every camera acquires a {@link Handler} when it is created and releases it when it is closed.
+ * A new thread is only started while fewer than {@code maxThreads} are running, otherwise the
+ * camera shares the thread with the fewest users. Threads are stopped once their last user
+ * released them.
+ */
+final class CameraThreadPool {
+  /** Number of threads shared by the cameras of a plugin instance. */
+  static final int DEFAULT_MAX_THREADS = 2;
+
+  private final int maxThreads;
+  private final List<Worker> workers = new ArrayList<>();
+  private int createdThreads;
+
+  CameraThreadPool(int maxThreads) {
+    if (maxThreads < 1) {
+      throw new IllegalArgumentException("maxThreads must be at least 1.");
+    }
+    this.maxThreads = maxThreads;
+  }
+
+  /**
+   * Returns the handler of a running background thread, starting a new thread when the pool is
+   * not full.
+   */
+  @NonNull
+  synchronized Handler acquire() {
+    Worker worker = null;
+    if (workers.size() < maxThreads) {
+      HandlerThread thread =
+          Camera.HandlerThreadFactory.create("CameraBackground-" + createdThreads++);
+      try {
+        thread.start();
+      } catch (IllegalThreadStateException e) {
+        // Ignore exception in case the thread has already started.
+      }
+      worker = new Worker(thread, Camera.HandlerFactory.create(thread.getLooper()));
+      workers.add(worker);
+    } else {
+      for (Worker candidate : workers) {
+        if (worker == null || candidate.users < worker.users) {
+          worker = candidate;
+        }
+      }
+    }
+    worker.users++;
+    return worker.handler;
+  }
+
+  /**
+   * Releases a handler returned by {@link #acquire()}, stopping its thread when it has no other
+   * user.
+   *
+   * <p>The thread finishes the messages already queued before it stops. It is not joined, so a
+   * camera can release its thread from that thread, and the caller is never blocked.
+   */
+  synchronized void release(@NonNull Handler handler) {
+    for (int i = 0; i < workers.size(); i++) {
+      Worker worker = workers.get(i);
+      if (worker.handler == handler) {
+        if (--worker.users == 0) {
+          workers.remove(i);
+          worker.thread.quitSafely();
+        }
+        return;
+      }
+    }
+  }
+
+  @VisibleForTesting
+  synchronized int getThreadCount() {
+    return workers.size();
+  }
+
+  private static final class Worker {
+    final HandlerThread thread;
+    final Handler handler;
+    int users;
+
+    Worker(HandlerThread thread, Handler handler) {
+      this.thread = thread;
+      this.handler = handler;
+    }
+  }
+}
@@ -6,15 +6,28 @@ package io.flutter.plugins.camera;
 
 import android.app.Activity;
 import android.content.Context;
+import android.graphics.ImageFormat;
+import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
+import android.hardware.camera2.params.StreamConfigurationMap;
+import android.os.Build;
+import android.util.Range;
+import android.util.Size;
+import androidx.annotation.RequiresApi;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /** Provides various utilities for camera. */
 public final class CameraUtils {
@@ -31,6 +44,44 @@ public final class CameraUtils {
     return (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
   }
 
+  /**
+   * Gets the combinations of cameras that can stream at the same time.
+   *
+   * @param cameraManager The camera manager to query.
+   * @return The combinations reported by the camera service, empty before Android 11.
+   * @throws CameraAccessException when the camera service could not be accessed.
+   */
+  static Set<Set<String>> getConcurrentCameraIds(CameraManager cameraManager)
+      throws CameraAccessException {
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+      return Collections.emptySet();
+    }
+    return cameraManager.getConcurrentCameraIds();
+  }
+
+  /**
+   * Checks whether the given cameras can stream at the same time.
+   *
+   * @param concurrentCameraIds The combinations returned by {@link #getConcurrentCameraIds}.
+   * @param cameraNames The names of the cameras, a camera listed twice can not be opened twice.
+   * @return true when a single camera is given or a combination contains every camera.
+   */
+  static boolean canOpenConcurrently(
+      Set<Set<String>> concurrentCameraIds, Collection<String> cameraNames) {
+    if (cameraNames.size() <= 1) {
+      return true;
+    }
+    if (new HashSet<>(cameraNames).size() < cameraNames.size()) {
+      return false;
+    }
+    for (Set<String> combination : concurrentCameraIds) {
+      if (combination.containsAll(cameraNames)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Serializes the {@link PlatformChannel.DeviceOrientation} to a string value.
    *
@@ -87,6 +138,10 @@ public final class CameraUtils {
   /**
    * Gets all the available cameras for the device.
    *
+   * <p>The camera ids and characteristics are read from the {@link CameraCharacteristicsCache}, so
+   * only the first call of the process queries the camera service for them. On Android 11 and
+   * above every camera also lists the cameras it can stream with at the same time.
+   *
    * @param activity The current Android activity.
    * @return A map of all the available cameras, with their name as their key.
    * @throws CameraAccessException when the camera could not be accessed.
@@ -94,7 +149,8 @@ public final class CameraUtils {
   public static List<Map<String, Object>> getAvailableCameras(Activity activity)
       throws CameraAccessException {
     CameraManager cameraManager = (CameraManager) activity.getSystemService(Context.CAMERA_SERVICE);
-    String[] cameraNames = cameraManager.getCameraIdList();
+    String[] cameraNames = CameraCharacteristicsCache.getCameraIdList(cameraManager);
+    Set<Set<String>> concurrentCameraIds = getConcurrentCameraIds(cameraManager);
     List<Map<String, Object>> cameras = new ArrayList<>();
     for (String cameraName : cameraNames) {
       int cameraId;
@@ -108,7 +164,8 @@ public final class CameraUtils {
       }
 
       HashMap<String, Object> details = new HashMap<>();
-      CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraName);
+      CameraCharacteristics characteristics =
+          CameraCharacteristicsCache.get(cameraManager, cameraName);
       details.put("name", cameraName);
       int sensorOrientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
       details.put("sensorOrientation", sensorOrientation);
@@ -125,8 +182,107 @@ public final class CameraUtils {
           details.put("lensFacing", "external");
           break;
       }
+
+      Integer hardwareLevel =
+          characteristics.get(CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL);
+      if (hardwareLevel != null) {
+        details.put("hardwareLevel", serializeHardwareLevel(hardwareLevel));
+      }
+      Range<Integer>[] fpsRanges =
+          characteristics.get(CameraCharacteristics.CONTROL_AE_AVAILABLE_TARGET_FPS_RANGES);
+      if (fpsRanges != null) {
+        List<List<Integer>> serializedRanges = new ArrayList<>(fpsRanges.length);
+        for (Range<Integer> range : fpsRanges) {
+          serializedRanges.add(Arrays.asList(range.getLower(), range.getUpper()));
+        }
+        details.put("fpsRanges", serializedRanges);
+      }
+      StreamConfigurationMap configurationMap =
+          characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+      if (configurationMap != null) {
+        details.put(
+            "previewSizes", serializeSizes(configurationMap.getOutputSizes(SurfaceTexture.class)));
+        details.put(
+            "pictureSizes", serializeSizes(configurationMap.getOutputSizes(ImageFormat.JPEG)));
+        details.put(
+            "rawPictureSizes",
+            serializeSizes(configurationMap.getOutputSizes(ImageFormat.RAW_SENSOR)));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+          details.put("highSpeedVideoModes", serializeHighSpeedVideoModes(configurationMap));
+        }
+      }
+      if (!concurrentCameraIds.isEmpty()) {
+        Set<String> concurrentCameras = new TreeSet<>();
+        for (Set<String> combination : concurrentCameraIds) {
+          if (combination.contains(cameraName)) {
+            concurrentCameras.addAll(combination);
+          }
+        }
+        concurrentCameras.remove(cameraName);
+        details.put("concurrentCameras", new ArrayList<>(concurrentCameras));
+      }
       cameras.add(details);
     }
     return cameras;
   }
+
+  /**
+   * Serializes a {@link CameraCharacteristics#INFO_SUPPORTED_HARDWARE_LEVEL} value to a string.
+   *
+   * @param hardwareLevel The hardware level to serialize.
+   * @return The serialized hardware level.
+   */
+  static String serializeHardwareLevel(int hardwareLevel) {
+    switch (hardwareLevel) {
+      case CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_LEGACY:
+        return "legacy";
+      case CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_LIMITED:
+        return "limited";
+      case CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_FULL:
+        return "full";
+      case CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_3:
+        return "level3";
+      case CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_EXTERNAL:
+        return "external";
+      default:
+        return "unknown";
+    }
+  }
+
+  /**
+   * Serializes the sizes and fixed frame rates a constrained high speed session can record, as
+   * {@code [width, height, fps]} entries.
+   */
+  @RequiresApi(Build.VERSION_CODES.M)
+  static List<List<Integer>> serializeHighSpeedVideoModes(StreamConfigurationMap configurationMap) {
+    List<List<Integer>> modes = new ArrayList<>();
+    Size[] sizes = configurationMap.getHighSpeedVideoSizes();
+    if (sizes == null) {
+      return modes;
+    }
+    for (Size size : sizes) {
+      Range<Integer>[] ranges = configurationMap.getHighSpeedVideoFpsRangesFor(size);
+      if (ranges == null) {
+        continue;
+      }
+      for (Range<Integer> range : ranges) {
+        // Variable ranges are only meant for the preview, recordings need a fixed range.
+        if (range.getLower().equals(range.getUpper())) {
+          modes.add(Arrays.asList(size.getWidth(), size.getHeight(), range.getUpper()));
+        }
+      }
+    }
+    return modes;
+  }
+
+  private static List<List<Integer>> serializeSizes(Size[] sizes) {
+    if (sizes == null) {
+      return new ArrayList<>();
+    }
+    List<List<Integer>> serializedSizes = new ArrayList<>(sizes.length);
+    for (Size size : sizes) {
+      serializedSizes.add(Arrays.asList(size.getWidth(), size.getHeight()));
+    }
+    return serializedSizes;
+  }
 }
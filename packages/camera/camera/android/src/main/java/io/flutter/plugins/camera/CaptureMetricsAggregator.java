@@ -0,0 +1,230 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CaptureResult;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregates per frame capture results into one summary per window, to monitor the camera without
+ * sending an event per frame.
+ *
+ * <p>The window is measured on the sensor clock, so a summary is emitted by the first result that
+ * falls outside of it and no timer is needed. Each summary holds:
+ *
+ * <ul>
+ *   <li>the frame rate and the standard deviation of the frame intervals (jitter),
+ *   <li>the frames missing from the sensor timeline, derived from intervals longer than one and a
+ *       half times the frame duration, and the captures the camera reported as failed,
+ *   <li>the time the last auto focus and auto exposure search took to settle,
+ *   <li>the average and maximum time from capture until an image stream frame is handed to the
+ *       main thread.
+ * </ul>
+ *
+ * <p>Except for its construction, the aggregator must only be used from the camera background
+ * thread.
+ */
+final class CaptureMetricsAggregator {
+  /** Receives the summaries. */
+  interface Listener {
+    /**
+     * Called with the summary of a window, on the camera background thread.
+     *
+     * @param metrics the serialized summary.
+     */
+    void onCaptureMetrics(@NonNull Map<String, Object> metrics);
+  }
+
+  private static final long NOT_SEARCHING = -1;
+
+  private final long windowNanos;
+  private final boolean realtimeTimestamps;
+  private final Listener listener;
+
+  private long windowStartNanos = -1;
+  private long lastTimestampNanos = -1;
+  private int frameCount;
+  private int intervalCount;
+  private double intervalMean;
+  private double intervalSquaredDeviations;
+  private int droppedFrames;
+  private int failedCaptures;
+
+  private long afSearchStartNanos = NOT_SEARCHING;
+  private long aeSearchStartNanos = NOT_SEARCHING;
+  private long afConvergenceNanos = -1;
+  private long aeConvergenceNanos = -1;
+
+  private int streamFrameCount;
+  private long streamLatencySumNanos;
+  private long streamLatencyMaxNanos;
+
+  /**
+   * Creates a new aggregator.
+   *
+   * @param windowNanos length of a window, in nanoseconds.
+   * @param realtimeTimestamps whether sensor timestamps use the {@link
+   *     SystemClock#elapsedRealtimeNanos()} time base rather than the monotonic clock.
+   * @param listener receives the summaries.
+   */
+  CaptureMetricsAggregator(
+      long windowNanos, boolean realtimeTimestamps, @NonNull Listener listener) {
+    this.windowNanos = windowNanos;
+    this.realtimeTimestamps = realtimeTimestamps;
+    this.listener = listener;
+  }
+
+  /**
+   * Records a completed capture.
+   *
+   * @param timestampNanos the {@link CaptureResult#SENSOR_TIMESTAMP} of the capture.
+   * @param frameDurationNanos the {@link CaptureResult#SENSOR_FRAME_DURATION}, if known.
+   * @param afState the {@link CaptureResult#CONTROL_AF_STATE}, if known.
+   * @param aeState the {@link CaptureResult#CONTROL_AE_STATE}, if known.
+   */
+  void onCaptureCompleted(
+      long timestampNanos,
+      @Nullable Long frameDurationNanos,
+      @Nullable Integer afState,
+      @Nullable Integer aeState) {
+    if (windowStartNanos < 0) {
+      windowStartNanos = timestampNanos;
+    } else if (timestampNanos - windowStartNanos >= windowNanos) {
+      emit(timestampNanos);
+    }
+
+    frameCount++;
+    if (lastTimestampNanos >= 0 && timestampNanos > lastTimestampNanos) {
+      final long interval = timestampNanos - lastTimestampNanos;
+      // Welford's online algorithm, so the deviation is computed without keeping the intervals.
+      intervalCount++;
+      final double delta = interval - intervalMean;
+      intervalMean += delta / intervalCount;
+      intervalSquaredDeviations += delta * (interval - intervalMean);
+
+      if (frameDurationNanos != null && frameDurationNanos > 0) {
+        if (interval * 2 > frameDurationNanos * 3) {
+          droppedFrames += Math.max(1, Math.round((double) interval / frameDurationNanos) - 1);
+        }
+      }
+    }
+    lastTimestampNanos = timestampNanos;
+
+    trackAutoFocus(afState, timestampNanos);
+    trackAutoExposure(aeState, timestampNanos);
+  }
+
+  /** Records a capture the camera failed to produce. */
+  void onCaptureFailed() {
+    failedCaptures++;
+  }
+
+  /**
+   * Records an image stream frame that was handed to the main thread.
+   *
+   * @param imageTimestampNanos the timestamp of the image, on the sensor clock.
+   */
+  void onImageStreamFrameDelivered(long imageTimestampNanos) {
+    final long now = realtimeTimestamps ? SystemClock.elapsedRealtimeNanos() : System.nanoTime();
+    final long latency = now - imageTimestampNanos;
+    if (latency < 0) {
+      return;
+    }
+    streamFrameCount++;
+    streamLatencySumNanos += latency;
+    streamLatencyMaxNanos = Math.max(streamLatencyMaxNanos, latency);
+  }
+
+  private void trackAutoFocus(@Nullable Integer afState, long timestampNanos) {
+    if (afState == null) {
+      return;
+    }
+    switch (afState) {
+      case CaptureResult.CONTROL_AF_STATE_PASSIVE_SCAN:
+      case CaptureResult.CONTROL_AF_STATE_ACTIVE_SCAN:
+        if (afSearchStartNanos == NOT_SEARCHING) {
+          afSearchStartNanos = timestampNanos;
+        }
+        break;
+      case CaptureResult.CONTROL_AF_STATE_PASSIVE_FOCUSED:
+      case CaptureResult.CONTROL_AF_STATE_PASSIVE_UNFOCUSED:
+      case CaptureResult.CONTROL_AF_STATE_FOCUSED_LOCKED:
+      case CaptureResult.CONTROL_AF_STATE_NOT_FOCUSED_LOCKED:
+        if (afSearchStartNanos != NOT_SEARCHING) {
+          afConvergenceNanos = timestampNanos - afSearchStartNanos;
+          afSearchStartNanos = NOT_SEARCHING;
+        }
+        break;
+      default:
+        afSearchStartNanos = NOT_SEARCHING;
+    }
+  }
+
+  private void trackAutoExposure(@Nullable Integer aeState, long timestampNanos) {
+    if (aeState == null) {
+      return;
+    }
+    switch (aeState) {
+      case CaptureResult.CONTROL_AE_STATE_SEARCHING:
+      case CaptureResult.CONTROL_AE_STATE_PRECAPTURE:
+        if (aeSearchStartNanos == NOT_SEARCHING) {
+          aeSearchStartNanos = timestampNanos;
+        }
+        break;
+      case CaptureResult.CONTROL_AE_STATE_CONVERGED:
+      case CaptureResult.CONTROL_AE_STATE_LOCKED:
+      case CaptureResult.CONTROL_AE_STATE_FLASH_REQUIRED:
+        if (aeSearchStartNanos != NOT_SEARCHING) {
+          aeConvergenceNanos = timestampNanos - aeSearchStartNanos;
+          aeSearchStartNanos = NOT_SEARCHING;
+        }
+        break;
+      default:
+        aeSearchStartNanos = NOT_SEARCHING;
+    }
+  }
+
+  private void emit(long timestampNanos) {
+    final long elapsedNanos = timestampNanos - windowStartNanos;
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("windowMicros", elapsedNanos / 1000);
+    metrics.put("frameCount", frameCount);
+    metrics.put("fps", frameCount * 1e9 / elapsedNanos);
+    metrics.put(
+        "jitterMicros",
+        intervalCount < 2 ? 0.0 : Math.sqrt(intervalSquaredDeviations / intervalCount) / 1000);
+    metrics.put("droppedFrames", droppedFrames);
+    metrics.put("failedCaptures", failedCaptures);
+    if (afConvergenceNanos >= 0) {
+      metrics.put("afConvergenceMicros", afConvergenceNanos / 1000);
+    }
+    if (aeConvergenceNanos >= 0) {
+      metrics.put("aeConvergenceMicros", aeConvergenceNanos / 1000);
+    }
+    if (streamFrameCount > 0) {
+      metrics.put("streamFrameCount", streamFrameCount);
+      metrics.put("streamLatencyMicros", streamLatencySumNanos / streamFrameCount / 1000);
+      metrics.put("streamLatencyMaxMicros", streamLatencyMaxNanos / 1000);
+    }
+    listener.onCaptureMetrics(metrics);
+
+    windowStartNanos = timestampNanos;
+    frameCount = 0;
+    intervalCount = 0;
+    intervalMean = 0;
+    intervalSquaredDeviations = 0;
+    droppedFrames = 0;
+    failedCaptures = 0;
+    afConvergenceNanos = -1;
+    aeConvergenceNanos = -1;
+    streamFrameCount = 0;
+    streamLatencySumNanos = 0;
+    streamLatencyMaxNanos = 0;
+  }
+}
@@ -14,6 +14,7 @@ import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugins.camera.features.autofocus.FocusMode;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /** Utility class that facilitates communication to the Flutter client */
@@ -21,6 +22,8 @@ public class DartMessenger {
   @NonNull private final Handler handler;
   @Nullable private MethodChannel cameraChannel;
   @Nullable private MethodChannel deviceChannel;
+  @Nullable private MethodChannel metricsChannel;
+  @Nullable private MethodChannel recordingChannel;
 
   /** Specifies the different device related message types. */
   enum DeviceEventType {
@@ -66,6 +69,9 @@ public class DartMessenger {
   DartMessenger(BinaryMessenger messenger, long cameraId, @NonNull Handler handler) {
     cameraChannel = new MethodChannel(messenger, "flutter.io/cameraPlugin/camera" + cameraId);
     deviceChannel = new MethodChannel(messenger, "flutter.io/cameraPlugin/device");
+    metricsChannel = new MethodChannel(messenger, "flutter.io/cameraPlugin/metrics" + cameraId);
+    recordingChannel =
+        new MethodChannel(messenger, "flutter.io/cameraPlugin/recording" + cameraId);
     this.handler = handler;
   }
 
@@ -143,6 +149,46 @@ public class DartMessenger {
         });
   }
 
+  /**
+   * Sends a summary of the capture metrics of the last window to the Flutter client.
+   *
+   * <p>Metrics are sent over their own channel, which the camera plugin listens to only while the
+   * metrics are enabled.
+   *
+   * @param metrics the serialized summary, see {@link CaptureMetricsAggregator}.
+   */
+  void sendCaptureMetricsEvent(Map<String, Object> metrics) {
+    if (metricsChannel == null) {
+      return;
+    }
+    handler.post(() -> metricsChannel.invokeMethod("capture_metrics", metrics));
+  }
+
+  /**
+   * Sends a message to the Flutter client informing that a segment of a rolling recording was
+   * written completely.
+   *
+   * <p>Segments are sent over their own channel, which the camera plugin listens to only while a
+   * rolling recording is running.
+   *
+   * @param path the file of the segment.
+   * @param index the position of the segment in the recording.
+   * @param durationUs the approximate duration of the segment.
+   * @param deletedPaths the files of older segments that were deleted to make room for it.
+   */
+  void sendVideoSegmentEvent(String path, int index, long durationUs, List<String> deletedPaths) {
+    if (recordingChannel == null) {
+      return;
+    }
+    Map<String, Object> segment = new HashMap<>();
+    segment.put("path", path);
+    segment.put("index", index);
+    segment.put("durationMicros", durationUs);
+    segment.put("deletedPaths", deletedPaths);
+    handler.post(() -> recordingChannel.invokeMethod("video_segment", segment));
+  }
+
+
   private void send(CameraEventType eventType) {
     send(eventType, new HashMap<>());
   }
@@ -0,0 +1,119 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.DngCreator;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.exifinterface.media.ExifInterface;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Saves a {@link android.graphics.ImageFormat#RAW_SENSOR} {@link Image} into the specified {@link
+ * File} as a DNG.
+ *
+ * <p>The {@link DngCreator} streams the sensor data through a buffered file stream, so the raw
+ * image is never copied onto the Java heap.
+ */
+public class DngSaver implements Runnable {
+  /** Size of the buffer between the DNG writer and the file. */
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final CameraCharacteristics characteristics;
+  private final TotalCaptureResult captureResult;
+  private final Image image;
+  private final int orientationDegrees;
+  private final boolean syncToDisk;
+  private final File file;
+  private final ImageSaver.Callback callback;
+
+  /**
+   * Creates an instance of the DngSaver runnable
+   *
+   * @param characteristics the characteristics of the camera that took the picture.
+   * @param captureResult the result of the capture request of the picture.
+   * @param image the raw image to save, closed once saved.
+   * @param orientationDegrees the clockwise rotation that shows the picture upright.
+   * @param syncToDisk whether to fsync the file before reporting completion.
+   * @param file the file to save the image to.
+   * @param callback the callback that is run on completion, or when an error is encountered.
+   */
+  DngSaver(
+      @NonNull CameraCharacteristics characteristics,
+      @NonNull TotalCaptureResult captureResult,
+      @NonNull Image image,
+      int orientationDegrees,
+      boolean syncToDisk,
+      @NonNull File file,
+      @NonNull ImageSaver.Callback callback) {
+    this.characteristics = characteristics;
+    this.captureResult = captureResult;
+    this.image = image;
+    this.orientationDegrees = orientationDegrees;
+    this.syncToDisk = syncToDisk;
+    this.file = file;
+    this.callback = callback;
+  }
+
+  @Override
+  public void run() {
+    try (DngCreator dngCreator = DngCreatorFactory.create(characteristics, captureResult);
+        FileOutputStream fileOutput = ImageSaver.FileOutputStreamFactory.create(file)) {
+      dngCreator.setOrientation(toExifOrientation(orientationDegrees));
+      OutputStream output = new BufferedOutputStream(fileOutput, BUFFER_SIZE);
+      dngCreator.writeImage(output, image);
+      output.flush();
+      if (syncToDisk) {
+        fileOutput.getFD().sync();
+      }
+      callback.onComplete(file.getAbsolutePath());
+    } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+      callback.onError("IOError", "Failed saving raw image: " + e.getMessage());
+    } finally {
+      image.close();
+    }
+  }
+
+  /** Converts a clockwise rotation to the matching EXIF orientation. */
+  @VisibleForTesting
+  static int toExifOrientation(int degrees) {
+    switch ((degrees % 360 + 360) % 360) {
+      case 90:
+        return ExifInterface.ORIENTATION_ROTATE_90;
+      case 180:
+        return ExifInterface.ORIENTATION_ROTATE_180;
+      case 270:
+        return ExifInterface.ORIENTATION_ROTATE_270;
+      default:
+        return ExifInterface.ORIENTATION_NORMAL;
+    }
+  }
+
+  /** Factory class that assists in creating a {@link DngCreator} instance. */
+  static class DngCreatorFactory {
+    /**
+     * Creates a new instance of the {@link DngCreator} class.
+     *
+     * <p>This method is visible for testing purposes only and should never be used outside this
+     * class.
+     *
+     * @param characteristics the characteristics of the camera that took the picture.
+     * @param captureResult the result of the capture request of the picture.
+     * @return new instance of the {@link DngCreator} class.
+     */
+    @VisibleForTesting
+    public static DngCreator create(
+        CameraCharacteristics characteristics, TotalCaptureResult captureResult) {
+      return new DngCreator(characteristics, captureResult);
+    }
+  }
+}
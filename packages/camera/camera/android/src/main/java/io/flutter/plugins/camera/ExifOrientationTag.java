@@ -0,0 +1,200 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.exifinterface.media.ExifInterface;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Locates the orientation tag in the EXIF header of an encoded JPEG so that it can be changed in
+ * place, without decoding the image or rewriting the file.
+ *
+ * <p>Only the first IFD of the APP1 segment is searched, which is where camera HALs store the
+ * orientation. When the tag is absent {@link #find} returns {@code null} and callers fall back to
+ * {@link ExifInterface}.
+ */
+final class ExifOrientationTag {
+  private static final int MARKER_SOI = 0xD8;
+  private static final int MARKER_SOS = 0xDA;
+  private static final int MARKER_EOI = 0xD9;
+  private static final int MARKER_APP1 = 0xE1;
+  private static final int TAG_ORIENTATION = 0x0112;
+  private static final int TYPE_SHORT = 3;
+  private static final int IFD_ENTRY_SIZE = 12;
+
+  private final int offset;
+  private final ByteOrder order;
+
+  private ExifOrientationTag(int offset, ByteOrder order) {
+    this.offset = offset;
+    this.order = order;
+  }
+
+  /**
+   * Finds the orientation tag in {@code jpeg}.
+   *
+   * <p>Reads are absolute, the position and limit of {@code jpeg} are left untouched.
+   *
+   * @param jpeg the encoded JPEG, starting at index 0.
+   * @return the tag, or {@code null} when the JPEG has no EXIF orientation.
+   */
+  @Nullable
+  static ExifOrientationTag find(@NonNull ByteBuffer jpeg) {
+    final int limit = jpeg.limit();
+    if (limit < 4 || unsignedByte(jpeg, 0) != 0xFF || unsignedByte(jpeg, 1) != MARKER_SOI) {
+      return null;
+    }
+
+    int position = 2;
+    while (position + 4 <= limit) {
+      if (unsignedByte(jpeg, position) != 0xFF) {
+        return null;
+      }
+      final int marker = unsignedByte(jpeg, position + 1);
+      if (marker == 0xFF) {
+        // Fill byte before the actual marker.
+        position++;
+        continue;
+      }
+      if (marker == MARKER_SOS || marker == MARKER_EOI) {
+        return null;
+      }
+      final int segmentLength = unsignedShort(jpeg, position + 2, ByteOrder.BIG_ENDIAN);
+      final int segmentStart = position + 4;
+      final int segmentEnd = position + 2 + segmentLength;
+      if (segmentLength < 2 || segmentEnd > limit) {
+        return null;
+      }
+      if (marker == MARKER_APP1 && isExifHeader(jpeg, segmentStart, segmentEnd)) {
+        return findInTiff(jpeg, segmentStart + 6, segmentEnd);
+      }
+      position = segmentEnd;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the EXIF orientation that shows an image with the given orientation mirrored
+   * horizontally, as a front facing camera preview does.
+   *
+   * @param orientation an {@link ExifInterface} orientation constant.
+   * @return the mirrored orientation.
+   */
+  static int mirror(int orientation) {
+    switch (orientation) {
+      case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+        return ExifInterface.ORIENTATION_NORMAL;
+      case ExifInterface.ORIENTATION_ROTATE_180:
+        return ExifInterface.ORIENTATION_FLIP_VERTICAL;
+      case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+        return ExifInterface.ORIENTATION_ROTATE_180;
+      case ExifInterface.ORIENTATION_ROTATE_90:
+        return ExifInterface.ORIENTATION_TRANSPOSE;
+      case ExifInterface.ORIENTATION_TRANSPOSE:
+        return ExifInterface.ORIENTATION_ROTATE_90;
+      case ExifInterface.ORIENTATION_ROTATE_270:
+        return ExifInterface.ORIENTATION_TRANSVERSE;
+      case ExifInterface.ORIENTATION_TRANSVERSE:
+        return ExifInterface.ORIENTATION_ROTATE_270;
+      default:
+        return ExifInterface.ORIENTATION_FLIP_HORIZONTAL;
+    }
+  }
+
+  /** Returns the offset of the two byte orientation value, relative to the start of the JPEG. */
+  int getOffset() {
+    return offset;
+  }
+
+  /**
+   * Reads the orientation stored in {@code jpeg}.
+   *
+   * @param jpeg the JPEG the tag was found in.
+   * @return an {@link ExifInterface} orientation constant.
+   */
+  int getOrientation(@NonNull ByteBuffer jpeg) {
+    return unsignedShort(jpeg, offset, order);
+  }
+
+  /**
+   * Encodes {@code orientation} as the two bytes stored at {@link #getOffset()}.
+   *
+   * @param orientation an {@link ExifInterface} orientation constant.
+   * @return a buffer holding the encoded value, ready to be written.
+   */
+  @NonNull
+  ByteBuffer encode(int orientation) {
+    ByteBuffer value = ByteBuffer.allocate(2).order(order);
+    value.putShort(0, (short) orientation);
+    return value;
+  }
+
+  private static boolean isExifHeader(ByteBuffer jpeg, int start, int end) {
+    return end - start >= 14
+        && jpeg.get(start) == 'E'
+        && jpeg.get(start + 1) == 'x'
+        && jpeg.get(start + 2) == 'i'
+        && jpeg.get(start + 3) == 'f'
+        && jpeg.get(start + 4) == 0
+        && jpeg.get(start + 5) == 0;
+  }
+
+  @Nullable
+  private static ExifOrientationTag findInTiff(ByteBuffer jpeg, int tiffStart, int end) {
+    final ByteOrder order;
+    if (jpeg.get(tiffStart) == 'I' && jpeg.get(tiffStart + 1) == 'I') {
+      order = ByteOrder.LITTLE_ENDIAN;
+    } else if (jpeg.get(tiffStart) == 'M' && jpeg.get(tiffStart + 1) == 'M') {
+      order = ByteOrder.BIG_ENDIAN;
+    } else {
+      return null;
+    }
+    if (unsignedShort(jpeg, tiffStart + 2, order) != 42) {
+      return null;
+    }
+
+    final long ifdOffset = unsignedInt(jpeg, tiffStart + 4, order);
+    final long ifdStart = tiffStart + ifdOffset;
+    if (ifdStart + 2 > end) {
+      return null;
+    }
+    final int entryCount = unsignedShort(jpeg, (int) ifdStart, order);
+    for (int i = 0; i < entryCount; i++) {
+      final int entry = (int) ifdStart + 2 + i * IFD_ENTRY_SIZE;
+      if (entry + IFD_ENTRY_SIZE > end) {
+        return null;
+      }
+      if (unsignedShort(jpeg, entry, order) != TAG_ORIENTATION) {
+        continue;
+      }
+      if (unsignedShort(jpeg, entry + 2, order) != TYPE_SHORT
+          || unsignedInt(jpeg, entry + 4, order) != 1) {
+        return null;
+      }
+      // Values of up to four bytes are stored inline, left aligned in the value field.
+      return new ExifOrientationTag(entry + 8, order);
+    }
+    return null;
+  }
+
+  private static int unsignedByte(ByteBuffer buffer, int index) {
+    return buffer.get(index) & 0xFF;
+  }
+
+  private static int unsignedShort(ByteBuffer buffer, int index, ByteOrder order) {
+    final int first = unsignedByte(buffer, index);
+    final int second = unsignedByte(buffer, index + 1);
+    return order == ByteOrder.BIG_ENDIAN ? (first << 8) | second : (second << 8) | first;
+  }
+
+  private static long unsignedInt(ByteBuffer buffer, int index, ByteOrder order) {
+    final long high = unsignedShort(buffer, index, order);
+    final long low = unsignedShort(buffer, index + 2, order);
+    return order == ByteOrder.BIG_ENDIAN ? (high << 16) | low : (low << 16) | high;
+  }
+}
@@ -13,19 +13,32 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 import androidx.exifinterface.media.ExifInterface;
+import io.flutter.plugins.camera.types.PictureMirrorMode;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * Saves a JPEG {@link Image} into the specified {@link File}.
  */
 public class ImageSaver implements Runnable {
-    private final boolean isFront;
+    private static final String TAG = "ImageSaver";
+
+    /**
+     * How the picture is mirrored, {@link PictureMirrorMode#none} for back facing cameras.
+     */
+    private final PictureMirrorMode mirrorMode;
+
+    /**
+     * Whether the file is flushed to the storage device before completion is reported.
+     */
+    private final boolean syncToDisk;
 
     /**
      * The JPEG image
@@ -45,12 +58,20 @@ public class ImageSaver implements Runnable {
     /**
      * Creates an instance of the ImageSaver runnable
      *
+     * @param mirrorMode - How the picture is mirrored
+     * @param syncToDisk - Whether to fsync the file before reporting completion
      * @param image    - The image to save
      * @param file     - The file to save the image to
      * @param callback - The callback that is run on completion, or when an error is encountered.
      */
-    ImageSaver(boolean isFront, @NonNull Image image, @NonNull File file, @NonNull Callback callback) {
-        this.isFront = isFront;
+    ImageSaver(
+            @NonNull PictureMirrorMode mirrorMode,
+            boolean syncToDisk,
+            @NonNull Image image,
+            @NonNull File file,
+            @NonNull Callback callback) {
+        this.mirrorMode = mirrorMode;
+        this.syncToDisk = syncToDisk;
         this.image = image;
         this.file = file;
         this.callback = callback;
@@ -59,14 +80,35 @@ public class ImageSaver implements Runnable {
     @Override
     public void run() {
         ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-        byte[] bytes = new byte[buffer.remaining()];
-        buffer.get(bytes);
         FileOutputStream output = null;
         try {
+            // Locate the EXIF orientation before the buffer is consumed. The mirrored value is
+            // patched into the file afterwards, so the image buffer itself is never modified.
+            ExifOrientationTag orientationTag = null;
+            int orientation = ExifInterface.ORIENTATION_UNDEFINED;
+            if (mirrorMode == PictureMirrorMode.exif) {
+                ByteBuffer jpeg = buffer.slice();
+                orientationTag = ExifOrientationTag.find(jpeg);
+                if (orientationTag != null) {
+                    orientation = orientationTag.getOrientation(jpeg);
+                }
+            }
+            final boolean rewriteExif = mirrorMode == PictureMirrorMode.exif && orientationTag == null;
+
             output = FileOutputStreamFactory.create(file);
-            if (isFront) {
-                output.write(bytes);
-                output.flush();
+            // The direct image buffer is handed to the channel as is, so the JPEG is never copied
+            // onto the Java heap.
+            FileChannel channel = output.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (orientationTag != null) {
+                channel.write(
+                        orientationTag.encode(ExifOrientationTag.mirror(orientation)),
+                        orientationTag.getOffset());
+            }
+
+            if (mirrorMode == PictureMirrorMode.pixels) {
                 ExifInterface exif = new ExifInterface(file);
                 int ob = exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
                 Bitmap bitmap = BitmapFactory.decodeStream(new FileInputStream(file));
@@ -89,8 +131,17 @@ public class ImageSaver implements Runnable {
                 output.close();
                 output = FileOutputStreamFactory.create(file);
                 bitmap.compress(Bitmap.CompressFormat.JPEG, 100, output);
-            } else {
-                output.write(bytes);
+            } else if (rewriteExif) {
+                output.close();
+                mirrorExifOrientation(file);
+            }
+
+            if (syncToDisk) {
+                if (rewriteExif) {
+                    syncFile(file);
+                } else {
+                    output.getChannel().force(false);
+                }
             }
             callback.onComplete(file.getAbsolutePath());
 
@@ -108,6 +159,24 @@ public class ImageSaver implements Runnable {
         }
     }
 
+    /** Mirrors the EXIF orientation of a saved picture, adding the tag when it is missing. */
+    private static void mirrorExifOrientation(File file) throws IOException {
+        Log.d(TAG, "No EXIF orientation to patch, rewriting the EXIF header");
+        ExifInterface exif = new ExifInterface(file);
+        int orientation =
+                exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        exif.setAttribute(
+                ExifInterface.TAG_ORIENTATION, String.valueOf(ExifOrientationTag.mirror(orientation)));
+        exif.saveAttributes();
+    }
+
+    /** Flushes a file that was written through another stream to the storage device. */
+    private static void syncFile(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.getFD().sync();
+        }
+    }
+
     /**
      * The interface for the callback that is passed to ImageSaver, for detecting completion or
      * failure of the image saving task.
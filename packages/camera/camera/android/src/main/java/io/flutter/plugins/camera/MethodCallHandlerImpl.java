@@ -23,9 +23,18 @@ import io.flutter.plugins.camera.features.autofocus.FocusMode;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import io.flutter.plugins.camera.features.flash.FlashMode;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
+import io.flutter.plugins.camera.imagestream.ImageStreamBufferChannel;
+import io.flutter.plugins.camera.imagestream.ImageStreamSettings;
+import io.flutter.plugins.camera.media.VideoRecordingSettings;
+import io.flutter.plugins.camera.types.PictureMirrorMode;
 import io.flutter.view.TextureRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
   private final Activity activity;
@@ -34,8 +43,29 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
   private final PermissionsRegistry permissionsRegistry;
   private final TextureRegistry textureRegistry;
   private final MethodChannel methodChannel;
-  private final EventChannel imageStreamChannel;
+  private final CameraThreadPool threadPool =
+      new CameraThreadPool(CameraThreadPool.DEFAULT_MAX_THREADS);
+  /** The created cameras, keyed by the id of their texture. */
+  private final Map<Long, Camera> cameras = new HashMap<>();
+  /** The cameras that are closing, which are only opened again once they are closed. */
+  private final PendingCameraCloses pendingCloses = new PendingCameraCloses();
+  /** The most recently created camera, used by calls that do not pass a camera id. */
   private @Nullable Camera camera;
+  /**
+   * The methods that do not act on a created camera. Every other method answers {@code
+   * cameraNotFound} when its camera was not created or was already disposed.
+   */
+  private static final Set<String> CAMERA_INDEPENDENT_METHODS =
+      new HashSet<>(
+          Arrays.asList(
+              "availableCameras",
+              "create",
+              "prepareForVideoRecording",
+              "setPrewarmOnCreate",
+              "dispose"));
+
+  /** Whether new cameras are opened when they are created rather than when they are initialized. */
+  private boolean prewarmOnCreate = true;
 
   MethodCallHandlerImpl(
       Activity activity,
@@ -50,12 +80,23 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     this.textureRegistry = textureRegistry;
 
     methodChannel = new MethodChannel(messenger, "plugins.flutter.io/camera");
-    imageStreamChannel = new EventChannel(messenger, "plugins.flutter.io/camera/imageStream");
     methodChannel.setMethodCallHandler(this);
   }
 
   @Override
   public void onMethodCall(@NonNull MethodCall call, @NonNull final Result result) {
+    final Number cameraId = call.argument("cameraId");
+    final Camera camera = cameraId == null ? this.camera : cameras.get(cameraId.longValue());
+    if (camera == null && !CAMERA_INDEPENDENT_METHODS.contains(call.method)) {
+      // The camera may have been disposed while this call was in flight.
+      result.error(
+          "cameraNotFound",
+          "Camera not found. Please call the 'create' method before calling '"
+              + call.method
+              + "'.",
+          null);
+      return;
+    }
     switch (call.method) {
       case "availableCameras":
         try {
@@ -66,41 +107,47 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         break;
       case "create":
         {
-          if (camera != null) {
-            camera.close();
+          final String cameraName = call.argument("cameraName");
+          final List<String> awaitedCameraNames;
+          try {
+            awaitedCameraNames = closeCamerasNotConcurrentWith(cameraName);
+          } catch (Exception e) {
+            handleException(e, result);
+            return;
           }
+          awaitedCameraNames.add(cameraName);
 
-          cameraPermissions.requestPermissions(
-              activity,
-              permissionsRegistry,
-              call.argument("enableAudio"),
-              (String errCode, String errDesc) -> {
-                if (errCode == null) {
-                  try {
-                    instantiateCamera(call, result);
-                  } catch (Exception e) {
-                    handleException(e, result);
-                  }
-                } else {
-                  result.error(errCode, errDesc, null);
-                }
-              });
+          // Opening a camera that is still closing would race the camera service.
+          pendingCloses.runWhenClosed(
+              awaitedCameraNames,
+              () ->
+                  cameraPermissions.requestPermissions(
+                      activity,
+                      permissionsRegistry,
+                      call.argument("enableAudio"),
+                      (String errCode, String errDesc) -> {
+                        if (errCode == null) {
+                          try {
+                            Camera createdCamera = instantiateCamera(call, result);
+                            if (prewarmOnCreate) {
+                              createdCamera.prewarm();
+                            }
+                          } catch (Exception e) {
+                            handleException(e, result);
+                          }
+                        } else {
+                          result.error(errCode, errDesc, null);
+                        }
+                      }));
           break;
         }
       case "initialize":
         {
-          if (camera != null) {
-            try {
-              camera.open(call.argument("imageFormatGroup"));
-              result.success(null);
-            } catch (Exception e) {
-              handleException(e, result);
-            }
-          } else {
-            result.error(
-                "cameraNotFound",
-                "Camera not found. Please call the 'create' method before calling 'initialize'.",
-                null);
+          try {
+            camera.open(call.argument("imageFormatGroup"));
+            result.success(null);
+          } catch (Exception e) {
+            handleException(e, result);
           }
           break;
         }
@@ -109,9 +156,23 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
           camera.takePicture(result);
           break;
         }
+      case "takePictureBurst":
+        {
+          Integer count = call.argument("count");
+          camera.takePictureBurst(result, count == null ? 1 : count);
+          break;
+        }
+      case "takeRawPicture":
+        {
+          camera.takeRawPicture(result);
+          break;
+        }
       case "prepareForVideoRecording":
         {
-          // This optimization is not required for Android.
+          // Android only needs the recording options, the session is prepared when recording.
+          if (camera != null) {
+            camera.prepareForVideoRecording(VideoRecordingSettings.fromMethodCall(call));
+          }
           result.success(null);
           break;
         }
@@ -150,6 +211,50 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
           }
           break;
         }
+      case "setPictureMirrorMode":
+        {
+          String modeStr = call.argument("mode");
+          PictureMirrorMode mode = PictureMirrorMode.getValueForString(modeStr);
+          if (mode == null) {
+            result.error(
+                "setPictureMirrorModeFailed", "Unknown picture mirror mode " + modeStr, null);
+            return;
+          }
+          camera.setPictureMirrorMode(mode);
+          result.success(null);
+          break;
+        }
+      case "setSyncPicturesToDisk":
+        {
+          Boolean enabled = call.argument("enabled");
+          camera.setSyncPicturesToDisk(enabled != null && enabled);
+          result.success(null);
+          break;
+        }
+      case "setPrewarmOnCreate":
+        {
+          Boolean enabled = call.argument("enabled");
+          prewarmOnCreate = enabled != null && enabled;
+          result.success(null);
+          break;
+        }
+      case "getStartupMetrics":
+        {
+          result.success(camera.getStartupMetrics());
+          break;
+        }
+      case "startCaptureMetrics":
+        {
+          camera.setCaptureMetricsEnabled(true);
+          result.success(null);
+          break;
+        }
+      case "stopCaptureMetrics":
+        {
+          camera.setCaptureMetricsEnabled(false);
+          result.success(null);
+          break;
+        }
       case "setExposureMode":
         {
           String modeStr = call.argument("mode");
@@ -248,20 +353,51 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
           }
           break;
         }
+      case "setCameraControls":
+        {
+          final CameraControls controls;
+          try {
+            controls = CameraControls.fromMethodCall(call);
+          } catch (IllegalArgumentException e) {
+            result.error("setCameraControlsFailed", e.getMessage(), null);
+            return;
+          }
+          try {
+            camera.setCameraControls(result, controls);
+          } catch (Exception e) {
+            handleException(e, result);
+          }
+          break;
+        }
       case "startImageStream":
         {
           try {
-            camera.startPreviewWithImageStream(imageStreamChannel);
+            long id = cameraId == null ? findCameraId(camera) : cameraId.longValue();
+            camera.startPreviewWithImageStream(
+                new EventChannel(messenger, "plugins.flutter.io/camera/imageStream" + id),
+                new ImageStreamBufferChannel(messenger, id),
+                ImageStreamSettings.fromMethodCall(call));
             result.success(null);
           } catch (Exception e) {
             handleException(e, result);
           }
           break;
         }
+      case "receivedImageStreamData":
+        {
+          camera.receivedImageStreamData();
+          result.success(null);
+          break;
+        }
+      case "getImageStreamStatistics":
+        {
+          result.success(camera.getImageStreamStatistics());
+          break;
+        }
       case "stopImageStream":
         {
           try {
-            camera.startPreview();
+            camera.stopImageStream();
             result.success(null);
           } catch (Exception e) {
             handleException(e, result);
@@ -270,8 +406,6 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "getMaxZoomLevel":
         {
-          assert camera != null;
-
           try {
             float maxZoomLevel = camera.getMaxZoomLevel();
             result.success(maxZoomLevel);
@@ -282,8 +416,6 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "getMinZoomLevel":
         {
-          assert camera != null;
-
           try {
             float minZoomLevel = camera.getMinZoomLevel();
             result.success(minZoomLevel);
@@ -294,8 +426,6 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "setZoomLevel":
         {
-          assert camera != null;
-
           Double zoom = call.argument("zoom");
 
           if (zoom == null) {
@@ -353,7 +483,14 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
       case "dispose":
         {
           if (camera != null) {
-            camera.dispose();
+            // Returns right away, the camera is closed on its background thread.
+            final String cameraName = camera.getCameraName();
+            pendingCloses.onCloseStarted(cameraName);
+            camera.dispose(() -> pendingCloses.onCloseFinished(cameraName));
+            cameras.values().remove(camera);
+            if (camera == this.camera) {
+              this.camera = null;
+            }
           }
           result.success(null);
           break;
@@ -368,7 +505,51 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     methodChannel.setMethodCallHandler(null);
   }
 
-  private void instantiateCamera(MethodCall call, Result result) throws CameraAccessException {
+  /**
+   * Closes the created cameras that can not stream at the same time as {@code cameraName}.
+   *
+   * <p>The closed cameras are disposed and forgotten, so they are neither counted against the next
+   * camera that is created nor closed again. Dart is told that they closed, and disposing them
+   * from Dart afterwards has no effect.
+   *
+   * @return the names of the closed cameras.
+   */
+  private List<String> closeCamerasNotConcurrentWith(String cameraName)
+      throws CameraAccessException {
+    List<String> closedCameraNames = new ArrayList<>();
+    if (cameras.isEmpty()) {
+      return closedCameraNames;
+    }
+    List<String> cameraNames = new ArrayList<>();
+    cameraNames.add(cameraName);
+    for (Camera openCamera : cameras.values()) {
+      cameraNames.add(openCamera.getCameraName());
+    }
+    Set<Set<String>> concurrentCameraIds =
+        CameraUtils.getConcurrentCameraIds(CameraUtils.getCameraManager(activity));
+    if (!CameraUtils.canOpenConcurrently(concurrentCameraIds, cameraNames)) {
+      for (Camera openCamera : cameras.values()) {
+        final String openCameraName = openCamera.getCameraName();
+        pendingCloses.onCloseStarted(openCameraName);
+        openCamera.dispose(() -> pendingCloses.onCloseFinished(openCameraName));
+        closedCameraNames.add(openCameraName);
+      }
+      cameras.clear();
+      camera = null;
+    }
+    return closedCameraNames;
+  }
+
+  private long findCameraId(Camera camera) {
+    for (Map.Entry<Long, Camera> entry : cameras.entrySet()) {
+      if (entry.getValue() == camera) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("The camera was not created by this plugin instance.");
+  }
+
+  private Camera instantiateCamera(MethodCall call, Result result) throws CameraAccessException {
     String cameraName = call.argument("cameraName");
     String preset = call.argument("resolutionPreset");
     boolean enableAudio = call.argument("enableAudio");
@@ -390,11 +571,14 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
             dartMessenger,
             cameraProperties,
             resolutionPreset,
-            enableAudio);
+            enableAudio,
+            threadPool);
+    cameras.put(flutterSurfaceTexture.id(), camera);
 
     Map<String, Object> reply = new HashMap<>();
     reply.put("cameraId", flutterSurfaceTexture.id());
     result.success(reply);
+    return camera;
   }
 
   // We move catching CameraAccessException out of onMethodCall because it causes a crash
@@ -0,0 +1,89 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the cameras that are still closing, so they are not opened again before the camera
+ * service released them.
+ *
+ * <p>Only used on the main thread.
+ */
+final class PendingCameraCloses {
+  /** Number of closes in progress, keyed by camera name. */
+  private final Map<String, Integer> closingCameras = new HashMap<>();
+
+  private final List<PendingAction> pendingActions = new ArrayList<>();
+
+  /** Records that {@code cameraName} started closing. */
+  void onCloseStarted(@NonNull String cameraName) {
+    Integer count = closingCameras.get(cameraName);
+    closingCameras.put(cameraName, count == null ? 1 : count + 1);
+  }
+
+  /** Records that a close of {@code cameraName} finished, running the actions waiting for it. */
+  void onCloseFinished(@NonNull String cameraName) {
+    Integer count = closingCameras.get(cameraName);
+    if (count == null) {
+      return;
+    }
+    if (count > 1) {
+      closingCameras.put(cameraName, count - 1);
+      return;
+    }
+    closingCameras.remove(cameraName);
+
+    List<Runnable> readyActions = new ArrayList<>();
+    for (Iterator<PendingAction> iterator = pendingActions.iterator(); iterator.hasNext(); ) {
+      PendingAction pendingAction = iterator.next();
+      if (!isClosing(pendingAction.cameraNames)) {
+        iterator.remove();
+        readyActions.add(pendingAction.action);
+      }
+    }
+    // Run after the list was updated, as an action may close cameras itself.
+    for (Runnable action : readyActions) {
+      action.run();
+    }
+  }
+
+  /**
+   * Runs {@code action} once none of {@code cameraNames} is closing, right away when they are all
+   * closed already.
+   */
+  void runWhenClosed(@NonNull Collection<String> cameraNames, @NonNull Runnable action) {
+    if (!isClosing(cameraNames)) {
+      action.run();
+      return;
+    }
+    pendingActions.add(new PendingAction(new ArrayList<>(cameraNames), action));
+  }
+
+  boolean isClosing(@NonNull Collection<String> cameraNames) {
+    for (String cameraName : cameraNames) {
+      if (closingCameras.containsKey(cameraName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class PendingAction {
+    final List<String> cameraNames;
+    final Runnable action;
+
+    PendingAction(List<String> cameraNames, Runnable action) {
+      this.cameraNames = cameraNames;
+      this.action = action;
+    }
+  }
+}
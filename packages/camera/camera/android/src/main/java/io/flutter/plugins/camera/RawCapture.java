@@ -0,0 +1,119 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import android.media.ImageReader;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Collects the raw image and the capture result of a RAW picture, which both arrive on the camera
+ * background thread, and saves them as a DNG on the image saver executor once both are known.
+ *
+ * <p>Only used on the camera background thread.
+ */
+final class RawCapture {
+  private final CameraCharacteristics characteristics;
+  private final int orientationDegrees;
+  private final boolean syncToDisk;
+  private final File file;
+  private final Executor executor;
+  private final ImageSaver.Callback callback;
+
+  @Nullable private TotalCaptureResult captureResult;
+  @Nullable private Image image;
+  private boolean finished;
+
+  /**
+   * Creates a new raw capture.
+   *
+   * @param characteristics the characteristics of the camera taking the picture.
+   * @param orientationDegrees the clockwise rotation that shows the picture upright.
+   * @param syncToDisk whether to fsync the file before reporting completion.
+   * @param file the file to save the DNG to.
+   * @param executor runs the {@link DngSaver}.
+   * @param callback receives the path of the DNG, or the error.
+   */
+  RawCapture(
+      @NonNull CameraCharacteristics characteristics,
+      int orientationDegrees,
+      boolean syncToDisk,
+      @NonNull File file,
+      @NonNull Executor executor,
+      @NonNull ImageSaver.Callback callback) {
+    this.characteristics = characteristics;
+    this.orientationDegrees = orientationDegrees;
+    this.syncToDisk = syncToDisk;
+    this.file = file;
+    this.executor = executor;
+    this.callback = callback;
+  }
+
+  /** Receives the raw image from the raw image reader. */
+  void onImageAvailable(@NonNull ImageReader reader) {
+    final Image nextImage = reader.acquireNextImage();
+    if (nextImage == null) {
+      return;
+    }
+    if (finished || image != null) {
+      // Not part of this capture.
+      nextImage.close();
+      return;
+    }
+    image = nextImage;
+    saveIfReady();
+  }
+
+  /** Receives the result of the capture request of the picture. */
+  void onCaptureCompleted(@NonNull TotalCaptureResult result) {
+    if (finished) {
+      return;
+    }
+    captureResult = result;
+    saveIfReady();
+  }
+
+  /** Reports that the capture request of the picture failed. */
+  void onCaptureFailed() {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    if (image != null) {
+      image.close();
+      image = null;
+    }
+    callback.onError("captureFailure", "The raw picture could not be captured.");
+  }
+
+  private void saveIfReady() {
+    if (captureResult == null || image == null) {
+      return;
+    }
+    finished = true;
+    final Image savedImage = image;
+    image = null;
+    try {
+      executor.execute(
+          new DngSaver(
+              characteristics,
+              captureResult,
+              savedImage,
+              orientationDegrees,
+              syncToDisk,
+              file,
+              callback));
+    } catch (RejectedExecutionException e) {
+      savedImage.close();
+      callback.onError("IOError", "Failed saving raw image: the camera was closed.");
+    }
+  }
+}
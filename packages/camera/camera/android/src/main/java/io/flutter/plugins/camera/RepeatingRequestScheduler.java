@@ -0,0 +1,161 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.os.Handler;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coalesces repeating request updates so at most one is submitted per sensor frame.
+ *
+ * <p>Every control change from dart used to rebuild and submit the preview request right away.
+ * Gestures such as pinch to zoom produce more changes than the camera produces frames, so the HAL
+ * queued requests and fell behind. Changes are applied to the request builder right away, but
+ * once a request was submitted the next one waits for a frame to complete, at which point all
+ * changes made in the meantime are submitted together and every waiting caller is answered.
+ *
+ * <p>{@link #schedule} must be called on the thread owning {@code handler}, {@link
+ * #onFrameCompleted()} and {@link #reset()} may be called from any thread.
+ */
+final class RepeatingRequestScheduler {
+  /** Submits the current repeating request. */
+  interface Submitter {
+    /**
+     * Builds and submits the repeating request.
+     *
+     * @param onSuccess run once the request was submitted.
+     * @param onError called when the request could not be submitted.
+     */
+    void submit(@NonNull Runnable onSuccess, @NonNull ErrorCallback onError);
+  }
+
+  /**
+   * Time after which a pending update is submitted even though no frame completed, so callers are
+   * not stalled when the preview is paused or the camera stopped producing frames.
+   */
+  static final long FRAME_TIMEOUT_MS = 100;
+
+  private final Handler handler;
+  private final Submitter submitter;
+  private final Runnable flushRunnable = this::flushIfReady;
+  private final Runnable timeoutRunnable = this::flush;
+
+  private final List<Runnable> pendingSuccessCallbacks = new ArrayList<>();
+  private final List<ErrorCallback> pendingErrorCallbacks = new ArrayList<>();
+  private boolean pending;
+  private boolean awaitingFrame;
+  private int submittedCount;
+
+  /**
+   * Creates a new scheduler.
+   *
+   * @param handler handler of the thread updates are scheduled on.
+   * @param submitter submits the repeating request.
+   */
+  RepeatingRequestScheduler(@NonNull Handler handler, @NonNull Submitter submitter) {
+    this.handler = handler;
+    this.submitter = submitter;
+  }
+
+  /**
+   * Requests the repeating request to be submitted with the current builder settings.
+   *
+   * @param onSuccess run once a request including the current settings was submitted.
+   * @param onError called when that request could not be submitted.
+   */
+  void schedule(@Nullable Runnable onSuccess, @NonNull ErrorCallback onError) {
+    final boolean submitNow;
+    synchronized (this) {
+      if (onSuccess != null) {
+        pendingSuccessCallbacks.add(onSuccess);
+      }
+      pendingErrorCallbacks.add(onError);
+      if (pending) {
+        return;
+      }
+      pending = true;
+      submitNow = !awaitingFrame;
+    }
+    if (submitNow) {
+      flush();
+    } else {
+      handler.postDelayed(timeoutRunnable, FRAME_TIMEOUT_MS);
+    }
+  }
+
+  /** Called when the camera completed a frame, which releases the next pending update. */
+  void onFrameCompleted() {
+    synchronized (this) {
+      if (!awaitingFrame) {
+        return;
+      }
+      awaitingFrame = false;
+      if (!pending) {
+        return;
+      }
+    }
+    handler.post(flushRunnable);
+  }
+
+  /**
+   * Forgets about the frame being waited for, used when a new capture session is configured. A
+   * pending update is submitted to the new session right away.
+   */
+  void reset() {
+    synchronized (this) {
+      awaitingFrame = false;
+      if (!pending) {
+        return;
+      }
+    }
+    handler.post(flushRunnable);
+  }
+
+  /** Returns the number of requests submitted so far. */
+  synchronized int getSubmittedCount() {
+    return submittedCount;
+  }
+
+  private void flushIfReady() {
+    synchronized (this) {
+      if (awaitingFrame) {
+        return;
+      }
+    }
+    flush();
+  }
+
+  private void flush() {
+    final List<Runnable> successCallbacks;
+    final List<ErrorCallback> errorCallbacks;
+    synchronized (this) {
+      if (!pending) {
+        return;
+      }
+      pending = false;
+      awaitingFrame = true;
+      submittedCount++;
+      successCallbacks = new ArrayList<>(pendingSuccessCallbacks);
+      errorCallbacks = new ArrayList<>(pendingErrorCallbacks);
+      pendingSuccessCallbacks.clear();
+      pendingErrorCallbacks.clear();
+    }
+    handler.removeCallbacks(timeoutRunnable);
+    submitter.submit(
+        () -> {
+          for (Runnable callback : successCallbacks) {
+            callback.run();
+          }
+        },
+        (errorCode, errorMessage) -> {
+          for (ErrorCallback callback : errorCallbacks) {
+            callback.onError(errorCode, errorMessage);
+          }
+        });
+  }
+}
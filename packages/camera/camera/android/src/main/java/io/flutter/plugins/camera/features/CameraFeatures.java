@@ -5,6 +5,10 @@
 package io.flutter.plugins.camera.features;
 
 import android.app.Activity;
+import android.hardware.camera2.CaptureRequest;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import io.flutter.plugins.camera.CameraProperties;
 import io.flutter.plugins.camera.DartMessenger;
 import io.flutter.plugins.camera.features.autofocus.AutoFocusFeature;
@@ -19,27 +23,34 @@ import io.flutter.plugins.camera.features.resolution.ResolutionFeature;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * These are all of our available features in the camera. Used in the Camera to access all features
  * in a simpler way.
+ *
+ * <p>Features are kept in a table indexed by feature, which also tracks the features changed since
+ * the preview request builder was last updated. Re-applying a single control then only touches
+ * that feature instead of every feature.
  */
 public class CameraFeatures {
-  private static final String AUTO_FOCUS = "AUTO_FOCUS";
-  private static final String EXPOSURE_LOCK = "EXPOSURE_LOCK";
-  private static final String EXPOSURE_OFFSET = "EXPOSURE_OFFSET";
-  private static final String EXPOSURE_POINT = "EXPOSURE_POINT";
-  private static final String FLASH = "FLASH";
-  private static final String FOCUS_POINT = "FOCUS_POINT";
-  private static final String FPS_RANGE = "FPS_RANGE";
-  private static final String NOISE_REDUCTION = "NOISE_REDUCTION";
-  private static final String REGION_BOUNDARIES = "REGION_BOUNDARIES";
-  private static final String RESOLUTION = "RESOLUTION";
-  private static final String SENSOR_ORIENTATION = "SENSOR_ORIENTATION";
-  private static final String ZOOM_LEVEL = "ZOOM_LEVEL";
+  private static final String TAG = "CameraFeatures";
+
+  private static final int AUTO_FOCUS = 0;
+  private static final int EXPOSURE_LOCK = 1;
+  private static final int EXPOSURE_OFFSET = 2;
+  private static final int EXPOSURE_POINT = 3;
+  private static final int FLASH = 4;
+  private static final int FOCUS_POINT = 5;
+  private static final int FPS_RANGE = 6;
+  private static final int NOISE_REDUCTION = 7;
+  private static final int RESOLUTION = 8;
+  private static final int SENSOR_ORIENTATION = 9;
+  private static final int ZOOM_LEVEL = 10;
+  private static final int FEATURE_COUNT = 11;
+  private static final int ALL_FEATURES = (1 << FEATURE_COUNT) - 1;
 
   public static CameraFeatures init(
       CameraFeatureFactory cameraFeatureFactory,
@@ -74,7 +85,9 @@ public class CameraFeatures {
     return cameraFeatures;
   }
 
-  private Map<String, CameraFeature> featureMap = new HashMap<>();
+  private final CameraFeature<?>[] features = new CameraFeature<?>[FEATURE_COUNT];
+  private int changedFeatures;
+  @Nullable private CaptureRequest.Builder syncedBuilder;
 
   /**
    * Gets a collection of all features that have been set.
@@ -82,7 +95,74 @@ public class CameraFeatures {
    * @return A collection of all features that have been set.
    */
   public Collection<CameraFeature> getAllFeatures() {
-    return this.featureMap.values();
+    List<CameraFeature> allFeatures = new ArrayList<>(FEATURE_COUNT);
+    for (CameraFeature<?> feature : features) {
+      if (feature != null) {
+        allFeatures.add(feature);
+      }
+    }
+    return allFeatures;
+  }
+
+  /**
+   * Marks a feature whose value changed, so the next {@link #updateBuilder} applies it again.
+   *
+   * @param feature the changed feature.
+   */
+  public synchronized void markChanged(@NonNull CameraFeature<?> feature) {
+    for (int i = 0; i < FEATURE_COUNT; i++) {
+      if (features[i] == feature) {
+        changedFeatures |= 1 << i;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Updates a capture request builder with the features.
+   *
+   * <p>The last updated builder is remembered. Updating it again only applies the features that
+   * were marked as changed since, any other builder gets every feature.
+   *
+   * @param requestBuilder the builder to update.
+   */
+  public synchronized void updateBuilder(@NonNull CaptureRequest.Builder requestBuilder) {
+    applyFeatures(requestBuilder, requestBuilder == syncedBuilder ? changedFeatures : ALL_FEATURES);
+    syncedBuilder = requestBuilder;
+    changedFeatures = 0;
+  }
+
+  /**
+   * Updates a short lived capture request builder with every feature, without replacing the
+   * builder remembered by {@link #updateBuilder}.
+   *
+   * @param requestBuilder the builder to update.
+   */
+  public synchronized void updateBuilderWithAllFeatures(
+      @NonNull CaptureRequest.Builder requestBuilder) {
+    applyFeatures(requestBuilder, ALL_FEATURES);
+  }
+
+  private void applyFeatures(CaptureRequest.Builder requestBuilder, int featureMask) {
+    if (featureMask == 0) {
+      return;
+    }
+    final boolean debugLogging = Log.isLoggable(TAG, Log.DEBUG);
+    for (int i = 0; i < FEATURE_COUNT; i++) {
+      final CameraFeature<?> feature = features[i];
+      if ((featureMask & (1 << i)) == 0 || feature == null) {
+        continue;
+      }
+      if (debugLogging) {
+        Log.d(TAG, "Updating builder with feature: " + feature.getDebugName());
+      }
+      feature.updateBuilder(requestBuilder);
+    }
+  }
+
+  private synchronized void setFeature(int index, CameraFeature<?> feature) {
+    features[index] = feature;
+    changedFeatures |= 1 << index;
   }
 
   /**
@@ -91,7 +171,7 @@ public class CameraFeatures {
    * @return the auto focus feature.
    */
   public AutoFocusFeature getAutoFocus() {
-    return (AutoFocusFeature) featureMap.get(AUTO_FOCUS);
+    return (AutoFocusFeature) features[AUTO_FOCUS];
   }
 
   /**
@@ -100,7 +180,7 @@ public class CameraFeatures {
    * @param autoFocus the {@link AutoFocusFeature} instance to set.
    */
   public void setAutoFocus(AutoFocusFeature autoFocus) {
-    this.featureMap.put(AUTO_FOCUS, autoFocus);
+    setFeature(AUTO_FOCUS, autoFocus);
   }
 
   /**
@@ -109,7 +189,7 @@ public class CameraFeatures {
    * @return the exposure lock feature.
    */
   public ExposureLockFeature getExposureLock() {
-    return (ExposureLockFeature) featureMap.get(EXPOSURE_LOCK);
+    return (ExposureLockFeature) features[EXPOSURE_LOCK];
   }
 
   /**
@@ -118,7 +198,7 @@ public class CameraFeatures {
    * @param exposureLock the {@link ExposureLockFeature} instance to set.
    */
   public void setExposureLock(ExposureLockFeature exposureLock) {
-    this.featureMap.put(EXPOSURE_LOCK, exposureLock);
+    setFeature(EXPOSURE_LOCK, exposureLock);
   }
 
   /**
@@ -127,7 +207,7 @@ public class CameraFeatures {
    * @return the exposure offset feature.
    */
   public ExposureOffsetFeature getExposureOffset() {
-    return (ExposureOffsetFeature) featureMap.get(EXPOSURE_OFFSET);
+    return (ExposureOffsetFeature) features[EXPOSURE_OFFSET];
   }
 
   /**
@@ -136,7 +216,7 @@ public class CameraFeatures {
    * @param exposureOffset the {@link ExposureOffsetFeature} instance to set.
    */
   public void setExposureOffset(ExposureOffsetFeature exposureOffset) {
-    this.featureMap.put(EXPOSURE_OFFSET, exposureOffset);
+    setFeature(EXPOSURE_OFFSET, exposureOffset);
   }
 
   /**
@@ -145,7 +225,7 @@ public class CameraFeatures {
    * @return the exposure point feature.
    */
   public ExposurePointFeature getExposurePoint() {
-    return (ExposurePointFeature) featureMap.get(EXPOSURE_POINT);
+    return (ExposurePointFeature) features[EXPOSURE_POINT];
   }
 
   /**
@@ -154,7 +234,7 @@ public class CameraFeatures {
    * @param exposurePoint the {@link ExposurePointFeature} instance to set.
    */
   public void setExposurePoint(ExposurePointFeature exposurePoint) {
-    this.featureMap.put(EXPOSURE_POINT, exposurePoint);
+    setFeature(EXPOSURE_POINT, exposurePoint);
   }
 
   /**
@@ -163,7 +243,7 @@ public class CameraFeatures {
    * @return the flash feature.
    */
   public FlashFeature getFlash() {
-    return (FlashFeature) featureMap.get(FLASH);
+    return (FlashFeature) features[FLASH];
   }
 
   /**
@@ -172,7 +252,7 @@ public class CameraFeatures {
    * @param flash the {@link FlashFeature} instance to set.
    */
   public void setFlash(FlashFeature flash) {
-    this.featureMap.put(FLASH, flash);
+    setFeature(FLASH, flash);
   }
 
   /**
@@ -181,7 +261,7 @@ public class CameraFeatures {
    * @return the focus point feature.
    */
   public FocusPointFeature getFocusPoint() {
-    return (FocusPointFeature) featureMap.get(FOCUS_POINT);
+    return (FocusPointFeature) features[FOCUS_POINT];
   }
 
   /**
@@ -190,7 +270,7 @@ public class CameraFeatures {
    * @param focusPoint the {@link FocusPointFeature} instance to set.
    */
   public void setFocusPoint(FocusPointFeature focusPoint) {
-    this.featureMap.put(FOCUS_POINT, focusPoint);
+    setFeature(FOCUS_POINT, focusPoint);
   }
 
   /**
@@ -199,7 +279,7 @@ public class CameraFeatures {
    * @return the fps range feature.
    */
   public FpsRangeFeature getFpsRange() {
-    return (FpsRangeFeature) featureMap.get(FPS_RANGE);
+    return (FpsRangeFeature) features[FPS_RANGE];
   }
 
   /**
@@ -208,7 +288,7 @@ public class CameraFeatures {
    * @param fpsRange the {@link FpsRangeFeature} instance to set.
    */
   public void setFpsRange(FpsRangeFeature fpsRange) {
-    this.featureMap.put(FPS_RANGE, fpsRange);
+    setFeature(FPS_RANGE, fpsRange);
   }
 
   /**
@@ -217,7 +297,7 @@ public class CameraFeatures {
    * @return the noise reduction feature.
    */
   public NoiseReductionFeature getNoiseReduction() {
-    return (NoiseReductionFeature) featureMap.get(NOISE_REDUCTION);
+    return (NoiseReductionFeature) features[NOISE_REDUCTION];
   }
 
   /**
@@ -226,7 +306,7 @@ public class CameraFeatures {
    * @param noiseReduction the {@link NoiseReductionFeature} instance to set.
    */
   public void setNoiseReduction(NoiseReductionFeature noiseReduction) {
-    this.featureMap.put(NOISE_REDUCTION, noiseReduction);
+    setFeature(NOISE_REDUCTION, noiseReduction);
   }
 
   /**
@@ -235,7 +315,7 @@ public class CameraFeatures {
    * @return the resolution feature.
    */
   public ResolutionFeature getResolution() {
-    return (ResolutionFeature) featureMap.get(RESOLUTION);
+    return (ResolutionFeature) features[RESOLUTION];
   }
 
   /**
@@ -244,7 +324,7 @@ public class CameraFeatures {
    * @param resolution the {@link ResolutionFeature} instance to set.
    */
   public void setResolution(ResolutionFeature resolution) {
-    this.featureMap.put(RESOLUTION, resolution);
+    setFeature(RESOLUTION, resolution);
   }
 
   /**
@@ -253,7 +333,7 @@ public class CameraFeatures {
    * @return the sensor orientation feature.
    */
   public SensorOrientationFeature getSensorOrientation() {
-    return (SensorOrientationFeature) featureMap.get(SENSOR_ORIENTATION);
+    return (SensorOrientationFeature) features[SENSOR_ORIENTATION];
   }
 
   /**
@@ -262,7 +342,7 @@ public class CameraFeatures {
    * @param sensorOrientation the {@link SensorOrientationFeature} instance to set.
    */
   public void setSensorOrientation(SensorOrientationFeature sensorOrientation) {
-    this.featureMap.put(SENSOR_ORIENTATION, sensorOrientation);
+    setFeature(SENSOR_ORIENTATION, sensorOrientation);
   }
 
   /**
@@ -271,7 +351,7 @@ public class CameraFeatures {
    * @return the zoom level feature.
    */
   public ZoomLevelFeature getZoomLevel() {
-    return (ZoomLevelFeature) featureMap.get(ZOOM_LEVEL);
+    return (ZoomLevelFeature) features[ZOOM_LEVEL];
   }
 
   /**
@@ -280,6 +360,6 @@ public class CameraFeatures {
    * @param zoomLevel the {@link ZoomLevelFeature} instance to set.
    */
   public void setZoomLevel(ZoomLevelFeature zoomLevel) {
-    this.featureMap.put(ZOOM_LEVEL, zoomLevel);
+    setFeature(ZOOM_LEVEL, zoomLevel);
   }
 }
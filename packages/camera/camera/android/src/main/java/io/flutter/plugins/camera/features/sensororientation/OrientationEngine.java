@@ -0,0 +1,230 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features.sensororientation;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.embedding.engine.systemchannels.PlatformChannel.DeviceOrientation;
+
+/**
+ * Turns accelerometer samples into device orientation changes.
+ *
+ * <p>Unlike an {@link android.view.OrientationEventListener}, which calls the main thread for every
+ * sample, the samples are read on a background thread at a low rate and may be batched by the
+ * sensor hub. The angle is quantized to one of the four orientations with some hysteresis around
+ * the boundaries, and a new orientation is only reported once it was stable for the debounce
+ * duration. The listener is called once per change.
+ */
+final class OrientationEngine implements SensorEventListener {
+  /** Receives the orientation changes, on the background thread of the engine. */
+  interface Listener {
+    void onOrientationChanged(@NonNull DeviceOrientation orientation);
+  }
+
+  /** Angle reported while the device lies flat and the orientation can not be told. */
+  static final int ORIENTATION_UNKNOWN = -1;
+
+  /** Time between two accelerometer samples, matching {@link SensorManager#SENSOR_DELAY_NORMAL}. */
+  static final int DEFAULT_SAMPLING_PERIOD_US = 200_000;
+  /** Time the sensor hub may hold samples back to deliver them in a single batch. */
+  static final int DEFAULT_MAX_REPORT_LATENCY_US = 200_000;
+  /** Time a new orientation has to be stable before it is reported. */
+  static final long DEFAULT_DEBOUNCE_MS = 150;
+  /** Degrees beyond the 45 degree boundary the device has to be turned to leave an orientation. */
+  static final int DEFAULT_HYSTERESIS_DEGREES = 15;
+
+  private static final int NO_QUADRANT = -1;
+
+  private final Context context;
+  private final Listener listener;
+  private final int samplingPeriodUs;
+  private final int maxReportLatencyUs;
+  private final long debounceNanos;
+  private final int hysteresisDegrees;
+
+  @Nullable private HandlerThread thread;
+  private int quadrant = NO_QUADRANT;
+  private int pendingQuadrant = NO_QUADRANT;
+  private long pendingSinceNanos;
+
+  OrientationEngine(@NonNull Context context, @NonNull Listener listener) {
+    this(
+        context,
+        listener,
+        DEFAULT_SAMPLING_PERIOD_US,
+        DEFAULT_MAX_REPORT_LATENCY_US,
+        DEFAULT_DEBOUNCE_MS,
+        DEFAULT_HYSTERESIS_DEGREES);
+  }
+
+  /**
+   * Creates a new engine.
+   *
+   * @param context used to access the {@link SensorManager}.
+   * @param listener receives the orientation changes.
+   * @param samplingPeriodUs time between two accelerometer samples.
+   * @param maxReportLatencyUs time samples may be batched for, 0 to deliver every sample at once.
+   * @param debounceMs time a new orientation has to be stable before it is reported.
+   * @param hysteresisDegrees degrees beyond the boundary needed to leave an orientation.
+   */
+  OrientationEngine(
+      @NonNull Context context,
+      @NonNull Listener listener,
+      int samplingPeriodUs,
+      int maxReportLatencyUs,
+      long debounceMs,
+      int hysteresisDegrees) {
+    this.context = context;
+    this.listener = listener;
+    this.samplingPeriodUs = samplingPeriodUs;
+    this.maxReportLatencyUs = maxReportLatencyUs;
+    this.debounceNanos = debounceMs * 1_000_000L;
+    this.hysteresisDegrees = hysteresisDegrees;
+  }
+
+  /**
+   * Starts reading the accelerometer.
+   *
+   * @return false when the device has no accelerometer.
+   */
+  boolean start() {
+    if (thread != null) {
+      return true;
+    }
+    final SensorManager sensorManager = getSensorManager();
+    final Sensor accelerometer =
+        sensorManager == null ? null : sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+    if (accelerometer == null) {
+      return false;
+    }
+    quadrant = NO_QUADRANT;
+    pendingQuadrant = NO_QUADRANT;
+    thread = new HandlerThread("CameraOrientation");
+    thread.start();
+    final Handler handler = new Handler(thread.getLooper());
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      sensorManager.registerListener(
+          this, accelerometer, samplingPeriodUs, maxReportLatencyUs, handler);
+    } else {
+      sensorManager.registerListener(this, accelerometer, samplingPeriodUs, handler);
+    }
+    return true;
+  }
+
+  /** Stops reading the accelerometer. */
+  void stop() {
+    if (thread == null) {
+      return;
+    }
+    final SensorManager sensorManager = getSensorManager();
+    if (sensorManager != null) {
+      sensorManager.unregisterListener(this);
+    }
+    thread.quitSafely();
+    thread = null;
+  }
+
+  @Override
+  public void onSensorChanged(SensorEvent event) {
+    onAngle(toAngle(event.values[0], event.values[1], event.values[2]), event.timestamp);
+  }
+
+  @Override
+  public void onAccuracyChanged(Sensor sensor, int accuracy) {}
+
+  /**
+   * Handles the angle of a sample.
+   *
+   * @param angle the clockwise angle of the device from its natural orientation, or {@link
+   *     #ORIENTATION_UNKNOWN}.
+   * @param timestampNanos the time of the sample.
+   */
+  @VisibleForTesting
+  void onAngle(int angle, long timestampNanos) {
+    if (angle == ORIENTATION_UNKNOWN) {
+      // Lying flat keeps the last orientation.
+      pendingQuadrant = NO_QUADRANT;
+      return;
+    }
+    final int newQuadrant = quantize(angle);
+    if (newQuadrant == quadrant) {
+      pendingQuadrant = NO_QUADRANT;
+      return;
+    }
+    if (newQuadrant != pendingQuadrant) {
+      pendingQuadrant = newQuadrant;
+      pendingSinceNanos = timestampNanos;
+    }
+    // The first orientation is reported right away.
+    if (quadrant == NO_QUADRANT || timestampNanos - pendingSinceNanos >= debounceNanos) {
+      quadrant = newQuadrant;
+      pendingQuadrant = NO_QUADRANT;
+      listener.onOrientationChanged(toDeviceOrientation(quadrant));
+    }
+  }
+
+  private int quantize(int angle) {
+    if (quadrant != NO_QUADRANT) {
+      final int distance = Math.abs(((angle - quadrant * 90) % 360 + 540) % 360 - 180);
+      if (distance <= 45 + hysteresisDegrees) {
+        return quadrant;
+      }
+    }
+    return (angle + 45) % 360 / 90;
+  }
+
+  /**
+   * Computes the clockwise angle of the device from its natural orientation, the way {@link
+   * android.view.OrientationEventListener} does.
+   *
+   * @return the angle between 0 and 359, or {@link #ORIENTATION_UNKNOWN} when the device lies
+   *     flat.
+   */
+  @VisibleForTesting
+  static int toAngle(float x, float y, float z) {
+    final float gravityX = -x;
+    final float gravityY = -y;
+    final float gravityZ = -z;
+    // Ignore samples where the screen faces up or down too much to tell the orientation.
+    if ((gravityX * gravityX + gravityY * gravityY) * 4 < gravityZ * gravityZ) {
+      return ORIENTATION_UNKNOWN;
+    }
+    int angle = 90 - Math.round((float) Math.toDegrees(Math.atan2(-gravityY, gravityX)));
+    while (angle >= 360) {
+      angle -= 360;
+    }
+    while (angle < 0) {
+      angle += 360;
+    }
+    return angle;
+  }
+
+  private static DeviceOrientation toDeviceOrientation(int quadrant) {
+    switch (quadrant) {
+      case 1:
+        return DeviceOrientation.LANDSCAPE_RIGHT;
+      case 2:
+        return DeviceOrientation.PORTRAIT_DOWN;
+      case 3:
+        return DeviceOrientation.LANDSCAPE_LEFT;
+      default:
+        return DeviceOrientation.PORTRAIT_UP;
+    }
+  }
+
+  @Nullable
+  private SensorManager getSensorManager() {
+    return (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+  }
+}
@@ -23,7 +23,8 @@ public abstract class OrientationManager {
     protected final DartMessenger messenger;
     protected final boolean isFrontFacing;
     protected final int sensorOrientation;
-    protected PlatformChannel.DeviceOrientation lastOrientation;
+    /** Written by the thread delivering orientation changes, read when capturing. */
+    protected volatile PlatformChannel.DeviceOrientation lastOrientation;
 
     public static OrientationManager create(
             @NonNull Activity activity,
@@ -172,7 +173,15 @@ public abstract class OrientationManager {
      * class.
      */
     void handleUIOrientationChange() {
-        PlatformChannel.DeviceOrientation orientation = getUIOrientation();
+        onOrientationChanged(getUIOrientation());
+    }
+
+    /**
+     * Records a new orientation, notifying the client only when it differs from the last one.
+     *
+     * @param orientation The new orientation.
+     */
+    void onOrientationChanged(@NonNull PlatformChannel.DeviceOrientation orientation) {
         handleOrientationChange(orientation, lastOrientation, messenger);
         lastOrientation = orientation;
     }
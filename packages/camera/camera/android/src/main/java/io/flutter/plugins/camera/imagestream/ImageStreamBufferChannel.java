@@ -0,0 +1,42 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.nio.ByteBuffer;
+
+/**
+ * Raw binary channel that carries encoded image stream frames to Dart.
+ *
+ * <p>Unlike the {@code EventChannel} used by the default image stream, frames are not run through
+ * a message codec, so no intermediate {@code byte[]} or {@code Map} is created per frame.
+ */
+public class ImageStreamBufferChannel {
+  /** Prefix of the channel name, followed by the camera id. Must match the Dart side. */
+  public static final String CHANNEL_NAME = "plugins.flutter.io/camera/imageStreamBuffers";
+
+  private final BinaryMessenger messenger;
+  private final String channelName;
+
+  public ImageStreamBufferChannel(@NonNull BinaryMessenger messenger, long cameraId) {
+    this.messenger = messenger;
+    this.channelName = CHANNEL_NAME + cameraId;
+  }
+
+  /**
+   * Sends an encoded frame to Dart.
+   *
+   * <p>Must be called on the main thread. The engine copies the message before this method
+   * returns, so the buffer can be reused right after.
+   *
+   * @param frame a direct buffer whose position marks the end of the encoded frame.
+   * @param reply invoked once Dart has finished handling the frame, may be {@code null}.
+   */
+  public void send(@NonNull ByteBuffer frame, @Nullable BinaryMessenger.BinaryReply reply) {
+    messenger.send(channelName, frame, reply);
+  }
+}
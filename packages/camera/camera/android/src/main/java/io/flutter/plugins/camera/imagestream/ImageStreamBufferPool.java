@@ -0,0 +1,103 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A fixed ring of direct {@link ByteBuffer}s that are reused for every image stream frame.
+ *
+ * <p>Slots are acquired on the camera background thread, filled with an encoded frame, and
+ * released on the main thread once the frame has been handed to the Flutter engine. When every
+ * slot is still in flight {@link #acquire} returns {@code -1} and the caller drops the frame
+ * instead of allocating.
+ */
+public class ImageStreamBufferPool {
+  private final ByteBuffer[] buffers;
+  private final boolean[] inUse;
+
+  /**
+   * Creates a new pool.
+   *
+   * @param size number of buffers in the ring.
+   * @param initialCapacity capacity in bytes each buffer is allocated with.
+   */
+  public ImageStreamBufferPool(int size, int initialCapacity) {
+    if (size < 1) {
+      throw new IllegalArgumentException("An image stream buffer pool needs at least one buffer.");
+    }
+    buffers = new ByteBuffer[size];
+    inUse = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      buffers[i] = allocate(initialCapacity);
+    }
+  }
+
+  /** Returns the number of buffers in the ring. */
+  public int size() {
+    return buffers.length;
+  }
+
+  /**
+   * Reserves a free buffer that can hold at least {@code capacity} bytes.
+   *
+   * <p>A buffer that is too small is replaced by a larger one. This only happens for the first
+   * frames when the initial estimate was too small, after which the pool reaches a steady state.
+   *
+   * @param capacity minimum number of bytes the buffer has to hold.
+   * @return the index of the reserved buffer, or {@code -1} if all buffers are in flight.
+   */
+  public synchronized int acquire(int capacity) {
+    for (int i = 0; i < buffers.length; i++) {
+      if (inUse[i]) {
+        continue;
+      }
+      if (buffers[i].capacity() < capacity) {
+        buffers[i] = allocate(capacity);
+      }
+      inUse[i] = true;
+      buffers[i].clear();
+      return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the buffer at {@code index}. Only valid while the slot is acquired.
+   *
+   * @param index slot index returned by {@link #acquire}.
+   * @return the buffer backing the slot.
+   */
+  @NonNull
+  public synchronized ByteBuffer get(int index) {
+    return buffers[index];
+  }
+
+  /**
+   * Makes the buffer at {@code index} available again.
+   *
+   * @param index slot index returned by {@link #acquire}.
+   */
+  public synchronized void release(int index) {
+    inUse[index] = false;
+  }
+
+  /** Returns the number of buffers that are currently acquired. */
+  public synchronized int inFlightCount() {
+    int count = 0;
+    for (boolean used : inUse) {
+      if (used) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static ByteBuffer allocate(int capacity) {
+    return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits the number of image stream frames that Dart has not acknowledged yet.
+ *
+ * <p>Frames are reserved on the camera background thread and acknowledged on the main thread, so
+ * all state is guarded by the instance lock. A limit of {@code 0} disables flow control, in which
+ * case frames are only counted.
+ */
+public class ImageStreamFlowControl {
+  private int maxFramesInFlight;
+  private int framesInFlight;
+  private long deliveredFrames;
+  private long droppedFrames;
+
+  /**
+   * Resets all counters and applies a new in-flight limit.
+   *
+   * @param maxFramesInFlight maximum number of unacknowledged frames, {@code 0} for no limit.
+   */
+  public synchronized void reset(int maxFramesInFlight) {
+    this.maxFramesInFlight = Math.max(0, maxFramesInFlight);
+    framesInFlight = 0;
+    deliveredFrames = 0;
+    droppedFrames = 0;
+  }
+
+  /** Whether frames have to be acknowledged by Dart before new ones are sent. */
+  public synchronized boolean isBounded() {
+    return maxFramesInFlight > 0;
+  }
+
+  /**
+   * Reserves room for a new frame.
+   *
+   * @return {@code false} when the consumer lags behind, the frame is then counted as dropped.
+   */
+  public synchronized boolean tryAcquire() {
+    if (maxFramesInFlight == 0) {
+      return true;
+    }
+    if (framesInFlight >= maxFramesInFlight) {
+      droppedFrames++;
+      return false;
+    }
+    framesInFlight++;
+    return true;
+  }
+
+  /** Records that a reserved frame was handed to Dart. */
+  public synchronized void onSent() {
+    deliveredFrames++;
+  }
+
+  /** Records that a reserved frame could not be sent and releases its reservation. */
+  public synchronized void onDropped() {
+    droppedFrames++;
+    release();
+  }
+
+  /** Records that Dart finished processing a frame. */
+  public synchronized void onAcknowledged() {
+    release();
+  }
+
+  /** Returns the number of frames handed to Dart since the last {@link #reset}. */
+  public synchronized long getDeliveredFrameCount() {
+    return deliveredFrames;
+  }
+
+  /** Returns the number of frames dropped since the last {@link #reset}. */
+  public synchronized long getDroppedFrameCount() {
+    return droppedFrames;
+  }
+
+  /** Returns the number of frames that Dart has not acknowledged yet. */
+  public synchronized int getFramesInFlight() {
+    return framesInFlight;
+  }
+
+  /**
+   * Returns a snapshot of the counters, as sent to Dart.
+   *
+   * @return map with the delivered, dropped and in-flight frame counts.
+   */
+  @NonNull
+  public synchronized Map<String, Object> toMap() {
+    Map<String, Object> statistics = new HashMap<>();
+    statistics.put("deliveredFrames", deliveredFrames);
+    statistics.put("droppedFrames", droppedFrames);
+    statistics.put("framesInFlight", framesInFlight);
+    return statistics;
+  }
+
+  private void release() {
+    if (framesInFlight > 0) {
+      framesInFlight--;
+    }
+  }
+}
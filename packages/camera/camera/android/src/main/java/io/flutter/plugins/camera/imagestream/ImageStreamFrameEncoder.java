@@ -0,0 +1,172 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import android.graphics.ImageFormat;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.nio.ByteBuffer;
+
+/**
+ * Lays out a single camera frame as one contiguous little-endian binary message.
+ *
+ * <p>The message starts with a fixed frame header, followed by one plane descriptor per plane and
+ * finally the raw plane bytes:
+ *
+ * <pre>
+ *  0  int32   layout version
+ *  4  int32   width
+ *  8  int32   height
+ * 12  int32   android.graphics.ImageFormat
+ * 16  int32   plane count
+ * 20  int32   sensor sensitivity (ISO), -1 when unknown
+ * 24  int64   timestamp (ns)
+ * 32  int64   sensor exposure time (ns), -1 when unknown
+ * 40  float64 lens aperture (f-stop), NaN when unknown
+ * 48  plane descriptors: int32 offset, int32 length, int32 bytesPerRow, int32 bytesPerPixel
+ * </pre>
+ *
+ * <p>All offsets are relative to the start of the message. The Dart side decodes this layout in
+ * {@code CameraImage.fromBinaryData}, so both sides must be kept in sync.
+ */
+public final class ImageStreamFrameEncoder {
+  /** Version of the binary layout, bumped whenever the header changes. */
+  public static final int LAYOUT_VERSION = 1;
+
+  /** Size of the fixed part of the header, in bytes. */
+  public static final int FRAME_HEADER_SIZE = 48;
+
+  /** Size of a single plane descriptor, in bytes. */
+  public static final int PLANE_HEADER_SIZE = 16;
+
+  private ImageStreamFrameEncoder() {}
+
+  /**
+   * Returns the size of the header for a frame with the given number of planes.
+   *
+   * @param planeCount number of planes in the frame.
+   * @return header size in bytes, which is also the offset of the first plane.
+   */
+  public static int headerSize(int planeCount) {
+    return FRAME_HEADER_SIZE + planeCount * PLANE_HEADER_SIZE;
+  }
+
+  /**
+   * Estimates the size of an encoded frame for an {@link android.media.ImageReader} configuration.
+   *
+   * <p>The estimate is used to pre-size pooled buffers so that the first frames do not need to
+   * grow them. It leaves room for interleaved chroma planes on YUV_420_888, whose buffers overlap
+   * and therefore add up to more than the nominal 12 bits per pixel.
+   *
+   * @param width width of the images produced by the reader.
+   * @param height height of the images produced by the reader.
+   * @param format {@link ImageFormat} of the images produced by the reader.
+   * @return estimated frame size in bytes, including the header.
+   */
+  public static int estimateFrameSize(int width, int height, int format) {
+    final int pixels = width * height;
+    final int payload;
+    if (format == ImageFormat.YUV_420_888) {
+      payload = pixels * 2;
+    } else {
+      final int bitsPerPixel = ImageFormat.getBitsPerPixel(format);
+      // Compressed formats such as JPEG report -1; their size is bounded by the raw size.
+      payload = bitsPerPixel > 0 ? pixels * bitsPerPixel / 8 : pixels;
+    }
+    return headerSize(3) + payload;
+  }
+
+  /**
+   * Writes the frame header into the start of {@code frame}.
+   *
+   * <p>Plane descriptors are written separately by {@link #writePlane}.
+   */
+  public static void writeHeader(
+      @NonNull ByteBuffer frame,
+      int width,
+      int height,
+      int format,
+      int planeCount,
+      long timestamp,
+      @Nullable Float lensAperture,
+      @Nullable Long sensorExposureTime,
+      @Nullable Integer sensorSensitivity) {
+    frame.putInt(0, LAYOUT_VERSION);
+    frame.putInt(4, width);
+    frame.putInt(8, height);
+    frame.putInt(12, format);
+    frame.putInt(16, planeCount);
+    frame.putInt(20, sensorSensitivity == null ? -1 : sensorSensitivity);
+    frame.putLong(24, timestamp);
+    frame.putLong(32, sensorExposureTime == null ? -1L : sensorExposureTime);
+    frame.putDouble(40, lensAperture == null ? Double.NaN : lensAperture.doubleValue());
+  }
+
+  /**
+   * Copies the remaining bytes of {@code plane} into {@code frame} and records its descriptor.
+   *
+   * <p>The source buffer is consumed (its position is moved to its limit).
+   *
+   * @param frame the destination frame buffer.
+   * @param planeIndex index of the plane within the frame.
+   * @param offset offset at which the plane bytes are written.
+   * @param plane source plane bytes.
+   * @param bytesPerRow row stride of the plane.
+   * @param bytesPerPixel pixel stride of the plane.
+   * @return offset directly after the written plane bytes.
+   */
+  public static int writePlane(
+      @NonNull ByteBuffer frame,
+      int planeIndex,
+      int offset,
+      @NonNull ByteBuffer plane,
+      int bytesPerRow,
+      int bytesPerPixel) {
+    final int length = plane.remaining();
+    writePlaneDescriptor(frame, planeIndex, offset, length, bytesPerRow, bytesPerPixel);
+
+    frame.position(offset);
+    frame.put(plane);
+    return offset + length;
+  }
+
+  /**
+   * Records the descriptor of a plane whose bytes are written into {@code frame} separately.
+   *
+   * @param frame the destination frame buffer.
+   * @param planeIndex index of the plane within the frame.
+   * @param offset offset of the plane bytes.
+   * @param length number of plane bytes.
+   * @param bytesPerRow row stride of the plane.
+   * @param bytesPerPixel pixel stride of the plane.
+   */
+  public static void writePlaneDescriptor(
+      @NonNull ByteBuffer frame,
+      int planeIndex,
+      int offset,
+      int length,
+      int bytesPerRow,
+      int bytesPerPixel) {
+    final int descriptor = FRAME_HEADER_SIZE + planeIndex * PLANE_HEADER_SIZE;
+    frame.putInt(descriptor, offset);
+    frame.putInt(descriptor + 4, length);
+    frame.putInt(descriptor + 8, bytesPerRow);
+    frame.putInt(descriptor + 12, bytesPerPixel);
+  }
+
+  /**
+   * Marks the end of an encoded frame.
+   *
+   * <p>The Flutter engine uses the buffer's position as the message length, so the position is
+   * left at the end of the frame rather than flipping the buffer.
+   *
+   * @param frame the frame buffer.
+   * @param length total length of the encoded frame.
+   */
+  public static void finish(@NonNull ByteBuffer frame, int length) {
+    frame.limit(frame.capacity());
+    frame.position(length);
+  }
+}
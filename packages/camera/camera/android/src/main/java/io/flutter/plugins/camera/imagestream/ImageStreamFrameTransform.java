@@ -0,0 +1,302 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+
+/**
+ * Crops, downsamples and repacks YUV_420_888 image stream frames before they are copied to Dart.
+ *
+ * <p>The transform runs on the camera background thread and reads the source planes in place, so
+ * only the bytes of the output frame are ever copied. Sampling uses nearest neighbour lookups that
+ * are precomputed once per stream, which keeps the per-frame cost proportional to the output size.
+ *
+ * <p>Output planes are always tightly packed (row stride equals width, pixel stride 1):
+ *
+ * <ul>
+ *   <li>{@link PlaneMode#ALL}: Y, U and V planes, reported as YUV_420_888.
+ *   <li>{@link PlaneMode#LUMINANCE}: the Y plane only, reported as Y8.
+ *   <li>{@link PlaneMode#NV21}: a single plane with Y followed by interleaved V/U, reported as
+ *       NV21.
+ * </ul>
+ */
+public class ImageStreamFrameTransform {
+  /** Selects which planes are sent to Dart. */
+  public enum PlaneMode {
+    ALL("all"),
+    LUMINANCE("luminance"),
+    NV21("nv21");
+
+    private final String strValue;
+
+    PlaneMode(String strValue) {
+      this.strValue = strValue;
+    }
+
+    /**
+     * Converts the given string to the matching {@link PlaneMode}.
+     *
+     * @param modeStr string value to convert.
+     * @return the matching mode, or {@link #ALL} when the value is unknown.
+     */
+    @NonNull
+    public static PlaneMode getValueForString(String modeStr) {
+      for (PlaneMode value : values()) {
+        if (value.strValue.equals(modeStr)) {
+          return value;
+        }
+      }
+      return ALL;
+    }
+
+    @Override
+    public String toString() {
+      return strValue;
+    }
+  }
+
+  private final PlaneMode planeMode;
+  private final int cropLeft;
+  private final int cropTop;
+  private final int cropWidth;
+  private final int cropHeight;
+  private final int outputWidth;
+  private final int outputHeight;
+  private final int[] lumaColumns;
+  private final int[] chromaColumns;
+
+  // Scratch arrays reused for every frame, only touched on the camera background thread.
+  private final ByteBuffer[] sourceBuffers = new ByteBuffer[3];
+  private final int[] sourceRowStrides = new int[3];
+  private final int[] sourcePixelStrides = new int[3];
+
+  /**
+   * Creates a transform for frames of the given source size.
+   *
+   * <p>The crop rectangle is clamped to the source and aligned to even coordinates so that it
+   * covers whole chroma samples. The output size is clamped to the crop size, since frames are
+   * never upscaled.
+   *
+   * @param settings the image stream settings holding the crop, size and plane options.
+   * @param sourceWidth width of the source frames.
+   * @param sourceHeight height of the source frames.
+   */
+  public ImageStreamFrameTransform(
+      @NonNull ImageStreamSettings settings, int sourceWidth, int sourceHeight) {
+    planeMode = settings.getPlaneMode();
+
+    int left = clamp(settings.getCropLeft(), 0, sourceWidth - 2) & ~1;
+    int top = clamp(settings.getCropTop(), 0, sourceHeight - 2) & ~1;
+    int width = settings.getCropWidth() > 0 ? settings.getCropWidth() : sourceWidth;
+    int height = settings.getCropHeight() > 0 ? settings.getCropHeight() : sourceHeight;
+    cropLeft = left;
+    cropTop = top;
+    cropWidth = Math.max(2, clamp(width, 0, sourceWidth - left) & ~1);
+    cropHeight = Math.max(2, clamp(height, 0, sourceHeight - top) & ~1);
+
+    int targetWidth = settings.getTargetWidth() > 0 ? settings.getTargetWidth() : cropWidth;
+    int targetHeight = settings.getTargetHeight() > 0 ? settings.getTargetHeight() : cropHeight;
+    outputWidth = Math.max(2, Math.min(targetWidth, cropWidth) & ~1);
+    outputHeight = Math.max(2, Math.min(targetHeight, cropHeight) & ~1);
+
+    lumaColumns = new int[outputWidth];
+    for (int x = 0; x < outputWidth; x++) {
+      lumaColumns[x] = cropLeft + (int) ((long) x * cropWidth / outputWidth);
+    }
+    chromaColumns = new int[outputWidth / 2];
+    for (int x = 0; x < chromaColumns.length; x++) {
+      chromaColumns[x] = cropLeft / 2 + (int) ((long) x * (cropWidth / 2) / (outputWidth / 2));
+    }
+  }
+
+  /**
+   * Whether the transform changes frames at all. Streams without crop, scaling or plane selection
+   * skip the transform and copy the source planes as they are.
+   */
+  public static boolean isRequired(@NonNull ImageStreamSettings settings) {
+    return settings.getPlaneMode() != PlaneMode.ALL
+        || settings.getTargetWidth() > 0
+        || settings.getTargetHeight() > 0
+        || settings.getCropWidth() > 0
+        || settings.getCropHeight() > 0
+        || settings.getCropLeft() > 0
+        || settings.getCropTop() > 0;
+  }
+
+  /** Returns the width of the output frames. */
+  public int getOutputWidth() {
+    return outputWidth;
+  }
+
+  /** Returns the height of the output frames. */
+  public int getOutputHeight() {
+    return outputHeight;
+  }
+
+  /** Returns the {@link ImageFormat} reported for the output frames. */
+  public int getOutputFormat() {
+    switch (planeMode) {
+      case LUMINANCE:
+        return ImageFormat.Y8;
+      case NV21:
+        return ImageFormat.NV21;
+      default:
+        return ImageFormat.YUV_420_888;
+    }
+  }
+
+  /** Returns the number of planes of the output frames. */
+  public int getPlaneCount() {
+    return planeMode == PlaneMode.ALL ? 3 : 1;
+  }
+
+  /** Returns the number of bytes of the given output plane. */
+  public int getPlaneLength(int plane) {
+    final int lumaLength = outputWidth * outputHeight;
+    switch (planeMode) {
+      case LUMINANCE:
+        return lumaLength;
+      case NV21:
+        return lumaLength + lumaLength / 2;
+      default:
+        return plane == 0 ? lumaLength : lumaLength / 4;
+    }
+  }
+
+  /** Returns the row stride of the given output plane. */
+  public int getPlaneRowStride(int plane) {
+    return planeMode == PlaneMode.ALL && plane > 0 ? outputWidth / 2 : outputWidth;
+  }
+
+  /** Returns the total number of bytes of all output planes. */
+  public int getOutputSize() {
+    int size = 0;
+    for (int i = 0; i < getPlaneCount(); i++) {
+      size += getPlaneLength(i);
+    }
+    return size;
+  }
+
+  /**
+   * Captures the buffers and strides of a YUV_420_888 frame for the following {@link
+   * #writePlane(int, ByteBuffer, int)} calls.
+   *
+   * @param planes the planes of the source image.
+   */
+  public void setSource(@NonNull Image.Plane[] planes) {
+    for (int i = 0; i < 3; i++) {
+      sourceBuffers[i] = planes[i].getBuffer();
+      sourceRowStrides[i] = planes[i].getRowStride();
+      sourcePixelStrides[i] = planes[i].getPixelStride();
+    }
+  }
+
+  /**
+   * Writes one output plane of the frame passed to {@link #setSource} into {@code dst}.
+   *
+   * @param plane index of the output plane.
+   * @param dst destination buffer, must hold {@link #getPlaneLength} bytes at {@code dstOffset}.
+   * @param dstOffset offset of the plane in {@code dst}.
+   */
+  public void writePlane(int plane, @NonNull ByteBuffer dst, int dstOffset) {
+    writePlane(plane, sourceBuffers, sourceRowStrides, sourcePixelStrides, dst, dstOffset);
+  }
+
+  /**
+   * Writes one output plane into {@code dst}, starting at {@code dstOffset}.
+   *
+   * @param plane index of the output plane.
+   * @param sources the Y, U and V source buffers.
+   * @param rowStrides row strides of the source buffers.
+   * @param pixelStrides pixel strides of the source buffers.
+   * @param dst destination buffer, must hold {@link #getPlaneLength} bytes at {@code dstOffset}.
+   * @param dstOffset offset of the plane in {@code dst}.
+   */
+  public void writePlane(
+      int plane,
+      @NonNull ByteBuffer[] sources,
+      @NonNull int[] rowStrides,
+      @NonNull int[] pixelStrides,
+      @NonNull ByteBuffer dst,
+      int dstOffset) {
+    if (plane == 0) {
+      sample(
+          sources[0],
+          rowStrides[0],
+          pixelStrides[0],
+          cropTop,
+          cropHeight,
+          lumaColumns,
+          outputHeight,
+          dst,
+          dstOffset,
+          1);
+      if (planeMode == PlaneMode.NV21) {
+        final int chromaOffset = dstOffset + outputWidth * outputHeight;
+        writeChroma(sources[2], rowStrides[2], pixelStrides[2], dst, chromaOffset, 2);
+        writeChroma(sources[1], rowStrides[1], pixelStrides[1], dst, chromaOffset + 1, 2);
+      }
+      return;
+    }
+    writeChroma(sources[plane], rowStrides[plane], pixelStrides[plane], dst, dstOffset, 1);
+  }
+
+  private void writeChroma(
+      ByteBuffer src, int rowStride, int pixelStride, ByteBuffer dst, int dstOffset, int step) {
+    sample(
+        src,
+        rowStride,
+        pixelStride,
+        cropTop / 2,
+        cropHeight / 2,
+        chromaColumns,
+        outputHeight / 2,
+        dst,
+        dstOffset,
+        step);
+  }
+
+  private static void sample(
+      ByteBuffer src,
+      int rowStride,
+      int pixelStride,
+      int top,
+      int height,
+      int[] columns,
+      int rows,
+      ByteBuffer dst,
+      int dstOffset,
+      int dstPixelStride) {
+    final int width = columns.length;
+    final boolean contiguousRows =
+        pixelStride == 1 && dstPixelStride == 1 && columns[width - 1] - columns[0] == width - 1;
+    final int srcLimit = src.limit();
+    int out = dstOffset;
+    for (int y = 0; y < rows; y++) {
+      final int rowStart = (top + (int) ((long) y * height / rows)) * rowStride;
+      if (contiguousRows) {
+        // Unscaled rows are copied in bulk.
+        src.limit(rowStart + columns[0] + width);
+        src.position(rowStart + columns[0]);
+        dst.position(out);
+        dst.put(src);
+        src.limit(srcLimit);
+        out += width;
+        continue;
+      }
+      for (int x = 0; x < width; x++) {
+        dst.put(out, src.get(rowStart + columns[x] * pixelStride));
+        out += dstPixelStride;
+      }
+    }
+  }
+
+  private static int clamp(int value, int min, int max) {
+    return Math.max(min, Math.min(value, max));
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import android.media.Image;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a camera frame into the map sent over the image stream {@code EventChannel}, which Dart
+ * decodes in {@code CameraImage.fromPlatformData}.
+ *
+ * <p>Every frame copies its planes into new arrays, see {@link PooledImageStreamSender} for the
+ * transport that does not.
+ */
+public final class ImageStreamMapEncoder {
+  private ImageStreamMapEncoder() {}
+
+  /**
+   * Copies {@code image} into a new map.
+   *
+   * @param image the frame to encode, not closed by this method.
+   * @param transform crop, downsampling and plane selection to apply, {@code null} to copy the
+   *     planes unchanged.
+   * @param captureProps the latest known capture properties, attached to the frame.
+   * @return the frame, ready to be sent.
+   */
+  @NonNull
+  public static Map<String, Object> encode(
+      @NonNull Image image,
+      @Nullable ImageStreamFrameTransform transform,
+      @NonNull CameraCaptureProperties captureProps) {
+    List<Map<String, Object>> planes = new ArrayList<>();
+    if (transform != null) {
+      transform.setSource(image.getPlanes());
+      for (int i = 0; i < transform.getPlaneCount(); i++) {
+        byte[] bytes = new byte[transform.getPlaneLength(i)];
+        transform.writePlane(i, ByteBuffer.wrap(bytes), 0);
+
+        Map<String, Object> planeBuffer = new HashMap<>();
+        planeBuffer.put("bytesPerRow", transform.getPlaneRowStride(i));
+        planeBuffer.put("bytesPerPixel", 1);
+        planeBuffer.put("bytes", bytes);
+
+        planes.add(planeBuffer);
+      }
+    } else {
+      for (Image.Plane plane : image.getPlanes()) {
+        ByteBuffer buffer = plane.getBuffer();
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes, 0, bytes.length);
+
+        Map<String, Object> planeBuffer = new HashMap<>();
+        planeBuffer.put("bytesPerRow", plane.getRowStride());
+        planeBuffer.put("bytesPerPixel", plane.getPixelStride());
+        planeBuffer.put("bytes", bytes);
+
+        planes.add(planeBuffer);
+      }
+    }
+
+    Map<String, Object> imageBuffer = new HashMap<>();
+    imageBuffer.put("width", transform == null ? image.getWidth() : transform.getOutputWidth());
+    imageBuffer.put("height", transform == null ? image.getHeight() : transform.getOutputHeight());
+    imageBuffer.put("format", transform == null ? image.getFormat() : transform.getOutputFormat());
+    imageBuffer.put("planes", planes);
+    imageBuffer.put("lensAperture", captureProps.getLastLensAperture());
+    imageBuffer.put("sensorExposureTime", captureProps.getLastSensorExposureTime());
+    Integer sensorSensitivity = captureProps.getLastSensorSensitivity();
+    imageBuffer.put(
+        "sensorSensitivity", sensorSensitivity == null ? null : (double) sensorSensitivity);
+    return imageBuffer;
+  }
+}
@@ -0,0 +1,121 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import androidx.annotation.NonNull;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugins.camera.imagestream.ImageStreamFrameTransform.PlaneMode;
+
+/** Options supplied by Dart when starting an image stream. */
+public class ImageStreamSettings {
+  /** Default number of pooled buffers used by the binary transport. */
+  static final int DEFAULT_BUFFER_COUNT = 3;
+
+  private boolean useBinaryTransport;
+  private int bufferCount = DEFAULT_BUFFER_COUNT;
+  private int maxFramesInFlight;
+  private int cropLeft;
+  private int cropTop;
+  private int cropWidth;
+  private int cropHeight;
+  private int targetWidth;
+  private int targetHeight;
+  @NonNull private PlaneMode planeMode = PlaneMode.ALL;
+
+  ImageStreamSettings() {}
+
+  /** Returns the settings used when Dart does not pass any options. */
+  @NonNull
+  public static ImageStreamSettings defaults() {
+    return new ImageStreamSettings();
+  }
+
+  /**
+   * Reads the image stream options from the arguments of a {@code startImageStream} call.
+   *
+   * @param call the method call, its arguments may be {@code null}.
+   * @return the parsed settings, falling back to {@link #defaults()} for missing values.
+   */
+  @NonNull
+  public static ImageStreamSettings fromMethodCall(@NonNull MethodCall call) {
+    ImageStreamSettings settings = new ImageStreamSettings();
+    Boolean useBinaryTransport = call.argument("useBinaryTransport");
+    settings.useBinaryTransport = useBinaryTransport != null && useBinaryTransport;
+    Integer bufferCount = call.argument("bufferCount");
+    if (bufferCount != null && bufferCount > 0) {
+      settings.bufferCount = bufferCount;
+    }
+    settings.maxFramesInFlight = nonNegative(call.argument("maxFramesInFlight"));
+    settings.cropLeft = nonNegative(call.argument("cropLeft"));
+    settings.cropTop = nonNegative(call.argument("cropTop"));
+    settings.cropWidth = nonNegative(call.argument("cropWidth"));
+    settings.cropHeight = nonNegative(call.argument("cropHeight"));
+    settings.targetWidth = nonNegative(call.argument("targetWidth"));
+    settings.targetHeight = nonNegative(call.argument("targetHeight"));
+    settings.planeMode = PlaneMode.getValueForString(call.argument("planeMode"));
+    return settings;
+  }
+
+  /**
+   * Whether frames are sent as a single binary message over {@link ImageStreamBufferChannel}
+   * instead of a codec-encoded map over the image stream event channel.
+   */
+  public boolean useBinaryTransport() {
+    return useBinaryTransport;
+  }
+
+  /** Number of pooled direct buffers used by the binary transport. */
+  public int getBufferCount() {
+    return bufferCount;
+  }
+
+  /**
+   * Maximum number of frames Dart may hold before new frames are dropped, or {@code 0} when Dart
+   * does not acknowledge frames.
+   */
+  public int getMaxFramesInFlight() {
+    return maxFramesInFlight;
+  }
+
+  /** Left edge of the region of interest in source pixels. */
+  public int getCropLeft() {
+    return cropLeft;
+  }
+
+  /** Top edge of the region of interest in source pixels. */
+  public int getCropTop() {
+    return cropTop;
+  }
+
+  /** Width of the region of interest in source pixels, {@code 0} for the full width. */
+  public int getCropWidth() {
+    return cropWidth;
+  }
+
+  /** Height of the region of interest in source pixels, {@code 0} for the full height. */
+  public int getCropHeight() {
+    return cropHeight;
+  }
+
+  /** Width frames are downsampled to, {@code 0} to keep the region of interest width. */
+  public int getTargetWidth() {
+    return targetWidth;
+  }
+
+  /** Height frames are downsampled to, {@code 0} to keep the region of interest height. */
+  public int getTargetHeight() {
+    return targetHeight;
+  }
+
+  /** Which planes are sent to Dart. */
+  @NonNull
+  public PlaneMode getPlaneMode() {
+    return planeMode;
+  }
+
+  private static int nonNegative(Integer value) {
+    return value == null || value < 0 ? 0 : value;
+  }
+}
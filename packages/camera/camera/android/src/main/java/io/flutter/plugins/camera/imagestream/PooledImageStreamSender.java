@@ -0,0 +1,134 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import android.media.Image;
+import android.os.Handler;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import java.nio.ByteBuffer;
+
+/**
+ * Copies image stream frames into pooled direct buffers and hands them to Dart on the main thread.
+ *
+ * <p>Every pool slot owns a pre-allocated dispatch {@link Runnable}, so the steady state of the
+ * stream does not allocate per frame apart from what the platform itself does.
+ */
+public class PooledImageStreamSender {
+  private final ImageStreamBufferChannel channel;
+  private final Handler mainHandler;
+  private final ImageStreamBufferPool pool;
+  @Nullable private final BinaryMessenger.BinaryReply reply;
+  private final SlotDispatch[] dispatches;
+
+  /**
+   * Creates a new sender.
+   *
+   * @param channel channel the encoded frames are sent over.
+   * @param mainHandler handler of the main thread, used to reach the Flutter engine.
+   * @param pool the pool of buffers frames are encoded into.
+   * @param reply shared callback invoked when Dart has handled a frame, may be {@code null}.
+   */
+  public PooledImageStreamSender(
+      @NonNull ImageStreamBufferChannel channel,
+      @NonNull Handler mainHandler,
+      @NonNull ImageStreamBufferPool pool,
+      @Nullable BinaryMessenger.BinaryReply reply) {
+    this.channel = channel;
+    this.mainHandler = mainHandler;
+    this.pool = pool;
+    this.reply = reply;
+    this.dispatches = new SlotDispatch[pool.size()];
+    for (int i = 0; i < dispatches.length; i++) {
+      dispatches[i] = new SlotDispatch(i);
+    }
+  }
+
+  /**
+   * Encodes {@code image} into a free buffer and schedules it for delivery.
+   *
+   * <p>Must be called on the thread that owns the image. The image is not closed by this method.
+   *
+   * @param image the frame to send.
+   * @param transform crop, downsampling and plane selection to apply, {@code null} to send the
+   *     planes unchanged.
+   * @param captureProps the latest known capture properties, attached to the frame.
+   * @return {@code false} when every buffer was still in flight and the frame was dropped.
+   */
+  public boolean send(
+      @NonNull Image image,
+      @Nullable ImageStreamFrameTransform transform,
+      @NonNull CameraCaptureProperties captureProps) {
+    final Image.Plane[] planes = image.getPlanes();
+    final int planeCount = transform == null ? planes.length : transform.getPlaneCount();
+    int length = ImageStreamFrameEncoder.headerSize(planeCount);
+    if (transform == null) {
+      for (Image.Plane plane : planes) {
+        length += plane.getBuffer().remaining();
+      }
+    } else {
+      length += transform.getOutputSize();
+    }
+
+    final int slot = pool.acquire(length);
+    if (slot < 0) {
+      return false;
+    }
+
+    final ByteBuffer frame = pool.get(slot);
+    ImageStreamFrameEncoder.writeHeader(
+        frame,
+        transform == null ? image.getWidth() : transform.getOutputWidth(),
+        transform == null ? image.getHeight() : transform.getOutputHeight(),
+        transform == null ? image.getFormat() : transform.getOutputFormat(),
+        planeCount,
+        image.getTimestamp(),
+        captureProps.getLastLensAperture(),
+        captureProps.getLastSensorExposureTime(),
+        captureProps.getLastSensorSensitivity());
+    int offset = ImageStreamFrameEncoder.headerSize(planeCount);
+    if (transform == null) {
+      for (int i = 0; i < planes.length; i++) {
+        final Image.Plane plane = planes[i];
+        offset =
+            ImageStreamFrameEncoder.writePlane(
+                frame, i, offset, plane.getBuffer(), plane.getRowStride(), plane.getPixelStride());
+      }
+    } else {
+      transform.setSource(planes);
+      for (int i = 0; i < planeCount; i++) {
+        final int planeLength = transform.getPlaneLength(i);
+        ImageStreamFrameEncoder.writePlaneDescriptor(
+            frame, i, offset, planeLength, transform.getPlaneRowStride(i), 1);
+        transform.writePlane(i, frame, offset);
+        offset += planeLength;
+      }
+    }
+    ImageStreamFrameEncoder.finish(frame, offset);
+
+    mainHandler.post(dispatches[slot]);
+    return true;
+  }
+
+  /** Sends the frame held by one pool slot and returns the slot to the pool. */
+  private final class SlotDispatch implements Runnable {
+    private final int slot;
+
+    SlotDispatch(int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public void run() {
+      try {
+        channel.send(pool.get(slot), reply);
+      } finally {
+        pool.release(slot);
+      }
+    }
+  }
+}
@@ -0,0 +1,201 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.annotation.SuppressLint;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaRecorder;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Records the microphone and encodes it to AAC on a dedicated thread, for {@link
+ * MediaCodecRecorder}.
+ */
+final class AudioEncoder {
+  private static final String TAG = "AudioEncoder";
+  private static final String MIME_TYPE = MediaFormat.MIMETYPE_AUDIO_AAC;
+  private static final long DEQUEUE_TIMEOUT_US = 10000;
+  private static final long STOP_TIMEOUT_MS = 2000;
+
+  private final int sampleRate;
+  private final int channelCount;
+  private final int bitRate;
+  private final RecordingClock clock;
+  private final SegmentedMuxer muxer;
+  private final MediaCodecRecorder.Listener listener;
+
+  private MediaCodec codec;
+  private AudioRecord audioRecord;
+  private Thread thread;
+  private volatile boolean paused;
+  private volatile boolean stopRequested;
+
+  AudioEncoder(
+      int sampleRate,
+      int channelCount,
+      int bitRate,
+      @NonNull RecordingClock clock,
+      @NonNull SegmentedMuxer muxer,
+      @NonNull MediaCodecRecorder.Listener listener) {
+    this.sampleRate = sampleRate;
+    this.channelCount = channelCount;
+    this.bitRate = bitRate;
+    this.clock = clock;
+    this.muxer = muxer;
+    this.listener = listener;
+  }
+
+  /** Creates the microphone recorder and the encoder. */
+  @SuppressLint("MissingPermission") // Requested with the camera permission when audio is enabled.
+  void prepare() throws IOException {
+    final int channelMask =
+        channelCount == 1 ? AudioFormat.CHANNEL_IN_MONO : AudioFormat.CHANNEL_IN_STEREO;
+    final int minBufferSize =
+        AudioRecord.getMinBufferSize(sampleRate, channelMask, AudioFormat.ENCODING_PCM_16BIT);
+    if (minBufferSize <= 0) {
+      throw new IOException("Unsupported audio configuration: " + sampleRate + " Hz");
+    }
+    audioRecord =
+        new AudioRecord(
+            MediaRecorder.AudioSource.MIC,
+            sampleRate,
+            channelMask,
+            AudioFormat.ENCODING_PCM_16BIT,
+            minBufferSize * 4);
+    if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+      release();
+      throw new IOException("The microphone could not be opened");
+    }
+
+    MediaFormat format = MediaFormat.createAudioFormat(MIME_TYPE, sampleRate, channelCount);
+    format.setInteger(MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+    format.setInteger(MediaFormat.KEY_BIT_RATE, bitRate);
+    format.setInteger(MediaFormat.KEY_MAX_INPUT_SIZE, minBufferSize);
+    try {
+      codec = MediaCodec.createEncoderByType(MIME_TYPE);
+      codec.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+    } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+      release();
+      throw new IOException("The audio encoder could not be configured: " + e.getMessage(), e);
+    }
+  }
+
+  /** Starts recording and encoding. */
+  void start() {
+    codec.start();
+    audioRecord.startRecording();
+    thread = new Thread(this::run, "CameraAudioEncoder");
+    thread.start();
+  }
+
+  /** Discards the microphone input while paused. */
+  void setPaused(boolean paused) {
+    this.paused = paused;
+  }
+
+  /** Ends the stream and waits until the remaining samples were written. */
+  void stop() {
+    stopRequested = true;
+    if (thread == null) {
+      return;
+    }
+    try {
+      thread.join(STOP_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (thread.isAlive()) {
+      Log.w(TAG, "The audio encoder did not stop in time");
+    }
+    thread = null;
+  }
+
+  void release() {
+    if (audioRecord != null) {
+      audioRecord.release();
+      audioRecord = null;
+    }
+    if (codec != null) {
+      codec.release();
+      codec = null;
+    }
+  }
+
+  private void run() {
+    // The fields are cleared on release, which may happen while the thread is still stopping.
+    final MediaCodec codec = this.codec;
+    final AudioRecord audioRecord = this.audioRecord;
+    final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    final byte[] discarded = new byte[4096];
+    final int bytesPerSecond = sampleRate * channelCount * 2;
+    try {
+      boolean endOfStreamQueued = false;
+      while (true) {
+        if (!endOfStreamQueued) {
+          final boolean stopping = stopRequested;
+          if (paused && !stopping) {
+            audioRecord.read(discarded, 0, discarded.length);
+          } else {
+            final int index = codec.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+            if (index >= 0) {
+              final ByteBuffer input = codec.getInputBuffer(index);
+              input.clear();
+              final int read = Math.max(0, audioRecord.read(input, input.remaining()));
+              // The samples were captured before they were read.
+              final long timestampUs = clock.nowUs() - read * 1000000L / bytesPerSecond;
+              codec.queueInputBuffer(
+                  index,
+                  0,
+                  read,
+                  timestampUs,
+                  stopping ? MediaCodec.BUFFER_FLAG_END_OF_STREAM : 0);
+              endOfStreamQueued = stopping;
+            }
+          }
+        }
+        if (drainOutput(codec, info, endOfStreamQueued)) {
+          break;
+        }
+      }
+    } catch (IllegalStateException e) {
+      if (!stopRequested) {
+        listener.onError("Audio encoding failed: " + e.getMessage());
+      }
+    } finally {
+      try {
+        audioRecord.stop();
+      } catch (IllegalStateException e) {
+        // Already released.
+      }
+    }
+  }
+
+  /** Writes the available encoded samples, returns whether the end of the stream was reached. */
+  private boolean drainOutput(
+      MediaCodec codec, MediaCodec.BufferInfo info, boolean untilEndOfStream) {
+    while (true) {
+      final int index =
+          codec.dequeueOutputBuffer(info, untilEndOfStream ? DEQUEUE_TIMEOUT_US : 0);
+      if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+        muxer.setAudioFormat(codec.getOutputFormat());
+      } else if (index >= 0) {
+        muxer.writeAudio(codec.getOutputBuffer(index), info);
+        codec.releaseOutputBuffer(index, false);
+        if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+          return true;
+        }
+      } else if (index == MediaCodec.INFO_TRY_AGAIN_LATER) {
+        return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.Build;
+import android.util.Range;
+import android.util.Size;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import io.flutter.plugins.camera.CameraProperties;
+
+/**
+ * The video size and frame rate of a recording in a constrained high speed capture session.
+ *
+ * <p>Recording requires a fixed frame rate range, variable ranges are only meant for previews.
+ */
+public class HighSpeedVideoConfiguration {
+  @NonNull private final Size size;
+  @NonNull private final Range<Integer> fpsRange;
+
+  HighSpeedVideoConfiguration(@NonNull Size size, @NonNull Range<Integer> fpsRange) {
+    this.size = size;
+    this.fpsRange = fpsRange;
+  }
+
+  /**
+   * Picks the high speed video size to record at {@code frameRate} frames per second.
+   *
+   * <p>The largest supported size that fits in {@code maxSize} is preferred, so the recording
+   * keeps the resolution preset where possible. When every size is larger, the smallest one is
+   * used.
+   *
+   * @param cameraProperties the properties of the camera.
+   * @param frameRate the requested frame rate, for instance 120 or 240.
+   * @param maxSize the size of the recording profile of the resolution preset.
+   * @return the configuration, or {@code null} when the camera can not record at this frame rate.
+   */
+  @Nullable
+  @RequiresApi(Build.VERSION_CODES.M)
+  public static HighSpeedVideoConfiguration select(
+      @NonNull CameraProperties cameraProperties, int frameRate, @NonNull Size maxSize) {
+    final Range<Integer> fpsRange = new Range<>(frameRate, frameRate);
+    Size bestFitting = null;
+    Size smallest = null;
+    final Size[] sizes = cameraProperties.getHighSpeedVideoSizes();
+    if (sizes == null) {
+      return null;
+    }
+    for (Size size : sizes) {
+      if (!supportsFpsRange(cameraProperties, size, fpsRange)) {
+        continue;
+      }
+      if (fits(size, maxSize) && (bestFitting == null || area(size) > area(bestFitting))) {
+        bestFitting = size;
+      }
+      if (smallest == null || area(size) < area(smallest)) {
+        smallest = size;
+      }
+    }
+    final Size size = bestFitting != null ? bestFitting : smallest;
+    return size == null ? null : new HighSpeedVideoConfiguration(size, fpsRange);
+  }
+
+  @RequiresApi(Build.VERSION_CODES.M)
+  private static boolean supportsFpsRange(
+      CameraProperties cameraProperties, Size size, Range<Integer> fpsRange) {
+    final Range<Integer>[] ranges = cameraProperties.getHighSpeedVideoFpsRangesFor(size);
+    if (ranges == null) {
+      return false;
+    }
+    for (Range<Integer> range : ranges) {
+      if (range.equals(fpsRange)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean fits(Size size, Size maxSize) {
+    return size.getWidth() <= maxSize.getWidth() && size.getHeight() <= maxSize.getHeight();
+  }
+
+  private static long area(Size size) {
+    return (long) size.getWidth() * size.getHeight();
+  }
+
+  /** The size of the preview and the recording. */
+  @NonNull
+  public Size getSize() {
+    return size;
+  }
+
+  /** The fixed frame rate range of the repeating requests. */
+  @NonNull
+  public Range<Integer> getFpsRange() {
+    return fpsRange;
+  }
+
+  /** The frame rate of the recording. */
+  public int getFrameRate() {
+    return fpsRange.getUpper();
+  }
+}
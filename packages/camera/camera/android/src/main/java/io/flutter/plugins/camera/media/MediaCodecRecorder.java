@@ -0,0 +1,278 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.MediaCodec;
+import android.media.MediaMuxer;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Records video, and optionally audio, with {@link MediaCodec} encoders and a {@link MediaMuxer}.
+ *
+ * <p>Unlike {@link android.media.MediaRecorder}, the encoders are fed from a surface the camera
+ * renders to next to its other outputs, so the image stream keeps running while recording. The
+ * recorder also controls the key frame interval and can continue the recording in a new file
+ * without stopping the encoders, see {@link #rollover(File)}.
+ *
+ * <p>Instances are created by {@link MediaCodecRecorderBuilder}.
+ */
+public class MediaCodecRecorder {
+  /** Provides the files of the segments following the first one. */
+  public interface OutputFileProvider {
+    @NonNull
+    File nextFile() throws IOException;
+  }
+
+  /** Receives the events of the recorder, on the encoder threads. */
+  public interface Listener {
+    /**
+     * Called when a segment of the recording was written completely, including the last one.
+     *
+     * @param file the file of the segment.
+     * @param durationUs the duration of the video of the segment.
+     */
+    void onSegmentFinished(@NonNull File file, long durationUs);
+
+    /**
+     * Called when encoding failed, the recording should be stopped.
+     *
+     * @param message a description of the failure.
+     */
+    void onError(@NonNull String message);
+  }
+
+  private static final String TAG = "MediaCodecRecorder";
+  private static final long DEQUEUE_TIMEOUT_US = 10000;
+  private static final long STOP_TIMEOUT_MS = 3000;
+
+  private final MediaCodec videoCodec;
+  private final Surface inputSurface;
+  private final boolean ownsInputSurface;
+  private final RecordingClock clock;
+  private final SegmentedMuxer muxer;
+  private final Listener listener;
+  @Nullable private final AudioEncoder audioEncoder;
+
+  private Thread videoThread;
+  private boolean started;
+  private boolean stopped;
+  private boolean paused;
+  private volatile boolean released;
+
+  MediaCodecRecorder(
+      @NonNull MediaCodec videoCodec,
+      @NonNull Surface inputSurface,
+      boolean ownsInputSurface,
+      @NonNull File outputFile,
+      int orientationHint,
+      @Nullable MediaCodecRecorderBuilder.AudioSettings audioSettings,
+      boolean realtimeTimestamps,
+      @NonNull SegmentedMuxer.MuxerFactory muxerFactory,
+      @NonNull Listener listener) {
+    this.videoCodec = videoCodec;
+    this.inputSurface = inputSurface;
+    this.ownsInputSurface = ownsInputSurface;
+    this.listener = listener;
+    this.clock = new RecordingClock(realtimeTimestamps);
+    this.muxer =
+        new SegmentedMuxer(
+            outputFile,
+            audioSettings != null,
+            orientationHint,
+            muxerFactory,
+            new SegmentedMuxer.Listener() {
+              @Override
+              public void onSyncFrameRequested() {
+                requestSyncFrame();
+              }
+
+              @Override
+              public void onSegmentFinished(@NonNull File file, long durationUs) {
+                listener.onSegmentFinished(file, durationUs);
+              }
+            });
+    this.audioEncoder =
+        audioSettings == null
+            ? null
+            : new AudioEncoder(
+                audioSettings.sampleRate,
+                audioSettings.channelCount,
+                audioSettings.bitRate,
+                clock,
+                muxer,
+                listener);
+  }
+
+  /** Prepares the audio encoder, called by the builder. */
+  void prepare() throws IOException {
+    if (audioEncoder != null) {
+      audioEncoder.prepare();
+    }
+  }
+
+  /** Returns the surface the camera renders the frames to record to. */
+  @NonNull
+  public Surface getSurface() {
+    return inputSurface;
+  }
+
+  /**
+   * Starts a new segment every {@code segmentDurationUs}, at the first key frame after the duration
+   * was reached.
+   *
+   * @param segmentDurationUs the target duration of a segment, {@code 0} to write a single file.
+   * @param outputFileProvider provides the files of the following segments.
+   */
+  public void setSegmentDuration(
+      long segmentDurationUs, @Nullable OutputFileProvider outputFileProvider) {
+    muxer.setSegmentDuration(segmentDurationUs, outputFileProvider);
+  }
+
+  /**
+   * Continues the recording in {@code file}, starting with the next key frame.
+   *
+   * @param file the file of the next segment.
+   */
+  public void rollover(@NonNull File file) {
+    muxer.rollover(file);
+  }
+
+  /** Starts the encoders, frames rendered to {@link #getSurface()} are recorded from now on. */
+  public void start() {
+    videoCodec.start();
+    started = true;
+    videoThread = new Thread(this::drainVideo, "CameraVideoEncoder");
+    videoThread.start();
+    if (audioEncoder != null) {
+      audioEncoder.start();
+    }
+  }
+
+  /** Stops feeding the encoders until {@link #resume()} is called. */
+  public void pause() {
+    if (!started || stopped || paused) {
+      return;
+    }
+    paused = true;
+    setSuspended(true);
+    muxer.pause(clock.nowUs());
+    if (audioEncoder != null) {
+      audioEncoder.setPaused(true);
+    }
+  }
+
+  /** Resumes a paused recording, the pause is removed from the recorded timeline. */
+  public void resume() {
+    if (!paused) {
+      return;
+    }
+    paused = false;
+    muxer.resume(clock.nowUs());
+    setSuspended(false);
+    if (audioEncoder != null) {
+      audioEncoder.setPaused(false);
+    }
+  }
+
+  /**
+   * Ends the recording and waits until the encoded samples were written.
+   *
+   * @return the file of the last segment, {@code null} when no frame was recorded.
+   */
+  @Nullable
+  public File stop() {
+    if (!started || stopped) {
+      return null;
+    }
+    resume();
+    stopped = true;
+    try {
+      videoCodec.signalEndOfInputStream();
+    } catch (IllegalStateException e) {
+      Log.w(TAG, "Could not end the video stream: " + e.getMessage());
+    }
+    if (audioEncoder != null) {
+      audioEncoder.stop();
+    }
+    try {
+      videoThread.join(STOP_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (videoThread.isAlive()) {
+      Log.w(TAG, "The video encoder did not stop in time");
+    }
+    try {
+      return muxer.finish();
+    } catch (IllegalStateException e) {
+      listener.onError("The recording could not be finished: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /** Stops the recording when it is running and releases the encoders. */
+  public void release() {
+    stop();
+    released = true;
+    if (audioEncoder != null) {
+      audioEncoder.release();
+    }
+    videoCodec.release();
+    if (ownsInputSurface) {
+      inputSurface.release();
+    }
+  }
+
+  private void drainVideo() {
+    final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    try {
+      while (true) {
+        final int index = videoCodec.dequeueOutputBuffer(info, DEQUEUE_TIMEOUT_US);
+        if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+          muxer.setVideoFormat(videoCodec.getOutputFormat());
+        } else if (index >= 0) {
+          try {
+            muxer.writeVideo(videoCodec.getOutputBuffer(index), info);
+          } finally {
+            videoCodec.releaseOutputBuffer(index, false);
+          }
+          if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+            return;
+          }
+        }
+      }
+    } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+      if (!released) {
+        listener.onError("Video encoding failed: " + e.getMessage());
+      }
+    }
+  }
+
+  private void requestSyncFrame() {
+    Bundle parameters = new Bundle();
+    parameters.putInt(MediaCodec.PARAMETER_KEY_REQUEST_SYNC_FRAME, 0);
+    setParameters(parameters);
+  }
+
+  private void setSuspended(boolean suspended) {
+    Bundle parameters = new Bundle();
+    parameters.putInt(MediaCodec.PARAMETER_KEY_SUSPEND, suspended ? 1 : 0);
+    setParameters(parameters);
+  }
+
+  private void setParameters(Bundle parameters) {
+    try {
+      videoCodec.setParameters(parameters);
+    } catch (IllegalStateException e) {
+      // The encoder is stopping.
+    }
+  }
+}
@@ -0,0 +1,266 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.CamcorderProfile;
+import android.media.EncoderProfiles;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.media.MediaRecorder;
+import android.os.Build;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import java.io.File;
+import java.io.IOException;
+
+/** Creates a {@link MediaCodecRecorder} configured from a recording profile. */
+public class MediaCodecRecorderBuilder {
+  static class MediaCodecFactory {
+    MediaCodec createEncoder(String mimeType) throws IOException {
+      return MediaCodec.createEncoderByType(mimeType);
+    }
+  }
+
+  /** The audio configuration of a recording. */
+  static final class AudioSettings {
+    final int sampleRate;
+    final int channelCount;
+    final int bitRate;
+
+    AudioSettings(int sampleRate, int channelCount, int bitRate) {
+      this.sampleRate = sampleRate;
+      this.channelCount = channelCount;
+      this.bitRate = bitRate;
+    }
+  }
+
+  private static final MediaCodecRecorder.Listener NO_OP_LISTENER =
+      new MediaCodecRecorder.Listener() {
+        @Override
+        public void onSegmentFinished(@NonNull File file, long durationUs) {}
+
+        @Override
+        public void onError(@NonNull String message) {}
+      };
+
+  private final String outputFilePath;
+  private final CamcorderProfile camcorderProfile;
+  private final EncoderProfiles encoderProfiles;
+  private final MediaCodecFactory codecFactory;
+  private final SegmentedMuxer.MuxerFactory muxerFactory;
+
+  private boolean enableAudio;
+  private int mediaOrientation;
+  private int videoBitRate;
+  private int keyFrameIntervalMs = VideoRecordingSettings.DEFAULT_KEY_FRAME_INTERVAL_MS;
+  private boolean realtimeTimestamps;
+  @Nullable private Surface inputSurface;
+  @NonNull private MediaCodecRecorder.Listener listener = NO_OP_LISTENER;
+
+  public MediaCodecRecorderBuilder(
+      @NonNull CamcorderProfile camcorderProfile, @NonNull String outputFilePath) {
+    this(
+        camcorderProfile,
+        outputFilePath,
+        new MediaCodecFactory(),
+        MediaCodecRecorderBuilder::createMuxer);
+  }
+
+  public MediaCodecRecorderBuilder(
+      @NonNull EncoderProfiles encoderProfiles, @NonNull String outputFilePath) {
+    this(
+        encoderProfiles,
+        outputFilePath,
+        new MediaCodecFactory(),
+        MediaCodecRecorderBuilder::createMuxer);
+  }
+
+  MediaCodecRecorderBuilder(
+      @NonNull CamcorderProfile camcorderProfile,
+      @NonNull String outputFilePath,
+      MediaCodecFactory codecFactory,
+      SegmentedMuxer.MuxerFactory muxerFactory) {
+    this.outputFilePath = outputFilePath;
+    this.camcorderProfile = camcorderProfile;
+    this.encoderProfiles = null;
+    this.codecFactory = codecFactory;
+    this.muxerFactory = muxerFactory;
+  }
+
+  MediaCodecRecorderBuilder(
+      @NonNull EncoderProfiles encoderProfiles,
+      @NonNull String outputFilePath,
+      MediaCodecFactory codecFactory,
+      SegmentedMuxer.MuxerFactory muxerFactory) {
+    this.outputFilePath = outputFilePath;
+    this.encoderProfiles = encoderProfiles;
+    this.camcorderProfile = null;
+    this.codecFactory = codecFactory;
+    this.muxerFactory = muxerFactory;
+  }
+
+  public MediaCodecRecorderBuilder setEnableAudio(boolean enableAudio) {
+    this.enableAudio = enableAudio;
+    return this;
+  }
+
+  public MediaCodecRecorderBuilder setMediaOrientation(int orientation) {
+    this.mediaOrientation = orientation;
+    return this;
+  }
+
+  /**
+   * Overrides the video bitrate of the recording profile.
+   *
+   * @param videoBitRate the bitrate in bits per second, {@code 0} to use the profile bitrate.
+   */
+  public MediaCodecRecorderBuilder setVideoBitRate(int videoBitRate) {
+    this.videoBitRate = videoBitRate;
+    return this;
+  }
+
+  /**
+   * Sets the time between two video key frames, which is also the smallest step a segment rollover
+   * can wait for.
+   */
+  public MediaCodecRecorderBuilder setKeyFrameIntervalMs(int keyFrameIntervalMs) {
+    this.keyFrameIntervalMs = keyFrameIntervalMs;
+    return this;
+  }
+
+  /**
+   * Whether the camera timestamps frames with {@link android.os.SystemClock#elapsedRealtimeNanos()}
+   * instead of {@link System#nanoTime()}, the audio is timestamped on the same clock.
+   */
+  public MediaCodecRecorderBuilder setRealtimeTimestamps(boolean realtimeTimestamps) {
+    this.realtimeTimestamps = realtimeTimestamps;
+    return this;
+  }
+
+  /**
+   * Makes the encoder read its frames from a persistent surface instead of creating its own.
+   *
+   * @param inputSurface a surface created by {@link MediaCodec#createPersistentInputSurface()},
+   *     {@code null} to let the encoder create one.
+   */
+  @RequiresApi(Build.VERSION_CODES.M)
+  public MediaCodecRecorderBuilder setInputSurface(@Nullable Surface inputSurface) {
+    this.inputSurface = inputSurface;
+    return this;
+  }
+
+  public MediaCodecRecorderBuilder setListener(@NonNull MediaCodecRecorder.Listener listener) {
+    this.listener = listener;
+    return this;
+  }
+
+  public MediaCodecRecorder build()
+      throws IOException, NullPointerException, IndexOutOfBoundsException {
+    final MediaFormat format;
+    final AudioSettings audioSettings;
+    if (Build.VERSION.SDK_INT >= 31) {
+      EncoderProfiles.VideoProfile videoProfile = encoderProfiles.getVideoProfiles().get(0);
+      EncoderProfiles.AudioProfile audioProfile = encoderProfiles.getAudioProfiles().get(0);
+
+      format =
+          createVideoFormat(
+              getMuxableMimeType(videoProfile.getMediaType()),
+              videoProfile.getWidth(),
+              videoProfile.getHeight(),
+              videoProfile.getBitrate(),
+              videoProfile.getFrameRate());
+      audioSettings =
+          enableAudio
+              ? new AudioSettings(
+                  audioProfile.getSampleRate(),
+                  audioProfile.getChannels(),
+                  audioProfile.getBitrate())
+              : null;
+    } else {
+      format =
+          createVideoFormat(
+              camcorderProfile.videoCodec == MediaRecorder.VideoEncoder.HEVC
+                  ? MediaFormat.MIMETYPE_VIDEO_HEVC
+                  : MediaFormat.MIMETYPE_VIDEO_AVC,
+              camcorderProfile.videoFrameWidth,
+              camcorderProfile.videoFrameHeight,
+              camcorderProfile.videoBitRate,
+              camcorderProfile.videoFrameRate);
+      audioSettings =
+          enableAudio
+              ? new AudioSettings(
+                  camcorderProfile.audioSampleRate,
+                  camcorderProfile.audioChannels,
+                  camcorderProfile.audioBitRate)
+              : null;
+    }
+
+    MediaCodec codec = codecFactory.createEncoder(format.getString(MediaFormat.KEY_MIME));
+    try {
+      codec.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+      final Surface surface;
+      final boolean ownsSurface;
+      if (inputSurface != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+        codec.setInputSurface(inputSurface);
+        surface = inputSurface;
+        ownsSurface = false;
+      } else {
+        surface = codec.createInputSurface();
+        ownsSurface = true;
+      }
+
+      MediaCodecRecorder recorder =
+          new MediaCodecRecorder(
+              codec,
+              surface,
+              ownsSurface,
+              new File(outputFilePath),
+              mediaOrientation,
+              audioSettings,
+              realtimeTimestamps,
+              muxerFactory,
+              listener);
+      recorder.prepare();
+      return recorder;
+    } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+      codec.release();
+      if (e instanceof IOException) {
+        throw (IOException) e;
+      }
+      throw new IOException("The video encoder could not be configured: " + e.getMessage(), e);
+    }
+  }
+
+  private MediaFormat createVideoFormat(
+      String mimeType, int width, int height, int profileBitRate, int frameRate) {
+    MediaFormat format = MediaFormat.createVideoFormat(mimeType, width, height);
+    format.setInteger(
+        MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+    format.setInteger(MediaFormat.KEY_BIT_RATE, videoBitRate > 0 ? videoBitRate : profileBitRate);
+    format.setInteger(MediaFormat.KEY_FRAME_RATE, frameRate);
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N_MR1) {
+      format.setFloat(MediaFormat.KEY_I_FRAME_INTERVAL, keyFrameIntervalMs / 1000f);
+    } else {
+      format.setInteger(
+          MediaFormat.KEY_I_FRAME_INTERVAL, Math.max(1, Math.round(keyFrameIntervalMs / 1000f)));
+    }
+    return format;
+  }
+
+  /** Falls back to H.264 for codecs the MP4 muxer does not accept on every API level. */
+  private static String getMuxableMimeType(String mimeType) {
+    return MediaFormat.MIMETYPE_VIDEO_HEVC.equals(mimeType)
+        ? MediaFormat.MIMETYPE_VIDEO_HEVC
+        : MediaFormat.MIMETYPE_VIDEO_AVC;
+  }
+
+  private static MediaMuxer createMuxer(@NonNull String path) throws IOException {
+    return new MediaMuxer(path, MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+  }
+}
@@ -8,7 +8,10 @@ import android.media.CamcorderProfile;
 import android.media.EncoderProfiles;
 import android.media.MediaRecorder;
 import android.os.Build;
+import android.view.Surface;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 import java.io.IOException;
 
 public class MediaRecorderBuilder {
@@ -26,6 +29,12 @@ public class MediaRecorderBuilder {
 
   private boolean enableAudio;
   private int mediaOrientation;
+  private int videoBitRate;
+  private int segmentDurationMs;
+  private int highSpeedWidth;
+  private int highSpeedHeight;
+  private int highSpeedFrameRate;
+  @Nullable private Surface inputSurface;
 
   public MediaRecorderBuilder(
       @NonNull CamcorderProfile camcorderProfile, @NonNull String outputFilePath) {
@@ -67,6 +76,60 @@ public class MediaRecorderBuilder {
     return this;
   }
 
+  /**
+   * Overrides the video bitrate of the recording profile.
+   *
+   * @param videoBitRate the bitrate in bits per second, {@code 0} to use the profile bitrate.
+   */
+  public MediaRecorderBuilder setVideoBitRate(int videoBitRate) {
+    this.videoBitRate = videoBitRate;
+    return this;
+  }
+
+  /**
+   * Limits the size of the output file to the size of a segment of {@code segmentDurationMs}, see
+   * {@link MediaRecorderSegmenter}.
+   *
+   * <p>{@link MediaRecorder} can only switch files by size, so the duration is converted to a size
+   * from the bitrates of the recording and segments are only approximately this long.
+   *
+   * @param segmentDurationMs the duration of a segment, {@code 0} to record a single file.
+   */
+  public MediaRecorderBuilder setSegmentDurationMs(int segmentDurationMs) {
+    this.segmentDurationMs = segmentDurationMs;
+    return this;
+  }
+
+  /**
+   * Records the video of a constrained high speed capture session instead of the profile video.
+   *
+   * <p>Unless {@link #setVideoBitRate(int)} is used, the video bitrate of the profile is scaled by
+   * the ratio of the pixel rates of the high speed video and the profile video.
+   *
+   * @param width the width of the high speed video size.
+   * @param height the height of the high speed video size.
+   * @param frameRate the frame rate of the session, for instance 120 or 240.
+   */
+  public MediaRecorderBuilder setHighSpeedVideo(int width, int height, int frameRate) {
+    this.highSpeedWidth = width;
+    this.highSpeedHeight = height;
+    this.highSpeedFrameRate = frameRate;
+    return this;
+  }
+
+  /**
+   * Makes the recorder read its frames from a persistent surface instead of creating its own.
+   *
+   * @param inputSurface a surface created by {@link
+   *     android.media.MediaCodec#createPersistentInputSurface()}, {@code null} to let the recorder
+   *     create one.
+   */
+  @RequiresApi(Build.VERSION_CODES.M)
+  public MediaRecorderBuilder setInputSurface(@Nullable Surface inputSurface) {
+    this.inputSurface = inputSurface;
+    return this;
+  }
+
   public MediaRecorder build() throws IOException, NullPointerException, IndexOutOfBoundsException {
     MediaRecorder mediaRecorder = recorderFactory.makeMediaRecorder();
 
@@ -75,6 +138,7 @@ public class MediaRecorderBuilder {
     if (enableAudio) mediaRecorder.setAudioSource(MediaRecorder.AudioSource.MIC);
     mediaRecorder.setVideoSource(MediaRecorder.VideoSource.SURFACE);
 
+    long encodingBitRate = 0;
     if (Build.VERSION.SDK_INT >= 31) {
       EncoderProfiles.VideoProfile videoProfile = encoderProfiles.getVideoProfiles().get(0);
       EncoderProfiles.AudioProfile audioProfile = encoderProfiles.getAudioProfiles().get(0);
@@ -83,32 +147,77 @@ public class MediaRecorderBuilder {
       if (enableAudio) {
         mediaRecorder.setAudioEncoder(audioProfile.getCodec());
         mediaRecorder.setAudioEncodingBitRate(audioProfile.getBitrate());
+        encodingBitRate += audioProfile.getBitrate();
         mediaRecorder.setAudioSamplingRate(audioProfile.getSampleRate());
       }
       mediaRecorder.setVideoEncoder(videoProfile.getCodec());
-      mediaRecorder.setVideoEncodingBitRate(videoProfile.getBitrate());
-      mediaRecorder.setVideoFrameRate(videoProfile.getFrameRate());
-      mediaRecorder.setVideoSize(videoProfile.getWidth(), videoProfile.getHeight());
-      mediaRecorder.setVideoSize(videoProfile.getWidth(), videoProfile.getHeight());
+      final int videoEncodingBitRate =
+          getVideoEncodingBitRate(
+              videoProfile.getBitrate(),
+              videoProfile.getWidth(),
+              videoProfile.getHeight(),
+              videoProfile.getFrameRate());
+      mediaRecorder.setVideoEncodingBitRate(videoEncodingBitRate);
+      encodingBitRate += videoEncodingBitRate;
+      if (highSpeedFrameRate > 0) {
+        mediaRecorder.setVideoFrameRate(highSpeedFrameRate);
+        mediaRecorder.setVideoSize(highSpeedWidth, highSpeedHeight);
+      } else {
+        mediaRecorder.setVideoFrameRate(videoProfile.getFrameRate());
+        mediaRecorder.setVideoSize(videoProfile.getWidth(), videoProfile.getHeight());
+      }
     } else {
       mediaRecorder.setOutputFormat(camcorderProfile.fileFormat);
       if (enableAudio) {
         mediaRecorder.setAudioEncoder(camcorderProfile.audioCodec);
         mediaRecorder.setAudioEncodingBitRate(camcorderProfile.audioBitRate);
+        encodingBitRate += camcorderProfile.audioBitRate;
         mediaRecorder.setAudioSamplingRate(camcorderProfile.audioSampleRate);
       }
       mediaRecorder.setVideoEncoder(camcorderProfile.videoCodec);
-      mediaRecorder.setVideoEncodingBitRate(camcorderProfile.videoBitRate);
-      mediaRecorder.setVideoFrameRate(camcorderProfile.videoFrameRate);
-      mediaRecorder.setVideoSize(
-          camcorderProfile.videoFrameWidth, camcorderProfile.videoFrameHeight);
+      final int videoEncodingBitRate =
+          getVideoEncodingBitRate(
+              camcorderProfile.videoBitRate,
+              camcorderProfile.videoFrameWidth,
+              camcorderProfile.videoFrameHeight,
+              camcorderProfile.videoFrameRate);
+      mediaRecorder.setVideoEncodingBitRate(videoEncodingBitRate);
+      encodingBitRate += videoEncodingBitRate;
+      if (highSpeedFrameRate > 0) {
+        mediaRecorder.setVideoFrameRate(highSpeedFrameRate);
+        mediaRecorder.setVideoSize(highSpeedWidth, highSpeedHeight);
+      } else {
+        mediaRecorder.setVideoFrameRate(camcorderProfile.videoFrameRate);
+        mediaRecorder.setVideoSize(
+            camcorderProfile.videoFrameWidth, camcorderProfile.videoFrameHeight);
+      }
     }
 
+    if (inputSurface != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+      mediaRecorder.setInputSurface(inputSurface);
+    }
     mediaRecorder.setOutputFile(outputFilePath);
     mediaRecorder.setOrientationHint(this.mediaOrientation);
+    if (segmentDurationMs > 0) {
+      mediaRecorder.setMaxFileSize(encodingBitRate / 8 * segmentDurationMs / 1000);
+    }
 
     mediaRecorder.prepare();
 
     return mediaRecorder;
   }
+
+  private int getVideoEncodingBitRate(
+      int profileBitRate, int profileWidth, int profileHeight, int profileFrameRate) {
+    if (videoBitRate > 0) {
+      return videoBitRate;
+    }
+    final double profilePixelRate = (double) profileWidth * profileHeight * profileFrameRate;
+    if (highSpeedFrameRate <= 0 || profilePixelRate <= 0) {
+      return profileBitRate;
+    }
+    final double highSpeedPixelRate =
+        (double) highSpeedWidth * highSpeedHeight * highSpeedFrameRate;
+    return (int) Math.min(Integer.MAX_VALUE, profileBitRate * highSpeedPixelRate / profilePixelRate);
+  }
 }
@@ -0,0 +1,108 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.MediaRecorder;
+import android.os.Build;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Splits a {@link MediaRecorder} recording into segments with {@link
+ * MediaRecorder#setNextOutputFile(File)}.
+ *
+ * <p>The recorder switches to the next file when the current one reaches the maximum file size
+ * set by {@link MediaRecorderBuilder#setSegmentDurationMs(int)}. The next file is always set ahead
+ * of time, so the recorder never stops at the size limit. Segment durations are measured on the
+ * elapsed realtime clock and include pauses.
+ */
+@RequiresApi(Build.VERSION_CODES.O)
+public class MediaRecorderSegmenter implements MediaRecorder.OnInfoListener {
+  private final MediaRecorder mediaRecorder;
+  private final RollingRecording rollingRecording;
+
+  @NonNull private File currentFile;
+  @Nullable private File pendingFile;
+  private long segmentStartUs;
+
+  /**
+   * Creates a new segmenter and registers it as the info listener of {@code mediaRecorder}.
+   *
+   * @param mediaRecorder a prepared recorder.
+   * @param firstFile the output file of the recorder.
+   * @param rollingRecording provides the segment files and receives the finished segments.
+   */
+  public MediaRecorderSegmenter(
+      @NonNull MediaRecorder mediaRecorder,
+      @NonNull File firstFile,
+      @NonNull RollingRecording rollingRecording) {
+    this.mediaRecorder = mediaRecorder;
+    this.currentFile = firstFile;
+    this.rollingRecording = rollingRecording;
+    mediaRecorder.setOnInfoListener(this);
+  }
+
+  /** Called once the recorder was started. */
+  public void start() {
+    segmentStartUs = nowUs();
+    setNextOutputFile();
+  }
+
+  @Override
+  public void onInfo(MediaRecorder mr, int what, int extra) {
+    if (what == MediaRecorder.MEDIA_RECORDER_INFO_NEXT_OUTPUT_FILE_STARTED) {
+      final long now = nowUs();
+      final File finishedFile = currentFile;
+      final long durationUs = now - segmentStartUs;
+      currentFile = pendingFile;
+      pendingFile = null;
+      segmentStartUs = now;
+      rollingRecording.onSegmentFinished(finishedFile, durationUs);
+      setNextOutputFile();
+    } else if (what == MediaRecorder.MEDIA_RECORDER_INFO_MAX_FILESIZE_REACHED) {
+      rollingRecording.onError("The recording stopped at the maximum segment size.");
+    }
+  }
+
+  /**
+   * Reports the last segment and deletes the next file, which was never written. Must be called
+   * after the recorder was stopped.
+   *
+   * @return the file of the last segment.
+   */
+  @NonNull
+  public File finish() {
+    if (pendingFile != null) {
+      //noinspection ResultOfMethodCallIgnored
+      pendingFile.delete();
+      pendingFile = null;
+    }
+    rollingRecording.onSegmentFinished(currentFile, nowUs() - segmentStartUs);
+    return currentFile;
+  }
+
+  private void setNextOutputFile() {
+    File nextFile = null;
+    try {
+      nextFile = rollingRecording.nextFile();
+      mediaRecorder.setNextOutputFile(nextFile);
+      pendingFile = nextFile;
+    } catch (IOException | IllegalStateException e) {
+      if (nextFile != null) {
+        //noinspection ResultOfMethodCallIgnored
+        nextFile.delete();
+      }
+      rollingRecording.onError("The next segment could not be created: " + e.getMessage());
+    }
+  }
+
+  private static long nowUs() {
+    return SystemClock.elapsedRealtimeNanos() / 1000;
+  }
+}
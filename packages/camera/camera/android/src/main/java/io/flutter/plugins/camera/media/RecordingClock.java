@@ -0,0 +1,30 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.SystemClock;
+
+/**
+ * The clock of the camera sensor timestamps, which the video frames carry, so audio samples and
+ * pauses are timed on the same clock.
+ */
+final class RecordingClock {
+  private final boolean realtime;
+
+  /**
+   * Creates a new clock.
+   *
+   * @param realtime whether the sensor timestamps use the {@link
+   *     SystemClock#elapsedRealtimeNanos()} time base rather than the monotonic clock.
+   */
+  RecordingClock(boolean realtime) {
+    this.realtime = realtime;
+  }
+
+  /** Returns the current time in microseconds. */
+  long nowUs() {
+    return (realtime ? SystemClock.elapsedRealtimeNanos() : System.nanoTime()) / 1000;
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the segments of a recording that is split into several files, and deletes the oldest
+ * finished segments so at most a fixed number of them stays on disk.
+ *
+ * <p>Segments are finished on the recorder threads, so all methods are thread safe.
+ */
+public class RollingRecording implements MediaCodecRecorder.OutputFileProvider {
+  /** Receives the finished segments. */
+  public interface Listener {
+    /**
+     * Called when a segment was written completely, including the last one of the recording.
+     *
+     * @param path the file of the segment.
+     * @param index the position of the segment in the recording, starting at {@code 0}.
+     * @param durationUs the approximate duration of the segment.
+     * @param deletedPaths the files of older segments that were deleted to make room for it.
+     */
+    void onSegmentFinished(
+        @NonNull String path, int index, long durationUs, @NonNull List<String> deletedPaths);
+
+    /**
+     * Called when the recording cannot continue in a new segment.
+     *
+     * @param message a description of the failure.
+     */
+    void onError(@NonNull String message);
+  }
+
+  private static final String TAG = "RollingRecording";
+
+  private final File directory;
+  private final int maxSegmentCount;
+  private final Listener listener;
+  private final ArrayDeque<File> finishedSegments = new ArrayDeque<>();
+  private int nextIndex;
+
+  /**
+   * Creates a new rolling recording.
+   *
+   * @param directory the directory the segment files are created in.
+   * @param maxSegmentCount how many finished segments are kept, {@code 0} to keep all of them.
+   * @param listener receives the finished segments.
+   */
+  public RollingRecording(
+      @NonNull File directory, int maxSegmentCount, @NonNull Listener listener) {
+    this.directory = directory;
+    this.maxSegmentCount = maxSegmentCount;
+    this.listener = listener;
+  }
+
+  /** Creates the file of the next segment. */
+  @NonNull
+  @Override
+  public File nextFile() throws IOException {
+    return File.createTempFile("REC", ".mp4", directory);
+  }
+
+  /**
+   * Records a finished segment and deletes the oldest segments beyond the maximum count.
+   *
+   * @param file the file of the segment.
+   * @param durationUs the approximate duration of the segment.
+   */
+  public synchronized void onSegmentFinished(@NonNull File file, long durationUs) {
+    finishedSegments.add(file);
+    List<String> deletedPaths = new ArrayList<>();
+    while (maxSegmentCount > 0 && finishedSegments.size() > maxSegmentCount) {
+      File oldest = finishedSegments.remove();
+      if (oldest.delete() || !oldest.exists()) {
+        deletedPaths.add(oldest.getAbsolutePath());
+      } else {
+        Log.w(TAG, "Could not delete the segment " + oldest.getAbsolutePath());
+      }
+    }
+    listener.onSegmentFinished(file.getAbsolutePath(), nextIndex++, durationUs, deletedPaths);
+  }
+
+  /**
+   * Reports that the recording cannot continue in a new segment.
+   *
+   * @param message a description of the failure.
+   */
+  public void onError(@NonNull String message) {
+    listener.onError(message);
+  }
+}
@@ -0,0 +1,303 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the encoded samples of a recording into one or more MP4 files.
+ *
+ * <p>A new file, called a segment, is started on a video key frame, either when {@link
+ * #rollover(File)} is called or when the current segment reached the segment duration. Every
+ * segment starts with a key frame so it can be played on its own, without restarting the encoders.
+ * The muxer of a segment is only created once its first key frame is available, so a segment is
+ * never empty.
+ *
+ * <p>Timestamps are shifted by the time the recording was paused. Samples that would not increase
+ * the timestamp of their track, which the muxer rejects, are dropped.
+ *
+ * <p>The encoders write from their own threads, so all methods are synchronized.
+ */
+final class SegmentedMuxer {
+  /** Creates the muxer of a segment. */
+  interface MuxerFactory {
+    @NonNull
+    MediaMuxer create(@NonNull String path) throws IOException;
+  }
+
+  /** Receives the events of the muxer, on the thread of the encoder that caused them. */
+  interface Listener {
+    /** Asks the video encoder to produce a key frame as soon as possible. */
+    void onSyncFrameRequested();
+
+    /**
+     * Called when a segment was written completely.
+     *
+     * @param file the file of the segment.
+     * @param durationUs the time between the first and the last video frame of the segment.
+     */
+    void onSegmentFinished(@NonNull File file, long durationUs);
+  }
+
+  private static final int NO_TRACK = -1;
+
+  private final boolean hasAudio;
+  private final int orientationHint;
+  private final MuxerFactory muxerFactory;
+  private final Listener listener;
+
+  private long segmentDurationUs;
+  @Nullable private MediaCodecRecorder.OutputFileProvider outputFileProvider;
+
+  @Nullable private MediaFormat videoFormat;
+  @Nullable private MediaFormat audioFormat;
+
+  @NonNull private File currentFile;
+  @Nullable private MediaMuxer muxer;
+  private int videoTrack = NO_TRACK;
+  private int audioTrack = NO_TRACK;
+  private boolean syncFrameRequested;
+  private boolean finished;
+  private long segmentStartUs = -1;
+  private long lastVideoUs = -1;
+  private long lastAudioUs = -1;
+  @Nullable private File nextFile;
+
+  private long pausedAtUs = -1;
+  private long lastResumeUs = -1;
+  private long pausedDurationUs;
+  private long pausedDurationBeforeLastResumeUs;
+
+  private final MediaCodec.BufferInfo adjustedInfo = new MediaCodec.BufferInfo();
+
+  /**
+   * Creates a new muxer.
+   *
+   * @param firstFile the file of the first segment.
+   * @param hasAudio whether an audio track is written, samples are dropped until both track
+   *     formats are known.
+   * @param orientationHint the rotation of the video, in degrees.
+   * @param muxerFactory creates the muxer of every segment.
+   * @param listener receives the events of the muxer.
+   */
+  SegmentedMuxer(
+      @NonNull File firstFile,
+      boolean hasAudio,
+      int orientationHint,
+      @NonNull MuxerFactory muxerFactory,
+      @NonNull Listener listener) {
+    this.currentFile = firstFile;
+    this.hasAudio = hasAudio;
+    this.orientationHint = orientationHint;
+    this.muxerFactory = muxerFactory;
+    this.listener = listener;
+  }
+
+  /**
+   * Starts a new segment every {@code segmentDurationUs}, at the first key frame after the duration
+   * was reached.
+   *
+   * @param segmentDurationUs the target duration of a segment, {@code 0} to write a single file.
+   * @param outputFileProvider provides the files of the following segments.
+   */
+  synchronized void setSegmentDuration(
+      long segmentDurationUs,
+      @Nullable MediaCodecRecorder.OutputFileProvider outputFileProvider) {
+    this.segmentDurationUs = outputFileProvider == null ? 0 : segmentDurationUs;
+    this.outputFileProvider = outputFileProvider;
+  }
+
+  /** Returns the file of the segment that is currently written. */
+  @NonNull
+  synchronized File getCurrentFile() {
+    return currentFile;
+  }
+
+  /**
+   * Continues the recording in {@code file}, starting with the next video key frame.
+   *
+   * @param file the file of the next segment.
+   */
+  synchronized void rollover(@NonNull File file) {
+    nextFile = file;
+    requestSyncFrame();
+  }
+
+  synchronized void setVideoFormat(@NonNull MediaFormat format) {
+    videoFormat = format;
+  }
+
+  synchronized void setAudioFormat(@NonNull MediaFormat format) {
+    audioFormat = format;
+  }
+
+  /**
+   * Writes an encoded video sample.
+   *
+   * @param buffer the encoded sample.
+   * @param info the metadata of the sample, as returned by the encoder.
+   */
+  synchronized void writeVideo(@NonNull ByteBuffer buffer, @NonNull MediaCodec.BufferInfo info)
+      throws IOException {
+    if (finished
+        || videoFormat == null
+        || (hasAudio && audioFormat == null)
+        || !hasPayload(info)) {
+      return;
+    }
+    final long timestampUs = adjustTimestamp(info.presentationTimeUs);
+    if (timestampUs <= lastVideoUs) {
+      return;
+    }
+    final boolean keyFrame = (info.flags & MediaCodec.BUFFER_FLAG_KEY_FRAME) != 0;
+    if (keyFrame) {
+      syncFrameRequested = false;
+      if (muxer != null && nextFile == null && isSegmentComplete(timestampUs)) {
+        nextFile = outputFileProvider.nextFile();
+      }
+      if (muxer != null && nextFile != null) {
+        finishSegment();
+      }
+      if (muxer == null) {
+        if (nextFile != null) {
+          currentFile = nextFile;
+          nextFile = null;
+        }
+        startSegment(timestampUs);
+      }
+    } else if (muxer == null) {
+      requestSyncFrame();
+      return;
+    } else if (isSegmentComplete(timestampUs)) {
+      requestSyncFrame();
+    }
+
+    lastVideoUs = timestampUs;
+    write(videoTrack, buffer, info, timestampUs);
+  }
+
+  /**
+   * Writes an encoded audio sample. Samples received before the first video key frame are dropped
+   * so the recording starts with video.
+   *
+   * @param buffer the encoded sample.
+   * @param info the metadata of the sample, as returned by the encoder.
+   */
+  synchronized void writeAudio(@NonNull ByteBuffer buffer, @NonNull MediaCodec.BufferInfo info) {
+    if (muxer == null || audioTrack == NO_TRACK || !hasPayload(info)) {
+      return;
+    }
+    final long timestampUs = adjustTimestamp(info.presentationTimeUs);
+    if (timestampUs <= lastAudioUs) {
+      return;
+    }
+    lastAudioUs = timestampUs;
+    write(audioTrack, buffer, info, timestampUs);
+  }
+
+  /**
+   * Called when the recording is paused.
+   *
+   * @param nowUs the current time, on the clock of the sample timestamps.
+   */
+  synchronized void pause(long nowUs) {
+    if (pausedAtUs < 0) {
+      pausedAtUs = nowUs;
+    }
+  }
+
+  /**
+   * Called when the recording is resumed, the following samples are shifted by the time the
+   * recording was paused.
+   *
+   * @param nowUs the current time, on the clock of the sample timestamps.
+   */
+  synchronized void resume(long nowUs) {
+    if (pausedAtUs < 0) {
+      return;
+    }
+    pausedDurationBeforeLastResumeUs = pausedDurationUs;
+    pausedDurationUs += Math.max(0, nowUs - pausedAtUs);
+    lastResumeUs = nowUs;
+    pausedAtUs = -1;
+  }
+
+  /**
+   * Finishes the current segment and releases the muxer, samples written afterwards are dropped.
+   *
+   * @return the file of the last segment, {@code null} when no video frame was written to it.
+   */
+  @Nullable
+  synchronized File finish() {
+    finished = true;
+    if (muxer == null) {
+      return null;
+    }
+    finishSegment();
+    return currentFile;
+  }
+
+  private boolean isSegmentComplete(long timestampUs) {
+    return segmentDurationUs > 0 && timestampUs - segmentStartUs >= segmentDurationUs;
+  }
+
+  private void startSegment(long timestampUs) throws IOException {
+    final MediaMuxer segmentMuxer = muxerFactory.create(currentFile.getAbsolutePath());
+    segmentMuxer.setOrientationHint(orientationHint);
+    videoTrack = segmentMuxer.addTrack(videoFormat);
+    audioTrack = audioFormat != null ? segmentMuxer.addTrack(audioFormat) : NO_TRACK;
+    segmentMuxer.start();
+    muxer = segmentMuxer;
+    segmentStartUs = timestampUs;
+  }
+
+  private void finishSegment() {
+    final MediaMuxer finishedMuxer = muxer;
+    final long durationUs = lastVideoUs - segmentStartUs;
+    muxer = null;
+    try {
+      finishedMuxer.stop();
+    } finally {
+      finishedMuxer.release();
+    }
+    listener.onSegmentFinished(currentFile, durationUs);
+  }
+
+  private void write(
+      int track, ByteBuffer buffer, MediaCodec.BufferInfo info, long adjustedTimestampUs) {
+    adjustedInfo.offset = info.offset;
+    adjustedInfo.size = info.size;
+    adjustedInfo.flags = info.flags;
+    adjustedInfo.presentationTimeUs = adjustedTimestampUs;
+    muxer.writeSampleData(track, buffer, adjustedInfo);
+  }
+
+  private long adjustTimestamp(long timestampUs) {
+    // Samples encoded before the last resume may still come out of the encoder afterwards, they
+    // are only shifted by the pauses that ended before them.
+    if (lastResumeUs >= 0 && timestampUs < lastResumeUs) {
+      return timestampUs - pausedDurationBeforeLastResumeUs;
+    }
+    return timestampUs - pausedDurationUs;
+  }
+
+  private void requestSyncFrame() {
+    if (!syncFrameRequested) {
+      syncFrameRequested = true;
+      listener.onSyncFrameRequested();
+    }
+  }
+
+  private static boolean hasPayload(MediaCodec.BufferInfo info) {
+    return info.size > 0 && (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0;
+  }
+}
@@ -0,0 +1,127 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import io.flutter.plugin.common.MethodCall;
+
+/** Options supplied by Dart when preparing for video recording. */
+public class VideoRecordingSettings {
+  /** The recorder used for video recordings. */
+  public enum Backend {
+    /** Records with {@link android.media.MediaRecorder}, in a session of its own. */
+    MEDIA_RECORDER("mediaRecorder"),
+    /**
+     * Records with {@link MediaCodecRecorder}, in the same session as the preview and the image
+     * stream.
+     */
+    MEDIA_CODEC("mediaCodec");
+
+    private final String strValue;
+
+    Backend(String strValue) {
+      this.strValue = strValue;
+    }
+
+    /**
+     * Converts the given string to the matching {@link Backend}.
+     *
+     * @param backendStr string value to convert.
+     * @return the matching backend, or {@link #MEDIA_RECORDER} when the value is unknown.
+     */
+    @NonNull
+    public static Backend getValueForString(String backendStr) {
+      for (Backend value : values()) {
+        if (value.strValue.equals(backendStr)) {
+          return value;
+        }
+      }
+      return MEDIA_RECORDER;
+    }
+  }
+
+  /** Default time between two video key frames. */
+  static final int DEFAULT_KEY_FRAME_INTERVAL_MS = 1000;
+
+  @NonNull private Backend backend = Backend.MEDIA_RECORDER;
+  private int videoBitRate;
+  private int keyFrameIntervalMs = DEFAULT_KEY_FRAME_INTERVAL_MS;
+  private int segmentDurationMs;
+  private int maxSegmentCount;
+  private int highSpeedFrameRate;
+
+  VideoRecordingSettings() {}
+
+  /** Returns the settings used when Dart does not pass any options. */
+  @NonNull
+  public static VideoRecordingSettings defaults() {
+    return new VideoRecordingSettings();
+  }
+
+  /**
+   * Reads the recording options from the arguments of a {@code prepareForVideoRecording} call.
+   *
+   * @param call the method call, its arguments may be {@code null}.
+   * @return the parsed settings, falling back to {@link #defaults()} for missing values.
+   */
+  @NonNull
+  public static VideoRecordingSettings fromMethodCall(@NonNull MethodCall call) {
+    VideoRecordingSettings settings = new VideoRecordingSettings();
+    settings.backend = Backend.getValueForString(call.argument("backend"));
+    settings.videoBitRate = nonNegative(call.argument("videoBitRate"));
+    Integer keyFrameIntervalMs = call.argument("keyFrameIntervalMs");
+    if (keyFrameIntervalMs != null && keyFrameIntervalMs > 0) {
+      settings.keyFrameIntervalMs = keyFrameIntervalMs;
+    }
+    settings.segmentDurationMs = nonNegative(call.argument("segmentDurationMs"));
+    settings.maxSegmentCount = nonNegative(call.argument("maxSegmentCount"));
+    settings.highSpeedFrameRate = nonNegative(call.argument("highSpeedFrameRate"));
+    return settings;
+  }
+
+  /** The recorder used for video recordings. */
+  @NonNull
+  public Backend getBackend() {
+    return backend;
+  }
+
+  /** Video bitrate in bits per second, {@code 0} to use the bitrate of the recording profile. */
+  public int getVideoBitRate() {
+    return videoBitRate;
+  }
+
+  /**
+   * Time between two video key frames. Only applies to {@link Backend#MEDIA_CODEC}, {@link
+   * android.media.MediaRecorder} does not expose it.
+   */
+  public int getKeyFrameIntervalMs() {
+    return keyFrameIntervalMs;
+  }
+
+  /** Duration of the segments of a rolling recording, {@code 0} to record a single file. */
+  public int getSegmentDurationMs() {
+    return segmentDurationMs;
+  }
+
+  /**
+   * How many finished segments of a rolling recording are kept on disk, {@code 0} to keep all of
+   * them.
+   */
+  public int getMaxSegmentCount() {
+    return maxSegmentCount;
+  }
+
+  /**
+   * Frame rate of a recording in a constrained high speed capture session, {@code 0} to record in a
+   * regular session. Only applies to {@link Backend#MEDIA_RECORDER}.
+   */
+  public int getHighSpeedFrameRate() {
+    return highSpeedFrameRate;
+  }
+
+  private static int nonNegative(Integer value) {
+    return value == null || value < 0 ? 0 : value;
+  }
+}
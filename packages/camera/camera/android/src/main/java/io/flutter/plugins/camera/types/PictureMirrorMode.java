@@ -0,0 +1,43 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+// Mirrors picture_mirror_mode.dart
+/** How pictures taken with a front facing camera are mirrored to match the preview. */
+public enum PictureMirrorMode {
+  /** The picture is saved as the sensor captured it. */
+  none("none"),
+  /** The EXIF orientation is changed to a mirrored one, the pixels are untouched. */
+  exif("exif"),
+  /** The picture is decoded, mirrored and encoded again. */
+  pixels("pixels");
+
+  private final String strValue;
+
+  PictureMirrorMode(String strValue) {
+    this.strValue = strValue;
+  }
+
+  /**
+   * Tries to convert the supplied string into a {@see PictureMirrorMode} enum value.
+   *
+   * <p>When the supplied string doesn't match a valid {@see PictureMirrorMode} enum value, null is
+   * returned.
+   *
+   * @param modeStr String value to convert into a {@see PictureMirrorMode} enum value.
+   * @return Matching {@see PictureMirrorMode} enum value, or null if no match is found.
+   */
+  public static PictureMirrorMode getValueForString(String modeStr) {
+    for (PictureMirrorMode value : values()) {
+      if (value.strValue.equals(modeStr)) return value;
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return strValue;
+  }
+}
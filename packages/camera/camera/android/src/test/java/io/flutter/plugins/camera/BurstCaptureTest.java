@@ -0,0 +1,197 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import io.flutter.plugins.camera.types.PictureMirrorMode;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BurstCaptureTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ImageReader mockReader;
+  private Handler mockHandler;
+  private BurstCapture.Callback mockCallback;
+  private final List<Runnable> queuedSaves = new ArrayList<>();
+
+  @Before
+  public void setup() {
+    mockReader = mock(ImageReader.class);
+    mockHandler = mock(Handler.class);
+    when(mockHandler.post(any()))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return true;
+            });
+    mockCallback = mock(BurstCapture.Callback.class);
+  }
+
+  @Test
+  public void drain_shouldSaveEveryShotInCaptureOrder() {
+    Image first = mockImage(1L);
+    Image second = mockImage(2L);
+    Image third = mockImage(3L);
+    when(mockReader.acquireNextImage()).thenReturn(first, second, third, null);
+    BurstCapture burst = createBurst(3, 2, Runnable::run);
+
+    burst.start();
+    burst.drain(mockReader);
+
+    List<Map<String, Object>> shots = captureShots();
+    assertEquals(3, shots.size());
+    for (int i = 0; i < shots.size(); i++) {
+      assertEquals((long) i + 1, shots.get(i).get("sensorTimestamp"));
+      assertTrue(new File((String) shots.get(i).get("path")).exists());
+      assertTrue((Long) shots.get(i).get("saveDurationMicros") >= 0);
+    }
+  }
+
+  @Test
+  public void drain_shouldNotHoldMoreImagesThanTheReaderCanStore() {
+    Image first = mockImage(1L);
+    Image second = mockImage(2L);
+    Image third = mockImage(3L);
+    when(mockReader.acquireNextImage()).thenReturn(first, second, third, null);
+    BurstCapture burst = createBurst(3, 2, queuedSaves::add);
+
+    burst.start();
+    burst.drain(mockReader);
+
+    verify(mockReader, times(2)).acquireNextImage();
+    assertEquals(2, queuedSaves.size());
+
+    // Saving the first picture releases its image, so the third one can be acquired.
+    queuedSaves.remove(0).run();
+
+    verify(mockReader, times(3)).acquireNextImage();
+    assertEquals(2, queuedSaves.size());
+    verify(mockCallback, never()).onComplete(any());
+  }
+
+  @Test
+  public void onCaptureFailed_shouldCompleteWithTheRemainingShots() {
+    Image first = mockImage(1L);
+    when(mockReader.acquireNextImage()).thenReturn(first, (Image) null);
+    BurstCapture burst = createBurst(2, 2, Runnable::run);
+
+    burst.start();
+    burst.onCaptureFailed();
+    burst.drain(mockReader);
+
+    assertEquals(1, captureShots().size());
+  }
+
+  @Test
+  public void onCaptureFailed_shouldReportErrorWhenNoShotWasCaptured() {
+    BurstCapture burst = createBurst(2, 2, Runnable::run);
+
+    burst.start();
+    burst.onCaptureFailed();
+    burst.onCaptureFailed();
+
+    verify(mockCallback).onError(eq("captureFailed"), anyString());
+    verify(mockCallback, never()).onComplete(any());
+  }
+
+  @Test
+  public void onCaptureSequenceAborted_shouldCompleteWithTheShotsCapturedBeforeTheAbort() {
+    Image first = mockImage(1L);
+    when(mockReader.acquireNextImage()).thenReturn(first, (Image) null);
+    BurstCapture burst = createBurst(3, 2, Runnable::run);
+
+    burst.start();
+    burst.drain(mockReader);
+    burst.onCaptureSequenceAborted();
+
+    List<Map<String, Object>> shots = captureShots();
+    assertEquals(1, shots.size());
+    assertEquals(1L, shots.get(0).get("sensorTimestamp"));
+  }
+
+  @Test
+  public void onCaptureSequenceAborted_shouldWaitForTheShotsBeingSaved() {
+    Image first = mockImage(1L);
+    when(mockReader.acquireNextImage()).thenReturn(first, (Image) null);
+    BurstCapture burst = createBurst(3, 2, queuedSaves::add);
+
+    burst.start();
+    burst.drain(mockReader);
+    burst.onCaptureSequenceAborted();
+    verify(mockCallback, never()).onComplete(any());
+
+    queuedSaves.remove(0).run();
+
+    assertEquals(1, captureShots().size());
+  }
+
+  @Test
+  public void onCaptureSequenceAborted_shouldReportErrorWhenNoShotWasCaptured() {
+    BurstCapture burst = createBurst(2, 2, Runnable::run);
+
+    burst.start();
+    burst.onCaptureFailed();
+    burst.onCaptureSequenceAborted();
+    burst.drain(mockReader);
+
+    verify(mockCallback).onError(eq("captureFailed"), anyString());
+    verify(mockCallback, never()).onComplete(any());
+    verify(mockReader, never()).acquireNextImage();
+  }
+
+  private BurstCapture createBurst(int shotCount, int maxImages, Executor executor) {
+    return new BurstCapture(
+        shotCount,
+        maxImages,
+        PictureMirrorMode.none,
+        false,
+        temporaryFolder.getRoot(),
+        executor,
+        mockHandler,
+        mockCallback);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Object>> captureShots() {
+    ArgumentCaptor<List<Map<String, Object>>> captor = ArgumentCaptor.forClass(List.class);
+    verify(mockCallback).onComplete(captor.capture());
+    return captor.getValue();
+  }
+
+  private static Image mockImage(long timestamp) {
+    Image.Plane plane = mock(Image.Plane.class);
+    when(plane.getBuffer()).thenReturn(ByteBuffer.wrap(new byte[] {0x42, 0x00, 0x13}));
+    Image image = mock(Image.class);
+    when(image.getPlanes()).thenReturn(new Image.Plane[] {plane});
+    when(image.getTimestamp()).thenReturn(timestamp);
+    return image;
+  }
+}
@@ -0,0 +1,143 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.CameraMetadata;
+import android.os.Handler;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+public class CameraCharacteristicsCacheTest {
+  private CameraManager mockCameraManager;
+  private CameraCharacteristics mockCharacteristics;
+
+  @Before
+  public void before() throws CameraAccessException {
+    CameraCharacteristicsCache.clear();
+    mockCameraManager = mock(CameraManager.class);
+    mockCharacteristics = mock(CameraCharacteristics.class);
+    when(mockCameraManager.getCameraIdList()).thenReturn(new String[] {"0", "1"});
+    when(mockCameraManager.getCameraCharacteristics(any())).thenReturn(mockCharacteristics);
+  }
+
+  @Test
+  public void get_shouldQueryEachCameraOnce() throws CameraAccessException {
+    assertSame(mockCharacteristics, CameraCharacteristicsCache.get(mockCameraManager, "0"));
+    assertSame(mockCharacteristics, CameraCharacteristicsCache.get(mockCameraManager, "0"));
+    CameraCharacteristicsCache.get(mockCameraManager, "1");
+
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("0");
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("1");
+    verify(mockCameraManager, times(1))
+        .registerAvailabilityCallback(
+            any(CameraManager.AvailabilityCallback.class), any(Handler.class));
+  }
+
+  @Test
+  public void availabilityChanges_shouldNotRefreshTheIdListOfBuiltInCameras()
+      throws CameraAccessException {
+    when(mockCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_BACK);
+    CameraCharacteristicsCache.getCameraIdList(mockCameraManager);
+    CameraCharacteristicsCache.get(mockCameraManager, "0");
+
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraAvailable("1");
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraUnavailable("0");
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraAvailable("0");
+
+    assertArrayEquals(
+        new String[] {"0", "1"}, CameraCharacteristicsCache.getCameraIdList(mockCameraManager));
+    CameraCharacteristicsCache.get(mockCameraManager, "0");
+    verify(mockCameraManager, times(1)).getCameraIdList();
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("0");
+  }
+
+  @Test
+  public void onCameraUnavailable_shouldRefreshTheIdListOfExternalCameras()
+      throws CameraAccessException {
+    when(mockCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_EXTERNAL);
+    CameraCharacteristicsCache.getCameraIdList(mockCameraManager);
+    CameraCharacteristicsCache.get(mockCameraManager, "1");
+
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraUnavailable("1");
+    when(mockCameraManager.getCameraIdList()).thenReturn(new String[] {"0"});
+
+    assertArrayEquals(
+        new String[] {"0"}, CameraCharacteristicsCache.getCameraIdList(mockCameraManager));
+    CameraCharacteristicsCache.get(mockCameraManager, "1");
+    verify(mockCameraManager, times(2)).getCameraCharacteristics("1");
+  }
+
+  @Test
+  public void onCameraUnavailable_shouldDropTheCharacteristicsOfAnExternalCameraKeepingItsId()
+      throws CameraAccessException {
+    when(mockCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_EXTERNAL);
+    CameraCharacteristicsCache.getCameraIdList(mockCameraManager);
+    CameraCharacteristicsCache.get(mockCameraManager, "1");
+    CameraCharacteristics otherCharacteristics = mock(CameraCharacteristics.class);
+
+    // Another device plugged in under the same id.
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraUnavailable("1");
+    when(mockCameraManager.getCameraCharacteristics("1")).thenReturn(otherCharacteristics);
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraAvailable("1");
+
+    assertArrayEquals(
+        new String[] {"0", "1"}, CameraCharacteristicsCache.getCameraIdList(mockCameraManager));
+    assertSame(otherCharacteristics, CameraCharacteristicsCache.get(mockCameraManager, "1"));
+  }
+
+  @Test
+  @Config(minSdk = 29)
+  public void onCameraAccessPrioritiesChanged_shouldOnlyDropExternalCameras()
+      throws CameraAccessException {
+    CameraCharacteristics externalCharacteristics = mock(CameraCharacteristics.class);
+    when(externalCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_EXTERNAL);
+    when(mockCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_BACK);
+    when(mockCameraManager.getCameraCharacteristics("1")).thenReturn(externalCharacteristics);
+    CameraCharacteristicsCache.get(mockCameraManager, "0");
+    CameraCharacteristicsCache.get(mockCameraManager, "1");
+
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraAccessPrioritiesChanged();
+
+    CameraCharacteristicsCache.get(mockCameraManager, "0");
+    CameraCharacteristicsCache.get(mockCameraManager, "1");
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("0");
+    verify(mockCameraManager, times(2)).getCameraCharacteristics("1");
+  }
+
+  @Test
+  public void onCameraAvailable_shouldDropNewlyConnectedCameras() throws CameraAccessException {
+    CameraCharacteristicsCache.getCameraIdList(mockCameraManager);
+    CameraCharacteristicsCache.get(mockCameraManager, "2");
+
+    CameraCharacteristicsCache.getAvailabilityCallback().onCameraAvailable("2");
+    when(mockCameraManager.getCameraIdList()).thenReturn(new String[] {"0", "1", "2"});
+
+    assertArrayEquals(
+        new String[] {"0", "1", "2"},
+        CameraCharacteristicsCache.getCameraIdList(mockCameraManager));
+    CameraCharacteristicsCache.get(mockCameraManager, "2");
+    verify(mockCameraManager, times(2)).getCameraCharacteristics("2");
+  }
+}
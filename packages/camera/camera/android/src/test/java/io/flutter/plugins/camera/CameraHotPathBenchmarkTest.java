@@ -0,0 +1,264 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static io.flutter.plugins.camera.utils.MicroBenchmark.assertAllocatesAtMost;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Size;
+import io.flutter.embedding.engine.systemchannels.PlatformChannel;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugins.camera.features.CameraFeatures;
+import io.flutter.plugins.camera.features.autofocus.AutoFocusFeature;
+import io.flutter.plugins.camera.features.exposurelock.ExposureLockFeature;
+import io.flutter.plugins.camera.features.exposureoffset.ExposureOffsetFeature;
+import io.flutter.plugins.camera.features.exposurepoint.ExposurePointFeature;
+import io.flutter.plugins.camera.features.flash.FlashFeature;
+import io.flutter.plugins.camera.features.focuspoint.FocusPointFeature;
+import io.flutter.plugins.camera.features.fpsrange.FpsRangeFeature;
+import io.flutter.plugins.camera.features.noisereduction.NoiseReductionFeature;
+import io.flutter.plugins.camera.features.resolution.ResolutionFeature;
+import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
+import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import io.flutter.plugins.camera.imagestream.ImageStreamBufferChannel;
+import io.flutter.plugins.camera.imagestream.ImageStreamBufferPool;
+import io.flutter.plugins.camera.imagestream.ImageStreamFrameEncoder;
+import io.flutter.plugins.camera.imagestream.ImageStreamMapEncoder;
+import io.flutter.plugins.camera.imagestream.PooledImageStreamSender;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
+import io.flutter.plugins.camera.types.PictureMirrorMode;
+import io.flutter.plugins.camera.utils.FakeImage;
+import io.flutter.plugins.camera.utils.MicroBenchmark;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowCaptureResult;
+import org.robolectric.shadows.ShadowTotalCaptureResult;
+
+/**
+ * Measures the per-frame and per-picture hot paths of the camera with synthetic frames and capture
+ * results, and fails when their heap allocation exceeds a fixed budget per operation.
+ *
+ * <p>Only allocations are asserted on, see {@link MicroBenchmark}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CameraHotPathBenchmarkTest {
+  private static final int WIDTH = 1920;
+  private static final int HEIGHT = 1080;
+  private static final int JPEG = 0x100;
+  private static final int JPEG_SIZE = 512 * 1024;
+
+  private MicroBenchmark benchmark;
+  private FakeImage frame;
+  private CameraCaptureProperties captureProps;
+  private File pictureFile;
+
+  @Before
+  public void before() throws IOException {
+    benchmark = new MicroBenchmark(50, 200);
+    frame = FakeImage.yuv420(WIDTH, HEIGHT);
+    captureProps = new CameraCaptureProperties();
+    captureProps.setLastLensAperture(1.8f);
+    captureProps.setLastSensorExposureTime(10_000_000L);
+    captureProps.setLastSensorSensitivity(100);
+    pictureFile = File.createTempFile("benchmark", ".jpg");
+  }
+
+  @After
+  public void after() {
+    pictureFile.delete();
+  }
+
+  @Test
+  public void imageStreamListener_pooledTransport() {
+    final BinaryMessenger messenger = mock(BinaryMessenger.class, withSettings().stubOnly());
+    final ImageStreamBufferPool pool =
+        new ImageStreamBufferPool(
+            3, ImageStreamFrameEncoder.estimateFrameSize(WIDTH, HEIGHT, frame.getFormat()));
+    final PooledImageStreamSender sender =
+        new PooledImageStreamSender(
+            new ImageStreamBufferChannel(messenger, 0),
+            new Handler(Looper.getMainLooper()),
+            pool,
+            null);
+
+    MicroBenchmark.Result result =
+        benchmark.run(
+            "imageStreamListener.pooled 1080p",
+            () -> {
+              assertTrue(sender.send(frame, null, captureProps));
+              shadowOf(Looper.getMainLooper()).idle();
+            });
+
+    assertAllocatesAtMost(result, 16 * 1024);
+  }
+
+  @Test
+  public void imageStreamListener_mapTransport() {
+    MicroBenchmark.Result result =
+        benchmark.run(
+            "imageStreamListener.map 1080p",
+            () -> ImageStreamMapEncoder.encode(frame, null, captureProps));
+
+    // The planes are copied into new arrays: 1.5 bytes per pixel, plus the overlapping chroma.
+    assertAllocatesAtMost(result, WIDTH * HEIGHT * 2 + 16 * 1024);
+  }
+
+  @Test
+  public void cameraFeatures_updateBuilderUnchanged() {
+    final CameraFeatures cameraFeatures = createCameraFeatures(stub(ZoomLevelFeature.class));
+    final CaptureRequest.Builder builder = stub(CaptureRequest.Builder.class);
+    cameraFeatures.updateBuilder(builder);
+
+    MicroBenchmark.Result result =
+        benchmark.run(
+            "cameraFeatures.updateBuilder unchanged", () -> cameraFeatures.updateBuilder(builder));
+
+    assertAllocatesAtMost(result, 0);
+  }
+
+  @Test
+  public void cameraFeatures_updateBuilderChangedZoom() {
+    // Without an active array size the zoom level is unsupported, so it does not touch the builder.
+    final ZoomLevelFeature zoomLevel = new ZoomLevelFeature(stub(CameraProperties.class));
+    final CameraFeatures cameraFeatures = createCameraFeatures(zoomLevel);
+    final CaptureRequest.Builder builder = stub(CaptureRequest.Builder.class);
+    cameraFeatures.updateBuilder(builder);
+
+    MicroBenchmark.Result result =
+        benchmark.run(
+            "cameraFeatures.updateBuilder changed zoom",
+            () -> {
+              cameraFeatures.markChanged(zoomLevel);
+              cameraFeatures.updateBuilder(builder);
+            });
+
+    assertAllocatesAtMost(result, 0);
+  }
+
+  @Test
+  public void cameraCaptureCallback_process() {
+    final CameraCaptureCallback callback =
+        CameraCaptureCallback.create(
+            new CameraCaptureCallback.CameraCaptureStateListener() {
+              @Override
+              public void onConverged() {}
+
+              @Override
+              public void onPrecapture() {}
+            },
+            new CaptureTimeoutsWrapper(3000, 3000),
+            captureProps);
+    final CameraCaptureSession session = mock(CameraCaptureSession.class);
+    final CaptureRequest request = mock(CaptureRequest.class);
+    final TotalCaptureResult totalResult = ShadowTotalCaptureResult.newTotalCaptureResult();
+    setPreviewResult(totalResult);
+    final CaptureResult partialResult = ShadowCaptureResult.newCaptureResult();
+    setPreviewResult(partialResult);
+
+    MicroBenchmark.Result result =
+        benchmark.run(
+            "cameraCaptureCallback.process",
+            () -> {
+              callback.onCaptureProgressed(session, request, partialResult);
+              callback.onCaptureCompleted(session, request, totalResult);
+            });
+
+    assertAllocatesAtMost(result, 4 * 1024);
+  }
+
+  @Test
+  public void imageSaver_run() {
+    final ByteBuffer jpeg = ByteBuffer.allocateDirect(JPEG_SIZE);
+    final FakeImage picture =
+        new FakeImage(
+            JPEG, WIDTH, HEIGHT, new ByteBuffer[] {jpeg}, new int[] {0}, new int[] {0});
+    final ImageSaver.Callback callback =
+        new ImageSaver.Callback() {
+          @Override
+          public void onComplete(String absolutePath) {}
+
+          @Override
+          public void onError(String errorCode, String errorMessage) {
+            throw new AssertionError(errorCode + ": " + errorMessage);
+          }
+        };
+
+    MicroBenchmark.Result result =
+        benchmark.run(
+            "imageSaver.run 512KiB",
+            () ->
+                new ImageSaver(PictureMirrorMode.none, false, picture, pictureFile, callback)
+                    .run());
+
+    // The picture is written straight from its direct buffer, never copied onto the heap.
+    assertAllocatesAtMost(result, 16 * 1024);
+  }
+
+  @Test
+  public void cameraRegionUtils_convertPointToMeteringRectangle() {
+    final Size boundaries = new Size(4000, 3000);
+    final PlatformChannel.DeviceOrientation[] orientations =
+        PlatformChannel.DeviceOrientation.values();
+    final int[] index = new int[1];
+
+    MicroBenchmark.Result result =
+        benchmark.run(
+            "cameraRegionUtils.convertPointToMeteringRectangle",
+            () -> {
+              index[0] = (index[0] + 1) % orientations.length;
+              CameraRegionUtils.convertPointToMeteringRectangle(
+                  boundaries, 0.3, 0.7, orientations[index[0]]);
+            });
+
+    assertAllocatesAtMost(result, 1024);
+  }
+
+  private static CameraFeatures createCameraFeatures(ZoomLevelFeature zoomLevel) {
+    final CameraFeatures cameraFeatures = new CameraFeatures();
+    cameraFeatures.setAutoFocus(stub(AutoFocusFeature.class));
+    cameraFeatures.setExposureLock(stub(ExposureLockFeature.class));
+    cameraFeatures.setExposureOffset(stub(ExposureOffsetFeature.class));
+    cameraFeatures.setExposurePoint(stub(ExposurePointFeature.class));
+    cameraFeatures.setFlash(stub(FlashFeature.class));
+    cameraFeatures.setFocusPoint(stub(FocusPointFeature.class));
+    cameraFeatures.setFpsRange(stub(FpsRangeFeature.class));
+    cameraFeatures.setNoiseReduction(stub(NoiseReductionFeature.class));
+    cameraFeatures.setResolution(stub(ResolutionFeature.class));
+    cameraFeatures.setSensorOrientation(stub(SensorOrientationFeature.class));
+    cameraFeatures.setZoomLevel(zoomLevel);
+    return cameraFeatures;
+  }
+
+  // Stub only mocks do not record their invocations, which would count as allocations.
+  private static <T> T stub(Class<T> type) {
+    return mock(type, withSettings().stubOnly());
+  }
+
+  private static void setPreviewResult(CaptureResult result) {
+    ShadowCaptureResult shadow = shadowOf(result);
+    shadow.set(CaptureResult.CONTROL_AE_STATE, CaptureResult.CONTROL_AE_STATE_CONVERGED);
+    shadow.set(CaptureResult.CONTROL_AF_STATE, CaptureResult.CONTROL_AF_STATE_PASSIVE_FOCUSED);
+    shadow.set(CaptureResult.LENS_APERTURE, 1.8f);
+    shadow.set(CaptureResult.SENSOR_EXPOSURE_TIME, 10_000_000L);
+    shadow.set(CaptureResult.SENSOR_SENSITIVITY, 100);
+    shadow.set(CaptureResult.SENSOR_TIMESTAMP, 1L);
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class CameraStartupMetricsTest {
+  @Test
+  public void toMap_shouldOmitMilestonesThatWereNotReached() {
+    CameraStartupMetrics metrics = new CameraStartupMetrics();
+    metrics.onDeviceOpened();
+
+    Map<String, Object> map = metrics.toMap();
+
+    assertEquals(false, map.get("prewarmed"));
+    assertTrue((Long) map.get("deviceOpenedMicros") >= 0);
+    assertFalse(map.containsKey("firstFrameMicros"));
+    assertFalse(map.containsKey("firstFrameAfterInitializeMicros"));
+  }
+
+  @Test
+  public void toMap_shouldNotReportNegativeLatencyForPrewarmedCameras() {
+    CameraStartupMetrics metrics = new CameraStartupMetrics();
+    metrics.onPrewarm();
+    metrics.onDeviceOpened();
+    metrics.onSessionConfigured();
+    metrics.onFirstFrame();
+    metrics.onInitializeRequested();
+
+    Map<String, Object> map = metrics.toMap();
+
+    assertEquals(true, map.get("prewarmed"));
+    assertTrue((Long) map.get("firstFrameMicros") <= (Long) map.get("initializeMicros"));
+    assertEquals(0L, map.get("firstFrameAfterInitializeMicros"));
+  }
+
+  @Test
+  public void milestones_shouldOnlyBeRecordedOnce() throws InterruptedException {
+    CameraStartupMetrics metrics = new CameraStartupMetrics();
+    metrics.onFirstFrame();
+    Object firstFrame = metrics.toMap().get("firstFrameMicros");
+
+    Thread.sleep(2);
+    metrics.onFirstFrame();
+
+    assertEquals(firstFrame, metrics.toMap().get("firstFrameMicros"));
+  }
+}
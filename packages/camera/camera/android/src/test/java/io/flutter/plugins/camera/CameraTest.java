@@ -8,8 +8,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
@@ -18,17 +22,28 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.app.Activity;
+import android.content.Context;
+import android.graphics.ImageFormat;
+import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CameraDevice;
+import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
 import android.hardware.camera2.CaptureRequest;
+import android.media.Image;
+import android.media.ImageReader;
 import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.util.Size;
+import android.view.Surface;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LifecycleObserver;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugins.camera.features.CameraFeatureFactory;
 import io.flutter.plugins.camera.features.Point;
@@ -48,11 +63,22 @@ import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import io.flutter.plugins.camera.features.sensororientation.DeviceOrientationManager;
 import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import io.flutter.plugins.camera.imagestream.ImageStreamSettings;
+import io.flutter.plugins.camera.media.HighSpeedVideoConfiguration;
 import io.flutter.plugins.camera.utils.TestUtils;
 import io.flutter.view.TextureRegistry;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.MockedStatic;
 
 public class CameraTest {
@@ -427,6 +453,34 @@ public class CameraTest {
     verify(mockResult, times(1)).error("setFocusPointFailed", "Could not set focus point.", null);
   }
 
+  @Test
+  public void setFocusPoint_shouldTriggerTheFocusOnceForABurstOfPoints()
+      throws CameraAccessException {
+    AutoFocusFeature mockAutoFocusFeature =
+        mockCameraFeatureFactory.createAutoFocusFeature(mockCameraProperties, false);
+    when(mockAutoFocusFeature.getValue()).thenReturn(FocusMode.auto);
+    when(mockHandler.post(any()))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return true;
+            });
+
+    camera.setFocusPoint(mock(MethodChannel.Result.class), new Point(0.1, 0.1));
+    for (int i = 0; i < 10; i++) {
+      camera.setFocusPoint(mock(MethodChannel.Result.class), new Point(0.2, 0.2));
+    }
+
+    verify(mockCaptureSession, times(1)).capture(any(), any(), any());
+    verify(mockCaptureSession, times(1)).setRepeatingRequest(any(), any(), any());
+
+    ((RepeatingRequestScheduler) TestUtils.getPrivateField(camera, "repeatingRequestScheduler"))
+        .onFrameCompleted();
+
+    verify(mockCaptureSession, times(2)).capture(any(), any(), any());
+    verify(mockCaptureSession, times(2)).setRepeatingRequest(any(), any(), any());
+  }
+
   @Test
   public void setZoomLevel_shouldUpdateZoomLevelFeature() throws CameraAccessException {
     ZoomLevelFeature mockZoomLevelFeature =
@@ -662,6 +716,21 @@ public class CameraTest {
     verify(mockCaptureSession, times(1)).setRepeatingRequest(any(), any(), any());
   }
 
+  @Test
+  public void setFocusMode_shouldKeepTheCaptureCallbackForLockedMode()
+      throws CameraAccessException {
+    camera.setFocusMode(mock(MethodChannel.Result.class), FocusMode.locked);
+
+    verify(mockCaptureSession, never()).setRepeatingRequest(any(), isNull(), any());
+    verify(mockCaptureSession)
+        .setRepeatingRequest(
+            any(),
+            eq(
+                (CameraCaptureSession.CaptureCallback)
+                    TestUtils.getPrivateField(camera, "cameraCaptureCallback")),
+            any());
+  }
+
   @Test
   public void setFocusMode_shouldSkipLockAutoFocusWhenNullCaptureSession() {
     TestUtils.setPrivateField(camera, "captureSession", null);
@@ -801,6 +870,187 @@ public class CameraTest {
     verify(mockHandlerThread, times(1)).start();
   }
 
+  @Test
+  public void prewarm_shouldNotSendClosingEventWhenTheDeviceFailed() throws CameraAccessException {
+    final Activity mockActivity = (Activity) TestUtils.getPrivateField(camera, "activity");
+    final CameraManager mockCameraManager = mock(CameraManager.class);
+    when(mockActivity.getSystemService(Context.CAMERA_SERVICE)).thenReturn(mockCameraManager);
+    final ResolutionFeature mockResolutionFeature =
+        mockCameraFeatureFactory.createResolutionFeature(mockCameraProperties, null, "1");
+    when(mockResolutionFeature.checkIsSupported()).thenReturn(true);
+    when(mockResolutionFeature.getCaptureSize()).thenReturn(new Size(640, 480));
+    when(mockResolutionFeature.getPreviewSize()).thenReturn(new Size(640, 480));
+    final CameraDevice mockCameraDevice = mock(CameraDevice.class);
+
+    camera.prewarm();
+    ArgumentCaptor<CameraDevice.StateCallback> callbackCaptor =
+        ArgumentCaptor.forClass(CameraDevice.StateCallback.class);
+    verify(mockCameraManager).openCamera(eq("1"), callbackCaptor.capture(), any());
+    final CameraDevice.StateCallback callback = callbackCaptor.getValue();
+    callback.onError(mockCameraDevice, CameraDevice.StateCallback.ERROR_CAMERA_DEVICE);
+    callback.onClosed(mockCameraDevice);
+
+    verify(mockCameraDevice, times(1)).close();
+    verify(mockDartMessenger, never()).sendCameraErrorEvent(any());
+    verify(mockDartMessenger, never()).sendCameraClosingEvent();
+  }
+
+  @Test
+  public void dispose_shouldCloseADeviceOpenedAfterwardsBeforeFinishing()
+      throws CameraAccessException {
+    final Activity mockActivity = (Activity) TestUtils.getPrivateField(camera, "activity");
+    final CameraManager mockCameraManager = mock(CameraManager.class);
+    when(mockActivity.getSystemService(Context.CAMERA_SERVICE)).thenReturn(mockCameraManager);
+    final ResolutionFeature mockResolutionFeature =
+        mockCameraFeatureFactory.createResolutionFeature(mockCameraProperties, null, "1");
+    when(mockResolutionFeature.checkIsSupported()).thenReturn(true);
+    when(mockResolutionFeature.getCaptureSize()).thenReturn(new Size(640, 480));
+    when(mockResolutionFeature.getPreviewSize()).thenReturn(new Size(640, 480));
+    final SensorOrientationFeature mockSensorOrientationFeature =
+        mockCameraFeatureFactory.createSensorOrientationFeature(
+            mockCameraProperties, mock(Activity.class), mockDartMessenger);
+    when(mockSensorOrientationFeature.getDeviceOrientationManager())
+        .thenReturn(mock(DeviceOrientationManager.class));
+    when(mockHandler.post(any()))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return true;
+            });
+    final CameraDevice mockCameraDevice = mock(CameraDevice.class);
+    final Runnable mockOnDisposed = mock(Runnable.class);
+
+    camera.prewarm();
+    ArgumentCaptor<CameraDevice.StateCallback> callbackCaptor =
+        ArgumentCaptor.forClass(CameraDevice.StateCallback.class);
+    verify(mockCameraManager).openCamera(eq("1"), callbackCaptor.capture(), any());
+    final CameraDevice.StateCallback callback = callbackCaptor.getValue();
+    camera.dispose(mockOnDisposed);
+
+    verify(mockOnDisposed, never()).run();
+
+    callback.onOpened(mockCameraDevice);
+
+    verify(mockCameraDevice, times(1)).close();
+    verify(mockCameraDevice, never()).createCaptureRequest(anyInt());
+    verify(mockOnDisposed, never()).run();
+
+    callback.onClosed(mockCameraDevice);
+
+    verify(mockOnDisposed, times(1)).run();
+  }
+
+  @Test
+  public void createHighSpeedCaptureSession_shouldSizeTheFlutterSurfaceToTheVideoSize()
+      throws CameraAccessException {
+    final TextureRegistry.SurfaceTextureEntry mockFlutterTexture =
+        (TextureRegistry.SurfaceTextureEntry) TestUtils.getPrivateField(camera, "flutterTexture");
+    final SurfaceTexture mockSurfaceTexture = mock(SurfaceTexture.class);
+    when(mockFlutterTexture.surfaceTexture()).thenReturn(mockSurfaceTexture);
+    final ResolutionFeature mockResolutionFeature =
+        mockCameraFeatureFactory.createResolutionFeature(mockCameraProperties, null, "1");
+    when(mockResolutionFeature.getPreviewSize()).thenReturn(new Size(1920, 1080));
+    final CameraDevice mockCameraDevice = mock(CameraDevice.class);
+    when(mockCameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_RECORD))
+        .thenReturn(mockPreviewRequestBuilder);
+    final MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
+    when(mockMediaRecorder.getSurface()).thenReturn(mock(Surface.class));
+    TestUtils.setPrivateField(camera, "cameraDevice", mockCameraDevice);
+    TestUtils.setPrivateField(camera, "mediaRecorder", mockMediaRecorder);
+    TestUtils.setPrivateField(camera, "flutterSurface", mock(Surface.class));
+    final HighSpeedVideoConfiguration mockConfiguration = mock(HighSpeedVideoConfiguration.class);
+    when(mockConfiguration.getSize()).thenReturn(new Size(1280, 720));
+
+    camera.createHighSpeedCaptureSession(mockConfiguration, null);
+
+    ArgumentCaptor<Integer> widthCaptor = ArgumentCaptor.forClass(Integer.class);
+    ArgumentCaptor<Integer> heightCaptor = ArgumentCaptor.forClass(Integer.class);
+    InOrder inOrder = inOrder(mockSurfaceTexture, mockCameraDevice);
+    inOrder
+        .verify(mockSurfaceTexture, atLeastOnce())
+        .setDefaultBufferSize(widthCaptor.capture(), heightCaptor.capture());
+    inOrder.verify(mockCameraDevice).createConstrainedHighSpeedCaptureSession(any(), any(), any());
+    List<Integer> widths = widthCaptor.getAllValues();
+    List<Integer> heights = heightCaptor.getAllValues();
+    assertEquals(1280, (int) widths.get(widths.size() - 1));
+    assertEquals(720, (int) heights.get(heights.size() - 1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void startPreviewWithImageStream_shouldOnlySendTheNewestOfTheQueuedFrames()
+      throws CameraAccessException {
+    final TextureRegistry.SurfaceTextureEntry mockFlutterTexture =
+        (TextureRegistry.SurfaceTextureEntry) TestUtils.getPrivateField(camera, "flutterTexture");
+    when(mockFlutterTexture.surfaceTexture()).thenReturn(mock(SurfaceTexture.class));
+    final ResolutionFeature mockResolutionFeature =
+        mockCameraFeatureFactory.createResolutionFeature(mockCameraProperties, null, "1");
+    when(mockResolutionFeature.getPreviewSize()).thenReturn(new Size(1920, 1080));
+    final CameraDevice mockCameraDevice = mock(CameraDevice.class);
+    when(mockCameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_RECORD))
+        .thenReturn(mockPreviewRequestBuilder);
+    final Surface mockStreamSurface = mock(Surface.class);
+    final ImageReader mockStreamReader = mock(ImageReader.class);
+    when(mockStreamReader.getSurface()).thenReturn(mockStreamSurface);
+    when(mockStreamReader.getImageFormat()).thenReturn(ImageFormat.YUV_420_888);
+    // Like an image reader holding two frames the stream did not read yet.
+    final Image staleFrame = mockImageStreamFrame(640);
+    final Image newestFrame = mockImageStreamFrame(1280);
+    final Deque<Image> queuedFrames = new ArrayDeque<>(Arrays.asList(staleFrame, newestFrame));
+    when(mockStreamReader.acquireNextImage()).thenAnswer(invocation -> queuedFrames.poll());
+    when(mockStreamReader.acquireLatestImage())
+        .thenAnswer(
+            invocation -> {
+              while (queuedFrames.size() > 1) {
+                queuedFrames.poll().close();
+              }
+              return queuedFrames.poll();
+            });
+    when(mockHandler.post(any()))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return true;
+            });
+    TestUtils.setPrivateField(camera, "cameraDevice", mockCameraDevice);
+    TestUtils.setPrivateField(camera, "flutterSurface", mock(Surface.class));
+    TestUtils.setPrivateField(camera, "imageStreamReader", mockStreamReader);
+    ((List<Surface>) TestUtils.getPrivateField(camera, "sessionSurfaces")).add(mockStreamSurface);
+    final EventChannel mockImageStreamChannel = mock(EventChannel.class);
+    final EventChannel.EventSink mockImageStreamSink = mock(EventChannel.EventSink.class);
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("maxFramesInFlight", 1);
+
+    camera.startPreviewWithImageStream(
+        mockImageStreamChannel,
+        null,
+        ImageStreamSettings.fromMethodCall(new MethodCall("startImageStream", arguments)));
+    ArgumentCaptor<EventChannel.StreamHandler> streamHandlerCaptor =
+        ArgumentCaptor.forClass(EventChannel.StreamHandler.class);
+    verify(mockImageStreamChannel).setStreamHandler(streamHandlerCaptor.capture());
+    streamHandlerCaptor.getValue().onListen(null, mockImageStreamSink);
+    ArgumentCaptor<ImageReader.OnImageAvailableListener> listenerCaptor =
+        ArgumentCaptor.forClass(ImageReader.OnImageAvailableListener.class);
+    verify(mockStreamReader).setOnImageAvailableListener(listenerCaptor.capture(), any());
+    listenerCaptor.getValue().onImageAvailable(mockStreamReader);
+
+    ArgumentCaptor<Map<String, Object>> frameCaptor = ArgumentCaptor.forClass(Map.class);
+    verify(mockImageStreamSink, times(1)).success(frameCaptor.capture());
+    assertEquals(1280, frameCaptor.getValue().get("width"));
+    verify(staleFrame).close();
+    verify(newestFrame).close();
+  }
+
+  private static Image mockImageStreamFrame(int width) {
+    final Image.Plane mockPlane = mock(Image.Plane.class);
+    when(mockPlane.getBuffer()).thenReturn(ByteBuffer.wrap(new byte[] {0x42, 0x00, 0x13}));
+    final Image mockImage = mock(Image.class);
+    when(mockImage.getPlanes()).thenReturn(new Image.Plane[] {mockPlane});
+    when(mockImage.getWidth()).thenReturn(width);
+    when(mockImage.getFormat()).thenReturn(ImageFormat.YUV_420_888);
+    return mockImage;
+  }
+
   private static class TestCameraFeatureFactory implements CameraFeatureFactory {
     private final AutoFocusFeature mockAutoFocusFeature;
     private final ExposureLockFeature mockExposureLockFeature;
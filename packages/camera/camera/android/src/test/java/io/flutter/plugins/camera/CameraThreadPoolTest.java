@@ -0,0 +1,62 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Handler;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class CameraThreadPoolTest {
+  @Test
+  public void acquire_shouldStartAThreadPerCameraUpToTheMaximum() {
+    CameraThreadPool pool = new CameraThreadPool(2);
+
+    Handler first = pool.acquire();
+    Handler second = pool.acquire();
+    Handler third = pool.acquire();
+
+    assertNotSame(first, second);
+    assertSame(first, third);
+    assertEquals(2, pool.getThreadCount());
+    assertTrue(first.getLooper().getThread().isAlive());
+  }
+
+  @Test
+  public void release_shouldStopTheThreadOnceItHasNoUser() throws InterruptedException {
+    CameraThreadPool pool = new CameraThreadPool(1);
+    Handler first = pool.acquire();
+    Handler second = pool.acquire();
+    Thread thread = first.getLooper().getThread();
+
+    pool.release(first);
+    assertTrue(thread.isAlive());
+    pool.release(second);
+    thread.join(1000);
+
+    assertFalse(thread.isAlive());
+    assertEquals(0, pool.getThreadCount());
+  }
+
+  @Test
+  public void acquire_shouldPreferTheLeastUsedThread() {
+    CameraThreadPool pool = new CameraThreadPool(2);
+    Handler first = pool.acquire();
+    Handler second = pool.acquire();
+    assertSame(first, pool.acquire());
+
+    Handler next = pool.acquire();
+
+    assertSame(second, next);
+    assertEquals(2, pool.getThreadCount());
+  }
+}
@@ -5,24 +5,41 @@
 package io.flutter.plugins.camera;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyString;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.app.Activity;
 import android.content.Context;
+import android.graphics.ImageFormat;
+import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
+import android.hardware.camera2.params.StreamConfigurationMap;
+import android.util.Range;
+import android.util.Size;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import org.junit.Before;
 import org.junit.Test;
 
 public class CameraUtilsTest {
 
+  @Before
+  public void before() {
+    CameraCharacteristicsCache.clear();
+  }
+
   @Test
   public void serializeDeviceOrientation_serializesCorrectly() {
     assertEquals(
@@ -70,7 +87,8 @@ public class CameraUtilsTest {
       throws CameraAccessException, NumberFormatException {
     final Activity mockActivity = mock(Activity.class);
     final CameraManager mockCameraManager = mock(CameraManager.class);
-    final CameraCharacteristics mockCameraCharacteristics = mock(CameraCharacteristics.class);
+    final CameraCharacteristics mockCameraCharacteristics0 = mock(CameraCharacteristics.class);
+    final CameraCharacteristics mockCameraCharacteristics2 = mock(CameraCharacteristics.class);
     final String[] mockCameraIds = {"1394902", "-192930", "0283835", "foobar"};
     final int mockSensorOrientation0 = 90;
     final int mockSensorOrientation2 = 270;
@@ -79,12 +97,17 @@ public class CameraUtilsTest {
 
     when(mockActivity.getSystemService(Context.CAMERA_SERVICE)).thenReturn(mockCameraManager);
     when(mockCameraManager.getCameraIdList()).thenReturn(mockCameraIds);
-    when(mockCameraManager.getCameraCharacteristics(anyString()))
-        .thenReturn(mockCameraCharacteristics);
-    when(mockCameraCharacteristics.get(any()))
-        .thenReturn(mockSensorOrientation0)
-        .thenReturn(mockLensFacing0)
-        .thenReturn(mockSensorOrientation2)
+    when(mockCameraManager.getCameraCharacteristics("1394902"))
+        .thenReturn(mockCameraCharacteristics0);
+    when(mockCameraManager.getCameraCharacteristics("0283835"))
+        .thenReturn(mockCameraCharacteristics2);
+    when(mockCameraCharacteristics0.get(CameraCharacteristics.SENSOR_ORIENTATION))
+        .thenReturn(mockSensorOrientation0);
+    when(mockCameraCharacteristics0.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(mockLensFacing0);
+    when(mockCameraCharacteristics2.get(CameraCharacteristics.SENSOR_ORIENTATION))
+        .thenReturn(mockSensorOrientation2);
+    when(mockCameraCharacteristics2.get(CameraCharacteristics.LENS_FACING))
         .thenReturn(mockLensFacing2);
 
     List<Map<String, Object>> availableCameras = CameraUtils.getAvailableCameras(mockActivity);
@@ -97,4 +120,78 @@ public class CameraUtilsTest {
     assertEquals(availableCameras.get(1).get("sensorOrientation"), mockSensorOrientation2);
     assertEquals(availableCameras.get(1).get("lensFacing"), "external");
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void getAvailableCameras_retrievesCapabilities() throws CameraAccessException {
+    final Activity mockActivity = mock(Activity.class);
+    final CameraManager mockCameraManager = mock(CameraManager.class);
+    final CameraCharacteristics mockCameraCharacteristics = mock(CameraCharacteristics.class);
+    final StreamConfigurationMap mockConfigurationMap = mock(StreamConfigurationMap.class);
+    final Range<Integer> mockRange = mock(Range.class);
+
+    when(mockActivity.getSystemService(Context.CAMERA_SERVICE)).thenReturn(mockCameraManager);
+    when(mockCameraManager.getCameraIdList()).thenReturn(new String[] {"0"});
+    when(mockCameraManager.getCameraCharacteristics("0")).thenReturn(mockCameraCharacteristics);
+    when(mockCameraCharacteristics.get(CameraCharacteristics.SENSOR_ORIENTATION)).thenReturn(90);
+    when(mockCameraCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_BACK);
+    when(mockCameraCharacteristics.get(CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL))
+        .thenReturn(CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_FULL);
+    when(mockRange.getLower()).thenReturn(15);
+    when(mockRange.getUpper()).thenReturn(30);
+    when(mockCameraCharacteristics.get(
+            CameraCharacteristics.CONTROL_AE_AVAILABLE_TARGET_FPS_RANGES))
+        .thenReturn(new Range[] {mockRange});
+    when(mockCameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(mockConfigurationMap);
+    when(mockConfigurationMap.getOutputSizes(SurfaceTexture.class))
+        .thenReturn(new Size[] {new Size(1920, 1080)});
+    when(mockConfigurationMap.getOutputSizes(ImageFormat.JPEG))
+        .thenReturn(new Size[] {new Size(4000, 3000), new Size(640, 480)});
+
+    Map<String, Object> camera = CameraUtils.getAvailableCameras(mockActivity).get(0);
+
+    assertEquals("full", camera.get("hardwareLevel"));
+    assertEquals(Collections.singletonList(Arrays.asList(15, 30)), camera.get("fpsRanges"));
+    assertEquals(
+        Collections.singletonList(Arrays.asList(1920, 1080)), camera.get("previewSizes"));
+    assertEquals(
+        Arrays.asList(Arrays.asList(4000, 3000), Arrays.asList(640, 480)),
+        camera.get("pictureSizes"));
+  }
+
+  @Test
+  public void getAvailableCameras_queriesTheCameraServiceOnce() throws CameraAccessException {
+    final Activity mockActivity = mock(Activity.class);
+    final CameraManager mockCameraManager = mock(CameraManager.class);
+    final CameraCharacteristics mockCameraCharacteristics = mock(CameraCharacteristics.class);
+
+    when(mockActivity.getSystemService(Context.CAMERA_SERVICE)).thenReturn(mockCameraManager);
+    when(mockCameraManager.getCameraIdList()).thenReturn(new String[] {"0"});
+    when(mockCameraManager.getCameraCharacteristics("0")).thenReturn(mockCameraCharacteristics);
+    when(mockCameraCharacteristics.get(CameraCharacteristics.SENSOR_ORIENTATION)).thenReturn(90);
+    when(mockCameraCharacteristics.get(CameraCharacteristics.LENS_FACING))
+        .thenReturn(CameraMetadata.LENS_FACING_BACK);
+
+    CameraUtils.getAvailableCameras(mockActivity);
+    CameraUtils.getAvailableCameras(mockActivity);
+
+    verify(mockCameraManager, times(1)).getCameraIdList();
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("0");
+  }
+
+  @Test
+  public void canOpenConcurrently_shouldRequireACombinationWithEveryCamera() {
+    Set<Set<String>> concurrentCameraIds =
+        Collections.singleton(new HashSet<>(Arrays.asList("0", "1")));
+
+    assertTrue(
+        CameraUtils.canOpenConcurrently(concurrentCameraIds, Collections.singletonList("2")));
+    assertTrue(CameraUtils.canOpenConcurrently(concurrentCameraIds, Arrays.asList("1", "0")));
+    assertFalse(CameraUtils.canOpenConcurrently(concurrentCameraIds, Arrays.asList("0", "2")));
+    assertFalse(CameraUtils.canOpenConcurrently(concurrentCameraIds, Arrays.asList("0", "0")));
+    assertFalse(
+        CameraUtils.canOpenConcurrently(Collections.emptySet(), Arrays.asList("0", "1")));
+  }
 }
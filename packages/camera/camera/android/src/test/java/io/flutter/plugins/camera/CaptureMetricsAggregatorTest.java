@@ -0,0 +1,98 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.hardware.camera2.CaptureResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CaptureMetricsAggregatorTest {
+  private static final long WINDOW_NANOS = 1_000_000_000L;
+  private static final long FRAME_NANOS = 33_333_333L;
+
+  private final List<Map<String, Object>> summaries = new ArrayList<>();
+  private CaptureMetricsAggregator aggregator;
+
+  @Before
+  public void before() {
+    aggregator = new CaptureMetricsAggregator(WINDOW_NANOS, false, summaries::add);
+  }
+
+  @Test
+  public void onCaptureCompleted_shouldEmitOneSummaryPerWindow() {
+    for (int i = 0; i <= 30; i++) {
+      aggregator.onCaptureCompleted(i * FRAME_NANOS, FRAME_NANOS, null, null);
+    }
+    assertTrue(summaries.isEmpty());
+
+    aggregator.onCaptureCompleted(31 * FRAME_NANOS, FRAME_NANOS, null, null);
+
+    assertEquals(1, summaries.size());
+    Map<String, Object> summary = summaries.get(0);
+    assertEquals(31, summary.get("frameCount"));
+    assertEquals(30.0, (Double) summary.get("fps"), 0.1);
+    assertEquals(0.0, (Double) summary.get("jitterMicros"), 0.001);
+    assertEquals(0, summary.get("droppedFrames"));
+    assertFalse(summary.containsKey("streamLatencyMicros"));
+  }
+
+  @Test
+  public void onCaptureCompleted_shouldCountFramesMissingFromTheTimeline() {
+    aggregator.onCaptureCompleted(0, FRAME_NANOS, null, null);
+    aggregator.onCaptureCompleted(FRAME_NANOS, FRAME_NANOS, null, null);
+    // Two frames are missing between the second and the third capture.
+    aggregator.onCaptureCompleted(4 * FRAME_NANOS, FRAME_NANOS, null, null);
+    aggregator.onCaptureFailed();
+    aggregator.onCaptureCompleted(WINDOW_NANOS, FRAME_NANOS, null, null);
+
+    Map<String, Object> summary = summaries.get(0);
+    assertEquals(2, summary.get("droppedFrames"));
+    assertEquals(1, summary.get("failedCaptures"));
+    assertTrue((Double) summary.get("jitterMicros") > 0);
+  }
+
+  @Test
+  public void onCaptureCompleted_shouldMeasureConvergenceTimes() {
+    aggregator.onCaptureCompleted(
+        0,
+        FRAME_NANOS,
+        CaptureResult.CONTROL_AF_STATE_PASSIVE_SCAN,
+        CaptureResult.CONTROL_AE_STATE_SEARCHING);
+    aggregator.onCaptureCompleted(
+        FRAME_NANOS,
+        FRAME_NANOS,
+        CaptureResult.CONTROL_AF_STATE_PASSIVE_SCAN,
+        CaptureResult.CONTROL_AE_STATE_CONVERGED);
+    aggregator.onCaptureCompleted(
+        3 * FRAME_NANOS,
+        FRAME_NANOS,
+        CaptureResult.CONTROL_AF_STATE_PASSIVE_FOCUSED,
+        CaptureResult.CONTROL_AE_STATE_CONVERGED);
+    aggregator.onCaptureCompleted(WINDOW_NANOS, FRAME_NANOS, null, null);
+
+    Map<String, Object> summary = summaries.get(0);
+    assertEquals(3 * FRAME_NANOS / 1000, summary.get("afConvergenceMicros"));
+    assertEquals(FRAME_NANOS / 1000, summary.get("aeConvergenceMicros"));
+  }
+
+  @Test
+  public void onImageStreamFrameDelivered_shouldReportTheLatency() {
+    aggregator.onCaptureCompleted(0, FRAME_NANOS, null, null);
+    aggregator.onImageStreamFrameDelivered(System.nanoTime() - 5_000_000L);
+    aggregator.onCaptureCompleted(WINDOW_NANOS, FRAME_NANOS, null, null);
+
+    Map<String, Object> summary = summaries.get(0);
+    assertEquals(1, summary.get("streamFrameCount"));
+    assertTrue((Long) summary.get("streamLatencyMicros") >= 5000);
+    assertEquals(summary.get("streamLatencyMicros"), summary.get("streamLatencyMaxMicros"));
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.DngCreator;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import androidx.exifinterface.media.ExifInterface;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class DngSaverTest {
+  private CameraCharacteristics mockCharacteristics;
+  private TotalCaptureResult mockCaptureResult;
+  private Image mockImage;
+  private File mockFile;
+  private ImageSaver.Callback mockCallback;
+  private DngCreator mockDngCreator;
+  private FileOutputStream mockFileOutputStream;
+  private MockedStatic<DngSaver.DngCreatorFactory> mockDngCreatorFactory;
+  private MockedStatic<ImageSaver.FileOutputStreamFactory> mockFileOutputStreamFactory;
+
+  @Before
+  public void before() {
+    mockCharacteristics = mock(CameraCharacteristics.class);
+    mockCaptureResult = mock(TotalCaptureResult.class);
+    mockImage = mock(Image.class);
+    mockFile = mock(File.class);
+    when(mockFile.getAbsolutePath()).thenReturn("absolute/path.dng");
+    mockCallback = mock(ImageSaver.Callback.class);
+
+    mockDngCreator = mock(DngCreator.class);
+    mockDngCreatorFactory = mockStatic(DngSaver.DngCreatorFactory.class);
+    mockDngCreatorFactory
+        .when(() -> DngSaver.DngCreatorFactory.create(mockCharacteristics, mockCaptureResult))
+        .thenReturn(mockDngCreator);
+
+    mockFileOutputStream = mock(FileOutputStream.class);
+    mockFileOutputStreamFactory = mockStatic(ImageSaver.FileOutputStreamFactory.class);
+    mockFileOutputStreamFactory
+        .when(() -> ImageSaver.FileOutputStreamFactory.create(mockFile))
+        .thenReturn(mockFileOutputStream);
+  }
+
+  @After
+  public void after() {
+    mockDngCreatorFactory.close();
+    mockFileOutputStreamFactory.close();
+  }
+
+  @Test
+  public void run_shouldStreamTheImageAndFinishWithThePath() throws IOException {
+    newSaver(90, false).run();
+
+    verify(mockDngCreator).setOrientation(ExifInterface.ORIENTATION_ROTATE_90);
+    verify(mockDngCreator).writeImage(any(OutputStream.class), any(Image.class));
+    verify(mockCallback, times(1)).onComplete("absolute/path.dng");
+    verify(mockCallback, never()).onError(any(), any());
+    verify(mockDngCreator).close();
+    verify(mockFileOutputStream).close();
+    verify(mockImage).close();
+  }
+
+  @Test
+  public void run_shouldSyncTheFileOnlyWhenRequested() throws IOException {
+    newSaver(0, false).run();
+    verify(mockFileOutputStream, never()).getFD();
+
+    // A mocked FileDescriptor can not be synced, the failure shows the sync was attempted.
+    when(mockFileOutputStream.getFD()).thenReturn(new FileDescriptor());
+    newSaver(0, true).run();
+    verify(mockFileOutputStream, times(1)).getFD();
+  }
+
+  @Test
+  public void run_shouldReportWriteErrorsAndCloseTheImage() throws IOException {
+    doThrow(new IOException("disk full"))
+        .when(mockDngCreator)
+        .writeImage(any(OutputStream.class), any(Image.class));
+
+    newSaver(0, false).run();
+
+    verify(mockCallback, times(1)).onError("IOError", "Failed saving raw image: disk full");
+    verify(mockCallback, never()).onComplete(any());
+    verify(mockImage).close();
+  }
+
+  @Test
+  public void toExifOrientation_shouldMapClockwiseRotations() {
+    assertEquals(ExifInterface.ORIENTATION_NORMAL, DngSaver.toExifOrientation(0));
+    assertEquals(ExifInterface.ORIENTATION_ROTATE_90, DngSaver.toExifOrientation(90));
+    assertEquals(ExifInterface.ORIENTATION_ROTATE_180, DngSaver.toExifOrientation(180));
+    assertEquals(ExifInterface.ORIENTATION_ROTATE_270, DngSaver.toExifOrientation(270));
+    assertEquals(ExifInterface.ORIENTATION_ROTATE_270, DngSaver.toExifOrientation(-90));
+  }
+
+  private DngSaver newSaver(int orientationDegrees, boolean syncToDisk) {
+    return new DngSaver(
+        mockCharacteristics,
+        mockCaptureResult,
+        mockImage,
+        orientationDegrees,
+        syncToDisk,
+        mockFile,
+        mockCallback);
+  }
+}
@@ -0,0 +1,94 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import androidx.exifinterface.media.ExifInterface;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.Test;
+
+public class ExifOrientationTagTest {
+  @Test
+  public void find_shouldLocateLittleEndianOrientation() {
+    ByteBuffer jpeg = createJpeg(ByteOrder.LITTLE_ENDIAN, ExifInterface.ORIENTATION_ROTATE_90);
+
+    ExifOrientationTag tag = ExifOrientationTag.find(jpeg);
+
+    assertNotNull(tag);
+    assertEquals(ExifInterface.ORIENTATION_ROTATE_90, tag.getOrientation(jpeg));
+    assertEquals(0, jpeg.position());
+  }
+
+  @Test
+  public void encode_shouldUseTheByteOrderOfTheJpeg() {
+    ByteBuffer jpeg = createJpeg(ByteOrder.BIG_ENDIAN, ExifInterface.ORIENTATION_ROTATE_270);
+    ExifOrientationTag tag = ExifOrientationTag.find(jpeg);
+    assertNotNull(tag);
+
+    ByteBuffer value = tag.encode(ExifOrientationTag.mirror(tag.getOrientation(jpeg)));
+
+    assertEquals(2, value.remaining());
+    assertEquals(0, value.get(0));
+    assertEquals(ExifInterface.ORIENTATION_TRANSVERSE, value.get(1));
+    assertEquals(ExifInterface.ORIENTATION_ROTATE_270, jpeg.getShort(tag.getOffset()));
+  }
+
+  @Test
+  public void find_shouldReturnNullWithoutExif() {
+    ByteBuffer jpeg =
+        ByteBuffer.wrap(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA});
+
+    assertNull(ExifOrientationTag.find(jpeg));
+    assertNull(ExifOrientationTag.find(ByteBuffer.wrap(new byte[] {0x42, 0x00, 0x13})));
+  }
+
+  @Test
+  public void mirror_shouldBeItsOwnInverse() {
+    for (int orientation = ExifInterface.ORIENTATION_NORMAL;
+        orientation <= ExifInterface.ORIENTATION_ROTATE_270;
+        orientation++) {
+      assertEquals(orientation, ExifOrientationTag.mirror(ExifOrientationTag.mirror(orientation)));
+    }
+    assertEquals(
+        ExifInterface.ORIENTATION_TRANSPOSE,
+        ExifOrientationTag.mirror(ExifInterface.ORIENTATION_ROTATE_90));
+    assertEquals(
+        ExifInterface.ORIENTATION_FLIP_HORIZONTAL,
+        ExifOrientationTag.mirror(ExifInterface.ORIENTATION_UNDEFINED));
+  }
+
+  /** Creates a minimal JPEG header with a JFIF segment followed by an EXIF segment. */
+  static ByteBuffer createJpeg(ByteOrder order, int orientation) {
+    ByteBuffer jpeg = ByteBuffer.allocate(64).order(ByteOrder.BIG_ENDIAN);
+    jpeg.putShort((short) 0xFFD8);
+    // APP0 (JFIF) segment, skipped.
+    jpeg.putShort((short) 0xFFE0).putShort((short) 4).putShort((short) 0);
+    // APP1 (EXIF) segment.
+    jpeg.putShort((short) 0xFFE1).putShort((short) 46);
+    jpeg.put(new byte[] {'E', 'x', 'i', 'f', 0, 0});
+    final int tiffStart = jpeg.position();
+    jpeg.put(order == ByteOrder.LITTLE_ENDIAN ? new byte[] {'I', 'I'} : new byte[] {'M', 'M'});
+    jpeg.order(order);
+    jpeg.putShort((short) 42).putInt(8);
+    // IFD0 with an unrelated entry and the orientation.
+    jpeg.putShort((short) 2);
+    jpeg.putShort((short) 0x0100).putShort((short) 3).putInt(1).putInt(640);
+    jpeg.putShort((short) 0x0112)
+        .putShort((short) 3)
+        .putInt(1)
+        .putShort((short) orientation)
+        .putShort((short) 0);
+    jpeg.putInt(0);
+    jpeg.order(ByteOrder.BIG_ENDIAN);
+    assertEquals(tiffStart + 38, jpeg.position());
+    jpeg.putShort((short) 0xFFDA);
+    jpeg.flip();
+    return jpeg.order(order);
+  }
+}
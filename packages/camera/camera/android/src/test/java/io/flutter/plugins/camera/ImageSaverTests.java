@@ -4,7 +4,10 @@
 
 package io.flutter.plugins.camera;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -14,16 +17,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.media.Image;
+import androidx.exifinterface.media.ExifInterface;
+import io.flutter.plugins.camera.types.PictureMirrorMode;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.MockedStatic;
-import org.mockito.invocation.InvocationOnMock;
-import org.mockito.stubbing.Answer;
 
 public class ImageSaverTests {
 
@@ -32,46 +38,58 @@ public class ImageSaverTests {
   ImageSaver.Callback mockCallback;
   ImageSaver imageSaver;
   Image.Plane mockPlane;
-  ByteBuffer mockBuffer;
+  ByteBuffer imageBuffer;
   MockedStatic<ImageSaver.FileOutputStreamFactory> mockFileOutputStreamFactory;
   FileOutputStream mockFileOutputStream;
+  FileChannel mockFileChannel;
+  ByteBuffer fileContents;
 
   @Before
-  public void setup() {
+  public void setup() throws IOException {
     // Set up mocked file dependency
     mockFile = mock(File.class);
     when(mockFile.getAbsolutePath()).thenReturn("absolute/path");
     mockPlane = mock(Image.Plane.class);
-    mockBuffer = mock(ByteBuffer.class);
-    when(mockBuffer.remaining()).thenReturn(3);
-    when(mockBuffer.get(any()))
-        .thenAnswer(
-            new Answer<Object>() {
-              @Override
-              public Object answer(InvocationOnMock invocation) throws Throwable {
-                byte[] bytes = invocation.getArgument(0);
-                bytes[0] = 0x42;
-                bytes[1] = 0x00;
-                bytes[2] = 0x13;
-                return mockBuffer;
-              }
-            });
+    imageBuffer = ByteBuffer.allocateDirect(3);
+    imageBuffer.put(new byte[] {0x42, 0x00, 0x13}).flip();
 
     // Set up mocked image dependency
     mockImage = mock(Image.class);
-    when(mockPlane.getBuffer()).thenReturn(mockBuffer);
+    when(mockPlane.getBuffer()).thenReturn(imageBuffer);
     when(mockImage.getPlanes()).thenReturn(new Image.Plane[] {mockPlane});
 
-    // Set up mocked FileOutputStream
+    // Set up mocked FileOutputStream, its channel records the written file contents
     mockFileOutputStreamFactory = mockStatic(ImageSaver.FileOutputStreamFactory.class);
     mockFileOutputStream = mock(FileOutputStream.class);
+    mockFileChannel = mock(FileChannel.class);
+    fileContents = ByteBuffer.allocate(1024);
+    when(mockFileOutputStream.getChannel()).thenReturn(mockFileChannel);
+    when(mockFileChannel.write(any(ByteBuffer.class)))
+        .thenAnswer(
+            invocation -> {
+              ByteBuffer source = invocation.getArgument(0);
+              int length = source.remaining();
+              fileContents.put(source);
+              return length;
+            });
+    when(mockFileChannel.write(any(ByteBuffer.class), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              ByteBuffer source = invocation.getArgument(0);
+              int position = (int) (long) invocation.getArgument(1);
+              int length = source.remaining();
+              for (int i = 0; i < length; i++) {
+                fileContents.put(position + i, source.get(source.position() + i));
+              }
+              return length;
+            });
     mockFileOutputStreamFactory
         .when(() -> ImageSaver.FileOutputStreamFactory.create(any()))
         .thenReturn(mockFileOutputStream);
 
     // Set up testable ImageSaver instance
     mockCallback = mock(ImageSaver.Callback.class);
-    imageSaver = new ImageSaver(mockImage, mockFile, mockCallback);
+    imageSaver = new ImageSaver(PictureMirrorMode.none, false, mockImage, mockFile, mockCallback);
   }
 
   @After
@@ -83,14 +101,57 @@ public class ImageSaverTests {
   public void runWritesBytesToFileAndFinishesWithPath() throws IOException {
     imageSaver.run();
 
-    verify(mockFileOutputStream, times(1)).write(new byte[] {0x42, 0x00, 0x13});
+    assertArrayEquals(new byte[] {0x42, 0x00, 0x13}, writtenBytes());
     verify(mockCallback, times(1)).onComplete("absolute/path");
     verify(mockCallback, never()).onError(any(), any());
   }
 
+  @Test
+  public void runWritesTheImageBufferWithoutCopyingIt() throws IOException {
+    imageSaver.run();
+
+    verify(mockFileChannel).write(imageBuffer);
+    verify(mockFileOutputStream, never()).write(any(byte[].class));
+    verify(mockImage).close();
+  }
+
+  @Test
+  public void runSyncsFileOnlyWhenRequested() throws IOException {
+    imageSaver.run();
+    verify(mockFileChannel, never()).force(anyBoolean());
+
+    imageBuffer.rewind();
+    new ImageSaver(PictureMirrorMode.none, true, mockImage, mockFile, mockCallback).run();
+    verify(mockFileChannel, times(1)).force(false);
+  }
+
+  @Test
+  public void runMirrorsExifOrientationWithoutDecoding() throws IOException {
+    ByteBuffer jpeg =
+        ExifOrientationTagTest.createJpeg(
+            ByteOrder.LITTLE_ENDIAN, ExifInterface.ORIENTATION_ROTATE_90);
+    byte[] expected = new byte[jpeg.remaining()];
+    jpeg.duplicate().get(expected);
+    ExifOrientationTag.find(ByteBuffer.wrap(expected))
+        .setOrientation(ByteBuffer.wrap(expected), ExifInterface.ORIENTATION_TRANSPOSE);
+    byte[] original = new byte[jpeg.remaining()];
+    jpeg.duplicate().get(original);
+    when(mockPlane.getBuffer()).thenReturn(jpeg);
+
+    new ImageSaver(PictureMirrorMode.exif, false, mockImage, mockFile, mockCallback).run();
+
+    assertArrayEquals(expected, writtenBytes());
+    // The image buffer itself is left untouched.
+    jpeg.rewind();
+    byte[] source = new byte[jpeg.remaining()];
+    jpeg.get(source);
+    assertArrayEquals(original, source);
+    verify(mockCallback, times(1)).onComplete("absolute/path");
+  }
+
   @Test
   public void runCallsErrorOnWriteIoexception() throws IOException {
-    doThrow(new IOException()).when(mockFileOutputStream).write(any());
+    doThrow(new IOException()).when(mockFileChannel).write(any(ByteBuffer.class));
     imageSaver.run();
     verify(mockCallback, times(1)).onError("IOError", "Failed saving image");
     verify(mockCallback, never()).onComplete(any());
@@ -102,4 +163,8 @@ public class ImageSaverTests {
     imageSaver.run();
     verify(mockCallback, times(1)).onError("cameraAccess", "message");
   }
+
+  private byte[] writtenBytes() {
+    return Arrays.copyOf(fileContents.array(), fileContents.position());
+  }
 }
@@ -4,11 +4,19 @@
 
 package io.flutter.plugins.camera;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import android.app.Activity;
 import android.hardware.camera2.CameraAccessException;
@@ -16,10 +24,16 @@ import androidx.lifecycle.LifecycleObserver;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
+import io.flutter.plugins.camera.media.VideoRecordingSettings;
 import io.flutter.plugins.camera.utils.TestUtils;
 import io.flutter.view.TextureRegistry;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class MethodCallHandlerImplTest {
 
@@ -74,4 +88,187 @@ public class MethodCallHandlerImplTest {
     verify(mockCamera, times(1)).resumePreview();
     verify(mockResult, times(1)).success(null);
   }
+
+  @Test
+  public void onMethodCall_receivedImageStreamData_shouldAcknowledgeFrame() {
+    handler.onMethodCall(new MethodCall("receivedImageStreamData", null), mockResult);
+
+    verify(mockCamera, times(1)).receivedImageStreamData();
+    verify(mockResult, times(1)).success(null);
+  }
+
+  @Test
+  public void onMethodCall_setCameraControls_shouldApplyEveryControlAtOnce() {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("zoomLevel", 2.5);
+    arguments.put("exposureMode", "locked");
+    arguments.put("focusPoint", Arrays.asList(0.25, 0.75));
+    arguments.put("exposurePoint", null);
+
+    handler.onMethodCall(new MethodCall("setCameraControls", arguments), mockResult);
+
+    ArgumentCaptor<CameraControls> controlsCaptor = ArgumentCaptor.forClass(CameraControls.class);
+    verify(mockCamera, times(1)).setCameraControls(eq(mockResult), controlsCaptor.capture());
+    CameraControls controls = controlsCaptor.getValue();
+    assertEquals(2.5f, controls.zoomLevel, 0);
+    assertEquals(ExposureMode.locked, controls.exposureMode);
+    assertEquals(0.75, controls.focusPoint.y, 0);
+    assertNull(controls.exposurePoint.x);
+    assertNull(controls.exposureOffset);
+    assertNull(controls.focusMode);
+  }
+
+  @Test
+  public void onMethodCall_setCameraControls_shouldRejectUnknownModes() {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("flashMode", "strobe");
+
+    handler.onMethodCall(new MethodCall("setCameraControls", arguments), mockResult);
+
+    verify(mockCamera, never()).setCameraControls(any(), any());
+    verify(mockResult, times(1)).error("setCameraControlsFailed", "Unknown flash mode strobe", null);
+  }
+
+  @Test
+  public void onMethodCall_prepareForVideoRecording_shouldPassTheRecordingOptions() {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("backend", "mediaCodec");
+    arguments.put("videoBitRate", 8000000);
+    arguments.put("keyFrameIntervalMs", 500);
+
+    handler.onMethodCall(new MethodCall("prepareForVideoRecording", arguments), mockResult);
+
+    ArgumentCaptor<VideoRecordingSettings> settingsCaptor =
+        ArgumentCaptor.forClass(VideoRecordingSettings.class);
+    verify(mockCamera, times(1)).prepareForVideoRecording(settingsCaptor.capture());
+    VideoRecordingSettings settings = settingsCaptor.getValue();
+    assertEquals(VideoRecordingSettings.Backend.MEDIA_CODEC, settings.getBackend());
+    assertEquals(8000000, settings.getVideoBitRate());
+    assertEquals(500, settings.getKeyFrameIntervalMs());
+    verify(mockResult, times(1)).success(null);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void onMethodCall_shouldRouteCallsWithACameraIdToThatCamera()
+      throws CameraAccessException {
+    Camera otherMockCamera = mock(Camera.class);
+    Map<Long, Camera> cameras = (Map<Long, Camera>) TestUtils.getPrivateField(handler, "cameras");
+    cameras.put(1L, mockCamera);
+    cameras.put(2L, otherMockCamera);
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("cameraId", 2);
+
+    handler.onMethodCall(new MethodCall("pausePreview", arguments), mockResult);
+
+    verify(otherMockCamera, times(1)).pausePreview();
+    verify(mockCamera, never()).pausePreview();
+    verify(mockResult, times(1)).success(null);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void onMethodCall_shouldReportCameraNotFoundForCallsAfterDispose() {
+    Map<Long, Camera> cameras = (Map<Long, Camera>) TestUtils.getPrivateField(handler, "cameras");
+    cameras.put(1L, mockCamera);
+    when(mockCamera.getCameraName()).thenReturn("0");
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("cameraId", 1);
+    arguments.put("mode", "auto");
+    handler.onMethodCall(new MethodCall("dispose", arguments), mock(MethodChannel.Result.class));
+
+    for (String method :
+        Arrays.asList(
+            "initialize",
+            "takePicture",
+            "takePictureBurst",
+            "takeRawPicture",
+            "setPictureMirrorMode",
+            "setSyncPicturesToDisk",
+            "getStartupMetrics",
+            "startCaptureMetrics",
+            "stopCaptureMetrics",
+            "setFocusMode",
+            "setCameraControls",
+            "receivedImageStreamData",
+            "getImageStreamStatistics",
+            "setZoomLevel")) {
+      MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+      handler.onMethodCall(new MethodCall(method, arguments), result);
+
+      verify(result, times(1)).error(eq("cameraNotFound"), any(), any());
+      verify(result, never()).success(any());
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void onMethodCall_dispose_shouldForgetTheCamera() {
+    Map<Long, Camera> cameras = (Map<Long, Camera>) TestUtils.getPrivateField(handler, "cameras");
+    cameras.put(1L, mockCamera);
+    when(mockCamera.getCameraName()).thenReturn("0");
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("cameraId", 1);
+
+    handler.onMethodCall(new MethodCall("dispose", arguments), mockResult);
+
+    verify(mockCamera, times(1)).dispose(any());
+    verify(mockResult, times(1)).success(null);
+    assertTrue(cameras.isEmpty());
+    assertNull(TestUtils.getPrivateField(handler, "camera"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void onMethodCall_create_shouldWaitForThePendingCloseOfTheCamera() {
+    Map<Long, Camera> cameras = (Map<Long, Camera>) TestUtils.getPrivateField(handler, "cameras");
+    cameras.put(1L, mockCamera);
+    when(mockCamera.getCameraName()).thenReturn("0");
+    CameraPermissions mockCameraPermissions =
+        (CameraPermissions) TestUtils.getPrivateField(handler, "cameraPermissions");
+    Map<String, Object> disposeArguments = new HashMap<>();
+    disposeArguments.put("cameraId", 1);
+    handler.onMethodCall(new MethodCall("dispose", disposeArguments), mockResult);
+    ArgumentCaptor<Runnable> onDisposed = ArgumentCaptor.forClass(Runnable.class);
+    verify(mockCamera).dispose(onDisposed.capture());
+    Map<String, Object> createArguments = new HashMap<>();
+    createArguments.put("cameraName", "0");
+    createArguments.put("enableAudio", false);
+
+    handler.onMethodCall(new MethodCall("create", createArguments), mockResult);
+
+    verify(mockCameraPermissions, never())
+        .requestPermissions(any(), any(), anyBoolean(), any());
+    onDisposed.getValue().run();
+    verify(mockCameraPermissions, times(1))
+        .requestPermissions(any(), any(), anyBoolean(), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void onMethodCall_create_shouldForgetTheCamerasItCloses() {
+    Map<Long, Camera> cameras = (Map<Long, Camera>) TestUtils.getPrivateField(handler, "cameras");
+    cameras.put(1L, mockCamera);
+    when(mockCamera.getCameraName()).thenReturn("0");
+    Map<String, Object> createArguments = new HashMap<>();
+    createArguments.put("cameraName", "1");
+    createArguments.put("enableAudio", false);
+
+    handler.onMethodCall(new MethodCall("create", createArguments), mockResult);
+
+    verify(mockCamera, times(1)).dispose(any());
+    assertTrue(cameras.isEmpty());
+    assertNull(TestUtils.getPrivateField(handler, "camera"));
+  }
+
+  @Test
+  public void onMethodCall_stopImageStream_shouldLetTheCameraKeepRecording()
+      throws CameraAccessException {
+    handler.onMethodCall(new MethodCall("stopImageStream", null), mockResult);
+
+    verify(mockCamera, times(1)).stopImageStream();
+    verify(mockCamera, never()).startPreview();
+    verify(mockResult, times(1)).success(null);
+  }
 }
@@ -0,0 +1,57 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class PendingCameraClosesTest {
+  @Test
+  public void runWhenClosed_shouldRunRightAwayWhenNoCameraIsClosing() {
+    PendingCameraCloses pendingCloses = new PendingCameraCloses();
+    Runnable mockAction = mock(Runnable.class);
+    pendingCloses.onCloseStarted("1");
+
+    pendingCloses.runWhenClosed(Collections.singletonList("0"), mockAction);
+
+    verify(mockAction, times(1)).run();
+  }
+
+  @Test
+  public void runWhenClosed_shouldWaitForEveryCamera() {
+    PendingCameraCloses pendingCloses = new PendingCameraCloses();
+    Runnable mockAction = mock(Runnable.class);
+    pendingCloses.onCloseStarted("0");
+    pendingCloses.onCloseStarted("1");
+
+    pendingCloses.runWhenClosed(Arrays.asList("0", "1"), mockAction);
+    pendingCloses.onCloseFinished("0");
+    verify(mockAction, never()).run();
+    pendingCloses.onCloseFinished("1");
+
+    verify(mockAction, times(1)).run();
+  }
+
+  @Test
+  public void runWhenClosed_shouldWaitForEveryCloseOfACamera() {
+    PendingCameraCloses pendingCloses = new PendingCameraCloses();
+    Runnable mockAction = mock(Runnable.class);
+    pendingCloses.onCloseStarted("0");
+    pendingCloses.onCloseStarted("0");
+
+    pendingCloses.runWhenClosed(Collections.singletonList("0"), mockAction);
+    pendingCloses.onCloseFinished("0");
+    verify(mockAction, never()).run();
+    pendingCloses.onCloseFinished("0");
+
+    verify(mockAction, times(1)).run();
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import android.media.ImageReader;
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RawCaptureTest {
+  private Executor mockExecutor;
+  private ImageSaver.Callback mockCallback;
+  private ImageReader mockReader;
+  private Image mockImage;
+  private RawCapture rawCapture;
+
+  @Before
+  public void before() {
+    mockExecutor = mock(Executor.class);
+    mockCallback = mock(ImageSaver.Callback.class);
+    mockReader = mock(ImageReader.class);
+    mockImage = mock(Image.class);
+    when(mockReader.acquireNextImage()).thenReturn(mockImage);
+    rawCapture =
+        new RawCapture(
+            mock(CameraCharacteristics.class),
+            90,
+            false,
+            mock(File.class),
+            mockExecutor,
+            mockCallback);
+  }
+
+  @Test
+  public void shouldSaveOnceTheImageAndTheResultArrived() {
+    rawCapture.onImageAvailable(mockReader);
+    verify(mockExecutor, never()).execute(any());
+
+    rawCapture.onCaptureCompleted(mock(TotalCaptureResult.class));
+
+    verify(mockExecutor, times(1)).execute(any(DngSaver.class));
+  }
+
+  @Test
+  public void shouldSaveWhenTheResultArrivesFirst() {
+    rawCapture.onCaptureCompleted(mock(TotalCaptureResult.class));
+    verify(mockExecutor, never()).execute(any());
+
+    rawCapture.onImageAvailable(mockReader);
+
+    verify(mockExecutor, times(1)).execute(any(DngSaver.class));
+  }
+
+  @Test
+  public void shouldCloseImagesThatArriveAfterTheSave() {
+    rawCapture.onImageAvailable(mockReader);
+    rawCapture.onCaptureCompleted(mock(TotalCaptureResult.class));
+    Image lateImage = mock(Image.class);
+    when(mockReader.acquireNextImage()).thenReturn(lateImage);
+
+    rawCapture.onImageAvailable(mockReader);
+
+    verify(lateImage).close();
+    verify(mockExecutor, times(1)).execute(any());
+  }
+
+  @Test
+  public void onCaptureFailed_shouldReportTheErrorAndCloseTheImage() {
+    rawCapture.onImageAvailable(mockReader);
+
+    rawCapture.onCaptureFailed();
+    rawCapture.onCaptureCompleted(mock(TotalCaptureResult.class));
+
+    verify(mockImage).close();
+    verify(mockCallback, times(1))
+        .onError("captureFailure", "The raw picture could not be captured.");
+    verify(mockExecutor, never()).execute(any());
+  }
+
+  @Test
+  public void shouldReportAnErrorWhenTheSaverIsRejected() {
+    doThrow(new RejectedExecutionException()).when(mockExecutor).execute(any());
+    rawCapture.onImageAvailable(mockReader);
+
+    rawCapture.onCaptureCompleted(mock(TotalCaptureResult.class));
+
+    verify(mockImage).close();
+    verify(mockCallback, times(1)).onError(any(), any());
+  }
+}
@@ -0,0 +1,141 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.Handler;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RepeatingRequestSchedulerTest {
+  private final List<Runnable> posted = new ArrayList<>();
+  private final List<Runnable> postedDelayed = new ArrayList<>();
+  private final List<String> events = new ArrayList<>();
+  private Handler mockHandler;
+  private String submitError;
+  private RepeatingRequestScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    mockHandler = mock(Handler.class);
+    when(mockHandler.post(any()))
+        .thenAnswer(
+            invocation -> {
+              posted.add(invocation.getArgument(0));
+              return true;
+            });
+    when(mockHandler.postDelayed(any(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              postedDelayed.add(invocation.getArgument(0));
+              return true;
+            });
+    scheduler =
+        new RepeatingRequestScheduler(
+            mockHandler,
+            (onSuccess, onError) -> {
+              events.add("submit");
+              if (submitError != null) {
+                onError.onError("cameraAccess", submitError);
+              } else {
+                onSuccess.run();
+              }
+            });
+  }
+
+  @Test
+  public void schedule_shouldSubmitRightAwayWhenIdle() {
+    scheduler.schedule(() -> events.add("zoom"), (code, message) -> events.add(code));
+
+    assertEquals(1, scheduler.getSubmittedCount());
+    assertEquals(2, events.size());
+    assertEquals("zoom", events.get(1));
+  }
+
+  @Test
+  public void schedule_shouldCoalesceUpdatesUntilTheNextFrame() {
+    scheduler.schedule(() -> events.add("zoom1"), (code, message) -> {});
+    scheduler.schedule(() -> events.add("zoom2"), (code, message) -> {});
+    scheduler.schedule(() -> events.add("zoom3"), (code, message) -> {});
+
+    assertEquals(1, scheduler.getSubmittedCount());
+    assertEquals(1, postedDelayed.size());
+
+    scheduler.onFrameCompleted();
+    runPosted();
+
+    assertEquals(2, scheduler.getSubmittedCount());
+    assertEquals(5, events.size());
+    assertEquals("zoom3", events.get(4));
+    verify(mockHandler, atLeastOnce()).removeCallbacks(eq(postedDelayed.get(0)));
+  }
+
+  @Test
+  public void onFrameCompleted_shouldNotPostWithoutPendingUpdate() {
+    scheduler.schedule(null, (code, message) -> {});
+    scheduler.onFrameCompleted();
+    scheduler.onFrameCompleted();
+
+    assertEquals(0, posted.size());
+
+    scheduler.schedule(null, (code, message) -> {});
+
+    assertEquals(2, scheduler.getSubmittedCount());
+  }
+
+  @Test
+  public void timeout_shouldSubmitWhenNoFrameCompletes() {
+    scheduler.schedule(null, (code, message) -> {});
+    scheduler.schedule(() -> events.add("zoom"), (code, message) -> {});
+
+    postedDelayed.remove(0).run();
+
+    assertEquals(2, scheduler.getSubmittedCount());
+    assertEquals("zoom", events.get(events.size() - 1));
+  }
+
+  @Test
+  public void schedule_shouldReportErrorsToEveryCoalescedCaller() {
+    scheduler.schedule(null, (code, message) -> {});
+    submitError = "Camera is closed";
+    scheduler.schedule(() -> events.add("success"), (code, message) -> events.add("error1"));
+    scheduler.schedule(() -> events.add("success"), (code, message) -> events.add("error2"));
+
+    scheduler.onFrameCompleted();
+    runPosted();
+
+    assertEquals(4, events.size());
+    assertEquals("error1", events.get(2));
+    assertEquals("error2", events.get(3));
+  }
+
+  @Test
+  public void reset_shouldSubmitPendingUpdateToNewSession() {
+    scheduler.schedule(null, (code, message) -> {});
+    scheduler.schedule(() -> events.add("flash"), (code, message) -> {});
+
+    scheduler.reset();
+    runPosted();
+
+    assertEquals(2, scheduler.getSubmittedCount());
+    assertEquals("flash", events.get(events.size() - 1));
+  }
+
+  private void runPosted() {
+    while (!posted.isEmpty()) {
+      posted.remove(0).run();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.hardware.camera2.CaptureRequest;
+import io.flutter.plugins.camera.features.autofocus.AutoFocusFeature;
+import io.flutter.plugins.camera.features.exposurelock.ExposureLockFeature;
+import io.flutter.plugins.camera.features.exposureoffset.ExposureOffsetFeature;
+import io.flutter.plugins.camera.features.exposurepoint.ExposurePointFeature;
+import io.flutter.plugins.camera.features.flash.FlashFeature;
+import io.flutter.plugins.camera.features.focuspoint.FocusPointFeature;
+import io.flutter.plugins.camera.features.fpsrange.FpsRangeFeature;
+import io.flutter.plugins.camera.features.noisereduction.NoiseReductionFeature;
+import io.flutter.plugins.camera.features.resolution.ResolutionFeature;
+import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
+import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CameraFeaturesTest {
+  private CameraFeatures cameraFeatures;
+  private FlashFeature mockFlash;
+  private ZoomLevelFeature mockZoomLevel;
+
+  @Before
+  public void before() {
+    mockFlash = mock(FlashFeature.class);
+    mockZoomLevel = mock(ZoomLevelFeature.class);
+    cameraFeatures = createCameraFeatures(mockFlash, mockZoomLevel);
+  }
+
+  @Test
+  public void getAllFeatures_returnsEveryRegisteredFeature() {
+    assertEquals(11, cameraFeatures.getAllFeatures().size());
+  }
+
+  @Test
+  public void updateBuilder_appliesEveryFeatureToANewBuilder() {
+    CaptureRequest.Builder mockBuilder = mock(CaptureRequest.Builder.class);
+
+    cameraFeatures.updateBuilder(mockBuilder);
+
+    for (CameraFeature feature : cameraFeatures.getAllFeatures()) {
+      verify(feature, times(1)).updateBuilder(mockBuilder);
+    }
+  }
+
+  @Test
+  public void updateBuilder_onlyReappliesChangedFeaturesToTheSameBuilder() {
+    CaptureRequest.Builder mockBuilder = mock(CaptureRequest.Builder.class);
+    cameraFeatures.updateBuilder(mockBuilder);
+
+    cameraFeatures.markChanged(mockZoomLevel);
+    cameraFeatures.updateBuilder(mockBuilder);
+    cameraFeatures.updateBuilder(mockBuilder);
+
+    verify(mockZoomLevel, times(2)).updateBuilder(mockBuilder);
+    verify(mockFlash, times(1)).updateBuilder(mockBuilder);
+  }
+
+  @Test
+  public void updateBuilder_appliesEveryFeatureWhenTheBuilderIsReplaced() {
+    CaptureRequest.Builder mockFirstBuilder = mock(CaptureRequest.Builder.class);
+    CaptureRequest.Builder mockSecondBuilder = mock(CaptureRequest.Builder.class);
+    cameraFeatures.updateBuilder(mockFirstBuilder);
+
+    cameraFeatures.updateBuilder(mockSecondBuilder);
+
+    verify(mockFlash, times(1)).updateBuilder(mockSecondBuilder);
+    verify(mockZoomLevel, times(1)).updateBuilder(mockSecondBuilder);
+  }
+
+  @Test
+  public void updateBuilderWithAllFeatures_keepsTrackingThePreviewBuilder() {
+    CaptureRequest.Builder mockPreviewBuilder = mock(CaptureRequest.Builder.class);
+    CaptureRequest.Builder mockStillBuilder = mock(CaptureRequest.Builder.class);
+    cameraFeatures.updateBuilder(mockPreviewBuilder);
+
+    cameraFeatures.updateBuilderWithAllFeatures(mockStillBuilder);
+    cameraFeatures.markChanged(mockZoomLevel);
+    cameraFeatures.updateBuilder(mockPreviewBuilder);
+
+    verify(mockFlash, times(1)).updateBuilder(mockStillBuilder);
+    verify(mockFlash, times(1)).updateBuilder(mockPreviewBuilder);
+    verify(mockZoomLevel, times(2)).updateBuilder(mockPreviewBuilder);
+  }
+
+  @Test
+  public void markChanged_ignoresFeaturesThatAreNotRegistered() {
+    CaptureRequest.Builder mockBuilder = mock(CaptureRequest.Builder.class);
+    cameraFeatures.updateBuilder(mockBuilder);
+    FlashFeature mockOtherFlash = mock(FlashFeature.class);
+
+    cameraFeatures.markChanged(mockOtherFlash);
+    cameraFeatures.updateBuilder(mockBuilder);
+
+    verify(mockOtherFlash, never()).updateBuilder(mockBuilder);
+    verify(mockFlash, times(1)).updateBuilder(mockBuilder);
+  }
+
+  static CameraFeatures createCameraFeatures(FlashFeature flash, ZoomLevelFeature zoomLevel) {
+    CameraFeatures cameraFeatures = new CameraFeatures();
+    cameraFeatures.setAutoFocus(mock(AutoFocusFeature.class));
+    cameraFeatures.setExposureLock(mock(ExposureLockFeature.class));
+    cameraFeatures.setExposureOffset(mock(ExposureOffsetFeature.class));
+    cameraFeatures.setExposurePoint(mock(ExposurePointFeature.class));
+    cameraFeatures.setFlash(flash);
+    cameraFeatures.setFocusPoint(mock(FocusPointFeature.class));
+    cameraFeatures.setFpsRange(mock(FpsRangeFeature.class));
+    cameraFeatures.setNoiseReduction(mock(NoiseReductionFeature.class));
+    cameraFeatures.setResolution(mock(ResolutionFeature.class));
+    cameraFeatures.setSensorOrientation(mock(SensorOrientationFeature.class));
+    cameraFeatures.setZoomLevel(zoomLevel);
+    return cameraFeatures;
+  }
+}
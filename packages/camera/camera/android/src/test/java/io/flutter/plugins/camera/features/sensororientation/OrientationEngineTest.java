@@ -0,0 +1,96 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features.sensororientation;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.content.Context;
+import io.flutter.embedding.engine.systemchannels.PlatformChannel.DeviceOrientation;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrientationEngineTest {
+  private static final long MS = 1_000_000L;
+
+  private OrientationEngine.Listener mockListener;
+  private OrientationEngine engine;
+
+  @Before
+  public void before() {
+    mockListener = mock(OrientationEngine.Listener.class);
+    engine = new OrientationEngine(mock(Context.class), mockListener, 200_000, 200_000, 150, 15);
+  }
+
+  @Test
+  public void onAngle_shouldReportTheFirstOrientationRightAway() {
+    engine.onAngle(10, 0);
+
+    verify(mockListener, times(1)).onOrientationChanged(DeviceOrientation.PORTRAIT_UP);
+  }
+
+  @Test
+  public void onAngle_shouldNotReportTheSameOrientationTwice() {
+    engine.onAngle(10, 0);
+    engine.onAngle(350, 10 * MS);
+    engine.onAngle(20, 500 * MS);
+
+    verify(mockListener, times(1)).onOrientationChanged(any());
+  }
+
+  @Test
+  public void onAngle_shouldKeepTheOrientationWithinTheHysteresis() {
+    engine.onAngle(0, 0);
+    engine.onAngle(55, 200 * MS);
+    engine.onAngle(58, 400 * MS);
+
+    verify(mockListener, never()).onOrientationChanged(DeviceOrientation.LANDSCAPE_RIGHT);
+  }
+
+  @Test
+  public void onAngle_shouldReportANewOrientationOnceItIsStable() {
+    engine.onAngle(0, 0);
+    engine.onAngle(90, 1000 * MS);
+    engine.onAngle(92, 1100 * MS);
+    verify(mockListener, never()).onOrientationChanged(DeviceOrientation.LANDSCAPE_RIGHT);
+
+    engine.onAngle(88, 1150 * MS);
+
+    verify(mockListener, times(1)).onOrientationChanged(DeviceOrientation.LANDSCAPE_RIGHT);
+  }
+
+  @Test
+  public void onAngle_shouldIgnoreShortMovements() {
+    engine.onAngle(0, 0);
+    engine.onAngle(270, 1000 * MS);
+    engine.onAngle(0, 1100 * MS);
+    engine.onAngle(270, 1200 * MS);
+    engine.onAngle(270, 1300 * MS);
+
+    verify(mockListener, never()).onOrientationChanged(DeviceOrientation.LANDSCAPE_LEFT);
+  }
+
+  @Test
+  public void onAngle_shouldKeepTheOrientationWhileLyingFlat() {
+    engine.onAngle(180, 0);
+    engine.onAngle(OrientationEngine.ORIENTATION_UNKNOWN, 1000 * MS);
+
+    verify(mockListener, times(1)).onOrientationChanged(any());
+    verify(mockListener).onOrientationChanged(DeviceOrientation.PORTRAIT_DOWN);
+  }
+
+  @Test
+  public void toAngle_shouldComputeTheAngleFromTheGravity() {
+    assertEquals(0, OrientationEngine.toAngle(0f, 9.81f, 0f));
+    assertEquals(90, OrientationEngine.toAngle(-9.81f, 0f, 0f));
+    assertEquals(180, OrientationEngine.toAngle(0f, -9.81f, 0f));
+    assertEquals(270, OrientationEngine.toAngle(9.81f, 0f, 0f));
+    assertEquals(OrientationEngine.ORIENTATION_UNKNOWN, OrientationEngine.toAngle(0f, 0f, 9.81f));
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.Test;
+
+public class ImageStreamBufferPoolTest {
+  @Test
+  public void acquire_shouldReturnDirectLittleEndianBuffers() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool(2, 16);
+
+    int slot = pool.acquire(8);
+
+    assertTrue(pool.get(slot).isDirect());
+    assertEquals(ByteOrder.LITTLE_ENDIAN, pool.get(slot).order());
+  }
+
+  @Test
+  public void acquire_shouldReturnMinusOneWhenAllBuffersAreInFlight() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool(2, 16);
+
+    int first = pool.acquire(8);
+    int second = pool.acquire(8);
+
+    assertNotEquals(first, second);
+    assertEquals(2, pool.inFlightCount());
+    assertEquals(-1, pool.acquire(8));
+  }
+
+  @Test
+  public void release_shouldMakeBufferReusableWithoutReallocating() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool(1, 16);
+    int slot = pool.acquire(8);
+    ByteBuffer buffer = pool.get(slot);
+
+    pool.release(slot);
+
+    assertEquals(slot, pool.acquire(16));
+    assertSame(buffer, pool.get(slot));
+  }
+
+  @Test
+  public void acquire_shouldGrowBufferThatIsTooSmall() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool(1, 16);
+
+    int slot = pool.acquire(64);
+
+    assertTrue(pool.get(slot).capacity() >= 64);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_shouldRejectEmptyPool() {
+    new ImageStreamBufferPool(0, 16);
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class ImageStreamFlowControlTest {
+  @Test
+  public void tryAcquire_shouldNeverDropWhenUnbounded() {
+    ImageStreamFlowControl flowControl = new ImageStreamFlowControl();
+    flowControl.reset(0);
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(flowControl.tryAcquire());
+      flowControl.onSent();
+    }
+
+    assertFalse(flowControl.isBounded());
+    assertEquals(10, flowControl.getDeliveredFrameCount());
+    assertEquals(0, flowControl.getDroppedFrameCount());
+  }
+
+  @Test
+  public void tryAcquire_shouldDropFramesWhileConsumerLags() {
+    ImageStreamFlowControl flowControl = new ImageStreamFlowControl();
+    flowControl.reset(2);
+
+    assertTrue(flowControl.tryAcquire());
+    flowControl.onSent();
+    assertTrue(flowControl.tryAcquire());
+    flowControl.onSent();
+    assertFalse(flowControl.tryAcquire());
+    assertFalse(flowControl.tryAcquire());
+
+    assertEquals(2, flowControl.getFramesInFlight());
+    assertEquals(2, flowControl.getDeliveredFrameCount());
+    assertEquals(2, flowControl.getDroppedFrameCount());
+  }
+
+  @Test
+  public void onAcknowledged_shouldMakeRoomForNextFrame() {
+    ImageStreamFlowControl flowControl = new ImageStreamFlowControl();
+    flowControl.reset(1);
+    assertTrue(flowControl.tryAcquire());
+    assertFalse(flowControl.tryAcquire());
+
+    flowControl.onAcknowledged();
+
+    assertTrue(flowControl.tryAcquire());
+  }
+
+  @Test
+  public void onDropped_shouldReleaseReservationAndCountFrame() {
+    ImageStreamFlowControl flowControl = new ImageStreamFlowControl();
+    flowControl.reset(1);
+    assertTrue(flowControl.tryAcquire());
+
+    flowControl.onDropped();
+
+    assertEquals(0, flowControl.getFramesInFlight());
+    assertEquals(1, flowControl.getDroppedFrameCount());
+  }
+
+  @Test
+  public void onAcknowledged_shouldIgnoreUnexpectedAcknowledgements() {
+    ImageStreamFlowControl flowControl = new ImageStreamFlowControl();
+    flowControl.reset(1);
+
+    flowControl.onAcknowledged();
+
+    assertEquals(0, flowControl.getFramesInFlight());
+  }
+
+  @Test
+  public void reset_shouldClearCounters() {
+    ImageStreamFlowControl flowControl = new ImageStreamFlowControl();
+    flowControl.reset(1);
+    flowControl.tryAcquire();
+    flowControl.onSent();
+    flowControl.tryAcquire();
+
+    flowControl.reset(3);
+    Map<String, Object> statistics = flowControl.toMap();
+
+    assertEquals(0L, statistics.get("deliveredFrames"));
+    assertEquals(0L, statistics.get("droppedFrames"));
+    assertEquals(0, statistics.get("framesInFlight"));
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.ImageFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ImageStreamFrameEncoderTest {
+  @Test
+  public void writeHeader_shouldWriteAllFieldsAtDocumentedOffsets() {
+    ByteBuffer frame = ByteBuffer.allocateDirect(128).order(ByteOrder.LITTLE_ENDIAN);
+
+    ImageStreamFrameEncoder.writeHeader(
+        frame, 640, 480, ImageFormat.YUV_420_888, 3, 123456789L, 1.8f, 9991324L, 92);
+
+    assertEquals(ImageStreamFrameEncoder.LAYOUT_VERSION, frame.getInt(0));
+    assertEquals(640, frame.getInt(4));
+    assertEquals(480, frame.getInt(8));
+    assertEquals(ImageFormat.YUV_420_888, frame.getInt(12));
+    assertEquals(3, frame.getInt(16));
+    assertEquals(92, frame.getInt(20));
+    assertEquals(123456789L, frame.getLong(24));
+    assertEquals(9991324L, frame.getLong(32));
+    assertEquals(1.8, frame.getDouble(40), 0.0001);
+  }
+
+  @Test
+  public void writeHeader_shouldMarkUnknownCaptureProperties() {
+    ByteBuffer frame = ByteBuffer.allocateDirect(128).order(ByteOrder.LITTLE_ENDIAN);
+
+    ImageStreamFrameEncoder.writeHeader(frame, 1, 1, ImageFormat.JPEG, 1, 0L, null, null, null);
+
+    assertEquals(-1, frame.getInt(20));
+    assertEquals(-1L, frame.getLong(32));
+    assertTrue(Double.isNaN(frame.getDouble(40)));
+  }
+
+  @Test
+  public void writePlane_shouldCopyBytesAndWriteDescriptor() {
+    ByteBuffer frame = ByteBuffer.allocateDirect(128).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer first = ByteBuffer.wrap(new byte[] {1, 2, 3, 4});
+    ByteBuffer second = ByteBuffer.wrap(new byte[] {5, 6});
+    int offset = ImageStreamFrameEncoder.headerSize(2);
+
+    offset = ImageStreamFrameEncoder.writePlane(frame, 0, offset, first, 4, 1);
+    offset = ImageStreamFrameEncoder.writePlane(frame, 1, offset, second, 2, 2);
+    ImageStreamFrameEncoder.finish(frame, offset);
+
+    int firstDescriptor = ImageStreamFrameEncoder.FRAME_HEADER_SIZE;
+    assertEquals(ImageStreamFrameEncoder.headerSize(2), frame.getInt(firstDescriptor));
+    assertEquals(4, frame.getInt(firstDescriptor + 4));
+    assertEquals(4, frame.getInt(firstDescriptor + 8));
+    assertEquals(1, frame.getInt(firstDescriptor + 12));
+
+    int secondDescriptor = firstDescriptor + ImageStreamFrameEncoder.PLANE_HEADER_SIZE;
+    assertEquals(ImageStreamFrameEncoder.headerSize(2) + 4, frame.getInt(secondDescriptor));
+    assertEquals(2, frame.getInt(secondDescriptor + 4));
+    assertEquals(2, frame.getInt(secondDescriptor + 8));
+    assertEquals(2, frame.getInt(secondDescriptor + 12));
+
+    assertEquals(5, frame.get(ImageStreamFrameEncoder.headerSize(2) + 4));
+    // The engine reads the message length from the buffer position.
+    assertEquals(ImageStreamFrameEncoder.headerSize(2) + 6, frame.position());
+  }
+
+  @Test
+  public void estimateFrameSize_shouldLeaveRoomForInterleavedChroma() {
+    int size = ImageStreamFrameEncoder.estimateFrameSize(1920, 1080, ImageFormat.YUV_420_888);
+
+    // Y plane plus two interleaved chroma planes of roughly half the Y plane size each.
+    assertTrue(size >= 1920 * 1080 * 2);
+  }
+}
@@ -0,0 +1,140 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.imagestream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.ImageFormat;
+import io.flutter.plugin.common.MethodCall;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class ImageStreamFrameTransformTest {
+  private static final int SOURCE_WIDTH = 8;
+  private static final int SOURCE_HEIGHT = 4;
+
+  @Test
+  public void isRequired_shouldBeFalseForDefaults() {
+    assertFalse(ImageStreamFrameTransform.isRequired(ImageStreamSettings.defaults()));
+    assertTrue(ImageStreamFrameTransform.isRequired(settings("planeMode", "luminance")));
+  }
+
+  @Test
+  public void crop_shouldCopyTheSelectedRegion() {
+    ImageStreamFrameTransform transform =
+        new ImageStreamFrameTransform(
+            settings("cropLeft", 2, "cropTop", 2, "cropWidth", 4, "cropHeight", 2),
+            SOURCE_WIDTH,
+            SOURCE_HEIGHT);
+
+    assertEquals(4, transform.getOutputWidth());
+    assertEquals(2, transform.getOutputHeight());
+    assertEquals(ImageFormat.YUV_420_888, transform.getOutputFormat());
+    assertEquals(3, transform.getPlaneCount());
+
+    byte[] luma = writePlane(transform, 0);
+    assertArrayEquals(new byte[] {18, 19, 20, 21, 26, 27, 28, 29}, luma);
+    byte[] u = writePlane(transform, 1);
+    assertArrayEquals(new byte[] {(byte) 105, (byte) 106}, u);
+  }
+
+  @Test
+  public void targetSize_shouldDownsampleWithNearestNeighbour() {
+    ImageStreamFrameTransform transform =
+        new ImageStreamFrameTransform(
+            settings("targetWidth", 4, "targetHeight", 2), SOURCE_WIDTH, SOURCE_HEIGHT);
+
+    assertEquals(4, transform.getOutputWidth());
+    assertEquals(2, transform.getOutputHeight());
+    assertArrayEquals(new byte[] {0, 2, 4, 6, 16, 18, 20, 22}, writePlane(transform, 0));
+    assertArrayEquals(new byte[] {(byte) 200, (byte) 202}, writePlane(transform, 2));
+  }
+
+  @Test
+  public void targetSize_shouldNeverUpscale() {
+    ImageStreamFrameTransform transform =
+        new ImageStreamFrameTransform(
+            settings("targetWidth", 100, "targetHeight", 100), SOURCE_WIDTH, SOURCE_HEIGHT);
+
+    assertEquals(SOURCE_WIDTH, transform.getOutputWidth());
+    assertEquals(SOURCE_HEIGHT, transform.getOutputHeight());
+  }
+
+  @Test
+  public void crop_shouldBeClampedAndAlignedToChromaSamples() {
+    ImageStreamFrameTransform transform =
+        new ImageStreamFrameTransform(
+            settings("cropLeft", 3, "cropTop", 1, "cropWidth", 100, "cropHeight", 100),
+            SOURCE_WIDTH,
+            SOURCE_HEIGHT);
+
+    assertEquals(6, transform.getOutputWidth());
+    assertEquals(4, transform.getOutputHeight());
+    assertEquals(2, writePlane(transform, 0)[0]);
+  }
+
+  @Test
+  public void luminanceMode_shouldOnlySendTheYPlane() {
+    ImageStreamFrameTransform transform =
+        new ImageStreamFrameTransform(
+            settings("planeMode", "luminance"), SOURCE_WIDTH, SOURCE_HEIGHT);
+
+    assertEquals(ImageFormat.Y8, transform.getOutputFormat());
+    assertEquals(1, transform.getPlaneCount());
+    assertEquals(SOURCE_WIDTH * SOURCE_HEIGHT, transform.getOutputSize());
+  }
+
+  @Test
+  public void nv21Mode_shouldInterleaveVBeforeU() {
+    ImageStreamFrameTransform transform =
+        new ImageStreamFrameTransform(
+            settings("planeMode", "nv21", "cropWidth", 4, "cropHeight", 2),
+            SOURCE_WIDTH,
+            SOURCE_HEIGHT);
+
+    assertEquals(ImageFormat.NV21, transform.getOutputFormat());
+    assertEquals(1, transform.getPlaneCount());
+    byte[] frame = writePlane(transform, 0);
+    assertEquals(12, frame.length);
+    assertArrayEquals(
+        new byte[] {(byte) 200, (byte) 100, (byte) 201, (byte) 101},
+        new byte[] {frame[8], frame[9], frame[10], frame[11]});
+  }
+
+  private static byte[] writePlane(ImageStreamFrameTransform transform, int plane) {
+    ByteBuffer[] sources = new ByteBuffer[3];
+    int[] rowStrides = {SOURCE_WIDTH, SOURCE_WIDTH / 2, SOURCE_WIDTH / 2};
+    int[] pixelStrides = {1, 1, 1};
+    sources[0] = fill(SOURCE_WIDTH * SOURCE_HEIGHT, 0);
+    sources[1] = fill(SOURCE_WIDTH * SOURCE_HEIGHT / 4, 100);
+    sources[2] = fill(SOURCE_WIDTH * SOURCE_HEIGHT / 4, 200);
+
+    ByteBuffer dst = ByteBuffer.allocate(transform.getPlaneLength(plane));
+    transform.writePlane(plane, sources, rowStrides, pixelStrides, dst, 0);
+    return dst.array();
+  }
+
+  // Every byte holds its own index plus a plane specific base, so sampled positions are visible.
+  private static ByteBuffer fill(int length, int base) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+    for (int i = 0; i < length; i++) {
+      buffer.put(i, (byte) (base + i));
+    }
+    return buffer;
+  }
+
+  private static ImageStreamSettings settings(Object... keyValues) {
+    Map<String, Object> arguments = new HashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      arguments.put((String) keyValues[i], keyValues[i + 1]);
+    }
+    return ImageStreamSettings.fromMethodCall(new MethodCall("startImageStream", arguments));
+  }
+}
@@ -0,0 +1,74 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.util.Range;
+import android.util.Size;
+import io.flutter.plugins.camera.CameraProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(minSdk = 23)
+public class HighSpeedVideoConfigurationTest {
+  private final Size size1080p = new Size(1920, 1080);
+  private final Size size720p = new Size(1280, 720);
+  private final Size size480p = new Size(720, 480);
+
+  private CameraProperties mockCameraProperties;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void before() {
+    mockCameraProperties = mock(CameraProperties.class);
+    when(mockCameraProperties.getHighSpeedVideoSizes())
+        .thenReturn(new Size[] {size1080p, size720p, size480p});
+    when(mockCameraProperties.getHighSpeedVideoFpsRangesFor(size1080p))
+        .thenReturn(new Range[] {new Range<>(30, 120), new Range<>(120, 120)});
+    when(mockCameraProperties.getHighSpeedVideoFpsRangesFor(size720p))
+        .thenReturn(
+            new Range[] {new Range<>(120, 120), new Range<>(30, 240), new Range<>(240, 240)});
+    when(mockCameraProperties.getHighSpeedVideoFpsRangesFor(size480p))
+        .thenReturn(new Range[] {new Range<>(240, 240)});
+  }
+
+  @Test
+  public void select_shouldPickTheLargestSizeFittingTheProfile() {
+    HighSpeedVideoConfiguration configuration =
+        HighSpeedVideoConfiguration.select(mockCameraProperties, 240, size1080p);
+
+    assertEquals(size720p, configuration.getSize());
+    assertEquals(new Range<>(240, 240), configuration.getFpsRange());
+    assertEquals(240, configuration.getFrameRate());
+  }
+
+  @Test
+  public void select_shouldPickTheSmallestSizeWhenNoneFitsTheProfile() {
+    HighSpeedVideoConfiguration configuration =
+        HighSpeedVideoConfiguration.select(mockCameraProperties, 120, new Size(640, 480));
+
+    assertEquals(size720p, configuration.getSize());
+  }
+
+  @Test
+  public void select_shouldReturnNullWithoutAFixedRangeForTheFrameRate() {
+    assertNull(HighSpeedVideoConfiguration.select(mockCameraProperties, 60, size1080p));
+  }
+
+  @Test
+  public void select_shouldReturnNullWithoutHighSpeedSizes() {
+    when(mockCameraProperties.getHighSpeedVideoSizes()).thenReturn(new Size[0]);
+
+    assertNull(HighSpeedVideoConfiguration.select(mockCameraProperties, 120, size1080p));
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.media.CamcorderProfile;
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.media.MediaRecorder;
+import android.view.Surface;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+public class MediaCodecRecorderBuilderTest {
+  private MediaCodecRecorderBuilder.MediaCodecFactory mockFactory;
+  private MediaCodec mockCodec;
+
+  @Before
+  public void setUp() throws IOException {
+    mockFactory = mock(MediaCodecRecorderBuilder.MediaCodecFactory.class);
+    mockCodec = mock(MediaCodec.class);
+    when(mockFactory.createEncoder(any())).thenReturn(mockCodec);
+    when(mockCodec.createInputSurface()).thenReturn(mock(Surface.class));
+  }
+
+  @Config(maxSdk = 30)
+  @Test
+  public void build_shouldConfigureTheEncoderFromTheProfileLegacy() throws IOException {
+    CamcorderProfile recorderProfile = getCamcorderProfile(MediaRecorder.VideoEncoder.HEVC);
+
+    new MediaCodecRecorderBuilder(
+            recorderProfile, "mock_video_file_path", mockFactory, path -> mock(MediaMuxer.class))
+        .setVideoBitRate(8000000)
+        .setKeyFrameIntervalMs(500)
+        .build();
+
+    ArgumentCaptor<MediaFormat> formatCaptor = ArgumentCaptor.forClass(MediaFormat.class);
+    verify(mockFactory).createEncoder(MediaFormat.MIMETYPE_VIDEO_HEVC);
+    verify(mockCodec)
+        .configure(
+            formatCaptor.capture(),
+            (Surface) isNull(),
+            isNull(),
+            anyInt());
+    MediaFormat format = formatCaptor.getValue();
+    assertEquals(1920, format.getInteger(MediaFormat.KEY_WIDTH));
+    assertEquals(1080, format.getInteger(MediaFormat.KEY_HEIGHT));
+    assertEquals(8000000, format.getInteger(MediaFormat.KEY_BIT_RATE));
+    assertEquals(30, format.getInteger(MediaFormat.KEY_FRAME_RATE));
+    assertEquals(0.5f, format.getFloat(MediaFormat.KEY_I_FRAME_INTERVAL), 0);
+  }
+
+  @Config(minSdk = 23, maxSdk = 30)
+  @Test
+  public void build_shouldEncodeFromThePersistentInputSurface() throws IOException {
+    Surface mockSurface = mock(Surface.class);
+
+    MediaCodecRecorder recorder =
+        new MediaCodecRecorderBuilder(
+                getCamcorderProfile(MediaRecorder.VideoEncoder.H264),
+                "mock_video_file_path",
+                mockFactory,
+                path -> mock(MediaMuxer.class))
+            .setInputSurface(mockSurface)
+            .build();
+
+    verify(mockFactory).createEncoder(MediaFormat.MIMETYPE_VIDEO_AVC);
+    verify(mockCodec).setInputSurface(mockSurface);
+    verify(mockCodec, never()).createInputSurface();
+    assertSame(mockSurface, recorder.getSurface());
+  }
+
+  @Config(maxSdk = 30)
+  @Test
+  public void build_shouldReleaseTheEncoderWhenItCannotBeConfigured() {
+    doThrow(new IllegalArgumentException("unsupported size"))
+        .when(mockCodec)
+        .configure(any(MediaFormat.class), (Surface) isNull(), isNull(), anyInt());
+
+    try {
+      new MediaCodecRecorderBuilder(
+              getCamcorderProfile(MediaRecorder.VideoEncoder.H264),
+              "mock_video_file_path",
+              mockFactory,
+              path -> mock(MediaMuxer.class))
+          .build();
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      verify(mockCodec).release();
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private CamcorderProfile getCamcorderProfile(int videoCodec) {
+    try {
+      Constructor<CamcorderProfile> constructor =
+          CamcorderProfile.class.getDeclaredConstructor(
+              int.class, int.class, int.class, int.class, int.class, int.class, int.class,
+              int.class, int.class, int.class, int.class, int.class);
+
+      constructor.setAccessible(true);
+      return constructor.newInstance(
+          0, 0, 0, videoCodec, 12000000, 30, 1920, 1080, 0, 96000, 48000, 1);
+    } catch (Exception ignored) {
+    }
+
+    return null;
+  }
+}
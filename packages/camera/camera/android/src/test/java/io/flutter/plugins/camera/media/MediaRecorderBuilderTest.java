@@ -10,6 +10,7 @@ import static org.mockito.Mockito.*;
 import android.media.CamcorderProfile;
 import android.media.EncoderProfiles;
 import android.media.MediaRecorder;
+import android.view.Surface;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.util.List;
@@ -73,6 +74,82 @@ public class MediaRecorderBuilderTest {
     inOrder.verify(recorder).prepare();
   }
 
+  @Config(maxSdk = 30)
+  @SuppressWarnings("deprecation")
+  @Test
+  public void build_shouldLimitTheFileSizeToTheSegmentDurationLegacy() throws IOException {
+    CamcorderProfile recorderProfile = getEmptyCamcorderProfile();
+    recorderProfile.videoBitRate = 8000000;
+    recorderProfile.audioBitRate = 128000;
+    MediaRecorderBuilder.MediaRecorderFactory mockFactory =
+        mock(MediaRecorderBuilder.MediaRecorderFactory.class);
+    MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
+    MediaRecorderBuilder builder =
+        new MediaRecorderBuilder(recorderProfile, "mock_video_file_path", mockFactory)
+            .setEnableAudio(true)
+            .setSegmentDurationMs(10000);
+
+    when(mockFactory.makeMediaRecorder()).thenReturn(mockMediaRecorder);
+
+    MediaRecorder recorder = builder.build();
+
+    InOrder inOrder = inOrder(recorder);
+    inOrder.verify(recorder).setOutputFile("mock_video_file_path");
+    inOrder.verify(recorder).setMaxFileSize(10160000L);
+    inOrder.verify(recorder).prepare();
+  }
+
+  @Config(maxSdk = 30)
+  @SuppressWarnings("deprecation")
+  @Test
+  public void build_shouldRecordTheHighSpeedVideoLegacy() throws IOException {
+    CamcorderProfile recorderProfile = getEmptyCamcorderProfile();
+    recorderProfile.videoBitRate = 10000000;
+    recorderProfile.videoFrameRate = 30;
+    recorderProfile.videoFrameWidth = 1920;
+    recorderProfile.videoFrameHeight = 1080;
+    MediaRecorderBuilder.MediaRecorderFactory mockFactory =
+        mock(MediaRecorderBuilder.MediaRecorderFactory.class);
+    MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
+    MediaRecorderBuilder builder =
+        new MediaRecorderBuilder(recorderProfile, "mock_video_file_path", mockFactory)
+            .setHighSpeedVideo(1280, 720, 120);
+
+    when(mockFactory.makeMediaRecorder()).thenReturn(mockMediaRecorder);
+
+    MediaRecorder recorder = builder.build();
+
+    InOrder inOrder = inOrder(recorder);
+    // The pixel rate of 720p at 120 fps is 16/9 of the one of 1080p at 30 fps.
+    inOrder.verify(recorder).setVideoEncodingBitRate(17777777);
+    inOrder.verify(recorder).setVideoFrameRate(120);
+    inOrder.verify(recorder).setVideoSize(1280, 720);
+    inOrder.verify(recorder).prepare();
+  }
+
+  @Config(minSdk = 23, maxSdk = 30)
+  @SuppressWarnings("deprecation")
+  @Test
+  public void build_shouldSetThePersistentInputSurfaceBeforePreparing() throws IOException {
+    CamcorderProfile recorderProfile = getEmptyCamcorderProfile();
+    MediaRecorderBuilder.MediaRecorderFactory mockFactory =
+        mock(MediaRecorderBuilder.MediaRecorderFactory.class);
+    MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
+    Surface mockSurface = mock(Surface.class);
+    MediaRecorderBuilder builder =
+        new MediaRecorderBuilder(recorderProfile, "mock_video_file_path", mockFactory)
+            .setInputSurface(mockSurface);
+
+    when(mockFactory.makeMediaRecorder()).thenReturn(mockMediaRecorder);
+
+    MediaRecorder recorder = builder.build();
+
+    InOrder inOrder = inOrder(recorder);
+    inOrder.verify(recorder).setVideoSource(MediaRecorder.VideoSource.SURFACE);
+    inOrder.verify(recorder).setInputSurface(mockSurface);
+    inOrder.verify(recorder).prepare();
+  }
+
   @Config(minSdk = 31)
   @Test
   public void build_shouldSetValuesInCorrectOrderWhenAudioIsDisabled() throws IOException {
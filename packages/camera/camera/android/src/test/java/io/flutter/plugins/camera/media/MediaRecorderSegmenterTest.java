@@ -0,0 +1,90 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import android.media.MediaRecorder;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(minSdk = 26)
+public class MediaRecorderSegmenterTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private MediaRecorder mockRecorder;
+  private RollingRecording.Listener mockListener;
+  private File firstFile;
+  private MediaRecorderSegmenter segmenter;
+
+  @Before
+  public void setUp() throws IOException {
+    mockRecorder = mock(MediaRecorder.class);
+    mockListener = mock(RollingRecording.Listener.class);
+    firstFile = temporaryFolder.newFile("first.mp4");
+    segmenter =
+        new MediaRecorderSegmenter(
+            mockRecorder,
+            firstFile,
+            new RollingRecording(temporaryFolder.getRoot(), 0, mockListener));
+  }
+
+  @Test
+  public void start_shouldSetTheNextOutputFileAhead() throws IOException {
+    verify(mockRecorder).setOnInfoListener(segmenter);
+
+    segmenter.start();
+
+    verify(mockRecorder).setNextOutputFile(any(File.class));
+    verify(mockListener, never()).onSegmentFinished(any(), anyInt(), anyLong(), anyList());
+  }
+
+  @Test
+  public void onInfo_shouldReportTheFinishedSegmentWhenTheNextOneStarted() throws IOException {
+    segmenter.start();
+    ArgumentCaptor<File> nextFileCaptor = ArgumentCaptor.forClass(File.class);
+    verify(mockRecorder).setNextOutputFile(nextFileCaptor.capture());
+
+    segmenter.onInfo(mockRecorder, MediaRecorder.MEDIA_RECORDER_INFO_NEXT_OUTPUT_FILE_STARTED, 0);
+
+    verify(mockListener)
+        .onSegmentFinished(eq(firstFile.getAbsolutePath()), eq(0), anyLong(), anyList());
+    assertEquals(nextFileCaptor.getValue(), segmenter.finish());
+  }
+
+  @Test
+  public void finish_shouldDeleteTheUnusedNextFile() throws IOException {
+    segmenter.start();
+    ArgumentCaptor<File> nextFileCaptor = ArgumentCaptor.forClass(File.class);
+    verify(mockRecorder).setNextOutputFile(nextFileCaptor.capture());
+
+    File lastFile = segmenter.finish();
+
+    assertEquals(firstFile, lastFile);
+    assertNotEquals(firstFile, nextFileCaptor.getValue());
+    assertFalse(nextFileCaptor.getValue().exists());
+    verify(mockListener)
+        .onSegmentFinished(eq(firstFile.getAbsolutePath()), eq(0), anyLong(), anyList());
+  }
+}
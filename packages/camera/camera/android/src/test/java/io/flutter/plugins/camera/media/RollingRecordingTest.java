@@ -0,0 +1,79 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RollingRecordingTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private RollingRecording.Listener mockListener;
+
+  @Before
+  public void setUp() {
+    mockListener = mock(RollingRecording.Listener.class);
+  }
+
+  @Test
+  public void nextFile_shouldCreateTheSegmentInTheDirectory() throws IOException {
+    RollingRecording recording = new RollingRecording(temporaryFolder.getRoot(), 2, mockListener);
+
+    File file = recording.nextFile();
+
+    assertTrue(file.exists());
+    assertEquals(temporaryFolder.getRoot(), file.getParentFile());
+  }
+
+  @Test
+  public void onSegmentFinished_shouldDeleteTheOldestSegmentsBeyondTheMaximum() throws IOException {
+    RollingRecording recording = new RollingRecording(temporaryFolder.getRoot(), 2, mockListener);
+    File first = recording.nextFile();
+    File second = recording.nextFile();
+    File third = recording.nextFile();
+
+    recording.onSegmentFinished(first, 1000);
+    recording.onSegmentFinished(second, 2000);
+    recording.onSegmentFinished(third, 3000);
+
+    assertFalse(first.exists());
+    assertTrue(second.exists());
+    assertTrue(third.exists());
+    verify(mockListener)
+        .onSegmentFinished(
+            eq(first.getAbsolutePath()), eq(0), eq(1000L), eq(Collections.emptyList()));
+    verify(mockListener)
+        .onSegmentFinished(
+            eq(third.getAbsolutePath()),
+            eq(2),
+            eq(3000L),
+            eq(Collections.singletonList(first.getAbsolutePath())));
+  }
+
+  @Test
+  public void onSegmentFinished_shouldKeepEverySegmentWithoutMaximum() throws IOException {
+    RollingRecording recording = new RollingRecording(temporaryFolder.getRoot(), 0, mockListener);
+    File first = recording.nextFile();
+    File second = recording.nextFile();
+
+    recording.onSegmentFinished(first, 1000);
+    recording.onSegmentFinished(second, 1000);
+
+    assertTrue(first.exists());
+    assertTrue(second.exists());
+  }
+}
@@ -0,0 +1,212 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class SegmentedMuxerTest {
+  private static final File FIRST_FILE = new File("first.mp4");
+  private static final File SECOND_FILE = new File("second.mp4");
+
+  private final List<MediaMuxer> createdMuxers = new ArrayList<>();
+  private final List<String> createdPaths = new ArrayList<>();
+  private final List<Long> writtenTimestamps = new ArrayList<>();
+  private final ByteBuffer buffer = ByteBuffer.allocate(16);
+  private SegmentedMuxer.Listener mockListener;
+  private MediaFormat videoFormat;
+  private SegmentedMuxer muxer;
+
+  @Before
+  public void setUp() {
+    mockListener = mock(SegmentedMuxer.Listener.class);
+    videoFormat = mock(MediaFormat.class);
+    muxer =
+        new SegmentedMuxer(
+            FIRST_FILE,
+            false,
+            90,
+            path -> {
+              MediaMuxer segmentMuxer = mock(MediaMuxer.class);
+              when(segmentMuxer.addTrack(any())).thenReturn(0);
+              // The muxer reuses its BufferInfo, so the timestamps are recorded when written.
+              doAnswer(
+                      invocation -> {
+                        MediaCodec.BufferInfo info = invocation.getArgument(2);
+                        writtenTimestamps.add(info.presentationTimeUs);
+                        return null;
+                      })
+                  .when(segmentMuxer)
+                  .writeSampleData(anyInt(), any(), any());
+              createdMuxers.add(segmentMuxer);
+              createdPaths.add(path);
+              return segmentMuxer;
+            },
+            mockListener);
+    muxer.setVideoFormat(videoFormat);
+  }
+
+  @Test
+  public void writeVideo_shouldStartTheFirstSegmentWithAKeyFrame() throws IOException {
+    muxer.writeVideo(buffer, videoSample(1000, true));
+
+    assertEquals(1, createdMuxers.size());
+    assertEquals(FIRST_FILE.getAbsolutePath(), createdPaths.get(0));
+    InOrder inOrder = inOrder(createdMuxers.get(0));
+    inOrder.verify(createdMuxers.get(0)).setOrientationHint(90);
+    inOrder.verify(createdMuxers.get(0)).addTrack(videoFormat);
+    inOrder.verify(createdMuxers.get(0)).start();
+    inOrder.verify(createdMuxers.get(0)).writeSampleData(eq(0), eq(buffer), any());
+  }
+
+  @Test
+  public void writeVideo_shouldRequestAKeyFrameInsteadOfStartingWithADeltaFrame()
+      throws IOException {
+    muxer.writeVideo(buffer, videoSample(1000, false));
+    muxer.writeVideo(buffer, videoSample(2000, false));
+
+    assertEquals(0, createdMuxers.size());
+    verify(mockListener, times(1)).onSyncFrameRequested();
+  }
+
+  @Test
+  public void writeVideo_shouldDropSamplesThatDoNotIncreaseTheTimestamp() throws IOException {
+    muxer.writeVideo(buffer, videoSample(2000, true));
+    muxer.writeVideo(buffer, videoSample(2000, false));
+    muxer.writeVideo(buffer, videoSample(1000, false));
+
+    verify(createdMuxers.get(0), times(1)).writeSampleData(anyInt(), any(), any());
+  }
+
+  @Test
+  public void writeVideo_shouldStartANewSegmentAtTheFirstKeyFrameAfterTheDuration()
+      throws IOException {
+    muxer.setSegmentDuration(1000000, () -> SECOND_FILE);
+
+    muxer.writeVideo(buffer, videoSample(0, true));
+    muxer.writeVideo(buffer, videoSample(1000000, false));
+    verify(mockListener).onSyncFrameRequested();
+    assertEquals(1, createdMuxers.size());
+
+    muxer.writeVideo(buffer, videoSample(1033000, true));
+
+    assertEquals(2, createdMuxers.size());
+    assertEquals(SECOND_FILE.getAbsolutePath(), createdPaths.get(1));
+    verify(createdMuxers.get(0)).stop();
+    verify(createdMuxers.get(0)).release();
+    verify(mockListener).onSegmentFinished(FIRST_FILE, 1000000);
+    assertEquals(SECOND_FILE, muxer.getCurrentFile());
+  }
+
+  @Test
+  public void rollover_shouldContinueInTheNewFileAtTheNextKeyFrame() throws IOException {
+    muxer.writeVideo(buffer, videoSample(0, true));
+
+    muxer.rollover(SECOND_FILE);
+    muxer.writeVideo(buffer, videoSample(33000, false));
+
+    verify(mockListener).onSyncFrameRequested();
+    assertEquals(1, createdMuxers.size());
+
+    muxer.writeVideo(buffer, videoSample(66000, true));
+
+    assertEquals(2, createdMuxers.size());
+    assertEquals(SECOND_FILE.getAbsolutePath(), createdPaths.get(1));
+    verify(mockListener).onSegmentFinished(FIRST_FILE, 33000);
+  }
+
+  @Test
+  public void resume_shouldRemoveThePauseFromTheFollowingTimestamps() throws IOException {
+    muxer.writeVideo(buffer, videoSample(1000000, true));
+    muxer.pause(1100000);
+    muxer.resume(1600000);
+
+    muxer.writeVideo(buffer, videoSample(1633000, false));
+
+    assertEquals(Arrays.asList(1000000L, 1133000L), writtenTimestamps);
+  }
+
+  @Test
+  public void writeAudio_shouldDropSamplesBeforeTheFirstVideoFrame() throws IOException {
+    MediaFormat audioFormat = mock(MediaFormat.class);
+    SegmentedMuxer audioMuxer =
+        new SegmentedMuxer(
+            FIRST_FILE,
+            true,
+            0,
+            path -> {
+              MediaMuxer segmentMuxer = mock(MediaMuxer.class);
+              when(segmentMuxer.addTrack(audioFormat)).thenReturn(1);
+              createdMuxers.add(segmentMuxer);
+              return segmentMuxer;
+            },
+            mockListener);
+    audioMuxer.setAudioFormat(audioFormat);
+
+    audioMuxer.writeVideo(buffer, videoSample(1000, true));
+    assertEquals(0, createdMuxers.size());
+
+    audioMuxer.setVideoFormat(videoFormat);
+    audioMuxer.writeAudio(buffer, sample(500, 0));
+    audioMuxer.writeVideo(buffer, videoSample(2000, true));
+    audioMuxer.writeAudio(buffer, sample(2500, 0));
+
+    verify(createdMuxers.get(0), times(1)).writeSampleData(eq(1), any(), any());
+  }
+
+  @Test
+  public void finish_shouldReturnNullWhenNoFrameWasWritten() {
+    assertNull(muxer.finish());
+    verify(mockListener, never()).onSegmentFinished(any(), anyLong());
+  }
+
+  @Test
+  public void finish_shouldIgnoreSamplesWrittenAfterwards() throws IOException {
+    muxer.writeVideo(buffer, videoSample(0, true));
+
+    assertEquals(FIRST_FILE, muxer.finish());
+    muxer.writeVideo(buffer, videoSample(33000, true));
+
+    assertEquals(1, createdMuxers.size());
+    verify(mockListener).onSegmentFinished(FIRST_FILE, 0);
+  }
+
+  private static MediaCodec.BufferInfo videoSample(long timestampUs, boolean keyFrame) {
+    return sample(timestampUs, keyFrame ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0);
+  }
+
+  private static MediaCodec.BufferInfo sample(long timestampUs, int flags) {
+    MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    info.offset = 0;
+    info.size = 16;
+    info.presentationTimeUs = timestampUs;
+    info.flags = flags;
+    return info;
+  }
+}
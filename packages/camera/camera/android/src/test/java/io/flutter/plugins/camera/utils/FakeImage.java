@@ -0,0 +1,135 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.utils;
+
+import android.media.Image;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link Image} backed by direct buffers, for code that is measured and so can not use mocks,
+ * which record and allocate on every call.
+ */
+public class FakeImage extends Image {
+  private final int format;
+  private final int width;
+  private final int height;
+  private final Plane[] planes;
+  private long timestamp;
+
+  /**
+   * Creates a frame with the given planes.
+   *
+   * @param format the {@link android.graphics.ImageFormat} of the frame.
+   * @param width the width of the frame, in pixels.
+   * @param height the height of the frame, in pixels.
+   * @param buffers the plane buffers, rewound every time {@link #getPlanes} is called.
+   * @param rowStrides the row stride of every plane.
+   * @param pixelStrides the pixel stride of every plane.
+   */
+  public FakeImage(
+      int format,
+      int width,
+      int height,
+      ByteBuffer[] buffers,
+      int[] rowStrides,
+      int[] pixelStrides) {
+    this.format = format;
+    this.width = width;
+    this.height = height;
+    this.planes = new Plane[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      planes[i] = new FakePlane(buffers[i], rowStrides[i], pixelStrides[i]);
+    }
+  }
+
+  /** Creates a semi-planar YUV_420_888 frame whose chroma buffers overlap, like most HALs do. */
+  public static FakeImage yuv420(int width, int height) {
+    return new FakeImage(
+        0x23, // ImageFormat.YUV_420_888
+        width,
+        height,
+        new ByteBuffer[] {
+          ByteBuffer.allocateDirect(width * height),
+          ByteBuffer.allocateDirect(width * height / 2 - 1),
+          ByteBuffer.allocateDirect(width * height / 2 - 1)
+        },
+        new int[] {width, width, width},
+        new int[] {1, 2, 2});
+  }
+
+  @Override
+  public int getFormat() {
+    return format;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  // Abstract on the platform, though hidden from the public SDK.
+  public int getTransform() {
+    return 0;
+  }
+
+  // Abstract on the platform, though hidden from the public SDK.
+  public int getScalingMode() {
+    return 0;
+  }
+
+  @Override
+  public Plane[] getPlanes() {
+    for (Plane plane : planes) {
+      plane.getBuffer().rewind();
+    }
+    return planes;
+  }
+
+  /** Does nothing, so the frame can be reused. */
+  @Override
+  public void close() {}
+
+  private static final class FakePlane extends Plane {
+    private final ByteBuffer buffer;
+    private final int rowStride;
+    private final int pixelStride;
+
+    FakePlane(ByteBuffer buffer, int rowStride, int pixelStride) {
+      this.buffer = buffer;
+      this.rowStride = rowStride;
+      this.pixelStride = pixelStride;
+    }
+
+    @Override
+    public int getRowStride() {
+      return rowStride;
+    }
+
+    @Override
+    public int getPixelStride() {
+      return pixelStride;
+    }
+
+    @Override
+    public ByteBuffer getBuffer() {
+      return buffer;
+    }
+  }
+}
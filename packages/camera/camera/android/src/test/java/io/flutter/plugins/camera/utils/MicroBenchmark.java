@@ -0,0 +1,121 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.utils;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Measures the time and the heap allocation per operation of a hot path, reported the way JMH
+ * reports its average time and {@code gc.alloc.rate.norm} results.
+ *
+ * <p>The operation runs on the calling thread, first for the warmup iterations so the JIT settles,
+ * then for the measured iterations. Pass {@code -Pcamera.benchmark.iterations=<n>} to Gradle to
+ * measure more iterations than the defaults, for instance before comparing two builds.
+ *
+ * <p>Only allocations are asserted on, as they do not depend on the machine running the tests. The
+ * ns/op of a result is part of the failure messages.
+ */
+public final class MicroBenchmark {
+  /** System property that overrides the number of measured iterations. */
+  public static final String ITERATIONS_PROPERTY = "camera.benchmark.iterations";
+
+  /** Reported when the JVM can not measure the allocations of a thread. */
+  public static final long UNKNOWN_BYTES = -1;
+
+  private final int warmupIterations;
+  private final int measuredIterations;
+  private final com.sun.management.ThreadMXBean threadMXBean;
+
+  /**
+   * Creates a new benchmark.
+   *
+   * @param warmupIterations operations run before measuring.
+   * @param measuredIterations operations measured, unless overridden by {@link
+   *     #ITERATIONS_PROPERTY}.
+   */
+  public MicroBenchmark(int warmupIterations, int measuredIterations) {
+    this.measuredIterations = Integer.getInteger(ITERATIONS_PROPERTY, measuredIterations);
+    this.warmupIterations = Math.max(warmupIterations, this.measuredIterations / 4);
+    final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+      threadMXBean = (com.sun.management.ThreadMXBean) bean;
+      threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    } else {
+      threadMXBean = null;
+    }
+  }
+
+  /**
+   * Runs {@code operation} and measures it.
+   *
+   * @param name the name the result is reported under.
+   * @param operation a single operation of the hot path.
+   * @return the measured cost of an operation.
+   */
+  public Result run(String name, Runnable operation) {
+    for (int i = 0; i < warmupIterations; i++) {
+      operation.run();
+    }
+
+    final long threadId = Thread.currentThread().getId();
+    final long bytesBefore = allocatedBytes(threadId);
+    final long start = System.nanoTime();
+    for (int i = 0; i < measuredIterations; i++) {
+      operation.run();
+    }
+    final long elapsed = System.nanoTime() - start;
+    final long bytesAfter = allocatedBytes(threadId);
+
+    return new Result(
+        name,
+        (double) elapsed / measuredIterations,
+        bytesBefore == UNKNOWN_BYTES
+            ? UNKNOWN_BYTES
+            : (bytesAfter - bytesBefore) / measuredIterations);
+  }
+
+  /**
+   * Fails when an operation of {@code result} allocated more than {@code bytesPerOp}, and skips the
+   * test when the JVM could not measure the allocations.
+   */
+  public static void assertAllocatesAtMost(Result result, long bytesPerOp) {
+    assumeAllocationsMeasured(result);
+    assertTrue(result + ", budget is " + bytesPerOp + " B/op", result.bytesPerOp <= bytesPerOp);
+  }
+
+  private static void assumeAllocationsMeasured(Result result) {
+    assumeTrue(result.bytesPerOp != UNKNOWN_BYTES);
+  }
+
+  private long allocatedBytes(long threadId) {
+    return threadMXBean == null ? UNKNOWN_BYTES : threadMXBean.getThreadAllocatedBytes(threadId);
+  }
+
+  /** The cost of a single operation. */
+  public static final class Result {
+    public final String name;
+    public final double nanosPerOp;
+    /** Heap bytes allocated per operation, or {@link #UNKNOWN_BYTES}. */
+    public final long bytesPerOp;
+
+    Result(String name, double nanosPerOp, long bytesPerOp) {
+      this.name = name;
+      this.nanosPerOp = nanosPerOp;
+      this.bytesPerOp = bytesPerOp;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT, "Benchmark %-50s %12.1f ns/op %12d B/op", name, nanosPerOp, bytesPerOp);
+    }
+  }
+}
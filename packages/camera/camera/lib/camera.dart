@@ -2,9 +2,16 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+export 'src/burst_capture.dart';
+export 'src/camera_capabilities.dart';
 export 'src/camera_controller.dart';
 export 'src/camera_image.dart';
 export 'src/camera_preview.dart';
+export 'src/camera_startup_metrics.dart';
+export 'src/capture_metrics.dart';
+export 'src/image_stream_options.dart';
+export 'src/picture_mirror_mode.dart' show PictureMirrorMode;
+export 'src/video_recording_options.dart';
 
 export 'package:camera_platform_interface/camera_platform_interface.dart'
     show
@@ -0,0 +1,35 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera_platform_interface/camera_platform_interface.dart';
+
+/// A single picture of a burst taken with [CameraController.takePictureBurst].
+class BurstShot {
+  /// Creates a new burst shot.
+  const BurstShot({
+    required this.file,
+    required this.sensorTimestamp,
+    required this.captureLatency,
+    required this.saveDuration,
+  });
+
+  /// Creates a burst shot from the map returned by the platform.
+  BurstShot.fromPlatformData(Map<dynamic, dynamic> data)
+      : file = XFile(data['path']),
+        sensorTimestamp = data['sensorTimestamp'],
+        captureLatency = Duration(microseconds: data['captureLatencyMicros']),
+        saveDuration = Duration(microseconds: data['saveDurationMicros']);
+
+  /// The saved picture.
+  final XFile file;
+
+  /// The sensor timestamp of the picture, in nanoseconds.
+  final int sensorTimestamp;
+
+  /// The time from the start of the burst until the picture was available.
+  final Duration captureLatency;
+
+  /// The time it took to write the picture to [file].
+  final Duration saveDuration;
+}
@@ -0,0 +1,132 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:ui';
+
+/// A range of frame rates supported by a camera, in frames per second.
+class CameraFpsRange {
+  /// Creates a new frame rate range.
+  const CameraFpsRange(this.min, this.max);
+
+  /// The lowest frame rate of the range.
+  final int min;
+
+  /// The highest frame rate of the range.
+  final int max;
+
+  @override
+  bool operator ==(Object other) =>
+      other is CameraFpsRange && other.min == min && other.max == max;
+
+  @override
+  int get hashCode => hashValues(min, max);
+
+  @override
+  String toString() => 'CameraFpsRange($min, $max)';
+}
+
+/// A size and frame rate a camera can record slow motion video at.
+///
+/// See [VideoRecordingOptions.highSpeedFrameRate].
+class HighSpeedVideoMode {
+  /// Creates a new high speed video mode.
+  const HighSpeedVideoMode(this.size, this.frameRate);
+
+  /// The size of the preview and of the recorded video.
+  final Size size;
+
+  /// The frame rate of the recording, in frames per second.
+  final int frameRate;
+
+  @override
+  bool operator ==(Object other) =>
+      other is HighSpeedVideoMode &&
+      other.size == size &&
+      other.frameRate == frameRate;
+
+  @override
+  int get hashCode => hashValues(size, frameRate);
+
+  @override
+  String toString() => 'HighSpeedVideoMode($size, $frameRate)';
+}
+
+/// The capabilities of a camera, as returned by [availableCameraCapabilities].
+///
+/// Only populated on Android, where the values come from the camera
+/// characteristics.
+class CameraCapabilities {
+  /// Creates a new set of camera capabilities.
+  const CameraCapabilities({
+    required this.name,
+    this.hardwareLevel,
+    this.fpsRanges = const <CameraFpsRange>[],
+    this.previewSizes = const <Size>[],
+    this.pictureSizes = const <Size>[],
+    this.rawPictureSizes = const <Size>[],
+    this.concurrentCameraNames = const <String>[],
+    this.highSpeedVideoModes = const <HighSpeedVideoMode>[],
+  });
+
+  /// Creates camera capabilities from the map returned by the platform.
+  factory CameraCapabilities.fromPlatformData(Map<dynamic, dynamic> data) {
+    return CameraCapabilities(
+      name: data['name'],
+      hardwareLevel: data['hardwareLevel'],
+      fpsRanges: (data['fpsRanges'] as List<dynamic>? ?? <dynamic>[])
+          .map((dynamic range) => CameraFpsRange(range[0], range[1]))
+          .toList(),
+      previewSizes: _deserializeSizes(data['previewSizes']),
+      pictureSizes: _deserializeSizes(data['pictureSizes']),
+      rawPictureSizes: _deserializeSizes(data['rawPictureSizes']),
+      concurrentCameraNames:
+          (data['concurrentCameras'] as List<dynamic>? ?? <dynamic>[])
+              .cast<String>(),
+      highSpeedVideoModes:
+          (data['highSpeedVideoModes'] as List<dynamic>? ?? <dynamic>[])
+              .map((dynamic mode) => HighSpeedVideoMode(
+                  Size(
+                      (mode[0] as int).toDouble(), (mode[1] as int).toDouble()),
+                  mode[2]))
+              .toList(),
+    );
+  }
+
+  /// The name of the camera, matching [CameraDescription.name].
+  final String name;
+
+  /// The camera2 hardware level: `legacy`, `limited`, `full`, `level3` or
+  /// `external`.
+  final String? hardwareLevel;
+
+  /// The frame rate ranges the auto exposure routine can target.
+  final List<CameraFpsRange> fpsRanges;
+
+  /// The sizes the camera can stream to the preview.
+  final List<Size> previewSizes;
+
+  /// The sizes of the JPEG pictures the camera can take.
+  final List<Size> pictureSizes;
+
+  /// The sizes of the raw pictures the camera can take, empty when the camera
+  /// can not take raw pictures, see [CameraController.takeRawPicture].
+  final List<Size> rawPictureSizes;
+
+  /// The names of the cameras that can stream at the same time as this one.
+  ///
+  /// Controllers of these cameras can be initialized together, for instance
+  /// to show a picture-in-picture preview. Creating a controller for any other
+  /// camera closes the cameras that are open. Only reported from Android 11.
+  final List<String> concurrentCameraNames;
+
+  /// The modes the camera can record slow motion video at, from Android 6.0.
+  final List<HighSpeedVideoMode> highSpeedVideoModes;
+
+  static List<Size> _deserializeSizes(List<dynamic>? sizes) {
+    return (sizes ?? <dynamic>[])
+        .map((dynamic size) =>
+            Size((size[0] as int).toDouble(), (size[1] as int).toDouble()))
+        .toList();
+  }
+}
@@ -6,6 +6,7 @@ import 'dart:async';
 import 'dart:math';
 
 import 'package:camera/camera.dart';
+import 'package:camera/src/picture_mirror_mode.dart';
 import 'package:camera_platform_interface/camera_platform_interface.dart';
 import 'package:flutter/foundation.dart';
 import 'package:flutter/material.dart';
@@ -15,12 +16,29 @@ import 'package:quiver/core.dart';
 
 final MethodChannel _channel = const MethodChannel('plugins.flutter.io/camera');
 
+/// Prefix of the image stream channels, followed by the camera id on Android.
+const String _imageStreamChannel = 'plugins.flutter.io/camera/imageStream';
+
+/// Prefix of the binary image stream channels, followed by the camera id.
+const String _imageStreamBuffersChannel =
+    'plugins.flutter.io/camera/imageStreamBuffers';
+
 /// Signature for a callback receiving the a camera image.
 ///
 /// This is used by [CameraController.startImageStream].
 // ignore: inference_failure_on_function_return_type
 typedef onLatestImageAvailable = Function(CameraImage image);
 
+/// Signature for a callback receiving the capture metrics of a camera.
+///
+/// This is used by [CameraController.startCaptureMetrics].
+typedef CaptureMetricsCallback = void Function(CaptureMetrics metrics);
+
+/// Signature for a callback receiving the finished segments of a recording.
+///
+/// This is used by [CameraController.startVideoRecording].
+typedef VideoSegmentCallback = void Function(VideoSegment segment);
+
 /// Completes with a list of available cameras.
 ///
 /// May throw a [CameraException].
@@ -28,6 +46,26 @@ Future<List<CameraDescription>> availableCameras() async {
   return CameraPlatform.instance.availableCameras();
 }
 
+/// Completes with the capabilities of the available cameras.
+///
+/// The cameras are listed in the same order as by [availableCameras]. Only
+/// Android reports capabilities; the values are cached natively for the
+/// lifetime of the process, so repeated calls are cheap.
+///
+/// May throw a [CameraException].
+Future<List<CameraCapabilities>> availableCameraCapabilities() async {
+  try {
+    final List<Map<dynamic, dynamic>>? cameras = await _channel
+        .invokeListMethod<Map<dynamic, dynamic>>('availableCameras');
+    return (cameras ?? <Map<dynamic, dynamic>>[])
+        .map((Map<dynamic, dynamic> camera) =>
+            CameraCapabilities.fromPlatformData(camera))
+        .toList();
+  } on PlatformException catch (e) {
+    throw CameraException(e.code, e.message);
+  }
+}
+
 /// The state of a [CameraController].
 class CameraValue {
   /// Creates a new camera controller state.
@@ -253,6 +291,14 @@ class CameraController extends ValueNotifier<CameraValue> {
   StreamSubscription<dynamic>? _imageStreamSubscription;
   FutureOr<bool>? _initCalled;
   StreamSubscription? _deviceOrientationSubscription;
+  MethodChannel? _captureMetricsChannel;
+  MethodChannel? _recordingChannel;
+  VideoRecordingOptions? _videoRecordingOptions;
+
+  /// Whether recordings run in the same capture session as the image stream.
+  bool get _recordsAlongsideImageStream =>
+      defaultTargetPlatform == TargetPlatform.android &&
+      _videoRecordingOptions?.backend == VideoRecordingBackend.mediaCodec;
 
   /// Checks whether [CameraController.dispose] has completed successfully.
   ///
@@ -323,11 +369,29 @@ class CameraController extends ValueNotifier<CameraValue> {
   /// Preparing audio can cause a minor delay in the CameraPreview view on iOS.
   /// If video recording is intended, calling this early eliminates this delay
   /// that would otherwise be experienced when video recording is started.
-  /// This operation is a no-op on Android and Web.
+  /// This operation is a no-op on Web.
+  ///
+  /// On Android the optional [options] select the recorder and the encoding
+  /// of the following recordings, see [VideoRecordingOptions]. With
+  /// [VideoRecordingBackend.mediaCodec] the image stream can run while
+  /// recording.
   ///
   /// Throws a [CameraException] if the prepare fails.
-  Future<void> prepareForVideoRecording() async {
-    await CameraPlatform.instance.prepareForVideoRecording();
+  Future<void> prepareForVideoRecording({VideoRecordingOptions? options}) async {
+    if (options == null || defaultTargetPlatform != TargetPlatform.android) {
+      await CameraPlatform.instance.prepareForVideoRecording();
+      return;
+    }
+    try {
+      await _channel.invokeMethod<void>(
+          'prepareForVideoRecording', <String, dynamic>{
+        'cameraId': _cameraId,
+        ...options.toPlatformArguments(),
+      });
+      _videoRecordingOptions = options;
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
   }
 
   /// Pauses the current camera preview
@@ -380,6 +444,71 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
   }
 
+  /// Captures a burst of [count] pictures.
+  ///
+  /// Focus and exposure are settled once, after which the pictures are taken
+  /// back to back and saved in parallel. The returned shots are in capture
+  /// order and include the timing of every picture.
+  ///
+  /// Throws a [CameraException] if a capture is already in progress or the
+  /// burst fails. Only available on Android.
+  Future<List<BurstShot>> takePictureBurst(int count) async {
+    _throwIfNotInitialized("takePictureBurst");
+    if (value.isTakingPicture) {
+      throw CameraException(
+        'Previous capture has not returned yet.',
+        'takePictureBurst was called before the previous capture returned.',
+      );
+    }
+    try {
+      value = value.copyWith(isTakingPicture: true);
+      final List<dynamic>? shots = await _channel.invokeListMethod<dynamic>(
+        'takePictureBurst',
+        <String, dynamic>{'cameraId': _cameraId, 'count': count},
+      );
+      value = value.copyWith(isTakingPicture: false);
+      return shots!
+          .map((dynamic shot) =>
+              BurstShot.fromPlatformData(shot as Map<dynamic, dynamic>))
+          .toList();
+    } on PlatformException catch (e) {
+      value = value.copyWith(isTakingPicture: false);
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Captures the unprocessed sensor data and returns the DNG file where it
+  /// was saved.
+  ///
+  /// Focus and exposure are settled the same way as for [takePicture]. Raw
+  /// pictures are not mirrored, see [setPictureMirrorMode].
+  ///
+  /// Throws a [CameraException] if a capture is already in progress, the
+  /// camera is recording or streaming images, or the camera has no raw
+  /// support, see [CameraCapabilities.rawPictureSizes]. Only available on
+  /// Android.
+  Future<XFile> takeRawPicture() async {
+    _throwIfNotInitialized("takeRawPicture");
+    if (value.isTakingPicture) {
+      throw CameraException(
+        'Previous capture has not returned yet.',
+        'takeRawPicture was called before the previous capture returned.',
+      );
+    }
+    try {
+      value = value.copyWith(isTakingPicture: true);
+      final String? path = await _channel.invokeMethod<String>(
+        'takeRawPicture',
+        <String, dynamic>{'cameraId': _cameraId},
+      );
+      value = value.copyWith(isTakingPicture: false);
+      return XFile(path!);
+    } on PlatformException catch (e) {
+      value = value.copyWith(isTakingPicture: false);
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Start streaming images from platform camera.
   ///
   /// Settings for capturing images on iOS and Android is set to always use the
@@ -391,17 +520,24 @@ class CameraController extends ValueNotifier<CameraValue> {
   /// devices.
   ///
   /// Throws a [CameraException] if image streaming or video recording has
-  /// already started.
+  /// already started. Recording with [VideoRecordingBackend.mediaCodec] on
+  /// Android does not prevent streaming, see [prepareForVideoRecording].
   ///
   /// The `startImageStream` method is only available on Android and iOS (other
   /// platforms won't be supported in current setup).
   ///
+  /// The optional [options] tune how frames are delivered, see
+  /// [ImageStreamOptions].
+  ///
   // TODO(bmparr): Add settings for resolution and fps.
-  Future<void> startImageStream(onLatestImageAvailable onAvailable) async {
+  Future<void> startImageStream(
+    onLatestImageAvailable onAvailable, {
+    ImageStreamOptions? options,
+  }) async {
     assert(defaultTargetPlatform == TargetPlatform.android ||
         defaultTargetPlatform == TargetPlatform.iOS);
     _throwIfNotInitialized("startImageStream");
-    if (value.isRecordingVideo) {
+    if (value.isRecordingVideo && !_recordsAlongsideImageStream) {
       throw CameraException(
         'A video recording is already started.',
         'startImageStream was called while a video is being recorded.',
@@ -415,23 +551,134 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
 
     try {
-      await _channel.invokeMethod<void>('startImageStream');
+      await _channel.invokeMethod<void>(
+          'startImageStream', <String, dynamic>{
+        'cameraId': _cameraId,
+        ...?options?.toPlatformArguments(),
+      });
       value = value.copyWith(isStreamingImages: true);
     } on PlatformException catch (e) {
       throw CameraException(e.code, e.message);
     }
-    const EventChannel cameraEventChannel = EventChannel('plugins.flutter.io/camera/imageStream');
+    if (options != null &&
+        options.useBinaryTransport &&
+        defaultTargetPlatform == TargetPlatform.android) {
+      ServicesBinding.instance!.defaultBinaryMessenger.setMessageHandler(
+        '$_imageStreamBuffersChannel$_cameraId',
+        (ByteData? data) async {
+          if (data != null) {
+            // Replying to the message acknowledges the frame.
+            await _handleStreamedImage(
+                onAvailable, CameraImage.fromBinaryData(data));
+          }
+          return null;
+        },
+      );
+      return;
+    }
+    // Android streams every camera on a channel of its own.
+    final EventChannel cameraEventChannel = EventChannel(
+        defaultTargetPlatform == TargetPlatform.android
+            ? '$_imageStreamChannel$_cameraId'
+            : _imageStreamChannel);
+    // Only Android limits the frames in flight, other platforms ignore the
+    // option and have no handler for the acknowledgements.
+    final bool acknowledgeFrames = options?.maxFramesInFlight != null &&
+        defaultTargetPlatform == TargetPlatform.android;
     _imageStreamSubscription = cameraEventChannel.receiveBroadcastStream().listen(
-      (dynamic imageData) {
-        onAvailable(CameraImage.fromPlatformData(imageData));
+      (dynamic imageData) async {
+        await _handleStreamedImage(
+            onAvailable, CameraImage.fromPlatformData(imageData));
+        if (acknowledgeFrames) {
+          await _channel.invokeMethod<void>('receivedImageStreamData',
+              <String, dynamic>{'cameraId': _cameraId});
+        }
       },
     );
   }
 
+  Future<void> _handleStreamedImage(
+      onLatestImageAvailable onAvailable, CameraImage image) async {
+    final dynamic result = onAvailable(image);
+    if (result is Future) {
+      await result;
+    }
+  }
+
+  /// Returns the frame counters of the current image stream.
+  ///
+  /// Only available on Android.
+  Future<ImageStreamStatistics> getImageStreamStatistics() async {
+    _throwIfNotInitialized("getImageStreamStatistics");
+    try {
+      final Map<dynamic, dynamic>? statistics = await _channel
+          .invokeMapMethod<dynamic, dynamic>('getImageStreamStatistics',
+              <String, dynamic>{'cameraId': _cameraId});
+      return ImageStreamStatistics.fromPlatformData(statistics!);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Returns how long the camera took to show its first preview frame.
+  ///
+  /// Only available on Android.
+  Future<CameraStartupMetrics> getStartupMetrics() async {
+    _throwIfNotInitialized("getStartupMetrics");
+    try {
+      final Map<dynamic, dynamic>? metrics =
+          await _channel.invokeMapMethod<dynamic, dynamic>(
+              'getStartupMetrics', <String, dynamic>{'cameraId': _cameraId});
+      return CameraStartupMetrics.fromPlatformData(metrics!);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Starts collecting capture metrics.
+  ///
+  /// [onMetrics] is called about once per second with a summary of the frames
+  /// the camera captured, until [stopCaptureMetrics] is called or the
+  /// controller is disposed.
+  ///
+  /// Only available on Android.
+  Future<void> startCaptureMetrics(CaptureMetricsCallback onMetrics) async {
+    _throwIfNotInitialized("startCaptureMetrics");
+    final MethodChannel channel =
+        MethodChannel('flutter.io/cameraPlugin/metrics$_cameraId');
+    channel.setMethodCallHandler((MethodCall call) async {
+      if (call.method == 'capture_metrics') {
+        onMetrics(CaptureMetrics.fromPlatformData(call.arguments));
+      }
+    });
+    _captureMetricsChannel?.setMethodCallHandler(null);
+    _captureMetricsChannel = channel;
+    try {
+      await _channel.invokeMethod<void>(
+          'startCaptureMetrics', <String, dynamic>{'cameraId': _cameraId});
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Stops collecting capture metrics.
+  Future<void> stopCaptureMetrics() async {
+    _throwIfNotInitialized("stopCaptureMetrics");
+    _captureMetricsChannel?.setMethodCallHandler(null);
+    _captureMetricsChannel = null;
+    try {
+      await _channel.invokeMethod<void>(
+          'stopCaptureMetrics', <String, dynamic>{'cameraId': _cameraId});
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Stop streaming images from platform camera.
   ///
   /// Throws a [CameraException] if image streaming was not started or video
-  /// recording was started.
+  /// recording was started, unless it records with
+  /// [VideoRecordingBackend.mediaCodec] on Android.
   ///
   /// The `stopImageStream` method is only available on Android and iOS (other
   /// platforms won't be supported in current setup).
@@ -439,7 +686,7 @@ class CameraController extends ValueNotifier<CameraValue> {
     assert(defaultTargetPlatform == TargetPlatform.android ||
         defaultTargetPlatform == TargetPlatform.iOS);
     _throwIfNotInitialized("stopImageStream");
-    if (value.isRecordingVideo) {
+    if (value.isRecordingVideo && !_recordsAlongsideImageStream) {
       throw CameraException(
         'A video recording is already started.',
         'stopImageStream was called while a video is being recorded.',
@@ -454,11 +701,14 @@ class CameraController extends ValueNotifier<CameraValue> {
 
     try {
       value = value.copyWith(isStreamingImages: false);
-      await _channel.invokeMethod<void>('stopImageStream');
+      await _channel.invokeMethod<void>(
+          'stopImageStream', <String, dynamic>{'cameraId': _cameraId});
     } on PlatformException catch (e) {
       throw CameraException(e.code, e.message);
     }
 
+    ServicesBinding.instance!.defaultBinaryMessenger
+        .setMessageHandler('$_imageStreamBuffersChannel$_cameraId', null);
     await _imageStreamSubscription?.cancel();
     _imageStreamSubscription = null;
   }
@@ -467,7 +717,11 @@ class CameraController extends ValueNotifier<CameraValue> {
   ///
   /// The video is returned as a [XFile] after calling [stopVideoRecording].
   /// Throws a [CameraException] if the capture fails.
-  Future<void> startVideoRecording() async {
+  ///
+  /// When the recording is split into segments, see
+  /// [VideoRecordingOptions.segmentDuration], [onSegment] is called with every
+  /// finished segment, including the last one. Only available on Android.
+  Future<void> startVideoRecording({VideoSegmentCallback? onSegment}) async {
     _throwIfNotInitialized("startVideoRecording");
     if (value.isRecordingVideo) {
       throw CameraException(
@@ -475,13 +729,28 @@ class CameraController extends ValueNotifier<CameraValue> {
         'startVideoRecording was called when a recording is already started.',
       );
     }
-    if (value.isStreamingImages) {
+    if (value.isStreamingImages && !_recordsAlongsideImageStream) {
       throw CameraException(
         'A camera has started streaming images.',
         'startVideoRecording was called while a camera was streaming images.',
       );
     }
 
+    _recordingChannel?.setMethodCallHandler(null);
+    _recordingChannel = null;
+    if (onSegment != null) {
+      // The handler stays registered after the recording stops, as the last
+      // segment is reported after stopVideoRecording returns.
+      final MethodChannel channel =
+          MethodChannel('flutter.io/cameraPlugin/recording$_cameraId');
+      channel.setMethodCallHandler((MethodCall call) async {
+        if (call.method == 'video_segment') {
+          onSegment(VideoSegment.fromPlatformData(call.arguments));
+        }
+      });
+      _recordingChannel = channel;
+    }
+
     try {
       await CameraPlatform.instance.startVideoRecording(_cameraId);
       value = value.copyWith(
@@ -496,6 +765,8 @@ class CameraController extends ValueNotifier<CameraValue> {
 
   /// Stops the video recording and returns the file where it was saved.
   ///
+  /// Returns the last segment when the recording is split into segments.
+  ///
   /// Throws a [CameraException] if the capture failed.
   Future<XFile> stopVideoRecording() async {
     _throwIfNotInitialized("stopVideoRecording");
@@ -609,6 +880,57 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
   }
 
+  /// Sets how pictures taken with a front facing camera are mirrored.
+  ///
+  /// Only available on Android, defaults to [PictureMirrorMode.exif].
+  Future<void> setPictureMirrorMode(PictureMirrorMode mode) async {
+    try {
+      await _channel.invokeMethod<void>(
+        'setPictureMirrorMode',
+        <String, dynamic>{
+          'cameraId': _cameraId,
+          'mode': serializePictureMirrorMode(mode),
+        },
+      );
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Sets whether saved pictures are flushed to the storage device before
+  /// they are returned.
+  ///
+  /// Syncing makes pictures survive a crash right after they were taken, at
+  /// the cost of a longer save. Only available on Android, disabled by
+  /// default.
+  Future<void> setSyncPicturesToDisk(bool enabled) async {
+    try {
+      await _channel.invokeMethod<void>(
+        'setSyncPicturesToDisk',
+        <String, dynamic>{'cameraId': _cameraId, 'enabled': enabled},
+      );
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Sets whether cameras are opened as soon as they are created.
+  ///
+  /// When enabled, which is the default, Android opens the camera device and
+  /// starts the preview while [initialize] is still on its way to the
+  /// platform. Disable it to only open the camera when it is initialized, for
+  /// instance when controllers are created long before they are used.
+  static Future<void> setPrewarmOnCreate(bool enabled) async {
+    try {
+      await _channel.invokeMethod<void>(
+        'setPrewarmOnCreate',
+        <String, dynamic>{'enabled': enabled},
+      );
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Sets the exposure mode for taking pictures.
   Future<void> setExposureMode(ExposureMode mode) async {
     try {
@@ -619,6 +941,66 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
   }
 
+  /// Applies several camera controls at once.
+  ///
+  /// The controls take effect on the same frame, with a single request to the
+  /// camera. Controls that are `null` are left untouched, set
+  /// [resetExposurePoint] or [resetFocusPoint] to reset a metering point to
+  /// its default value. This is meant for continuous gestures, such as pinch to
+  /// zoom, that change several controls per frame.
+  ///
+  /// Unlike [setExposureOffset], [exposureOffset] is neither validated nor
+  /// rounded to the step size.
+  ///
+  /// Only available on Android.
+  Future<void> setCameraControls({
+    double? zoomLevel,
+    double? exposureOffset,
+    ExposureMode? exposureMode,
+    Offset? exposurePoint,
+    bool resetExposurePoint = false,
+    FocusMode? focusMode,
+    Offset? focusPoint,
+    bool resetFocusPoint = false,
+    FlashMode? flashMode,
+  }) async {
+    _throwIfNotInitialized("setCameraControls");
+    for (final Offset? point in <Offset?>[exposurePoint, focusPoint]) {
+      if (point != null &&
+          (point.dx < 0 || point.dx > 1 || point.dy < 0 || point.dy > 1)) {
+        throw ArgumentError(
+            'The values of point should be anywhere between (0,0) and (1,1).');
+      }
+    }
+    final Map<String, dynamic> arguments = <String, dynamic>{
+      'cameraId': _cameraId,
+      if (zoomLevel != null) 'zoomLevel': zoomLevel,
+      if (exposureOffset != null) 'exposureOffset': exposureOffset,
+      if (exposureMode != null)
+        'exposureMode': serializeExposureMode(exposureMode),
+      if (exposurePoint != null)
+        'exposurePoint': <double>[exposurePoint.dx, exposurePoint.dy]
+      else if (resetExposurePoint)
+        'exposurePoint': null,
+      if (focusMode != null) 'focusMode': serializeFocusMode(focusMode),
+      if (focusPoint != null)
+        'focusPoint': <double>[focusPoint.dx, focusPoint.dy]
+      else if (resetFocusPoint)
+        'focusPoint': null,
+      if (flashMode != null) 'flashMode': describeEnum(flashMode),
+    };
+    try {
+      await _channel.invokeMethod<void>('setCameraControls', arguments);
+      value = value.copyWith(
+        exposureMode: exposureMode,
+        focusMode: focusMode,
+        flashMode: flashMode,
+      );
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Sets the exposure point for automatically determining the exposure value.
   ///
   /// Supplying a `null` value will reset the exposure point to it's default
@@ -781,6 +1163,8 @@ class CameraController extends ValueNotifier<CameraValue> {
       return;
     }
     unawaited(_deviceOrientationSubscription?.cancel());
+    _captureMetricsChannel?.setMethodCallHandler(null);
+    _recordingChannel?.setMethodCallHandler(null);
     _isDisposed = true;
     super.dispose();
     if (_initCalled != null) {
@@ -20,6 +20,16 @@ class Plane {
         height = data['height'],
         width = data['width'];
 
+  Plane._fromBinaryData(ByteData data, int descriptorOffset)
+      : bytes = data.buffer.asUint8List(
+            data.offsetInBytes +
+                data.getInt32(descriptorOffset, Endian.little),
+            data.getInt32(descriptorOffset + 4, Endian.little)),
+        bytesPerRow = data.getInt32(descriptorOffset + 8, Endian.little),
+        bytesPerPixel = data.getInt32(descriptorOffset + 12, Endian.little),
+        height = null,
+        width = null;
+
   /// Bytes representing this plane.
   final Uint8List bytes;
 
@@ -106,6 +116,23 @@ class CameraImage {
         planes = List<Plane>.unmodifiable(data['planes']
             .map((dynamic planeData) => Plane._fromPlatformData(planeData)));
 
+  /// Creates a [CameraImage] from a frame sent through the binary image stream
+  /// transport on Android.
+  ///
+  /// The plane bytes are views on [data] and are not copied. See
+  /// `ImageStreamFrameEncoder` in the Android implementation for the layout.
+  CameraImage.fromBinaryData(ByteData data)
+      : format = ImageFormat._fromPlatformData(data.getInt32(12, Endian.little)),
+        width = data.getInt32(4, Endian.little),
+        height = data.getInt32(8, Endian.little),
+        sensorSensitivity = _binarySensorSensitivity(data),
+        sensorExposureTime = _binarySensorExposureTime(data),
+        lensAperture = _binaryLensAperture(data),
+        planes = List<Plane>.unmodifiable(List<Plane>.generate(
+            data.getInt32(16, Endian.little),
+            (int index) => Plane._fromBinaryData(
+                data, _binaryFrameHeaderSize + index * _binaryPlaneHeaderSize)));
+
   /// Format of the image provided.
   ///
   /// Determines the number of planes needed to represent the image, and
@@ -140,3 +167,21 @@ class CameraImage {
   /// The sensor sensitivity in standard ISO arithmetic units.
   final double? sensorSensitivity;
 }
+
+const int _binaryFrameHeaderSize = 48;
+const int _binaryPlaneHeaderSize = 16;
+
+double? _binarySensorSensitivity(ByteData data) {
+  final int sensitivity = data.getInt32(20, Endian.little);
+  return sensitivity < 0 ? null : sensitivity.toDouble();
+}
+
+int? _binarySensorExposureTime(ByteData data) {
+  final int exposureTime = data.getInt64(32, Endian.little);
+  return exposureTime < 0 ? null : exposureTime;
+}
+
+double? _binaryLensAperture(ByteData data) {
+  final double aperture = data.getFloat64(40, Endian.little);
+  return aperture.isNaN ? null : aperture;
+}
@@ -0,0 +1,54 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// How long a camera took from its creation until its first preview frame.
+///
+/// Every duration is measured from the moment the camera was created and is
+/// `null` when the milestone was not reached yet.
+class CameraStartupMetrics {
+  /// Creates new startup metrics.
+  const CameraStartupMetrics({
+    required this.prewarmed,
+    this.initialize,
+    this.deviceOpened,
+    this.sessionConfigured,
+    this.firstFrame,
+    this.firstFrameAfterInitialize,
+  });
+
+  /// Creates startup metrics from the map returned by the platform.
+  CameraStartupMetrics.fromPlatformData(Map<dynamic, dynamic> data)
+      : prewarmed = data['prewarmed'],
+        initialize = _deserializeDuration(data['initializeMicros']),
+        deviceOpened = _deserializeDuration(data['deviceOpenedMicros']),
+        sessionConfigured =
+            _deserializeDuration(data['sessionConfiguredMicros']),
+        firstFrame = _deserializeDuration(data['firstFrameMicros']),
+        firstFrameAfterInitialize =
+            _deserializeDuration(data['firstFrameAfterInitializeMicros']);
+
+  /// Whether the camera was opened when it was created rather than when it
+  /// was initialized.
+  final bool prewarmed;
+
+  /// When [CameraController.initialize] reached the platform.
+  final Duration? initialize;
+
+  /// When the camera device was opened.
+  final Duration? deviceOpened;
+
+  /// When the preview capture session was configured.
+  final Duration? sessionConfigured;
+
+  /// When the first preview frame was captured.
+  final Duration? firstFrame;
+
+  /// The time from [initialize] until the first preview frame, which is zero
+  /// when a prewarmed camera showed its first frame before it was initialized.
+  final Duration? firstFrameAfterInitialize;
+
+  static Duration? _deserializeDuration(int? micros) {
+    return micros == null ? null : Duration(microseconds: micros);
+  }
+}
@@ -0,0 +1,75 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// A summary of the capture results of a camera over a short window, as
+/// reported to [CameraController.startCaptureMetrics].
+class CaptureMetrics {
+  /// Creates new capture metrics.
+  const CaptureMetrics({
+    required this.window,
+    required this.frameCount,
+    required this.fps,
+    required this.jitter,
+    required this.droppedFrames,
+    required this.failedCaptures,
+    this.afConvergence,
+    this.aeConvergence,
+    this.streamFrameCount = 0,
+    this.streamLatency,
+    this.streamLatencyMax,
+  });
+
+  /// Creates capture metrics from the map sent by the platform.
+  CaptureMetrics.fromPlatformData(Map<dynamic, dynamic> data)
+      : window = Duration(microseconds: data['windowMicros']),
+        frameCount = data['frameCount'],
+        fps = data['fps'],
+        jitter = Duration(microseconds: (data['jitterMicros'] as num).round()),
+        droppedFrames = data['droppedFrames'],
+        failedCaptures = data['failedCaptures'],
+        afConvergence = _deserializeDuration(data['afConvergenceMicros']),
+        aeConvergence = _deserializeDuration(data['aeConvergenceMicros']),
+        streamFrameCount = data['streamFrameCount'] ?? 0,
+        streamLatency = _deserializeDuration(data['streamLatencyMicros']),
+        streamLatencyMax = _deserializeDuration(data['streamLatencyMaxMicros']);
+
+  /// The time covered by this summary, measured on the sensor clock.
+  final Duration window;
+
+  /// The number of frames captured during [window].
+  final int frameCount;
+
+  /// The average frame rate during [window].
+  final double fps;
+
+  /// The standard deviation of the time between two frames.
+  final Duration jitter;
+
+  /// The number of frames missing from the sensor timeline.
+  final int droppedFrames;
+
+  /// The number of captures the camera reported as failed.
+  final int failedCaptures;
+
+  /// How long the last auto focus search took to settle, if one settled.
+  final Duration? afConvergence;
+
+  /// How long the last auto exposure search took to settle, if one settled.
+  final Duration? aeConvergence;
+
+  /// The number of image stream frames delivered during [window].
+  final int streamFrameCount;
+
+  /// The average time from capture until an image stream frame was handed to
+  /// the platform thread, `null` when no frame was streamed.
+  final Duration? streamLatency;
+
+  /// The longest time from capture until an image stream frame was handed to
+  /// the platform thread, `null` when no frame was streamed.
+  final Duration? streamLatencyMax;
+
+  static Duration? _deserializeDuration(int? micros) {
+    return micros == null ? null : Duration(microseconds: micros);
+  }
+}
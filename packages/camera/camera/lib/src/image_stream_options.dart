@@ -0,0 +1,137 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:math' show Rectangle;
+
+/// Selects which image planes the image stream delivers on Android.
+enum ImageStreamPlaneMode {
+  /// The Y, U and V planes of the YUV_420_888 frame.
+  all,
+
+  /// Only the Y (luminance) plane, reported with the Y8 format.
+  luminance,
+
+  /// A single plane holding the Y plane followed by interleaved V/U samples,
+  /// reported with the NV21 format.
+  nv21,
+}
+
+/// Options that control how [CameraController.startImageStream] delivers
+/// frames.
+///
+/// Currently only honored on Android, other platforms ignore them.
+class ImageStreamOptions {
+  /// Creates a new set of image stream options.
+  const ImageStreamOptions({
+    this.useBinaryTransport = false,
+    this.bufferCount,
+    this.maxFramesInFlight,
+    this.cropRect,
+    this.targetWidth,
+    this.targetHeight,
+    this.planeMode = ImageStreamPlaneMode.all,
+  });
+
+  /// Whether frames are sent as a single binary message backed by a pool of
+  /// reusable native buffers, instead of being encoded as a map per frame.
+  ///
+  /// This removes the per-frame native allocations of the image stream.
+  final bool useBinaryTransport;
+
+  /// The number of native buffers used when [useBinaryTransport] is enabled.
+  ///
+  /// Frames are dropped while all buffers are waiting to be delivered. Uses
+  /// the platform default when null.
+  final int? bufferCount;
+
+  /// The maximum number of frames that may be waiting on the image stream
+  /// callback before new frames are dropped.
+  ///
+  /// A frame is considered handled once the callback returns, or once the
+  /// future it returns completes. When the limit is reached the platform drops
+  /// incoming frames and continues with the most recent one, so a slow
+  /// consumer does not build up latency. When null every frame is delivered.
+  final int? maxFramesInFlight;
+
+  /// The region of the sensor frame, in pixels, that is delivered.
+  ///
+  /// The rectangle is clamped to the frame and aligned to even coordinates.
+  /// The whole frame is delivered when null.
+  final Rectangle<int>? cropRect;
+
+  /// The maximum width of the delivered frames.
+  ///
+  /// Larger frames are downsampled natively before they are copied to Dart.
+  /// Frames are never upscaled.
+  final int? targetWidth;
+
+  /// The maximum height of the delivered frames.
+  ///
+  /// Larger frames are downsampled natively before they are copied to Dart.
+  /// Frames are never upscaled.
+  final int? targetHeight;
+
+  /// The image planes that are delivered.
+  ///
+  /// Frames of the reduced modes report an unknown format group, use the raw
+  /// value of the image format to tell them apart.
+  final ImageStreamPlaneMode planeMode;
+
+  /// Converts the options to the arguments of the `startImageStream` call.
+  Map<String, dynamic> toPlatformArguments() {
+    return <String, dynamic>{
+      'useBinaryTransport': useBinaryTransport,
+      if (bufferCount != null) 'bufferCount': bufferCount,
+      if (maxFramesInFlight != null) 'maxFramesInFlight': maxFramesInFlight,
+      if (cropRect != null) ...<String, dynamic>{
+        'cropLeft': cropRect!.left,
+        'cropTop': cropRect!.top,
+        'cropWidth': cropRect!.width,
+        'cropHeight': cropRect!.height,
+      },
+      if (targetWidth != null) 'targetWidth': targetWidth,
+      if (targetHeight != null) 'targetHeight': targetHeight,
+      if (planeMode != ImageStreamPlaneMode.all)
+        'planeMode': _serializePlaneMode(planeMode),
+    };
+  }
+}
+
+String _serializePlaneMode(ImageStreamPlaneMode planeMode) {
+  switch (planeMode) {
+    case ImageStreamPlaneMode.all:
+      return 'all';
+    case ImageStreamPlaneMode.luminance:
+      return 'luminance';
+    case ImageStreamPlaneMode.nv21:
+      return 'nv21';
+  }
+}
+
+/// Frame counters of the current image stream.
+///
+/// See [CameraController.getImageStreamStatistics].
+class ImageStreamStatistics {
+  /// Creates a new set of image stream statistics.
+  const ImageStreamStatistics({
+    required this.deliveredFrames,
+    required this.droppedFrames,
+    required this.framesInFlight,
+  });
+
+  /// Creates the statistics from the map returned by the platform.
+  ImageStreamStatistics.fromPlatformData(Map<dynamic, dynamic> data)
+      : deliveredFrames = data['deliveredFrames'],
+        droppedFrames = data['droppedFrames'],
+        framesInFlight = data['framesInFlight'];
+
+  /// The number of frames handed to the image stream callback.
+  final int deliveredFrames;
+
+  /// The number of frames dropped because the callback was still busy.
+  final int droppedFrames;
+
+  /// The number of frames that were delivered but not handled yet.
+  final int framesInFlight;
+}
@@ -0,0 +1,35 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// How pictures taken with a front facing camera are mirrored on Android.
+enum PictureMirrorMode {
+  /// The picture is saved as the sensor captured it.
+  none,
+
+  /// The picture is mirrored by changing its EXIF orientation.
+  ///
+  /// The encoded image is written once without being decoded. Viewers that
+  /// honor the EXIF orientation show the picture mirrored. This is the
+  /// default.
+  exif,
+
+  /// The picture is decoded, mirrored and encoded again.
+  ///
+  /// Use this when the pixels themselves have to be mirrored, for example
+  /// for consumers that ignore the EXIF orientation. Saving takes
+  /// considerably longer and needs memory for the decoded picture.
+  pixels,
+}
+
+/// Returns the platform string value of a [PictureMirrorMode].
+String serializePictureMirrorMode(PictureMirrorMode mode) {
+  switch (mode) {
+    case PictureMirrorMode.none:
+      return 'none';
+    case PictureMirrorMode.exif:
+      return 'exif';
+    case PictureMirrorMode.pixels:
+      return 'pixels';
+  }
+}
@@ -0,0 +1,135 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera_platform_interface/camera_platform_interface.dart';
+
+/// Selects the recorder used for video recordings on Android.
+enum VideoRecordingBackend {
+  /// The platform `MediaRecorder`.
+  ///
+  /// Recording and image streaming cannot run at the same time.
+  mediaRecorder,
+
+  /// A hardware `MediaCodec` encoder fed from the capture session.
+  ///
+  /// The image stream can be started and stopped while recording, without
+  /// reconfiguring the camera.
+  mediaCodec,
+}
+
+/// Options that control how [CameraController.startVideoRecording] records.
+///
+/// Pass them to [CameraController.prepareForVideoRecording] before starting
+/// the recording. Currently only honored on Android, other platforms ignore
+/// them.
+class VideoRecordingOptions {
+  /// Creates a new set of video recording options.
+  const VideoRecordingOptions({
+    this.backend = VideoRecordingBackend.mediaRecorder,
+    this.videoBitRate,
+    this.keyFrameInterval,
+    this.segmentDuration,
+    this.maxSegmentCount,
+    this.highSpeedFrameRate,
+  });
+
+  /// The recorder used for the following recordings.
+  final VideoRecordingBackend backend;
+
+  /// The video bitrate in bits per second.
+  ///
+  /// Uses the bitrate of the resolution preset when null.
+  final int? videoBitRate;
+
+  /// The time between two video key frames.
+  ///
+  /// Only applies to [VideoRecordingBackend.mediaCodec]. Uses one second when
+  /// null.
+  final Duration? keyFrameInterval;
+
+  /// The duration of the files a rolling recording is split into.
+  ///
+  /// Every finished segment is reported to the `onSegment` callback of
+  /// [CameraController.startVideoRecording], and
+  /// [CameraController.stopVideoRecording] returns the last one. With
+  /// [VideoRecordingBackend.mediaCodec] a segment ends at the first key frame
+  /// after this duration. [VideoRecordingBackend.mediaRecorder] can only split
+  /// files by size, so the duration is converted to a size from the bitrate
+  /// and requires Android 8.0. A single file is recorded when null.
+  final Duration? segmentDuration;
+
+  /// The number of finished segments of a rolling recording kept on disk.
+  ///
+  /// The oldest segments are deleted once more segments were recorded. Every
+  /// segment is kept when null.
+  final int? maxSegmentCount;
+
+  /// The frame rate of a slow motion recording, for instance 120 or 240.
+  ///
+  /// The camera records in a constrained high speed session at one of its
+  /// [CameraCapabilities.highSpeedVideoModes], using the largest size that
+  /// fits the resolution preset. The preview is shown at the same size while
+  /// recording, and pictures cannot be taken. Only applies to
+  /// [VideoRecordingBackend.mediaRecorder] and requires Android 6.0. Records
+  /// at the frame rate of the resolution preset when null.
+  final int? highSpeedFrameRate;
+
+  /// Converts the options to the arguments of the `prepareForVideoRecording`
+  /// call.
+  Map<String, dynamic> toPlatformArguments() {
+    return <String, dynamic>{
+      'backend': _serializeBackend(backend),
+      if (videoBitRate != null) 'videoBitRate': videoBitRate,
+      if (keyFrameInterval != null)
+        'keyFrameIntervalMs': keyFrameInterval!.inMilliseconds,
+      if (segmentDuration != null)
+        'segmentDurationMs': segmentDuration!.inMilliseconds,
+      if (maxSegmentCount != null) 'maxSegmentCount': maxSegmentCount,
+      if (highSpeedFrameRate != null) 'highSpeedFrameRate': highSpeedFrameRate,
+    };
+  }
+}
+
+String _serializeBackend(VideoRecordingBackend backend) {
+  switch (backend) {
+    case VideoRecordingBackend.mediaRecorder:
+      return 'mediaRecorder';
+    case VideoRecordingBackend.mediaCodec:
+      return 'mediaCodec';
+  }
+}
+
+/// A finished segment of a rolling recording.
+///
+/// See [VideoRecordingOptions.segmentDuration].
+class VideoSegment {
+  /// Creates a new video segment.
+  const VideoSegment({
+    required this.file,
+    required this.index,
+    required this.duration,
+    this.deletedFiles = const <XFile>[],
+  });
+
+  /// Creates the segment from the map sent by the platform.
+  VideoSegment.fromPlatformData(Map<dynamic, dynamic> data)
+      : file = XFile(data['path']),
+        index = data['index'],
+        duration = Duration(microseconds: data['durationMicros']),
+        deletedFiles = (data['deletedPaths'] as List<dynamic>)
+            .map((dynamic path) => XFile(path as String))
+            .toList();
+
+  /// The file of the segment.
+  final XFile file;
+
+  /// The position of the segment in the recording, starting at 0.
+  final int index;
+
+  /// The approximate duration of the segment.
+  final Duration duration;
+
+  /// The files of older segments that were deleted to make room for this one.
+  final List<XFile> deletedFiles;
+}
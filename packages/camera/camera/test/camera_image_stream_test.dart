@@ -2,8 +2,13 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:math' show Rectangle;
+import 'dart:typed_data';
+
 import 'package:camera/camera.dart';
 import 'package:camera_platform_interface/camera_platform_interface.dart';
+import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
 
 import 'camera_test.dart';
@@ -91,7 +96,7 @@ void main() {
         channelName: 'plugins.flutter.io/camera',
         methods: {'startImageStream': {}});
     MethodChannelMock streamChannelMock = MethodChannelMock(
-        channelName: 'plugins.flutter.io/camera/imageStream',
+        channelName: 'plugins.flutter.io/camera/imageStream$mockInitializeCamera',
         methods: {'listen': {}});
 
     CameraController cameraController = CameraController(
@@ -104,12 +109,192 @@ void main() {
 
     await cameraController.startImageStream((image) => null);
 
-    expect(cameraChannelMock.log,
-        <Matcher>[isMethodCall('startImageStream', arguments: null)]);
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startImageStream',
+          arguments: <String, dynamic>{'cameraId': mockInitializeCamera})
+    ]);
     expect(streamChannelMock.log,
         <Matcher>[isMethodCall('listen', arguments: null)]);
   });
 
+  test('startImageStream() passes options to CameraPlatform', () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'startImageStream': {}});
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    await cameraController.startImageStream((image) => null,
+        options: const ImageStreamOptions(
+            useBinaryTransport: true, bufferCount: 2));
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startImageStream', arguments: <String, dynamic>{
+        'cameraId': mockInitializeCamera,
+        'useBinaryTransport': true,
+        'bufferCount': 2,
+      })
+    ]);
+  });
+
+  test('startImageStream() passes crop and downsampling options', () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'startImageStream': {}});
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    await cameraController.startImageStream((image) => null,
+        options: const ImageStreamOptions(
+            cropRect: Rectangle<int>(10, 20, 640, 480),
+            targetWidth: 320,
+            targetHeight: 240,
+            planeMode: ImageStreamPlaneMode.luminance));
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startImageStream', arguments: <String, dynamic>{
+        'cameraId': mockInitializeCamera,
+        'useBinaryTransport': false,
+        'cropLeft': 10,
+        'cropTop': 20,
+        'cropWidth': 640,
+        'cropHeight': 480,
+        'targetWidth': 320,
+        'targetHeight': 240,
+        'planeMode': 'luminance',
+      })
+    ]);
+  });
+
+  group('startImageStream() with maxFramesInFlight', () {
+    Future<void> sendFrame(String channelName) async {
+      await ServicesBinding.instance!.defaultBinaryMessenger
+          .handlePlatformMessage(
+              channelName,
+              const StandardMethodCodec()
+                  .encodeSuccessEnvelope(<String, dynamic>{
+                'format': 35,
+                'height': 1,
+                'width': 4,
+                'planes': <dynamic>[
+                  <String, dynamic>{
+                    'bytes': Uint8List.fromList(<int>[1, 2, 3, 4]),
+                    'bytesPerPixel': 1,
+                    'bytesPerRow': 4,
+                  }
+                ],
+              }),
+              (ByteData? data) {});
+      await pumpEventQueue();
+    }
+
+    tearDown(() {
+      debugDefaultTargetPlatformOverride = null;
+    });
+
+    test('acknowledges every handled frame on Android', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'startImageStream': {}, 'receivedImageStreamData': null});
+      MethodChannelMock(
+          channelName:
+              'plugins.flutter.io/camera/imageStream$mockInitializeCamera',
+          methods: {'listen': {}});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      await cameraController.startImageStream((image) => null,
+          options: const ImageStreamOptions(maxFramesInFlight: 1));
+      await sendFrame(
+          'plugins.flutter.io/camera/imageStream$mockInitializeCamera');
+
+      expect(cameraChannelMock.log.last,
+          isMethodCall('receivedImageStreamData', arguments: <String, dynamic>{
+        'cameraId': mockInitializeCamera,
+      }));
+    });
+
+    test('does not acknowledge frames on other platforms', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'startImageStream': {}});
+      MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera/imageStream',
+          methods: {'listen': {}});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+      int receivedFrames = 0;
+
+      await cameraController.startImageStream((image) => receivedFrames++,
+          options: const ImageStreamOptions(maxFramesInFlight: 1));
+      await sendFrame('plugins.flutter.io/camera/imageStream');
+
+      expect(receivedFrames, 1);
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('startImageStream', arguments: <String, dynamic>{
+          'cameraId': mockInitializeCamera,
+          'useBinaryTransport': false,
+          'maxFramesInFlight': 1,
+        })
+      ]);
+    });
+  });
+
+  test('getImageStreamStatistics() returns the platform counters', () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {
+          'getImageStreamStatistics': <String, dynamic>{
+            'deliveredFrames': 10,
+            'droppedFrames': 3,
+            'framesInFlight': 1,
+          }
+        });
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    ImageStreamStatistics statistics =
+        await cameraController.getImageStreamStatistics();
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('getImageStreamStatistics',
+          arguments: <String, dynamic>{'cameraId': mockInitializeCamera})
+    ]);
+    expect(statistics.deliveredFrames, 10);
+    expect(statistics.droppedFrames, 3);
+    expect(statistics.framesInFlight, 1);
+  });
+
   test('stopImageStream() throws $CameraException when uninitialized', () {
     CameraController cameraController = CameraController(
         CameraDescription(
@@ -182,7 +367,7 @@ void main() {
         channelName: 'plugins.flutter.io/camera',
         methods: {'startImageStream': {}, 'stopImageStream': {}});
     MethodChannelMock streamChannelMock = MethodChannelMock(
-        channelName: 'plugins.flutter.io/camera/imageStream',
+        channelName: 'plugins.flutter.io/camera/imageStream$mockInitializeCamera',
         methods: {'listen': {}, 'cancel': {}});
 
     CameraController cameraController = CameraController(
@@ -196,8 +381,10 @@ void main() {
     await cameraController.stopImageStream();
 
     expect(cameraChannelMock.log, <Matcher>[
-      isMethodCall('startImageStream', arguments: null),
-      isMethodCall('stopImageStream', arguments: null)
+      isMethodCall('startImageStream',
+          arguments: <String, dynamic>{'cameraId': mockInitializeCamera}),
+      isMethodCall('stopImageStream',
+          arguments: <String, dynamic>{'cameraId': mockInitializeCamera})
     ]);
 
     expect(streamChannelMock.log, <Matcher>[
@@ -125,5 +125,56 @@ void main() {
       });
       expect(cameraImage.format.group, ImageFormatGroup.unknown);
     });
+
+    test('$CameraImage can be created from binary data', () {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      final ByteData data = ByteData(48 + 16 + 4);
+      data.setInt32(0, 1, Endian.little);
+      data.setInt32(4, 4, Endian.little);
+      data.setInt32(8, 1, Endian.little);
+      data.setInt32(12, 35, Endian.little);
+      data.setInt32(16, 1, Endian.little);
+      data.setInt32(20, 92, Endian.little);
+      data.setInt64(24, 0, Endian.little);
+      data.setInt64(32, 9991324, Endian.little);
+      data.setFloat64(40, 1.8, Endian.little);
+      data.setInt32(48, 64, Endian.little);
+      data.setInt32(52, 4, Endian.little);
+      data.setInt32(56, 4, Endian.little);
+      data.setInt32(60, 1, Endian.little);
+      for (int i = 0; i < 4; i++) {
+        data.setUint8(64 + i, i + 1);
+      }
+
+      CameraImage cameraImage = CameraImage.fromBinaryData(data);
+
+      expect(cameraImage.width, 4);
+      expect(cameraImage.height, 1);
+      expect(cameraImage.format.group, ImageFormatGroup.yuv420);
+      expect(cameraImage.sensorSensitivity, 92.0);
+      expect(cameraImage.sensorExposureTime, 9991324);
+      expect(cameraImage.lensAperture, 1.8);
+      expect(cameraImage.planes.length, 1);
+      expect(cameraImage.planes[0].bytes, <int>[1, 2, 3, 4]);
+      expect(cameraImage.planes[0].bytesPerRow, 4);
+      expect(cameraImage.planes[0].bytesPerPixel, 1);
+    });
+
+    test('$CameraImage from binary data treats unknown capture values as null',
+        () {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      final ByteData data = ByteData(48);
+      data.setInt32(12, 35, Endian.little);
+      data.setInt32(20, -1, Endian.little);
+      data.setInt64(32, -1, Endian.little);
+      data.setFloat64(40, double.nan, Endian.little);
+
+      CameraImage cameraImage = CameraImage.fromBinaryData(data);
+
+      expect(cameraImage.sensorSensitivity, isNull);
+      expect(cameraImage.sensorExposureTime, isNull);
+      expect(cameraImage.lensAperture, isNull);
+      expect(cameraImage.planes, isEmpty);
+    });
   });
 }
@@ -15,6 +15,8 @@ import 'package:flutter_test/flutter_test.dart';
 import 'package:mockito/mockito.dart';
 import 'package:plugin_platform_interface/plugin_platform_interface.dart';
 
+import 'utils/method_channel_mock.dart';
+
 get mockAvailableCameras => [
       CameraDescription(
           name: 'camBack',
@@ -205,6 +207,99 @@ void main() {
       verify(CameraPlatform.instance.prepareForVideoRecording()).called(1);
     });
 
+    test('prepareForVideoRecording() sends the recording options on Android',
+        () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'prepareForVideoRecording': null});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      await cameraController.prepareForVideoRecording(
+          options: VideoRecordingOptions(
+        backend: VideoRecordingBackend.mediaCodec,
+        videoBitRate: 8000000,
+        keyFrameInterval: Duration(milliseconds: 500),
+        segmentDuration: Duration(seconds: 10),
+        maxSegmentCount: 3,
+        highSpeedFrameRate: 120,
+      ));
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('prepareForVideoRecording', arguments: <String, dynamic>{
+          'cameraId': mockInitializeCamera,
+          'backend': 'mediaCodec',
+          'videoBitRate': 8000000,
+          'keyFrameIntervalMs': 500,
+          'segmentDurationMs': 10000,
+          'maxSegmentCount': 3,
+          'highSpeedFrameRate': 120,
+        })
+      ]);
+      verifyNever(CameraPlatform.instance.prepareForVideoRecording());
+    });
+
+    test(
+        'startVideoRecording() records while streaming images with the mediaCodec backend',
+        () async {
+      MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'prepareForVideoRecording': null});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+      await cameraController.prepareForVideoRecording(
+          options: VideoRecordingOptions(
+              backend: VideoRecordingBackend.mediaCodec));
+      cameraController.value =
+          cameraController.value.copyWith(isStreamingImages: true);
+
+      await cameraController.startVideoRecording();
+
+      expect(cameraController.value.isRecordingVideo, isTrue);
+      expect(cameraController.value.isStreamingImages, isTrue);
+    });
+
+    test('startVideoRecording() forwards the finished segments', () async {
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+      final List<VideoSegment> received = <VideoSegment>[];
+
+      await cameraController.startVideoRecording(onSegment: received.add);
+      await ServicesBinding.instance!.defaultBinaryMessenger
+          .handlePlatformMessage(
+              'flutter.io/cameraPlugin/recording$mockInitializeCamera',
+              const StandardMethodCodec().encodeMethodCall(
+                  MethodCall('video_segment', <String, dynamic>{
+                'path': '/tmp/REC2.mp4',
+                'index': 2,
+                'durationMicros': 5000000,
+                'deletedPaths': <String>['/tmp/REC0.mp4'],
+              })),
+              (ByteData? data) {});
+
+      expect(received, hasLength(1));
+      expect(received.first.file.path, '/tmp/REC2.mp4');
+      expect(received.first.index, 2);
+      expect(received.first.duration, const Duration(seconds: 5));
+      expect(received.first.deletedFiles.map((XFile file) => file.path),
+          <String>['/tmp/REC0.mp4']);
+    });
+
     test('takePicture() throws $CameraException when uninitialized ', () async {
       CameraController cameraController = CameraController(
           CameraDescription(
@@ -285,6 +380,307 @@ void main() {
       mockPlatformException = false;
     });
 
+    test('availableCameraCapabilities() parses the platform reply', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {
+            'availableCameras': <dynamic>[
+              <String, dynamic>{
+                'name': '0',
+                'lensFacing': 'back',
+                'sensorOrientation': 90,
+                'hardwareLevel': 'full',
+                'fpsRanges': <dynamic>[
+                  <int>[15, 30],
+                  <int>[30, 30],
+                ],
+                'previewSizes': <dynamic>[
+                  <int>[1920, 1080],
+                ],
+                'pictureSizes': <dynamic>[
+                  <int>[4000, 3000],
+                ],
+                'rawPictureSizes': <dynamic>[
+                  <int>[4032, 3024],
+                ],
+                'concurrentCameras': <dynamic>['1'],
+                'highSpeedVideoModes': <dynamic>[
+                  <int>[1280, 720, 240],
+                ],
+              },
+            ]
+          });
+
+      List<CameraCapabilities> capabilities =
+          await availableCameraCapabilities();
+
+      expect(cameraChannelMock.log,
+          <Matcher>[isMethodCall('availableCameras', arguments: null)]);
+      expect(capabilities.length, 1);
+      expect(capabilities[0].name, '0');
+      expect(capabilities[0].hardwareLevel, 'full');
+      expect(capabilities[0].fpsRanges,
+          <CameraFpsRange>[CameraFpsRange(15, 30), CameraFpsRange(30, 30)]);
+      expect(capabilities[0].previewSizes, <Size>[Size(1920, 1080)]);
+      expect(capabilities[0].pictureSizes, <Size>[Size(4000, 3000)]);
+      expect(capabilities[0].rawPictureSizes, <Size>[Size(4032, 3024)]);
+      expect(capabilities[0].concurrentCameraNames, <String>['1']);
+      expect(capabilities[0].highSpeedVideoModes,
+          <HighSpeedVideoMode>[HighSpeedVideoMode(Size(1280, 720), 240)]);
+    });
+
+    test('takePictureBurst() returns the shots of the burst', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {
+            'takePictureBurst': <dynamic>[
+              <String, dynamic>{
+                'path': '/tmp/CAP1.jpg',
+                'sensorTimestamp': 100,
+                'captureLatencyMicros': 40000,
+                'saveDurationMicros': 12000,
+              },
+              <String, dynamic>{
+                'path': '/tmp/CAP2.jpg',
+                'sensorTimestamp': 200,
+                'captureLatencyMicros': 73000,
+                'saveDurationMicros': 11000,
+              },
+            ]
+          });
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      List<BurstShot> shots = await cameraController.takePictureBurst(2);
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('takePictureBurst', arguments: <String, dynamic>{
+          'cameraId': mockInitializeCamera,
+          'count': 2,
+        })
+      ]);
+      expect(shots.length, 2);
+      expect(shots[1].file.path, '/tmp/CAP2.jpg');
+      expect(shots[1].sensorTimestamp, 200);
+      expect(shots[1].captureLatency, const Duration(milliseconds: 73));
+      expect(shots[1].saveDuration, const Duration(milliseconds: 11));
+      expect(cameraController.value.isTakingPicture, isFalse);
+    });
+
+    test('takeRawPicture() returns the DNG file', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'takeRawPicture': '/tmp/CAP1.dng'});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      XFile file = await cameraController.takeRawPicture();
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('takeRawPicture', arguments: <String, dynamic>{
+          'cameraId': mockInitializeCamera,
+        })
+      ]);
+      expect(file.path, '/tmp/CAP1.dng');
+      expect(cameraController.value.isTakingPicture, isFalse);
+    });
+
+    test('setPictureMirrorMode() calls the platform', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'setPictureMirrorMode': null});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.front,
+              sensorOrientation: 270),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      await cameraController.setPictureMirrorMode(PictureMirrorMode.pixels);
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('setPictureMirrorMode', arguments: <String, dynamic>{
+          'cameraId': mockInitializeCamera,
+          'mode': 'pixels',
+        })
+      ]);
+    });
+
+    test('setSyncPicturesToDisk() calls the platform', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'setSyncPicturesToDisk': null});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      await cameraController.setSyncPicturesToDisk(true);
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('setSyncPicturesToDisk', arguments: <String, dynamic>{
+          'cameraId': mockInitializeCamera,
+          'enabled': true,
+        })
+      ]);
+    });
+
+    test('getStartupMetrics() parses the platform reply', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {
+            'getStartupMetrics': <String, dynamic>{
+              'prewarmed': true,
+              'initializeMicros': 90000,
+              'deviceOpenedMicros': 60000,
+              'sessionConfiguredMicros': 110000,
+              'firstFrameMicros': 150000,
+              'firstFrameAfterInitializeMicros': 60000,
+            }
+          });
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      CameraStartupMetrics metrics = await cameraController.getStartupMetrics();
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('getStartupMetrics',
+            arguments: <String, dynamic>{'cameraId': mockInitializeCamera})
+      ]);
+      expect(metrics.prewarmed, isTrue);
+      expect(metrics.deviceOpened, const Duration(milliseconds: 60));
+      expect(metrics.firstFrame, const Duration(milliseconds: 150));
+      expect(
+          metrics.firstFrameAfterInitialize, const Duration(milliseconds: 60));
+    });
+
+    test('setPrewarmOnCreate() calls the platform', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'setPrewarmOnCreate': null});
+
+      await CameraController.setPrewarmOnCreate(false);
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('setPrewarmOnCreate',
+            arguments: <String, dynamic>{'enabled': false})
+      ]);
+    });
+
+    test('setCameraControls() sends only the changed controls', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'setCameraControls': null});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      await cameraController.setCameraControls(
+        zoomLevel: 2.0,
+        exposureMode: ExposureMode.locked,
+        focusPoint: const Offset(0.25, 0.5),
+        resetExposurePoint: true,
+        flashMode: FlashMode.torch,
+      );
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('setCameraControls', arguments: <String, dynamic>{
+          'cameraId': mockInitializeCamera,
+          'zoomLevel': 2.0,
+          'exposureMode': 'locked',
+          'exposurePoint': null,
+          'focusPoint': <double>[0.25, 0.5],
+          'flashMode': 'torch',
+        })
+      ]);
+      expect(cameraController.value.exposureMode, ExposureMode.locked);
+      expect(cameraController.value.flashMode, FlashMode.torch);
+    });
+
+    test('setCameraControls() throws $ArgumentError for invalid points',
+        () async {
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+
+      expect(
+          () => cameraController.setCameraControls(
+              exposurePoint: const Offset(1.5, 0.5)),
+          throwsA(isA<ArgumentError>()));
+    });
+
+    test('startCaptureMetrics() forwards platform summaries', () async {
+      MethodChannelMock cameraChannelMock = MethodChannelMock(
+          channelName: 'plugins.flutter.io/camera',
+          methods: {'startCaptureMetrics': null, 'stopCaptureMetrics': null});
+      CameraController cameraController = CameraController(
+          CameraDescription(
+              name: 'cam',
+              lensDirection: CameraLensDirection.back,
+              sensorOrientation: 90),
+          ResolutionPreset.max);
+      await cameraController.initialize();
+      final List<CaptureMetrics> received = <CaptureMetrics>[];
+
+      await cameraController.startCaptureMetrics(received.add);
+      await ServicesBinding.instance!.defaultBinaryMessenger
+          .handlePlatformMessage(
+              'flutter.io/cameraPlugin/metrics$mockInitializeCamera',
+              const StandardMethodCodec().encodeMethodCall(
+                  MethodCall('capture_metrics', <String, dynamic>{
+                'windowMicros': 1000000,
+                'frameCount': 30,
+                'fps': 30.0,
+                'jitterMicros': 1500.4,
+                'droppedFrames': 1,
+                'failedCaptures': 0,
+                'aeConvergenceMicros': 200000,
+              })),
+              (ByteData? data) {});
+      await cameraController.stopCaptureMetrics();
+
+      expect(cameraChannelMock.log, <Matcher>[
+        isMethodCall('startCaptureMetrics',
+            arguments: <String, dynamic>{'cameraId': mockInitializeCamera}),
+        isMethodCall('stopCaptureMetrics',
+            arguments: <String, dynamic>{'cameraId': mockInitializeCamera}),
+      ]);
+      expect(received, hasLength(1));
+      expect(received.first.fps, 30.0);
+      expect(received.first.jitter, const Duration(microseconds: 1500));
+      expect(received.first.droppedFrames, 1);
+      expect(received.first.afConvergence, isNull);
+      expect(received.first.aeConvergence, const Duration(milliseconds: 200));
+      expect(received.first.streamLatency, isNull);
+    });
+
     test('startVideoRecording() throws $CameraException when uninitialized',
         () async {
       CameraController cameraController = CameraController(
@@ -26,28 +26,89 @@ package io.flutter.plugins.imagepicker;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 import android.webkit.MimeTypeMap;
+import androidx.annotation.Nullable;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 class FileUtils {
+  /** Number of bytes copied between two progress reports. */
+  private static final long PROGRESS_INTERVAL_BYTES = 1024 * 1024;
+
+  /** Size of the buffer used when the picked content is not backed by a file. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** Buffers reused by the copies made on the same thread, such as the pooled worker threads. */
+  private static final ThreadLocal<byte[]> BUFFERS =
+      new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+          return new byte[BUFFER_SIZE];
+        }
+      };
+
+  /** Receives the progress of {@link #getPathFromUri}, on the thread making the copy. */
+  interface ProgressListener {
+    /**
+     * Called every {@link #PROGRESS_INTERVAL_BYTES} copied bytes, and once the copy is complete.
+     *
+     * @param copiedBytes the number of bytes copied so far.
+     * @param totalBytes the size of the content, or -1 when it is not known yet. Equals {@code
+     *     copiedBytes} on the last call.
+     */
+    void onProgress(long copiedBytes, long totalBytes);
+  }
 
   String getPathFromUri(final Context context, final Uri uri) {
+    return getPathFromUri(context, uri, null);
+  }
+
+  /**
+   * Returns the path of a readable file with the content of {@code uri}.
+   *
+   * <p>The content is always copied to the cache directory, even for a {@code file} uri, so callers
+   * can delete or overwrite the returned file without touching the picked one. It is copied
+   * straight between the file descriptors when the content is backed by a file, and through a
+   * buffer otherwise.
+   *
+   * @return the path of the file, or {@code null} when the content could not be read.
+   */
+  String getPathFromUri(
+      final Context context, final Uri uri, @Nullable final ProgressListener listener) {
     File file = null;
     InputStream inputStream = null;
-    OutputStream outputStream = null;
+    FileOutputStream outputStream = null;
     boolean success = false;
     try {
       String extension = getImageExtension(context, uri);
-      inputStream = context.getContentResolver().openInputStream(uri);
+      ParcelFileDescriptor descriptor = openFileDescriptor(context, uri);
+      inputStream =
+          descriptor != null
+              ? new ParcelFileDescriptor.AutoCloseInputStream(descriptor)
+              : context.getContentResolver().openInputStream(uri);
       file = File.createTempFile("image_picker", extension, context.getCacheDir());
       file.deleteOnExit();
       outputStream = new FileOutputStream(file);
       if (inputStream != null) {
-        copy(inputStream, outputStream);
+        long totalBytes = descriptor != null ? descriptor.getStatSize() : -1;
+        long copiedBytes = 0;
+        if (totalBytes >= 0) {
+          // Pipes and sockets have no size, only regular files can be transferred in the kernel.
+          copiedBytes =
+              transfer(
+                  ((FileInputStream) inputStream).getChannel(),
+                  outputStream.getChannel(),
+                  totalBytes,
+                  listener);
+        }
+        copy(inputStream, outputStream, copiedBytes, totalBytes, listener);
         success = true;
       }
     } catch (IOException ignored) {
@@ -68,6 +129,16 @@ class FileUtils {
     return success ? file.getPath() : null;
   }
 
+  /** @return the file descriptor of the content, or null when the provider only offers a stream. */
+  @Nullable
+  private static ParcelFileDescriptor openFileDescriptor(Context context, Uri uri) {
+    try {
+      return context.getContentResolver().openFileDescriptor(uri, "r");
+    } catch (FileNotFoundException | SecurityException | UnsupportedOperationException e) {
+      return null;
+    }
+  }
+
   /** @return extension of image with dot, or default .jpg if it none. */
   private static String getImageExtension(Context context, Uri uriImage) {
     String extension = null;
@@ -94,12 +165,60 @@ class FileUtils {
     return "." + extension;
   }
 
-  private static void copy(InputStream in, OutputStream out) throws IOException {
-    final byte[] buffer = new byte[4 * 1024];
+  /**
+   * Transfers up to {@code totalBytes} from {@code in} to {@code out} without copying them through
+   * the Java heap, and leaves {@code in} positioned after the transferred bytes.
+   *
+   * @return the number of bytes transferred, less than {@code totalBytes} if the content shrank.
+   */
+  private static long transfer(
+      FileChannel in, FileChannel out, long totalBytes, @Nullable ProgressListener listener)
+      throws IOException {
+    long position = in.position();
+    long copiedBytes = 0;
+    while (copiedBytes < totalBytes) {
+      long transferred =
+          in.transferTo(
+              position + copiedBytes,
+              Math.min(PROGRESS_INTERVAL_BYTES, totalBytes - copiedBytes),
+              out);
+      if (transferred <= 0) {
+        break;
+      }
+      copiedBytes += transferred;
+      if (listener != null && copiedBytes < totalBytes) {
+        listener.onProgress(copiedBytes, totalBytes);
+      }
+    }
+    in.position(position + copiedBytes);
+    return copiedBytes;
+  }
+
+  /**
+   * Copies the rest of {@code in} to {@code out}, continuing a copy of which {@code copiedBytes}
+   * were already written, and reports the completion of the copy.
+   */
+  private static void copy(
+      InputStream in,
+      OutputStream out,
+      long copiedBytes,
+      long totalBytes,
+      @Nullable ProgressListener listener)
+      throws IOException {
+    final byte[] buffer = BUFFERS.get();
+    long nextReport = copiedBytes + PROGRESS_INTERVAL_BYTES;
     int bytesRead;
     while ((bytesRead = in.read(buffer)) != -1) {
       out.write(buffer, 0, bytesRead);
+      copiedBytes += bytesRead;
+      if (listener != null && copiedBytes >= nextReport) {
+        listener.onProgress(copiedBytes, totalBytes);
+        nextReport = copiedBytes + PROGRESS_INTERVAL_BYTES;
+      }
     }
     out.flush();
+    if (listener != null) {
+      listener.onProgress(copiedBytes, copiedBytes);
+    }
   }
 }
@@ -15,6 +15,7 @@ import android.media.MediaScannerConnection;
 import android.net.Uri;
 import android.os.Build;
 import android.provider.MediaStore;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.FileProvider;
@@ -91,7 +92,9 @@ public class ImagePickerDelegate
   private final PermissionManager permissionManager;
   private final FileUriResolver fileUriResolver;
   private final FileUtils fileUtils;
+  private final MultiImageProcessor multiImageProcessor;
   private CameraDevice cameraDevice;
+  @Nullable private volatile ImportProgressListener importProgressListener;
 
   interface PermissionManager {
     boolean isPermissionGranted(String permissionName);
@@ -111,6 +114,15 @@ public class ImagePickerDelegate
     void onPathReady(String path);
   }
 
+  /** Receives the progress of copying the picked files, on the thread making the copy. */
+  interface ImportProgressListener {
+    /**
+     * @param index the position of the file in the pick.
+     * @see FileUtils.ProgressListener#onProgress
+     */
+    void onImportProgress(int index, long copiedBytes, long totalBytes);
+  }
+
   private Uri pendingCameraMediaUri;
   private MethodChannel.Result pendingResult;
   private MethodCall methodCall;
@@ -164,7 +176,8 @@ public class ImagePickerDelegate
                 });
           }
         },
-        new FileUtils());
+        new FileUtils(),
+        new MultiImageProcessor());
   }
 
   /**
@@ -181,7 +194,8 @@ public class ImagePickerDelegate
       final ImagePickerCache cache,
       final PermissionManager permissionManager,
       final FileUriResolver fileUriResolver,
-      final FileUtils fileUtils) {
+      final FileUtils fileUtils,
+      final MultiImageProcessor multiImageProcessor) {
     this.activity = activity;
     this.externalFilesDirectory = externalFilesDirectory;
     this.imageResizer = imageResizer;
@@ -191,6 +205,7 @@ public class ImagePickerDelegate
     this.permissionManager = permissionManager;
     this.fileUriResolver = fileUriResolver;
     this.fileUtils = fileUtils;
+    this.multiImageProcessor = multiImageProcessor;
     this.cache = cache;
   }
 
@@ -202,6 +217,10 @@ public class ImagePickerDelegate
     return cameraDevice;
   }
 
+  void setImportProgressListener(@Nullable ImportProgressListener listener) {
+    importProgressListener = listener;
+  }
+
   // Save the state of the image picker so it can be retrieved with `retrieveLostImage`.
   void saveStateBeforeResult() {
     if (methodCall == null) {
@@ -484,8 +503,7 @@ public class ImagePickerDelegate
 
   private void handleChooseImageResult(int resultCode, Intent data) {
     if (resultCode == Activity.RESULT_OK && data != null) {
-      String path = fileUtils.getPathFromUri(activity, data.getData());
-      handleImageResult(path, false);
+      handleChooseFileResult(data.getData(), true);
       return;
     }
 
@@ -495,15 +513,15 @@ public class ImagePickerDelegate
 
   private void handleChooseMultiImageResult(int resultCode, Intent intent) {
     if (resultCode == Activity.RESULT_OK && intent != null) {
-      ArrayList<String> paths = new ArrayList<>();
+      ArrayList<Uri> uris = new ArrayList<>();
       if (intent.getClipData() != null) {
         for (int i = 0; i < intent.getClipData().getItemCount(); i++) {
-          paths.add(fileUtils.getPathFromUri(activity, intent.getClipData().getItemAt(i).getUri()));
+          uris.add(intent.getClipData().getItemAt(i).getUri());
         }
       } else {
-        paths.add(fileUtils.getPathFromUri(activity, intent.getData()));
+        uris.add(intent.getData());
       }
-      handleMultiImageResult(paths, false);
+      handleMultiImageResult(uris);
       return;
     }
 
@@ -513,8 +531,7 @@ public class ImagePickerDelegate
 
   private void handleChooseVideoResult(int resultCode, Intent data) {
     if (resultCode == Activity.RESULT_OK && data != null) {
-      String path = fileUtils.getPathFromUri(activity, data.getData());
-      handleVideoResult(path);
+      handleChooseFileResult(data.getData(), false);
       return;
     }
 
@@ -560,25 +577,88 @@ public class ImagePickerDelegate
     finishWithSuccess(null);
   }
 
-  private void handleMultiImageResult(
-      ArrayList<String> paths, boolean shouldDeleteOriginalIfScaled) {
-    if (methodCall != null) {
-      ArrayList<String> finalPath = new ArrayList<>();
-      for (int i = 0; i < paths.size(); i++) {
-        String finalImagePath = getResizedImagePath(paths.get(i));
-
-        //delete original file if scaled
-        if (finalImagePath != null
-            && !finalImagePath.equals(paths.get(i))
-            && shouldDeleteOriginalIfScaled) {
-          new File(paths.get(i)).delete();
+  /**
+   * Copies, and resizes if it is an image, the file picked from the gallery on a worker thread, so
+   * its copy progress reaches Dart while it is copied and a large video does not block the main
+   * thread.
+   */
+  private void handleChooseFileResult(final Uri uri, final boolean isImage) {
+    ArrayList<Uri> uris = new ArrayList<>();
+    uris.add(uri);
+    multiImageProcessor.process(
+        1,
+        createProcessorTask(uris, isImage),
+        new MultiImageProcessor.Callback() {
+          @Override
+          public void onSuccess(ArrayList<String> paths) {
+            finishWithSuccess(paths.get(0));
+          }
+
+          @Override
+          public void onError(RuntimeException exception) {
+            finishWithError("image_processing_failed", exception.getMessage());
+          }
+        });
+  }
+
+  /**
+   * Copies and resizes the picked images on worker threads, so picking many images does not block
+   * the main thread, and finishes with their paths in the order they were picked.
+   */
+  private void handleMultiImageResult(final ArrayList<Uri> uris) {
+    multiImageProcessor.process(
+        uris.size(),
+        createProcessorTask(uris, true),
+        new MultiImageProcessor.Callback() {
+          @Override
+          public void onSuccess(ArrayList<String> paths) {
+            finishWithListSuccess(paths);
+          }
+
+          @Override
+          public void onError(RuntimeException exception) {
+            finishWithError("image_processing_failed", exception.getMessage());
+          }
+        });
+  }
+
+  /** Creates the task copying {@code uris}, and resizing them when they are images. */
+  private MultiImageProcessor.Task createProcessorTask(
+      final ArrayList<Uri> uris, final boolean areImages) {
+    // The method call is only read on the main thread, it is cleared once the pick finished.
+    final boolean shouldResize = areImages && methodCall != null;
+    final Double maxWidth = shouldResize ? methodCall.<Double>argument("maxWidth") : null;
+    final Double maxHeight = shouldResize ? methodCall.<Double>argument("maxHeight") : null;
+    final Integer imageQuality = shouldResize ? methodCall.<Integer>argument("imageQuality") : null;
+
+    return new MultiImageProcessor.Task() {
+      @Override
+      public String copy(int index) {
+        return fileUtils.getPathFromUri(activity, uris.get(index), progressListenerFor(index));
+      }
+
+      @Override
+      public String resize(int index, String path) {
+        if (!shouldResize) {
+          return path;
         }
-        finalPath.add(i, finalImagePath);
+        return imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality);
       }
-      finishWithListSuccess(finalPath);
-    } else {
-      finishWithListSuccess(paths);
+    };
+  }
+
+  @Nullable
+  private FileUtils.ProgressListener progressListenerFor(final int index) {
+    final ImportProgressListener listener = importProgressListener;
+    if (listener == null) {
+      return null;
     }
+    return new FileUtils.ProgressListener() {
+      @Override
+      public void onProgress(long copiedBytes, long totalBytes) {
+        listener.onImportProgress(index, copiedBytes, totalBytes);
+      }
+    };
   }
 
   private void handleImageResult(String path, boolean shouldDeleteOriginalIfScaled) {
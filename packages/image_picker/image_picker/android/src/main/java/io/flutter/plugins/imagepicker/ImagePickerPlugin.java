@@ -23,6 +23,8 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 @SuppressWarnings("deprecation")
 public class ImagePickerPlugin
@@ -94,6 +96,8 @@ public class ImagePickerPlugin
   static final String METHOD_CALL_MULTI_IMAGE = "pickMultiImage";
   static final String METHOD_CALL_VIDEO = "pickVideo";
   private static final String METHOD_CALL_RETRIEVE = "retrieve";
+  private static final String METHOD_CALL_IMPORT_PROGRESS = "importProgress";
+  private static final String METHOD_CALL_SET_IMPORT_PROGRESS_ENABLED = "setImportProgressEnabled";
   private static final int CAMERA_DEVICE_FRONT = 1;
   private static final int CAMERA_DEVICE_REAR = 0;
   private static final String CHANNEL = "plugins.flutter.io/image_picker";
@@ -209,6 +213,7 @@ public class ImagePickerPlugin
     activityBinding = null;
     lifecycle.removeObserver(observer);
     lifecycle = null;
+    delegate.setImportProgressListener(null);
     delegate = null;
     channel.setMethodCallHandler(null);
     channel = null;
@@ -271,6 +276,33 @@ public class ImagePickerPlugin
     }
   }
 
+  // Sends the progress of copying the picked files to Dart, on the platform thread.
+  private static class ImportProgressReporter
+      implements ImagePickerDelegate.ImportProgressListener {
+    private final MethodChannel channel;
+    private final Handler handler;
+
+    ImportProgressReporter(MethodChannel channel) {
+      this.channel = channel;
+      handler = new Handler(Looper.getMainLooper());
+    }
+
+    @Override
+    public void onImportProgress(int index, long copiedBytes, long totalBytes) {
+      final Map<String, Object> arguments = new HashMap<>();
+      arguments.put("index", index);
+      arguments.put("copiedBytes", copiedBytes);
+      arguments.put("totalBytes", totalBytes);
+      handler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              channel.invokeMethod(METHOD_CALL_IMPORT_PROGRESS, arguments);
+            }
+          });
+    }
+  }
+
   @Override
   public void onMethodCall(MethodCall call, MethodChannel.Result rawResult) {
     if (activity == null) {
@@ -322,6 +354,12 @@ public class ImagePickerPlugin
       case METHOD_CALL_RETRIEVE:
         delegate.retrieveLostImage(result);
         break;
+      case METHOD_CALL_SET_IMPORT_PROGRESS_ENABLED:
+        // Only reported while Dart listens to it, so picks do not send unused messages.
+        boolean enabled = call.argument("enabled");
+        delegate.setImportProgressListener(enabled ? new ImportProgressReporter(channel) : null);
+        result.success(null);
+        break;
       default:
         throw new IllegalArgumentException("Unknown method " + call.method);
     }
@@ -8,12 +8,17 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.util.Log;
 import androidx.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
+import androidx.annotation.VisibleForTesting;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 class ImageResizer {
+  /** Size of the buffer between the image encoder and the file. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   private final File externalFilesDirectory;
   private final ExifDataCopier exifDataCopier;
 
@@ -26,15 +31,16 @@ class ImageResizer {
    * If necessary, resizes the image located in imagePath and then returns the path for the scaled
    * image.
    *
-   * <p>If no resizing is needed, returns the path for the original image.
+   * <p>If no resizing is needed, returns the path for the original image without decoding it.
    */
   String resizeImageIfNeeded(
       String imagePath,
       @Nullable Double maxWidth,
       @Nullable Double maxHeight,
       @Nullable Integer imageQuality) {
-    Bitmap bmp = decodeFile(imagePath);
-    if (bmp == null) {
+    // Reading the bounds only parses the header, which is enough to tell an image was picked.
+    BitmapFactory.Options bounds = decodeBounds(imagePath);
+    if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
       return null;
     }
     boolean shouldScale =
@@ -42,11 +48,19 @@ class ImageResizer {
     if (!shouldScale) {
       return imagePath;
     }
+    TargetSize targetSize =
+        calculateTargetSize(bounds.outWidth, bounds.outHeight, maxWidth, maxHeight);
+    Bitmap bmp =
+        decodeFile(
+            imagePath,
+            calculateInSampleSize(
+                bounds.outWidth, bounds.outHeight, targetSize.width, targetSize.height));
+    if (bmp == null) {
+      return null;
+    }
     try {
-      String[] pathParts = imagePath.split("/");
-      String imageName = pathParts[pathParts.length - 1];
-      File file = resizedImage(bmp, maxWidth, maxHeight, imageQuality, imageName);
-      copyExif(imagePath, file.getPath());
+      String imageName = imagePath.substring(imagePath.lastIndexOf('/') + 1);
+      File file = resizedImage(bmp, targetSize, imageQuality, imagePath, imageName);
       return file.getPath();
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -54,15 +68,33 @@ class ImageResizer {
   }
 
   private File resizedImage(
-      Bitmap bmp, Double maxWidth, Double maxHeight, Integer imageQuality, String outputImageName)
+      Bitmap bmp,
+      TargetSize targetSize,
+      Integer imageQuality,
+      String originalImagePath,
+      String outputImageName)
       throws IOException {
-    double originalWidth = bmp.getWidth() * 1.0;
-    double originalHeight = bmp.getHeight() * 1.0;
-
     if (!isImageQualityValid(imageQuality)) {
       imageQuality = 100;
     }
 
+    Bitmap scaledBmp = createScaledBitmap(bmp, targetSize.width, targetSize.height, false);
+    if (scaledBmp != bmp) {
+      // Only the scaled copy is compressed, release the decoded pixels right away.
+      bmp.recycle();
+    }
+    File file =
+        createImageOnExternalDirectory(
+            "/scaled_" + outputImageName, scaledBmp, imageQuality, originalImagePath);
+    return file;
+  }
+
+  /** Computes the size of the resized image, keeping the aspect ratio of the original image. */
+  private static TargetSize calculateTargetSize(
+      int originalWidthPx, int originalHeightPx, Double maxWidth, Double maxHeight) {
+    double originalWidth = originalWidthPx * 1.0;
+    double originalHeight = originalHeightPx * 1.0;
+
     boolean hasMaxWidth = maxWidth != null;
     boolean hasMaxHeight = maxHeight != null;
 
@@ -98,10 +130,27 @@ class ImageResizer {
       }
     }
 
-    Bitmap scaledBmp = createScaledBitmap(bmp, width.intValue(), height.intValue(), false);
-    File file =
-        createImageOnExternalDirectory("/scaled_" + outputImageName, scaledBmp, imageQuality);
-    return file;
+    return new TargetSize(width.intValue(), height.intValue());
+  }
+
+  /**
+   * Returns the largest power of two the image can be subsampled by while decoding, without
+   * getting smaller than the target size.
+   *
+   * <p>The subsampled image is then scaled to the exact target size, so it is only ever scaled
+   * down.
+   */
+  @VisibleForTesting
+  static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+    int inSampleSize = 1;
+    if (targetWidth <= 0 || targetHeight <= 0) {
+      return inSampleSize;
+    }
+    while (width / (inSampleSize * 2) >= targetWidth
+        && height / (inSampleSize * 2) >= targetHeight) {
+      inSampleSize *= 2;
+    }
+    return inSampleSize;
   }
 
   private File createFile(File externalFilesDirectory, String child) {
@@ -120,8 +169,21 @@ class ImageResizer {
     exifDataCopier.copyExif(filePathOri, filePathDest);
   }
 
-  private Bitmap decodeFile(String path) {
-    return BitmapFactory.decodeFile(path);
+  /** Reads the size of the image without decoding its pixels. */
+  private BitmapFactory.Options decodeBounds(String path) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeFile(path, options);
+    return options;
+  }
+
+  private Bitmap decodeFile(String path, int inSampleSize) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inSampleSize = inSampleSize;
+    // RGB_565 would halve the memory again, but loses the alpha channel of PNGs and bands the
+    // colors of the re-encoded image.
+    options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+    return BitmapFactory.decodeFile(path, options);
   }
 
   private Bitmap createScaledBitmap(Bitmap bmp, int width, int height, boolean filter) {
@@ -132,23 +194,58 @@ class ImageResizer {
     return imageQuality != null && imageQuality > 0 && imageQuality < 100;
   }
 
-  private File createImageOnExternalDirectory(String name, Bitmap bitmap, int imageQuality)
-      throws IOException {
-    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+  /**
+   * Compresses {@code bitmap} into the external files directory.
+   *
+   * <p>The image is streamed into a temporary file next to the final one, which only gets its name
+   * once it is complete, EXIF data included. A failed or interrupted write never leaves a partial
+   * image behind under the returned name.
+   */
+  private File createImageOnExternalDirectory(
+      String name, Bitmap bitmap, int imageQuality, String originalImagePath) throws IOException {
     boolean saveAsPNG = bitmap.hasAlpha();
     if (saveAsPNG) {
       Log.d(
           "ImageResizer",
           "image_picker: compressing is not supported for type PNG. Returning the image with original quality");
     }
-    bitmap.compress(
-        saveAsPNG ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
-        imageQuality,
-        outputStream);
     File imageFile = createFile(externalFilesDirectory, name);
-    FileOutputStream fileOutput = createOutputStream(imageFile);
-    fileOutput.write(outputStream.toByteArray());
-    fileOutput.close();
+    File tempFile = File.createTempFile(imageFile.getName(), ".tmp", imageFile.getParentFile());
+    boolean renamed = false;
+    try {
+      OutputStream output = new BufferedOutputStream(createOutputStream(tempFile), BUFFER_SIZE);
+      try {
+        boolean compressed =
+            bitmap.compress(
+                saveAsPNG ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
+                imageQuality,
+                output);
+        if (!compressed) {
+          throw new IOException("Failed compressing " + name);
+        }
+      } finally {
+        output.close();
+      }
+      copyExif(originalImagePath, tempFile.getPath());
+      renamed = tempFile.renameTo(imageFile);
+      if (!renamed) {
+        throw new IOException("Failed renaming " + tempFile.getPath() + " to " + name);
+      }
+    } finally {
+      if (!renamed) {
+        tempFile.delete();
+      }
+    }
     return imageFile;
   }
+
+  private static final class TargetSize {
+    final int width;
+    final int height;
+
+    TargetSize(int width, int height) {
+      this.width = width;
+      this.height = height;
+    }
+  }
 }
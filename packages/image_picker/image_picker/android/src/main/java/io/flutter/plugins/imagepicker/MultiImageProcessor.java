@@ -0,0 +1,197 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies and resizes the images picked from the gallery on a small pool of worker threads.
+ *
+ * <p>Single images and videos go through the same pool, so they are not copied on the main thread
+ * and their copy progress reaches Dart before the result.
+ *
+ * <p>Every image is copied and resized on its own worker, so the images are processed in parallel.
+ * Copying only needs a small buffer, while decoding holds a full size bitmap, so at most {@link
+ * #MAX_CONCURRENT_DECODES} images are resized at once to bound the peak memory. The paths are
+ * returned in the order the images were picked, once all of them were processed.
+ */
+class MultiImageProcessor {
+  /** Number of full size bitmaps decoded at the same time. */
+  @VisibleForTesting static final int MAX_CONCURRENT_DECODES = 2;
+
+  /** Number of worker threads, enough to overlap copying some images with decoding others. */
+  private static final int MAX_WORKER_THREADS = 4;
+
+  /** Time an idle worker thread is kept alive for the next pick. */
+  private static final long WORKER_KEEP_ALIVE_SECONDS = 5;
+
+  /** The work done for a single image, called on a worker thread. */
+  interface Task {
+    /**
+     * Copies the picked image to a readable file.
+     *
+     * @param index the position of the image in the pick.
+     * @return the path of the copy, or {@code null} when it could not be copied.
+     */
+    @Nullable
+    String copy(int index);
+
+    /**
+     * Resizes the copy of the image if needed.
+     *
+     * @param index the position of the image in the pick.
+     * @param path the path returned by {@link #copy}.
+     * @return the path of the final image.
+     */
+    @Nullable
+    String resize(int index, @Nullable String path);
+  }
+
+  /** Receives the outcome of {@link #process}, on the result executor. */
+  interface Callback {
+    void onSuccess(@NonNull ArrayList<String> paths);
+
+    void onError(@NonNull RuntimeException exception);
+  }
+
+  private final Executor workerExecutor;
+  private final Executor resultExecutor;
+  private final Semaphore decodePermits;
+
+  MultiImageProcessor() {
+    this(createWorkerExecutor(), createMainThreadExecutor(), MAX_CONCURRENT_DECODES);
+  }
+
+  /**
+   * Creates a processor running on the given executors.
+   *
+   * @param workerExecutor runs the tasks.
+   * @param resultExecutor runs the callback.
+   * @param maxConcurrentDecodes number of {@link Task#resize} calls allowed at the same time.
+   */
+  @VisibleForTesting
+  MultiImageProcessor(
+      @NonNull Executor workerExecutor,
+      @NonNull Executor resultExecutor,
+      int maxConcurrentDecodes) {
+    this.workerExecutor = workerExecutor;
+    this.resultExecutor = resultExecutor;
+    this.decodePermits = new Semaphore(maxConcurrentDecodes, true);
+  }
+
+  /**
+   * Processes {@code count} images in parallel and calls {@code callback} once, when all of them
+   * were processed or one of them failed. An {@link Error} thrown by {@code task} fails the pick
+   * like an exception, wrapped in a {@link RuntimeException}.
+   */
+  void process(final int count, @NonNull final Task task, @NonNull final Callback callback) {
+    final String[] paths = new String[count];
+    final AtomicInteger remaining = new AtomicInteger(count);
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    if (count == 0) {
+      deliver(paths, failure, callback);
+      return;
+    }
+
+    for (int i = 0; i < count; i++) {
+      final int index = i;
+      workerExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              try {
+                // Images after a failure are not processed, the pick fails as a whole.
+                if (failure.get() == null) {
+                  paths[index] = processImage(task, index);
+                }
+              } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+              } catch (Error e) {
+                // Usually an OutOfMemoryError while decoding, which only fails this pick.
+                failure.compareAndSet(null, new RuntimeException(e));
+              } finally {
+                if (remaining.decrementAndGet() == 0) {
+                  deliver(paths, failure, callback);
+                }
+              }
+            }
+          });
+    }
+  }
+
+  private String processImage(Task task, int index) {
+    final String path = task.copy(index);
+    decodePermits.acquireUninterruptibly();
+    try {
+      return task.resize(index, path);
+    } finally {
+      decodePermits.release();
+    }
+  }
+
+  private void deliver(
+      final String[] paths,
+      final AtomicReference<RuntimeException> failure,
+      final Callback callback) {
+    resultExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final RuntimeException exception = failure.get();
+            if (exception != null) {
+              callback.onError(exception);
+            } else {
+              callback.onSuccess(new ArrayList<>(Arrays.asList(paths)));
+            }
+          }
+        });
+  }
+
+  private static Executor createWorkerExecutor() {
+    final int threads =
+        Math.max(2, Math.min(MAX_WORKER_THREADS, Runtime.getRuntime().availableProcessors()));
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            WORKER_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+              private final AtomicInteger count = new AtomicInteger();
+
+              @Override
+              public Thread newThread(@NonNull Runnable runnable) {
+                return new Thread(runnable, "image_picker-" + count.incrementAndGet());
+              }
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static Executor createMainThreadExecutor() {
+    final Handler handler = new Handler(Looper.getMainLooper());
+    return new Executor() {
+      @Override
+      public void execute(@NonNull Runnable command) {
+        handler.post(command);
+      }
+    };
+  }
+}
@@ -5,20 +5,34 @@
 package io.flutter.plugins.imagepicker;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.robolectric.Shadows.shadowOf;
 
+import android.content.ContentProvider;
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 import androidx.test.core.app.ApplicationProvider;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.shadows.ShadowContentResolver;
 
@@ -63,4 +77,115 @@ public class FileUtilTest {
     String path = fileUtils.getPathFromUri(context, uri);
     assertTrue(path.endsWith(".jpg"));
   }
+
+  @Test
+  public void FileUtil_GetPathFromUri_WhenUriIsAFile_ShouldCopyIt() throws IOException {
+    byte[] content = "imageFile".getBytes(UTF_8);
+    File image = File.createTempFile("picked", ".png");
+    try (FileOutputStream output = new FileOutputStream(image)) {
+      output.write(content);
+    }
+
+    String path = fileUtils.getPathFromUri(context, Uri.fromFile(image));
+
+    assertNotEquals(image.getPath(), path);
+    assertArrayEquals(content, readBytes(new File(path)));
+    assertTrue(path.endsWith(".png"));
+  }
+
+  @Test
+  public void FileUtil_GetPathFromUri_WhenContentHasAFileDescriptor_ShouldTransferIt()
+      throws IOException {
+    byte[] content = new byte[3 * 1024 * 1024 + 5];
+    new Random(1).nextBytes(content);
+    File image = File.createTempFile("provided", ".jpg");
+    try (FileOutputStream output = new FileOutputStream(image)) {
+      output.write(content);
+    }
+    DescriptorProvider.file = image;
+    Robolectric.setupContentProvider(DescriptorProvider.class, "image_picker.test");
+    List<long[]> progress = new ArrayList<>();
+
+    String path =
+        fileUtils.getPathFromUri(
+            context,
+            Uri.parse("content://image_picker.test/provided.jpg"),
+            (copiedBytes, totalBytes) -> progress.add(new long[] {copiedBytes, totalBytes}));
+
+    assertArrayEquals(content, readBytes(new File(path)));
+    assertEquals(4, progress.size());
+    assertArrayEquals(new long[] {1024 * 1024, content.length}, progress.get(0));
+    assertArrayEquals(new long[] {content.length, content.length}, progress.get(3));
+  }
+
+  @Test
+  public void FileUtil_GetPathFromUri_WhenContentIsAStream_ShouldReportItsCompletion() {
+    Uri uri = Uri.parse("content://dummy/dummy.png");
+    shadowContentResolver.registerInputStream(
+        uri, new ByteArrayInputStream("imageStream".getBytes(UTF_8)));
+    List<long[]> progress = new ArrayList<>();
+
+    String path =
+        fileUtils.getPathFromUri(
+            context,
+            uri,
+            (copiedBytes, totalBytes) -> progress.add(new long[] {copiedBytes, totalBytes}));
+
+    assertNotNull(path);
+    assertEquals(1, progress.size());
+    assertArrayEquals(new long[] {11, 11}, progress.get(0));
+  }
+
+  private static byte[] readBytes(File file) throws IOException {
+    byte[] bytes = new byte[(int) file.length()];
+    try (FileInputStream input = new FileInputStream(file)) {
+      int offset = 0;
+      int read;
+      while ((read = input.read(bytes, offset, bytes.length - offset)) > 0) {
+        offset += read;
+      }
+    }
+    return bytes;
+  }
+
+  /** Serves a single file through a file descriptor, as the media providers do. */
+  public static class DescriptorProvider extends ContentProvider {
+    static File file;
+
+    @Override
+    public boolean onCreate() {
+      return true;
+    }
+
+    @Override
+    public ParcelFileDescriptor openFile(Uri uri, String mode) throws FileNotFoundException {
+      return ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Override
+    public String getType(Uri uri) {
+      return "image/jpeg";
+    }
+
+    @Override
+    public Cursor query(
+        Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+      return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+      return null;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+      return 0;
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+      return 0;
+    }
+  }
 }
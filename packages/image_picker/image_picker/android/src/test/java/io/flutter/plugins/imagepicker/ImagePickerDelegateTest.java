@@ -12,7 +12,9 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -21,6 +23,7 @@ import static org.mockito.Mockito.when;
 import android.Manifest;
 import android.app.Activity;
 import android.content.ActivityNotFoundException;
+import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
@@ -29,12 +32,16 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -56,6 +63,7 @@ public class ImagePickerDelegateTest {
   @Mock ImagePickerCache cache;
 
   ImagePickerDelegate.FileUriResolver mockFileUriResolver;
+  MultiImageProcessor sameThreadMultiImageProcessor;
   MockedStatic<File> mockStaticFile;
 
   private static class MockFileUriResolver implements ImagePickerDelegate.FileUriResolver {
@@ -82,7 +90,7 @@ public class ImagePickerDelegateTest {
     when(mockActivity.getPackageName()).thenReturn("com.example.test");
     when(mockActivity.getPackageManager()).thenReturn(mock(PackageManager.class));
 
-    when(mockFileUtils.getPathFromUri(any(Context.class), any(Uri.class)))
+    when(mockFileUtils.getPathFromUri(any(Context.class), any(Uri.class), any()))
         .thenReturn("pathFromUri");
 
     when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, null))
@@ -97,6 +105,9 @@ public class ImagePickerDelegateTest {
         .thenReturn("scaledPath");
 
     mockFileUriResolver = new MockFileUriResolver();
+    Executor sameThreadExecutor = Runnable::run;
+    sameThreadMultiImageProcessor =
+        new MultiImageProcessor(sameThreadExecutor, sameThreadExecutor, 1);
 
     Uri mockUri = mock(Uri.class);
     when(mockIntent.getData()).thenReturn(mockUri);
@@ -313,6 +324,108 @@ public class ImagePickerDelegateTest {
     verifyNoMoreInteractions(mockResult);
   }
 
+  @Test
+  public void
+      onActivityResult_WhenMultipleImagesPickedFromGallery_FinishesWithScaledPathsInPickOrder() {
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+    Uri firstUri = mock(Uri.class);
+    Uri secondUri = mock(Uri.class);
+    when(mockFileUtils.getPathFromUri(any(Context.class), eq(firstUri), any()))
+        .thenReturn("first");
+    when(mockFileUtils.getPathFromUri(any(Context.class), eq(secondUri), any()))
+        .thenReturn("second");
+    when(mockImageResizer.resizeImageIfNeeded("first", WIDTH, null, null))
+        .thenReturn("scaledFirst");
+    when(mockImageResizer.resizeImageIfNeeded("second", WIDTH, null, null))
+        .thenReturn("scaledSecond");
+    ClipData.Item firstItem = mock(ClipData.Item.class);
+    when(firstItem.getUri()).thenReturn(firstUri);
+    ClipData.Item secondItem = mock(ClipData.Item.class);
+    when(secondItem.getUri()).thenReturn(secondUri);
+    ClipData mockClipData = mock(ClipData.class);
+    when(mockClipData.getItemCount()).thenReturn(2);
+    when(mockClipData.getItemAt(0)).thenReturn(firstItem);
+    when(mockClipData.getItemAt(1)).thenReturn(secondItem);
+    when(mockIntent.getClipData()).thenReturn(mockClipData);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_OK,
+        mockIntent);
+
+    verify(mockResult).success(new ArrayList<>(Arrays.asList("scaledFirst", "scaledSecond")));
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenMultipleImagesFailToResize_FinishesWithError() {
+    when(mockImageResizer.resizeImageIfNeeded("pathFromUri", null, null, null))
+        .thenThrow(new RuntimeException("disk full"));
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_OK,
+        mockIntent);
+
+    verify(mockResult).error("image_processing_failed", "disk full", null);
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenImagePickedFromGallery_ReportsTheCopyProgress() {
+    ImagePickerDelegate.ImportProgressListener mockListener =
+        mock(ImagePickerDelegate.ImportProgressListener.class);
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.setImportProgressListener(mockListener);
+
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    ArgumentCaptor<FileUtils.ProgressListener> progressListener =
+        ArgumentCaptor.forClass(FileUtils.ProgressListener.class);
+    verify(mockFileUtils)
+        .getPathFromUri(any(Context.class), any(Uri.class), progressListener.capture());
+    progressListener.getValue().onProgress(5, 10);
+    verify(mockListener).onImportProgress(0, 5, 10);
+  }
+
+  @Test
+  public void onActivityResult_WhenVideoPickedFromGallery_ReportsTheProgressBeforeFinishing() {
+    List<Runnable> workerTasks = new ArrayList<>();
+    List<Runnable> mainThreadTasks = new ArrayList<>();
+    ImagePickerDelegate.ImportProgressListener mockListener =
+        mock(ImagePickerDelegate.ImportProgressListener.class);
+    when(mockFileUtils.getPathFromUri(any(Context.class), any(Uri.class), any()))
+        .thenAnswer(
+            invocation -> {
+              invocation.<FileUtils.ProgressListener>getArgument(2).onProgress(5, 10);
+              return "pathFromUri";
+            });
+    ImagePickerDelegate delegate =
+        createDelegateWithPendingResultAndMethodCall(
+            new MultiImageProcessor(workerTasks::add, mainThreadTasks::add, 1));
+    // Like the plugin, sends the progress to Dart on the main thread.
+    delegate.setImportProgressListener(
+        (index, copiedBytes, totalBytes) ->
+            mainThreadTasks.add(
+                () -> mockListener.onImportProgress(index, copiedBytes, totalBytes)));
+
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_VIDEO_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockFileUtils, never()).getPathFromUri(any(Context.class), any(Uri.class), any());
+    assertEquals(1, workerTasks.size());
+    workerTasks.get(0).run();
+    for (Runnable task : mainThreadTasks) {
+      task.run();
+    }
+    InOrder inOrder = inOrder(mockListener, mockResult);
+    inOrder.verify(mockListener).onImportProgress(0, 5, 10);
+    inOrder.verify(mockResult).success("pathFromUri");
+  }
+
   @Test
   public void onActivityResult_WhenTakeImageWithCameraCanceled_FinishesWithNull() {
     ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
@@ -412,10 +525,16 @@ public class ImagePickerDelegateTest {
         cache,
         mockPermissionManager,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        sameThreadMultiImageProcessor);
   }
 
   private ImagePickerDelegate createDelegateWithPendingResultAndMethodCall() {
+    return createDelegateWithPendingResultAndMethodCall(sameThreadMultiImageProcessor);
+  }
+
+  private ImagePickerDelegate createDelegateWithPendingResultAndMethodCall(
+      MultiImageProcessor multiImageProcessor) {
     return new ImagePickerDelegate(
         mockActivity,
         new File("/image_picker_cache"),
@@ -425,7 +544,8 @@ public class ImagePickerDelegateTest {
         cache,
         mockPermissionManager,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        multiImageProcessor);
   }
 
   private void verifyFinishedWithAlreadyActiveError() {
@@ -9,6 +9,8 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -147,6 +149,15 @@ public class ImagePickerPluginTest {
     verify(mockImagePickerDelegate).setCameraDevice(eq(CameraDevice.FRONT));
   }
 
+  @Test
+  public void onMethodCall_SetImportProgressEnabled_OnlyReportsProgressWhileEnabled() {
+    plugin.onMethodCall(buildSetImportProgressEnabledCall(true), mockResult);
+    verify(mockImagePickerDelegate).setImportProgressListener(notNull());
+
+    plugin.onMethodCall(buildSetImportProgressEnabledCall(false), mockResult);
+    verify(mockImagePickerDelegate).setImportProgressListener(isNull());
+  }
+
   @Test
   public void onResiter_WhenAcitivityIsNull_ShouldNotCrash() {
     when(mockRegistrar.activity()).thenReturn(null);
@@ -186,4 +197,11 @@ public class ImagePickerPluginTest {
   private MethodCall buildMethodCall(String method) {
     return new MethodCall(method, null);
   }
+
+  private MethodCall buildSetImportProgressEnabledCall(boolean enabled) {
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("enabled", enabled);
+
+    return new MethodCall("setImportProgressEnabled", arguments);
+  }
 }
@@ -5,7 +5,12 @@
 package io.flutter.plugins.imagepicker;
 
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
@@ -15,6 +20,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.robolectric.RobolectricTestRunner;
 
@@ -70,4 +78,52 @@ public class ImageResizerTest {
     String outoutFile = invalidResizer.resizeImageIfNeeded(imageFile.getPath(), null, 50.0, null);
     assertThat(outoutFile, equalTo(nonExistentDirectory.getPath() + "/scaled_pngImage.png"));
   }
+
+  @Test
+  public void onResizeImageIfNeeded_WhenResized_ShouldOnlyLeaveTheScaledFile() {
+    resizer.resizeImageIfNeeded(imageFile.getPath(), 50.0, null, null);
+    resizer.resizeImageIfNeeded(imageFile.getPath(), 40.0, null, null);
+
+    String[] files = externalDirectory.list();
+    assertEquals(1, files.length);
+    assertEquals("scaled_pngImage.png", files[0]);
+  }
+
+  @Test
+  public void onResizeImageIfNeeded_WhenNoResizeIsRequested_ShouldOnlyReadTheBounds() {
+    try (MockedStatic<BitmapFactory> mockBitmapFactory = Mockito.mockStatic(BitmapFactory.class)) {
+      mockBitmapFactory
+          .when(() -> BitmapFactory.decodeFile(eq("/large.jpg"), any(BitmapFactory.Options.class)))
+          .thenAnswer(
+              invocation -> {
+                BitmapFactory.Options options = invocation.getArgument(1);
+                options.outWidth = 8000;
+                options.outHeight = 6000;
+                return null;
+              });
+
+      String outoutFile = resizer.resizeImageIfNeeded("/large.jpg", null, null, null);
+
+      assertThat(outoutFile, equalTo("/large.jpg"));
+      ArgumentCaptor<BitmapFactory.Options> options =
+          ArgumentCaptor.forClass(BitmapFactory.Options.class);
+      mockBitmapFactory.verify(
+          () -> BitmapFactory.decodeFile(eq("/large.jpg"), options.capture()), times(1));
+      assertTrue(options.getValue().inJustDecodeBounds);
+    }
+  }
+
+  @Test
+  public void calculateInSampleSize_ShouldSubsampleByPowersOfTwo_WithoutGoingBelowTheTarget() {
+    assertEquals(1, ImageResizer.calculateInSampleSize(8000, 6000, 8000, 6000));
+    assertEquals(1, ImageResizer.calculateInSampleSize(8000, 6000, 4001, 3001));
+    assertEquals(2, ImageResizer.calculateInSampleSize(8000, 6000, 4000, 3000));
+    assertEquals(4, ImageResizer.calculateInSampleSize(8000, 6000, 1024, 768));
+    assertEquals(8, ImageResizer.calculateInSampleSize(8000, 6000, 1000, 100));
+  }
+
+  @Test
+  public void calculateInSampleSize_WhenTargetIsEmpty_ShouldNotSubsample() {
+    assertEquals(1, ImageResizer.calculateInSampleSize(8000, 6000, 0, 0));
+  }
 }
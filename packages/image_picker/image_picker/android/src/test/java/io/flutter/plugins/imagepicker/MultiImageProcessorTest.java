@@ -0,0 +1,201 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MultiImageProcessorTest {
+  private ExecutorService workerExecutor;
+  private ExecutorService resultExecutor;
+  private MultiImageProcessor processor;
+
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private final AtomicReference<ArrayList<String>> result = new AtomicReference<>();
+  private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+  private final MultiImageProcessor.Callback callback =
+      new MultiImageProcessor.Callback() {
+        @Override
+        public void onSuccess(ArrayList<String> paths) {
+          result.set(paths);
+          finished.countDown();
+        }
+
+        @Override
+        public void onError(RuntimeException exception) {
+          error.set(exception);
+          finished.countDown();
+        }
+      };
+
+  @Before
+  public void setUp() {
+    workerExecutor = Executors.newFixedThreadPool(4);
+    resultExecutor = Executors.newSingleThreadExecutor();
+    processor = new MultiImageProcessor(workerExecutor, resultExecutor, 2);
+  }
+
+  @After
+  public void tearDown() {
+    workerExecutor.shutdownNow();
+    resultExecutor.shutdownNow();
+  }
+
+  @Test
+  public void process_ReturnsThePathsInPickOrder() throws InterruptedException {
+    processor.process(
+        8,
+        new MultiImageProcessor.Task() {
+          @Override
+          public String copy(int index) {
+            // Earlier images take longer, so they finish last.
+            sleep(8 - index);
+            return "copy" + index;
+          }
+
+          @Override
+          public String resize(int index, String path) {
+            return path + "_scaled";
+          }
+        },
+        callback);
+
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals(
+        Arrays.asList(
+            "copy0_scaled",
+            "copy1_scaled",
+            "copy2_scaled",
+            "copy3_scaled",
+            "copy4_scaled",
+            "copy5_scaled",
+            "copy6_scaled",
+            "copy7_scaled"),
+        result.get());
+  }
+
+  @Test
+  public void process_LimitsTheConcurrentResizes() throws InterruptedException {
+    final AtomicInteger resizing = new AtomicInteger();
+    final AtomicInteger maxResizing = new AtomicInteger();
+
+    processor.process(
+        8,
+        new MultiImageProcessor.Task() {
+          @Override
+          public String copy(int index) {
+            return "copy" + index;
+          }
+
+          @Override
+          public String resize(int index, String path) {
+            int current = resizing.incrementAndGet();
+            maxResizing.accumulateAndGet(current, Math::max);
+            sleep(10);
+            resizing.decrementAndGet();
+            return path;
+          }
+        },
+        callback);
+
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals(8, result.get().size());
+    assertTrue("Resized " + maxResizing.get() + " images at once", maxResizing.get() <= 2);
+  }
+
+  @Test
+  public void process_ReportsTheFirstFailureOnce() throws InterruptedException {
+    processor.process(
+        4,
+        new MultiImageProcessor.Task() {
+          @Override
+          public String copy(int index) {
+            if (index == 1) {
+              throw new RuntimeException("unreadable");
+            }
+            return "copy" + index;
+          }
+
+          @Override
+          public String resize(int index, String path) {
+            return path;
+          }
+        },
+        callback);
+
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals("unreadable", error.get().getMessage());
+    assertNull(result.get());
+  }
+
+  @Test
+  public void process_ReportsAnErrorAsAFailure() throws InterruptedException {
+    final OutOfMemoryError outOfMemory = new OutOfMemoryError("bitmap too large");
+    processor.process(
+        4,
+        new MultiImageProcessor.Task() {
+          @Override
+          public String copy(int index) {
+            return "copy" + index;
+          }
+
+          @Override
+          public String resize(int index, String path) {
+            if (index == 2) {
+              throw outOfMemory;
+            }
+            return path;
+          }
+        },
+        callback);
+
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertSame(outOfMemory, error.get().getCause());
+    assertNull(result.get());
+  }
+
+  @Test
+  public void process_WithoutImages_ReturnsAnEmptyList() throws InterruptedException {
+    processor.process(
+        0,
+        new MultiImageProcessor.Task() {
+          @Override
+          public String copy(int index) {
+            throw new AssertionError();
+          }
+
+          @Override
+          public String resize(int index, String path) {
+            throw new AssertionError();
+          }
+        },
+        callback);
+
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals(new ArrayList<String>(), result.get());
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
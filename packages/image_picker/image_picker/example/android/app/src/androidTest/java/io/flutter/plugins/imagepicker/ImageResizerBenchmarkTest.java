@@ -0,0 +1,117 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.Log;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the pick-to-result latency of {@link ImageResizer} for a large JPEG, as spent after the
+ * picked image was copied to the cache directory.
+ *
+ * <p>Runs on a device, as only the platform decodes real images. The median latencies are logged
+ * under the {@code ImageResizerBenchmark} tag.
+ */
+public class ImageResizerBenchmarkTest {
+  private static final String TAG = "ImageResizerBenchmark";
+  private static final int WIDTH = 4000;
+  private static final int HEIGHT = 3000;
+  private static final int ITERATIONS = 5;
+
+  private static File outputDirectory;
+  private static File largeJpeg;
+
+  @BeforeClass
+  public static void createLargeJpeg() throws IOException {
+    Context context = ApplicationProvider.getApplicationContext();
+    outputDirectory = new File(context.getCacheDir(), "image_resizer_benchmark");
+    outputDirectory.mkdirs();
+    largeJpeg = new File(outputDirectory, "large.jpg");
+
+    // A gradient with some shapes, so the JPEG is not trivially small.
+    Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    Paint paint = new Paint();
+    for (int y = 0; y < HEIGHT; y += 10) {
+      paint.setColor(Color.rgb(y % 256, (y / 4) % 256, 255 - y % 256));
+      canvas.drawRect(0, y, WIDTH, y + 10, paint);
+    }
+    for (int i = 0; i < 200; i++) {
+      paint.setColor(Color.rgb(i, 255 - i, (i * 7) % 256));
+      canvas.drawCircle((i * 97) % WIDTH, (i * 53) % HEIGHT, 40 + i % 120, paint);
+    }
+    try (OutputStream output = new FileOutputStream(largeJpeg)) {
+      bitmap.compress(Bitmap.CompressFormat.JPEG, 95, output);
+    }
+    bitmap.recycle();
+  }
+
+  @AfterClass
+  public static void deleteFiles() {
+    for (File file : outputDirectory.listFiles()) {
+      file.delete();
+    }
+    outputDirectory.delete();
+  }
+
+  @Test
+  public void resizeImageIfNeeded_pickToResultLatency() {
+    final ImageResizer resizer = new ImageResizer(outputDirectory, new ExifDataCopier());
+
+    long unchangedMs =
+        medianMillis(
+            () -> assertEquals(largeJpeg.getPath(), resize(resizer, null, null, null)));
+    long resizedMs = medianMillis(() -> resize(resizer, 1024.0, 1024.0, null));
+    long recompressedMs = medianMillis(() -> resize(resizer, null, null, 80));
+
+    Log.i(
+        TAG,
+        "12 MP JPEG pick-to-result: unchanged="
+            + unchangedMs
+            + " ms, maxWidth/maxHeight 1024="
+            + resizedMs
+            + " ms, imageQuality 80="
+            + recompressedMs
+            + " ms");
+    // Returning the picked file as is only reads its header.
+    assertTrue(
+        "unchanged=" + unchangedMs + " ms, resized=" + resizedMs + " ms",
+        unchangedMs * 4 < resizedMs);
+  }
+
+  private static String resize(
+      ImageResizer resizer, Double maxWidth, Double maxHeight, Integer imageQuality) {
+    return resizer.resizeImageIfNeeded(largeJpeg.getPath(), maxWidth, maxHeight, imageQuality);
+  }
+
+  private static long medianMillis(Runnable pick) {
+    // Warm up the decoder and the file cache.
+    pick.run();
+    long[] durations = new long[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      pick.run();
+      durations[i] = (System.nanoTime() - start) / 1_000_000;
+    }
+    Arrays.sort(durations);
+    return durations[ITERATIONS / 2];
+  }
+}
@@ -17,6 +17,47 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
   @visibleForTesting
   MethodChannel get channel => _channel;
 
+  late final StreamController<ImportProgress> _importProgressController =
+      StreamController<ImportProgress>.broadcast(
+    onListen: () {
+      _channel.setMethodCallHandler(_handleMethodCall);
+      _setImportProgressEnabled(true);
+    },
+    onCancel: () => _setImportProgressEnabled(false),
+  );
+
+  /// The platform only reports the progress while the returned stream has a
+  /// listener.
+  @override
+  Stream<ImportProgress> onImportProgress() => _importProgressController.stream;
+
+  Future<void> _setImportProgressEnabled(bool enabled) async {
+    try {
+      await _channel.invokeMethod<void>(
+        'setImportProgressEnabled',
+        <String, dynamic>{'enabled': enabled},
+      );
+    } on MissingPluginException {
+      // Only Android copies the picked files and reports their progress.
+    }
+  }
+
+  Future<dynamic> _handleMethodCall(MethodCall call) async {
+    switch (call.method) {
+      case 'importProgress':
+        final Map<dynamic, dynamic> arguments = call.arguments;
+        final int totalBytes = arguments['totalBytes'];
+        _importProgressController.add(ImportProgress(
+          index: arguments['index'],
+          copiedBytes: arguments['copiedBytes'],
+          totalBytes: totalBytes >= 0 ? totalBytes : null,
+        ));
+        break;
+      default:
+        throw MissingPluginException();
+    }
+  }
+
   @override
   Future<PickedFile?> pickImage({
     required ImageSource source,
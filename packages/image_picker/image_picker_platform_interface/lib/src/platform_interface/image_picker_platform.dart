@@ -251,4 +251,17 @@ abstract class ImagePickerPlatform extends PlatformInterface {
   Future<LostDataResponse> getLostData() {
     throw UnimplementedError('getLostData() has not been implemented.');
   }
+
+  /// Returns a stream of the progress of copying the picked files to a location
+  /// the app can read. (Android only)
+  ///
+  /// Android copies every picked file before returning it, which can take a
+  /// while for large videos or many images, and reports the progress of every
+  /// import. The events of a pick are sent before its [getImage],
+  /// [getMultiImage] or [getVideo] call completes.
+  ///
+  /// Platforms that do not copy the picked files return an empty stream.
+  Stream<ImportProgress> onImportProgress() {
+    return const Stream<ImportProgress>.empty();
+  }
 }
@@ -0,0 +1,46 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:ui' show hashValues;
+
+/// The progress of copying a picked file to a location the app can read.
+///
+/// Only applies to Android, which copies the picked files that are not
+/// readable as is before returning them.
+class ImportProgress {
+  /// Creates the progress of copying the file at [index] in the pick.
+  const ImportProgress({
+    required this.index,
+    required this.copiedBytes,
+    this.totalBytes,
+  });
+
+  /// The position of the file in the pick, 0 for a single file.
+  final int index;
+
+  /// The number of bytes copied so far.
+  final int copiedBytes;
+
+  /// The size of the file, or null when it is not known yet.
+  ///
+  /// Equals [copiedBytes] once the copy is complete.
+  final int? totalBytes;
+
+  /// Whether the copy of the file is complete.
+  bool get isComplete => copiedBytes == totalBytes;
+
+  @override
+  bool operator ==(Object other) =>
+      other is ImportProgress &&
+      other.index == index &&
+      other.copiedBytes == copiedBytes &&
+      other.totalBytes == totalBytes;
+
+  @override
+  int get hashCode => hashValues(index, copiedBytes, totalBytes);
+
+  @override
+  String toString() =>
+      'ImportProgress(index: $index, copiedBytes: $copiedBytes, totalBytes: $totalBytes)';
+}
@@ -4,6 +4,7 @@
 
 export 'camera_device.dart';
 export 'image_source.dart';
+export 'import_progress.dart';
 export 'retrieve_type.dart';
 export 'picked_file/picked_file.dart';
 export 'lost_data_response.dart';
@@ -979,5 +979,72 @@ void main() {
         expect(picker.getLostData(), throwsAssertionError);
       });
     });
+
+    group('#onImportProgress', () {
+      Future<void> sendImportProgress(Map<String, int> arguments) async {
+        final ByteData message = const StandardMethodCodec()
+            .encodeMethodCall(MethodCall('importProgress', arguments));
+        await TestDefaultBinaryMessengerBinding.instance!.defaultBinaryMessenger
+            .handlePlatformMessage(
+                'plugins.flutter.io/image_picker', message, (ByteData? _) {});
+      }
+
+      test('emits the progress sent by the platform', () async {
+        final List<ImportProgress> events = <ImportProgress>[];
+        final subscription = picker.onImportProgress().listen(events.add);
+
+        await sendImportProgress(<String, int>{
+          'index': 1,
+          'copiedBytes': 1048576,
+          'totalBytes': 3145733,
+        });
+        await sendImportProgress(<String, int>{
+          'index': 1,
+          'copiedBytes': 3145733,
+          'totalBytes': 3145733,
+        });
+        await subscription.cancel();
+
+        expect(events, <ImportProgress>[
+          ImportProgress(index: 1, copiedBytes: 1048576, totalBytes: 3145733),
+          ImportProgress(index: 1, copiedBytes: 3145733, totalBytes: 3145733),
+        ]);
+        expect(events.last.isComplete, isTrue);
+      });
+
+      test('enables the platform progress only while it is listened to',
+          () async {
+        final subscription = picker.onImportProgress().listen((_) {});
+        final otherSubscription = picker.onImportProgress().listen((_) {});
+        await subscription.cancel();
+        expect(log, <Matcher>[
+          isMethodCall('setImportProgressEnabled',
+              arguments: <String, dynamic>{'enabled': true}),
+        ]);
+
+        await otherSubscription.cancel();
+        expect(log, <Matcher>[
+          isMethodCall('setImportProgressEnabled',
+              arguments: <String, dynamic>{'enabled': true}),
+          isMethodCall('setImportProgressEnabled',
+              arguments: <String, dynamic>{'enabled': false}),
+        ]);
+      });
+
+      test('reports an unknown size as null', () async {
+        final List<ImportProgress> events = <ImportProgress>[];
+        final subscription = picker.onImportProgress().listen(events.add);
+
+        await sendImportProgress(<String, int>{
+          'index': 0,
+          'copiedBytes': 1048576,
+          'totalBytes': -1,
+        });
+        await subscription.cancel();
+
+        expect(events.single.totalBytes, isNull);
+        expect(events.single.isComplete, isFalse);
+      });
+    });
   });
 }